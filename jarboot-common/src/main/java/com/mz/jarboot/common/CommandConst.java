@@ -30,6 +30,10 @@ public class CommandConst {
      * 命令完成消息
      */
     public static final char CMD_END_TYPE = 'F';
+    /**
+     * 告警消息
+     */
+    public static final char ALERT_TYPE = 'a';
 
     public static final char USER_COMMAND = 'u';
     public static final char INTERNAL_COMMAND = 'i';
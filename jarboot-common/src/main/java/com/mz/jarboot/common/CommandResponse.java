@@ -54,6 +54,9 @@ public class CommandResponse implements CmdProtocol {
             case CommandConst.CMD_END_TYPE:
                 this.setResponseType(ResponseType.COMMAND_END);
                 break;
+            case CommandConst.ALERT_TYPE:
+                this.setResponseType(ResponseType.ALERT);
+                break;
             default:
                 this.setResponseType(ResponseType.UNKNOWN);
                 break;
@@ -88,6 +91,8 @@ public class CommandResponse implements CmdProtocol {
                 return CommandConst.JSON_RESULT_TYPE;
             case COMMAND_END:
                 return CommandConst.CMD_END_TYPE;
+            case ALERT:
+                return CommandConst.ALERT_TYPE;
             default:
                 break;
         }
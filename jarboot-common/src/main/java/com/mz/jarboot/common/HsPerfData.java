@@ -0,0 +1,339 @@
+package com.mz.jarboot.common;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * 读取HotSpot的hsperfdata文件<br/>
+ * 文件为JVM共享出来的内存，格式为32字节的头部加若干计数器条目。以只读方式映射文件，
+ * 计数器的值每次直接从映射的内存读取，不复制文件；条目的名称等元数据只解析一次并缓存，
+ * 新增的条目在下次读取时增量解析。不需要attach目标进程。<br/>
+ * 进程号可能被复用，打开时记录文件的标识（inode或创建时间），可据此判断映射是否已过期；
+ * 不再使用时需调用{@link #close()}立即解除映射
+ * @author majianzheng
+ */
+public class HsPerfData implements Closeable {
+    private static final int MAGIC = 0xcafec0c0;
+    private static final int SUPPORTED_MAJOR_VERSION = 2;
+    private static final String DIR_PREFIX = "hsperfdata_";
+    private static final String FREQUENCY_NAME = "sun.os.hrt.frequency";
+    private static final int BYTE_ORDER_OFFSET = 4;
+    private static final int MAJOR_VERSION_OFFSET = 5;
+    private static final int ACCESSIBLE_OFFSET = 7;
+    private static final int ENTRY_OFFSET_OFFSET = 24;
+    private static final int NUM_ENTRIES_OFFSET = 28;
+    private static final byte TYPE_LONG = 'J';
+    private static final byte TYPE_BYTE = 'B';
+    private static final String[] UNITS = {"invalid", "none", "bytes", "ticks", "events", "string", "hertz"};
+    private static final String[] VARIABILITY = {"invalid", "constant", "monotonic", "variable"};
+
+    private final File file;
+    private final Object identity;
+    private final MappedByteBuffer buffer;
+    private boolean closed = false;
+    /** 已解析的条目 */
+    private final List<Entry> entries = new ArrayList<>();
+    /** 下一个待解析条目的位置 */
+    private int nextEntryOffset;
+    private long frequency = -1;
+
+    private HsPerfData(File file, Object identity, MappedByteBuffer buffer) {
+        this.file = file;
+        this.identity = identity;
+        this.buffer = buffer;
+        this.nextEntryOffset = buffer.getInt(ENTRY_OFFSET_OFFSET);
+    }
+
+    /**
+     * 打开指定进程的hsperfdata文件
+     * @param pid 进程id
+     * @return HsPerfData
+     * @throws IOException 文件不存在或格式不支持
+     */
+    public static HsPerfData open(long pid) throws IOException {
+        File file = findFile(pid);
+        if (null == file) {
+            throw new IOException("hsperfdata of process " + pid +
+                    " not found, the jvm may be started with -XX:-UsePerfData or -XX:+PerfDisableSharedMem.");
+        }
+        return open(file);
+    }
+
+    /**
+     * 打开hsperfdata文件
+     * @param file 文件
+     * @return HsPerfData
+     * @throws IOException 读取失败或格式不支持
+     */
+    public static HsPerfData open(File file) throws IOException {
+        final Object identity = identity(file);
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // 关闭文件后映射依然有效
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (buffer.capacity() < ENTRY_OFFSET_OFFSET + 8) {
+                throw new IOException("Invalid hsperfdata file: " + file);
+            }
+            buffer.order(ByteOrder.BIG_ENDIAN);
+            if (MAGIC != buffer.getInt(0)) {
+                throw new IOException("Invalid hsperfdata magic: " + file);
+            }
+            buffer.order(0 == buffer.get(BYTE_ORDER_OFFSET) ? ByteOrder.BIG_ENDIAN : ByteOrder.LITTLE_ENDIAN);
+            final int major = buffer.get(MAJOR_VERSION_OFFSET);
+            if (SUPPORTED_MAJOR_VERSION != major) {
+                throw new IOException("Unsupported hsperfdata version: " + major);
+            }
+        } catch (IOException e) {
+            unmap(buffer);
+            throw e;
+        }
+        return new HsPerfData(file, identity, buffer);
+    }
+
+    /**
+     * 文件的标识，优先使用inode等文件键，不支持时使用创建时间；进程号被复用时新进程的文件标识不同
+     * @param file 文件
+     * @return 标识
+     * @throws IOException 读取文件属性失败
+     */
+    private static Object identity(File file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+        final Object key = attributes.fileKey();
+        return null == key ? attributes.creationTime() : key;
+    }
+
+    /**
+     * 映射是否已过期，文件已删除或已被同一进程号的新进程的文件替换
+     * @return 是否过期
+     */
+    public boolean isStale() {
+        try {
+            return !identity.equals(identity(file));
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * 解除映射，之后读取计数器时返回空
+     */
+    @Override
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        entries.clear();
+        unmap(buffer);
+    }
+
+    /**
+     * 立即解除文件映射，不等待GC；JDK9及以上使用Unsafe.invokeCleaner，JDK8使用DirectBuffer的Cleaner
+     * @param buffer 映射的内存
+     */
+    private static void unmap(MappedByteBuffer buffer) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Method invokeCleaner;
+            try {
+                invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            } catch (NoSuchMethodException e) {
+                invokeCleaner = null;
+            }
+            if (null != invokeCleaner) {
+                Field field = unsafeClass.getDeclaredField("theUnsafe");
+                field.setAccessible(true);
+                invokeCleaner.invoke(field.get(null), buffer);
+                return;
+            }
+            Method cleanerMethod = buffer.getClass().getMethod("cleaner");
+            cleanerMethod.setAccessible(true);
+            Object cleaner = cleanerMethod.invoke(buffer);
+            if (null != cleaner) {
+                cleaner.getClass().getMethod("clean").invoke(cleaner);
+            }
+        } catch (Exception e) {
+            // 无法主动解除时由GC回收
+        }
+    }
+
+    /**
+     * 查找进程的hsperfdata文件，位于临时目录下的hsperfdata_用户名目录中
+     * @param pid 进程id
+     * @return 文件，未找到时返回null
+     */
+    public static File findFile(long pid) {
+        final String name = String.valueOf(pid);
+        Set<String> tmpDirs = new LinkedHashSet<>();
+        tmpDirs.add(System.getProperty("java.io.tmpdir"));
+        if (!OSUtils.isWindows()) {
+            // Linux下HotSpot固定使用/tmp
+            tmpDirs.add("/tmp");
+        }
+        for (String tmp : tmpDirs) {
+            if (null == tmp) {
+                continue;
+            }
+            File[] dirs = new File(tmp).listFiles(f -> f.isDirectory() && f.getName().startsWith(DIR_PREFIX));
+            if (null == dirs) {
+                continue;
+            }
+            for (File dir : dirs) {
+                File file = new File(dir, name);
+                if (file.isFile() && file.canRead()) {
+                    return file;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 读取计数器
+     * @param filter 名称过滤，为null时返回全部
+     * @return 计数器，按名称排序；目标JVM尚未初始化完成时为空
+     */
+    public synchronized List<PerfCounter> getCounters(Predicate<String> filter) {
+        if (closed || 0 == buffer.get(ACCESSIBLE_OFFSET)) {
+            return Collections.emptyList();
+        }
+        parseEntries();
+        List<PerfCounter> counters = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (null != filter && !filter.test(entry.name)) {
+                continue;
+            }
+            counters.add(new PerfCounter(entry.name, entry.units, entry.variability, value(entry)));
+        }
+        counters.sort(Comparator.comparing(PerfCounter::getName));
+        return counters;
+    }
+
+    /**
+     * 读取单个计数器的数值
+     * @param name 名称
+     * @return 值，不存在或非数值时返回-1
+     */
+    public synchronized long getLong(String name) {
+        if (closed) {
+            return -1;
+        }
+        parseEntries();
+        for (Entry entry : entries) {
+            if (entry.name.equals(name) && TYPE_LONG == entry.type && 0 == entry.vectorLength) {
+                return buffer.getLong(entry.dataOffset);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * 高精度时钟的频率，用于将ticks转为时间
+     * @return 每秒的ticks，未知时返回-1
+     */
+    public synchronized long getFrequency() {
+        if (frequency <= 0) {
+            frequency = getLong(FREQUENCY_NAME);
+        }
+        return frequency;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * 计算两次采样间的差值，写入后一次采样的计数器
+     * @param before 前一次采样
+     * @param after 后一次采样
+     */
+    public static void diff(List<PerfCounter> before, List<PerfCounter> after) {
+        Map<String, PerfCounter> map = new HashMap<>(before.size() * 2);
+        for (PerfCounter counter : before) {
+            map.put(counter.getName(), counter);
+        }
+        for (PerfCounter counter : after) {
+            PerfCounter last = map.get(counter.getName());
+            if (null != last && counter.getValue() instanceof Long && last.getValue() instanceof Long) {
+                counter.setDelta((Long) counter.getValue() - (Long) last.getValue());
+            }
+        }
+    }
+
+    private Object value(Entry entry) {
+        if (TYPE_LONG == entry.type && 0 == entry.vectorLength) {
+            return buffer.getLong(entry.dataOffset);
+        }
+        if (TYPE_BYTE == entry.type && entry.vectorLength > 0) {
+            // 字节数组以0结尾
+            return readString(entry.dataOffset, entry.dataOffset + entry.vectorLength);
+        }
+        return null;
+    }
+
+    private void parseEntries() {
+        final int numEntries = buffer.getInt(NUM_ENTRIES_OFFSET);
+        final int limit = buffer.capacity();
+        while (entries.size() < numEntries && nextEntryOffset + 20 <= limit) {
+            final int start = nextEntryOffset;
+            final int entryLength = buffer.getInt(start);
+            if (entryLength <= 0 || start + entryLength > limit) {
+                break;
+            }
+            Entry entry = new Entry();
+            entry.name = readString(start + buffer.getInt(start + 4), start + entryLength);
+            entry.vectorLength = buffer.getInt(start + 8);
+            entry.type = buffer.get(start + 12);
+            entry.units = name(UNITS, buffer.get(start + 14));
+            entry.variability = name(VARIABILITY, buffer.get(start + 15));
+            entry.dataOffset = start + buffer.getInt(start + 16);
+            entries.add(entry);
+            nextEntryOffset = start + entryLength;
+        }
+    }
+
+    private String readString(int from, int to) {
+        final int end = Math.min(to, buffer.capacity());
+        int length = 0;
+        while (from + length < end && 0 != buffer.get(from + length)) {
+            ++length;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; ++i) {
+            bytes[i] = buffer.get(from + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String name(String[] names, int index) {
+        return index > 0 && index < names.length ? names[index] : names[0];
+    }
+
+    /**
+     * 计数器条目的元数据
+     */
+    private static final class Entry {
+        private String name;
+        private int vectorLength;
+        private byte type;
+        private String units;
+        private String variability;
+        private int dataOffset;
+    }
+}
@@ -52,5 +52,14 @@ public class JsonUtils {
         }
     }
 
+    /**
+     * 对象转为{@link JsonNode}
+     * @param obj 对象
+     * @return JsonNode
+     */
+    public static JsonNode toJsonNode(Object obj) {
+        return MAPPER.valueToTree(obj);
+    }
+
     private JsonUtils() {}
 }
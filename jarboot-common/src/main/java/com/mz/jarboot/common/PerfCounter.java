@@ -0,0 +1,74 @@
+package com.mz.jarboot.common;
+
+/**
+ * HotSpot性能计数器
+ * @author majianzheng
+ */
+public class PerfCounter {
+    /** 计数器名称，如sun.rt.safepoints */
+    private String name;
+    /** 单位：none、bytes、ticks、events、string、hertz */
+    private String units;
+    /** 变化性：constant、monotonic、variable */
+    private String variability;
+    /** 值，Long或String */
+    private Object value;
+    /** 与上次采样的差值，非数值或首次采样时为null */
+    private Long delta;
+
+    public PerfCounter() {
+        //do nothing
+    }
+
+    public PerfCounter(String name, String units, String variability, Object value) {
+        this.name = name;
+        this.units = units;
+        this.variability = variability;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getUnits() {
+        return units;
+    }
+
+    public void setUnits(String units) {
+        this.units = units;
+    }
+
+    public String getVariability() {
+        return variability;
+    }
+
+    public void setVariability(String variability) {
+        this.variability = variability;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public Long getDelta() {
+        return delta;
+    }
+
+    public void setDelta(Long delta) {
+        this.delta = delta;
+    }
+
+    @Override
+    public String toString() {
+        return name + "=" + value;
+    }
+}
@@ -25,6 +25,10 @@ public enum ResponseType {
      * 执行执行完成
      */
     COMMAND_END,
+    /**
+     * 后台检测到的告警，如死锁、卡住的线程
+     */
+    ALERT,
     /**
      * 非法的未知类型
      */
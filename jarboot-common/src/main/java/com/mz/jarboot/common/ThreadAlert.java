@@ -0,0 +1,69 @@
+package com.mz.jarboot.common;
+
+/**
+ * 线程告警，由目标进程的后台检测发出，jarboot-server按服务记录
+ * @author majianzheng
+ */
+public class ThreadAlert {
+    /** 死锁 */
+    public static final String DEADLOCK = "DEADLOCK";
+    /** 调用栈长时间未变化的线程 */
+    public static final String STUCK = "STUCK";
+
+    /** 类型：DEADLOCK、STUCK */
+    private String type;
+    /** 发现的时间 */
+    private long timestamp;
+    /** 一行摘要 */
+    private String summary;
+    /** 详细信息，包含死锁的环路与相关线程的完整调用栈 */
+    private String detail;
+
+    public ThreadAlert() {
+        //do nothing
+    }
+
+    public ThreadAlert(String type, String summary, String detail) {
+        this.type = type;
+        this.timestamp = System.currentTimeMillis();
+        this.summary = summary;
+        this.detail = detail;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(long timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public String getSummary() {
+        return summary;
+    }
+
+    public void setSummary(String summary) {
+        this.summary = summary;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+
+    public void setDetail(String detail) {
+        this.detail = detail;
+    }
+
+    @Override
+    public String toString() {
+        return type + ": " + summary;
+    }
+}
@@ -36,6 +36,13 @@ public class CommandResponseTest {
         assertEquals("body xxx data", response.getBody());
         assertFalse(response.getSuccess());
 
+        response = new CommandResponse();
+        response.fromRaw("a1-{\"type\":\"DEADLOCK\"} common");
+        assertEquals(ResponseType.ALERT, response.getResponseType());
+        assertEquals(CommandConst.SESSION_COMMON, response.getSessionId());
+        assertEquals("{\"type\":\"DEADLOCK\"}", response.getBody());
+        assertTrue(response.getSuccess());
+
         //协议错误
         response = new CommandResponse();
         response.fromRaw("x1234watch");
@@ -0,0 +1,70 @@
+package com.mz.jarboot.common;
+
+import org.junit.Assert;
+import org.junit.Assume;
+import org.junit.Test;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+public class HsPerfDataTest {
+    @Test
+    public void testReadCounters() throws Exception {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        long pid = Long.parseLong(name.substring(0, name.indexOf('@')));
+        File file = HsPerfData.findFile(pid);
+        // 以-XX:-UsePerfData启动时没有该文件
+        Assume.assumeNotNull(file);
+
+        HsPerfData perfData = HsPerfData.open(pid);
+        Assert.assertTrue(perfData.getFrequency() > 0);
+        List<PerfCounter> all = perfData.getCounters(null);
+        Assert.assertTrue(all.size() > 10);
+
+        List<PerfCounter> classes = perfData.getCounters(n -> n.startsWith("java.cls."));
+        Assert.assertFalse(classes.isEmpty());
+        for (PerfCounter counter : classes) {
+            Assert.assertTrue(counter.getName().startsWith("java.cls."));
+        }
+        List<PerfCounter> version = perfData.getCounters("java.property.java.version"::equals);
+        Assert.assertEquals(1, version.size());
+        Assert.assertEquals(System.getProperty("java.version"), version.get(0).getValue());
+        Assert.assertEquals("string", version.get(0).getUnits());
+
+        List<PerfCounter> before = perfData.getCounters(null);
+        for (int i = 0; i < 100; ++i) {
+            Class.forName("com.mz.jarboot.common.HsPerfDataTest$Loaded" + (i % 2 == 0 ? "A" : "B"));
+        }
+        List<PerfCounter> after = perfData.getCounters(null);
+        HsPerfData.diff(before, after);
+        for (PerfCounter counter : after) {
+            if ("monotonic".equals(counter.getVariability()) && counter.getValue() instanceof Long) {
+                Assert.assertNotNull(counter.getDelta());
+                Assert.assertTrue(counter.getDelta() >= 0);
+            }
+        }
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        String name = ManagementFactory.getRuntimeMXBean().getName();
+        long pid = Long.parseLong(name.substring(0, name.indexOf('@')));
+        Assume.assumeNotNull(HsPerfData.findFile(pid));
+
+        HsPerfData perfData = HsPerfData.open(pid);
+        Assert.assertFalse(perfData.isStale());
+        Assert.assertFalse(perfData.getCounters(null).isEmpty());
+        perfData.close();
+        // 解除映射后不再读取内存
+        Assert.assertTrue(perfData.getCounters(null).isEmpty());
+        Assert.assertEquals(-1, perfData.getLong("sun.os.hrt.frequency"));
+        perfData.close();
+    }
+
+    static class LoadedA {
+    }
+
+    static class LoadedB {
+    }
+}
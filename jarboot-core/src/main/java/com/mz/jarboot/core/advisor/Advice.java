@@ -92,6 +92,25 @@ public class Advice {
         isReturn = (access & AccessPoint.ACCESS_AFTER_RETUNING.getValue()) == AccessPoint.ACCESS_AFTER_RETUNING.getValue();
     }
 
+    /**
+     * 在业务线程中生成交给工作线程处理的快照，复制参数数组，返回值与异常在创建时已记录
+     * @return 快照
+     */
+    public Advice snapshot() {
+        int access = 0;
+        if (isBefore) {
+            access |= AccessPoint.ACCESS_BEFORE.getValue();
+        }
+        if (isReturn) {
+            access |= AccessPoint.ACCESS_AFTER_RETUNING.getValue();
+        }
+        if (isThrow) {
+            access |= AccessPoint.ACCESS_AFTER_THROWING.getValue();
+        }
+        return new Advice(loader, clazz, method, target, null == params ? null : params.clone(), returnObj,
+                throwExp, access);
+    }
+
     public static Advice newForBefore(ClassLoader loader,
                                       Class<?> clazz,
                                       JarbootMethod method,
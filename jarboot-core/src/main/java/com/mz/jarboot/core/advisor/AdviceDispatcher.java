@@ -0,0 +1,94 @@
+package com.mz.jarboot.core.advisor;
+
+import com.mz.jarboot.common.JarbootThreadFactory;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.MpscRingBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 通知的异步处理管道<br/>
+ * 业务线程只捕获通知的快照并放入有界队列，条件表达式计算、结果渲染与发送都在专用的工作线程中执行；
+ * 队列满时丢弃并计数，从不阻塞业务线程
+ * @author majianzheng
+ */
+public class AdviceDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final int CAPACITY = Integer.getInteger("jarboot.advice.queue.size", 8192);
+    private static final long MAX_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final MpscRingBuffer<Runnable> QUEUE = new MpscRingBuffer<>(CAPACITY);
+    private static final AtomicLong DROPPED = new AtomicLong();
+    private static volatile Thread worker;
+    private static volatile boolean sleeping = false;
+
+    /**
+     * 提交通知处理任务，可在业务线程中调用
+     * @param task 任务
+     * @return 队列满被丢弃时返回false
+     */
+    public static boolean dispatch(Runnable task) {
+        if (!QUEUE.offer(task)) {
+            DROPPED.incrementAndGet();
+            return false;
+        }
+        final Thread t = worker;
+        if (null == t) {
+            start();
+        } else if (sleeping) {
+            LockSupport.unpark(t);
+        }
+        return true;
+    }
+
+    /**
+     * 累计丢弃的任务数
+     * @return 丢弃数
+     */
+    public static long getDropped() {
+        return DROPPED.get();
+    }
+
+    /**
+     * 队列中待处理的任务数
+     * @return 任务数
+     */
+    public static int getPending() {
+        return QUEUE.size();
+    }
+
+    private static synchronized void start() {
+        if (null != worker) {
+            return;
+        }
+        Thread t = JarbootThreadFactory.createThreadFactory("jarboot-advice", true)
+                .newThread(AdviceDispatcher::work);
+        worker = t;
+        t.start();
+    }
+
+    private static void work() {
+        for (;;) {
+            Runnable task = QUEUE.poll();
+            if (null == task) {
+                sleeping = true;
+                // 再次检查，避免与生产者的唤醒错过
+                if (QUEUE.isEmpty()) {
+                    LockSupport.parkNanos(MAX_PARK_NANOS);
+                }
+                sleeping = false;
+                continue;
+            }
+            try {
+                task.run();
+            } catch (Throwable e) {
+                logger.error("advice task failed.", e);
+            }
+        }
+    }
+
+    private AdviceDispatcher() {}
+}
@@ -1,5 +1,8 @@
 package com.mz.jarboot.core.advisor;
 
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.express.CompiledExpress;
+import com.mz.jarboot.core.cmd.express.ExpressCompiler;
 import com.mz.jarboot.core.cmd.express.ExpressException;
 import com.mz.jarboot.core.cmd.express.ExpressFactory;
 import com.mz.jarboot.core.constant.CoreConstant;
@@ -20,6 +23,11 @@ public abstract class AdviceListenerAdapter implements AdviceListener, JobAware
     private long id = ID_GENERATOR.addAndGet(1);
 
     private boolean verbose;
+    private AdviceSampler sampler;
+    /** 因队列满被丢弃的通知数 */
+    private final AtomicLong dropped = new AtomicLong();
+    /** 已提示过的丢弃数，仅在工作线程中访问 */
+    private long reportedDropped = 0;
 
     @Override
     public long id() {
@@ -57,23 +65,30 @@ public abstract class AdviceListenerAdapter implements AdviceListener, JobAware
     }
 
     @Override
-    final public void before(Class<?> clazz, String methodName, String methodDesc, Object target, Object[] args)
+    final public void before(Class<?> clazz, JarbootMethod method, Object target, Object[] args)
             throws Throwable {
-        before(clazz.getClassLoader(), clazz, new JarbootMethod(clazz, methodName, methodDesc), target, args);
+        if (null != sampler && !sampler.enter()) {
+            return;
+        }
+        before(clazz.getClassLoader(), clazz, method, target, args);
     }
 
     @Override
-    final public void afterReturning(Class<?> clazz, String methodName, String methodDesc, Object target, Object[] args,
+    final public void afterReturning(Class<?> clazz, JarbootMethod method, Object target, Object[] args,
             Object returnObject) throws Throwable {
-        afterReturning(clazz.getClassLoader(), clazz, new JarbootMethod(clazz, methodName, methodDesc), target, args,
-                returnObject);
+        if (null != sampler && !sampler.exit()) {
+            return;
+        }
+        afterReturning(clazz.getClassLoader(), clazz, method, target, args, returnObject);
     }
 
     @Override
-    final public void afterThrowing(Class<?> clazz, String methodName, String methodDesc, Object target, Object[] args,
+    final public void afterThrowing(Class<?> clazz, JarbootMethod method, Object target, Object[] args,
             Throwable throwable) throws Throwable {
-        afterThrowing(clazz.getClassLoader(), clazz, new JarbootMethod(clazz, methodName, methodDesc), target, args,
-                throwable);
+        if (null != sampler && !sampler.exit()) {
+            return;
+        }
+        afterThrowing(clazz.getClassLoader(), clazz, method, target, args, throwable);
     }
 
     /**
@@ -134,6 +149,74 @@ public abstract class AdviceListenerAdapter implements AdviceListener, JobAware
         return ExpressFactory.threadLocalExpress(advice).bind(CoreConstant.COST_VARIABLE, cost).get(express);
     }
 
+    /**
+     * 判断预编译的条件是否满足
+     *
+     * @param conditionExpress 预编译的条件表达式，为null时总是满足
+     * @param advice           当前的advice对象
+     * @param cost             本次执行的耗时
+     * @return true 如果条件表达式满足
+     */
+    protected boolean isConditionMet(CompiledExpress conditionExpress, Advice advice, double cost)
+            throws ExpressException {
+        return null == conditionExpress || conditionExpress.is(advice, cost);
+    }
+
+    protected Object getExpressionResult(CompiledExpress express, Advice advice, double cost)
+            throws ExpressException {
+        return null == express ? null : express.get(advice, cost);
+    }
+
+    /**
+     * 命令启动时编译表达式
+     *
+     * @param express 表达式
+     * @return 表达式为空时返回null
+     * @throws IllegalArgumentException 表达式语法错误
+     */
+    protected static CompiledExpress compileExpress(String express) {
+        try {
+            return ExpressCompiler.compile(express);
+        } catch (ExpressException e) {
+            Throwable cause = null == e.getCause() ? e : e.getCause();
+            throw new IllegalArgumentException("Invalid express: " + express + ", " + cause.getMessage(), e);
+        }
+    }
+
+    /**
+     * 将通知的后续处理交给工作线程，业务线程只需捕获快照，队列满时丢弃并计数
+     *
+     * @param task 在工作线程中执行的任务
+     */
+    protected void dispatch(Runnable task) {
+        if (!AdviceDispatcher.dispatch(task)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /**
+     * 在工作线程中检查任务是否仍需执行，并提示新增的丢弃数
+     *
+     * @param process 命令会话
+     * @return 命令已结束时返回false
+     */
+    protected boolean prepareAsync(CommandSession process) {
+        if (EnvironmentContext.checkJobEnd(getSessionId(), getJobId())) {
+            return false;
+        }
+        final long count = dropped.get();
+        if (count > reportedDropped) {
+            process.console("Advice queue is full, " + (count - reportedDropped) + " invocations dropped, " +
+                    count + " in total. You can reduce them with --sample or --max-rate option.\n");
+            reportedDropped = count;
+        }
+        return true;
+    }
+
+    public long getDropped() {
+        return dropped.get();
+    }
+
     /**
      * 是否超过了上限，超过之后，停止输出
      * 
@@ -157,6 +240,23 @@ public abstract class AdviceListenerAdapter implements AdviceListener, JobAware
         process.end();
     }
 
+    /**
+     * 当前线程是否处于被观测的调用中，用于方法内部调用的通知
+     *
+     * @return 未设置采样与限流时总是返回true
+     */
+    protected boolean isSampled() {
+        return null == sampler || sampler.isSampled();
+    }
+
+    public AdviceSampler getSampler() {
+        return sampler;
+    }
+
+    public void setSampler(AdviceSampler sampler) {
+        this.sampler = sampler;
+    }
+
     public boolean isVerbose() {
         return verbose;
     }
@@ -1,191 +1,201 @@
 package com.mz.jarboot.core.advisor;
 
-import com.mz.jarboot.common.ConcurrentWeakKeyHashMap;
-import com.mz.jarboot.core.basic.EnvironmentContext;
-import com.mz.jarboot.core.constant.CoreConstant;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.List;
-import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 
 /**
+ * 通知监听器注册表<br/>
+ * 每个位置保存一个不可变的监听器数组快照，业务线程只需一次volatile读即可获取监听器，
+ * 注册与注销时通过CAS发布新的数组，监听器在会话结束时注销
  * @author majianzheng
  * 以下代码来自开源项目Arthas，进行了较大的修改
  */
 public class AdviceListenerManager { //NOSONAR
-    /** 日志 */
-    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
-    private static final FakeBootstrapClassLoader FAKEBOOTSTRAPCLASSLOADER = new FakeBootstrapClassLoader();
+    private static final AdviceListener[] EMPTY_LISTENERS = new AdviceListener[0];
 
-    static {
-        init();
-    }
+    /** 方法id -> 监听器，方法id由{@link MethodRegistry}分配 */
+    private static final ListenerTable METHOD_LISTENERS = new ListenerTable();
 
-    private static void init() {
-        // 清理失效的 AdviceListener
-        EnvironmentContext.getScheduledExecutorService()
-                .scheduleWithFixedDelay(AdviceListenerManager::cleanOutDateListener,
-                        5, 5, TimeUnit.SECONDS);
-    }
+    /** 调用点id -> trace监听器，调用点id由{@link MethodRegistry}分配 */
+    private static final ListenerTable TRACE_LISTENERS = new ListenerTable();
 
-    private static void cleanOutDateListener() { //NOSONAR
-        try {
-            if (ADVICE_LISTENER_MAP != null) {
-                for (Map.Entry<ClassLoader, ClassLoaderAdviceListenerManager> entry : ADVICE_LISTENER_MAP.entrySet()) {
-                    ClassLoaderAdviceListenerManager adviceListenerManager = entry.getValue();
-                    synchronized (adviceListenerManager) {
-                        for (Map.Entry<String, List<AdviceListener>> eee : adviceListenerManager.map.entrySet()) {
-                            List<AdviceListener> listeners = eee.getValue();
-                            List<AdviceListener> newResult = new ArrayList<>();
-                            for (AdviceListener listener : listeners) {
-                                if (listener instanceof JobAware) {
-                                    JobAware job = (JobAware) listener;
-                                    if (EnvironmentContext.checkJobEnd(job.getSessionId(), job.getJobId())) {
-                                        continue;
-                                    }
-                                    newResult.add(listener);
-                                }
-                            }
-
-                            if (newResult.size() != listeners.size()) {
-                                adviceListenerManager.map.put(eee.getKey(), newResult);
-                            }
-
-                        }
-                    }
-                }
-            }
-        } catch (Throwable e) { //NOSONAR
-            logger.error("clean AdviceListener error", e);
-        }
-    }
+    /** 监听器 -> 已注册的位置，注销时据此移除 */
+    private static final ConcurrentHashMap<AdviceListener, Queue<ListenerSlot>> REGISTERED_SLOTS =
+            new ConcurrentHashMap<>();
 
-    private static final ConcurrentWeakKeyHashMap<ClassLoader, ClassLoaderAdviceListenerManager> ADVICE_LISTENER_MAP =
-            new ConcurrentWeakKeyHashMap<>();
+    /** 已注销的监听器，弱引用不影响回收；注册与注销并发时，注册在发布位置后据此撤销 */
+    private static final Set<AdviceListener> CLOSED_LISTENERS =
+            Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
 
-    static class ClassLoaderAdviceListenerManager {
-        private ConcurrentHashMap<String, List<AdviceListener>> map = new ConcurrentHashMap<>();
+    /**
+     * 注册方法进入、退出的监听器
+     * @param methodId 方法id
+     * @param listener 监听器
+     */
+    public static void registerAdviceListener(int methodId, AdviceListener listener) {
+        register(METHOD_LISTENERS.slot(methodId), listener);
+    }
 
-        private String key(String className, String methodName, String methodDesc) {
-            return className + methodName + methodDesc;
-        }
+    /**
+     * 查询方法进入、退出的监听器
+     * @param methodId 方法id
+     * @return 监听器快照，不可修改
+     */
+    public static AdviceListener[] queryAdviceListeners(int methodId) {
+        return METHOD_LISTENERS.get(methodId);
+    }
 
-        private String keyForTrace(String className, String owner, String methodName, String methodDesc) {
-            return className + owner + methodName + methodDesc;
-        }
+    /**
+     * 注册trace调用点的监听器
+     * @param siteId 调用点id
+     * @param listener 监听器
+     */
+    public static void registerTraceAdviceListener(int siteId, AdviceListener listener) {
+        register(TRACE_LISTENERS.slot(siteId), listener);
+    }
 
-        public void registerAdviceListener(String className, String methodName, String methodDesc,
-                AdviceListener listener) {
-            synchronized (this) {
-                className = className.replace('/', '.');
-                String key = key(className, methodName, methodDesc);
+    /**
+     * 查询trace调用点的监听器
+     * @param siteId 调用点id
+     * @return 监听器快照，不可修改
+     */
+    public static AdviceListener[] queryTraceAdviceListeners(int siteId) {
+        return TRACE_LISTENERS.get(siteId);
+    }
 
-                List<AdviceListener> listeners = map.getOrDefault(key, null);
-                if (listeners == null) {
-                    listeners = new ArrayList<>();
-                    map.put(key, listeners);
-                }
-                if (!listeners.contains(listener)) {
-                    listeners.add(listener);
-                }
-            }
+    /**
+     * 注销监听器，从所有注册过的位置移除
+     * @param listener 监听器
+     */
+    public static void unregisterAdviceListener(AdviceListener listener) {
+        // 先标记关闭，之后发布的位置由注册方自行撤销
+        CLOSED_LISTENERS.add(listener);
+        Queue<ListenerSlot> slots = REGISTERED_SLOTS.remove(listener);
+        if (null == slots) {
+            return;
         }
-
-        public List<AdviceListener> queryAdviceListeners(String className, String methodName, String methodDesc) {
-            className = className.replace('/', '.');
-            String key = key(className, methodName, methodDesc);
-            return map.get(key);
+        for (ListenerSlot slot : slots) {
+            slot.remove(listener);
         }
+    }
 
-        public void registerTraceAdviceListener(String className, String owner, String methodName, String methodDesc,
-                AdviceListener listener) {
-
-            className = className.replace('/', '.');
-            String key = keyForTrace(className, owner, methodName, methodDesc);
-            List<AdviceListener> listeners = map.getOrDefault(key, null);
-            if (listeners == null) {
-                listeners = new ArrayList<>();
-                map.put(key, listeners);
-            }
-            if (!listeners.contains(listener)) {
-                listeners.add(listener);
-            }
+    private static void register(ListenerSlot slot, AdviceListener listener) {
+        if (!slot.add(listener)) {
+            return;
         }
-
-        public List<AdviceListener> queryTraceAdviceListeners(String className, String owner, String methodName,
-                String methodDesc) {
-            className = className.replace('/', '.');
-            String key = keyForTrace(className, owner, methodName, methodDesc);
-            return map.get(key);
+        REGISTERED_SLOTS.computeIfAbsent(listener, k -> new ConcurrentLinkedQueue<>()).add(slot);
+        // 发布位置后再检查，并发的注销可能已遍历过该位置
+        if (CLOSED_LISTENERS.contains(listener)) {
+            slot.remove(listener);
+            REGISTERED_SLOTS.remove(listener);
         }
     }
 
-    public static void registerAdviceListener(ClassLoader classLoader, String className, String methodName,
-            String methodDesc, AdviceListener listener) {
-        classLoader = wrap(classLoader);
-        className = className.replace('/', '.');
-
-        ClassLoaderAdviceListenerManager manager = ADVICE_LISTENER_MAP.getOrDefault(classLoader, null);
+    /**
+     * 一个位置上的监听器，读取无锁，修改时复制数组并CAS发布
+     */
+    static final class ListenerSlot {
+        private static final AtomicReferenceFieldUpdater<ListenerSlot, AdviceListener[]> UPDATER =
+                AtomicReferenceFieldUpdater.newUpdater(ListenerSlot.class, AdviceListener[].class, "listeners");
+        private volatile AdviceListener[] listeners = EMPTY_LISTENERS;
 
-        if (manager == null) {
-            manager = new ClassLoaderAdviceListenerManager();
-            ADVICE_LISTENER_MAP.put(classLoader, manager);
+        AdviceListener[] get() {
+            return listeners;
         }
-        manager.registerAdviceListener(className, methodName, methodDesc, listener);
-    }
 
-    public static List<AdviceListener> queryAdviceListeners(ClassLoader classLoader, String className,
-            String methodName, String methodDesc) {
-        classLoader = wrap(classLoader);
-        className = className.replace('/', '.');
-        ClassLoaderAdviceListenerManager manager = ADVICE_LISTENER_MAP.get(classLoader);
-
-        if (manager != null) {
-            return manager.queryAdviceListeners(className, methodName, methodDesc);
+        boolean add(AdviceListener listener) {
+            for (;;) {
+                final AdviceListener[] current = listeners;
+                final AdviceListener[] old = null == current ? EMPTY_LISTENERS : current;
+                for (AdviceListener l : old) {
+                    if (l == listener) {
+                        return false;
+                    }
+                }
+                AdviceListener[] update = Arrays.copyOf(old, old.length + 1);
+                update[old.length] = listener;
+                if (UPDATER.compareAndSet(this, current, update)) {
+                    return true;
+                }
+            }
         }
 
-        return Collections.emptyList();
-    }
-
-    public static void registerTraceAdviceListener(ClassLoader classLoader, String className, String owner,
-            String methodName, String methodDesc, AdviceListener listener) {
-        classLoader = wrap(classLoader);
-        className = className.replace('/', '.');
-
-        ClassLoaderAdviceListenerManager manager = ADVICE_LISTENER_MAP.getOrDefault(classLoader, null);
-
-        if (manager == null) {
-            manager = new ClassLoaderAdviceListenerManager();
-            ADVICE_LISTENER_MAP.put(classLoader, manager);
+        void remove(AdviceListener listener) {
+            for (;;) {
+                final AdviceListener[] current = listeners;
+                if (null == current) {
+                    return;
+                }
+                int index = -1;
+                for (int i = 0; i < current.length; ++i) {
+                    if (current[i] == listener) {
+                        index = i;
+                        break;
+                    }
+                }
+                if (index < 0) {
+                    return;
+                }
+                AdviceListener[] update;
+                if (1 == current.length) {
+                    update = EMPTY_LISTENERS;
+                } else {
+                    update = new AdviceListener[current.length - 1];
+                    System.arraycopy(current, 0, update, 0, index);
+                    System.arraycopy(current, index + 1, update, index, current.length - index - 1);
+                }
+                if (UPDATER.compareAndSet(this, current, update)) {
+                    return;
+                }
+            }
         }
-        manager.registerTraceAdviceListener(className, owner, methodName, methodDesc, listener);
     }
 
-    public static List<AdviceListener> queryTraceAdviceListeners(ClassLoader classLoader, String className,
-            String owner, String methodName, String methodDesc) {
-        classLoader = wrap(classLoader);
-        className = className.replace('/', '.');
-        ClassLoaderAdviceListenerManager manager = ADVICE_LISTENER_MAP.get(classLoader);
+    /**
+     * 以int id索引的监听器表，仅扩容时加锁，扩容只复制位置的引用，不影响位置上的CAS
+     */
+    static final class ListenerTable {
+        private volatile ListenerSlot[] slots = new ListenerSlot[256];
 
-        if (manager != null) {
-            return manager.queryTraceAdviceListeners(className, owner, methodName, methodDesc);
+        ListenerSlot slot(int id) {
+            ListenerSlot[] table = slots;
+            if (id < table.length && null != table[id]) {
+                return table[id];
+            }
+            synchronized (this) {
+                table = slots;
+                if (id >= table.length) {
+                    int length = table.length;
+                    while (id >= length) {
+                        length <<= 1;
+                    }
+                    table = Arrays.copyOf(table, length);
+                }
+                ListenerSlot slot = table[id];
+                if (null == slot) {
+                    slot = new ListenerSlot();
+                    table[id] = slot;
+                }
+                slots = table;
+                return slot;
+            }
         }
-        return Collections.emptyList();
-    }
 
-    private static ClassLoader wrap(ClassLoader classLoader) {
-        if (classLoader != null) {
-            return classLoader;
+        AdviceListener[] get(int id) {
+            final ListenerSlot[] table = slots;
+            if (id < 0 || id >= table.length) {
+                return null;
+            }
+            final ListenerSlot slot = table[id];
+            return null == slot ? null : slot.get();
         }
-        return FAKEBOOTSTRAPCLASSLOADER;
     }
 
-    private static class FakeBootstrapClassLoader extends ClassLoader {
-
-    }
+    private AdviceListenerManager() {}
 }
@@ -0,0 +1,183 @@
+package com.mz.jarboot.core.advisor;
+
+import com.mz.jarboot.core.utils.StringUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 通知采样与限流<br/>
+ * 在方法最外层进入时决定本次调用是否被观测，同一次调用的退出、内部调用及递归调用沿用该结果；
+ * 采样使用线程内计数，限流使用无锁的令牌桶，未被选中的调用不会创建Advice、表达式上下文及计时
+ * @author majianzheng
+ */
+public class AdviceSampler {
+    private static final String SEPARATOR = "/";
+
+    /** 每N次调用采样1次，小于等于1时不采样 */
+    private final int sampleInterval;
+    /** 两次放行之间的最小间隔，小于等于0时不限流 */
+    private final long intervalNanos;
+    /** 下一次允许放行的时间 */
+    private final AtomicLong nextPermit = new AtomicLong(Long.MIN_VALUE);
+
+    private final ThreadLocal<State> state = ThreadLocal.withInitial(State::new);
+
+    public AdviceSampler(int sampleInterval, long intervalNanos) {
+        this.sampleInterval = sampleInterval;
+        this.intervalNanos = intervalNanos;
+    }
+
+    /**
+     * 根据命令参数创建
+     * @param sample 采样率，例如：1/1000 或 1000
+     * @param maxRate 最大速率，例如：20/s、600/m，单位默认为秒
+     * @return 都未设置时返回null
+     */
+    public static AdviceSampler create(String sample, String maxRate) {
+        int sampleInterval = parseSample(sample);
+        long intervalNanos = parseMaxRate(maxRate);
+        if (sampleInterval <= 1 && intervalNanos <= 0) {
+            return null;
+        }
+        return new AdviceSampler(sampleInterval, intervalNanos);
+    }
+
+    /**
+     * 方法进入，最外层进入时决定是否观测
+     * @return 是否观测本次调用
+     */
+    public boolean enter() {
+        final State s = state.get();
+        if (0 == s.depth++) {
+            s.sampled = isSampleHit(s) && tryAcquire();
+        }
+        return s.sampled;
+    }
+
+    /**
+     * 方法退出
+     * @return 是否观测本次调用
+     */
+    public boolean exit() {
+        final State s = state.get();
+        if (s.depth <= 0) {
+            // 监听器注册前已进入的调用
+            return false;
+        }
+        --s.depth;
+        return s.sampled;
+    }
+
+    /**
+     * 当前线程是否处于被观测的调用中
+     * @return 是否观测
+     */
+    public boolean isSampled() {
+        final State s = state.get();
+        return s.depth > 0 && s.sampled;
+    }
+
+    public int getSampleInterval() {
+        return sampleInterval;
+    }
+
+    public long getIntervalNanos() {
+        return intervalNanos;
+    }
+
+    private boolean isSampleHit(State s) {
+        if (sampleInterval <= 1) {
+            return true;
+        }
+        if (++s.counter >= sampleInterval) {
+            s.counter = 0;
+            return true;
+        }
+        return false;
+    }
+
+    private boolean tryAcquire() {
+        if (intervalNanos <= 0) {
+            return true;
+        }
+        final long now = System.nanoTime();
+        final long next = nextPermit.get();
+        if (Long.MIN_VALUE != next && now - next < 0) {
+            return false;
+        }
+        // 竞争失败说明其他线程刚刚获取了令牌
+        return nextPermit.compareAndSet(next, now + intervalNanos);
+    }
+
+    private static int parseSample(String sample) {
+        if (StringUtils.isBlank(sample)) {
+            return 0;
+        }
+        String value = sample.trim();
+        int index = value.indexOf(SEPARATOR);
+        try {
+            if (index < 0) {
+                return checkPositive(Integer.parseInt(value), sample);
+            }
+            int hit = checkPositive(Integer.parseInt(value.substring(0, index).trim()), sample);
+            int total = checkPositive(Integer.parseInt(value.substring(index + 1).trim()), sample);
+            return Math.max(1, total / hit);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid sample: " + sample + ", example: 1/1000");
+        }
+    }
+
+    private static long parseMaxRate(String maxRate) {
+        if (StringUtils.isBlank(maxRate)) {
+            return 0;
+        }
+        String value = maxRate.trim();
+        TimeUnit unit = TimeUnit.SECONDS;
+        int index = value.indexOf(SEPARATOR);
+        if (index >= 0) {
+            unit = parseUnit(value.substring(index + 1).trim(), maxRate);
+            value = value.substring(0, index).trim();
+        }
+        try {
+            int permits = checkPositive(Integer.parseInt(value), maxRate);
+            return Math.max(1L, unit.toNanos(1) / permits);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid max rate: " + maxRate + ", example: 20/s");
+        }
+    }
+
+    private static TimeUnit parseUnit(String unit, String maxRate) {
+        switch (unit) {
+            case "ms":
+                return TimeUnit.MILLISECONDS;
+            case "s":
+                return TimeUnit.SECONDS;
+            case "m":
+                return TimeUnit.MINUTES;
+            case "h":
+                return TimeUnit.HOURS;
+            default:
+                throw new IllegalArgumentException("Invalid max rate: " + maxRate + ", unit should be ms, s, m or h");
+        }
+    }
+
+    private static int checkPositive(int value, String arg) {
+        if (value <= 0) {
+            throw new IllegalArgumentException("Invalid argument: " + arg + ", should be positive.");
+        }
+        return value;
+    }
+
+    /**
+     * 线程内的采样状态
+     */
+    private static final class State {
+        /** 被观测方法的嵌套深度 */
+        private int depth;
+        /** 最外层调用是否被选中 */
+        private boolean sampled;
+        /** 采样计数 */
+        private int counter;
+    }
+}
@@ -42,6 +42,7 @@ public class AdviceWeaver {
         if (null != listener) {
             // 注销监听器
             ADVICES.remove(listener.id());
+            AdviceListenerManager.unregisterAdviceListener(listener);
 
             // 触发监听器销毁
             listener.destroy();
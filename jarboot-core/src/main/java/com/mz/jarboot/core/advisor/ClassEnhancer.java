@@ -19,20 +19,24 @@ import com.alibaba.deps.org.objectweb.asm.tree.AbstractInsnNode;
 import com.alibaba.deps.org.objectweb.asm.tree.ClassNode;
 import com.alibaba.deps.org.objectweb.asm.tree.MethodInsnNode;
 import com.alibaba.deps.org.objectweb.asm.tree.MethodNode;
+import com.mz.jarboot.common.JarbootThreadFactory;
 import com.mz.jarboot.core.GlobalOptions;
 import com.mz.jarboot.core.basic.EnvironmentContext;
 import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
 import com.mz.jarboot.core.utils.JarbootCheckUtils;
 import com.mz.jarboot.core.utils.ObjectUtils;
 import com.mz.jarboot.core.utils.SearchUtils;
 import com.mz.jarboot.core.utils.affect.EnhancerAffect;
 import com.mz.jarboot.core.utils.matcher.Matcher;
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.jarboot.SpyAPI;
 import java.lang.instrument.ClassFileTransformer;
 import java.lang.instrument.IllegalClassFormatException;
@@ -41,6 +45,14 @@ import java.lang.instrument.UnmodifiableClassException;
 import java.lang.reflect.Method;
 import java.security.ProtectionDomain;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import static java.lang.System.arraycopy;
 
 /**
@@ -59,14 +71,48 @@ public class ClassEnhancer implements ClassFileTransformer {
     private final Matcher classNameExcludeMatcher;
     private final Matcher methodNameMatcher;
     private final EnhancerAffect affect;
+    private final List<InterceptorProcessor> interceptorProcessors;
     private Set<Class<?>> matchingClasses = null;
-
-    // 被增强的类的缓存
-    private final static Map<Class<?>, Object> classBytesCache = new WeakHashMap<Class<?>, Object>();
+    /** 并行预增强的结果，retransform时取用 */
+    private final Map<Class<?>, EnhancedClass> prepared = new ConcurrentHashMap<>();
+    /** 本次增强中预增强结果被采用的类个数 */
+    private final AtomicInteger preparedHits = new AtomicInteger();
+    /** 每批retransform的类个数，小于等于0时一次全部retransform */
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    /** 两批之间的暂停时间，毫秒 */
+    private long batchPause = DEFAULT_BATCH_PAUSE;
+    /** 本增强器实际转换过的类，释放时据此回滚，在classBytesCache的锁内访问 */
+    private final Set<Class<?>> enhancedClasses = new HashSet<>();
+
+    public static final int DEFAULT_BATCH_SIZE = 50;
+    public static final long DEFAULT_BATCH_PAUSE = 10;
+    /** 匹配的类达到该数量时才并行预增强 */
+    private static final int PARALLEL_THRESHOLD = 2;
+    private static final int MAX_PARALLELISM = 4;
+    private static volatile ForkJoinPool enhancePool;
+    /** 会话结束后在后台回滚类的线程，回滚含批次间的暂停，不占用共享的定时任务线程 */
+    private static final ThreadPoolExecutor ROLLBACK_EXECUTOR = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), JarbootThreadFactory.createThreadFactory("jarboot-rollback", true));
+    /** 保留的transformer输入字节码的总大小上限，超过时清空 */
+    private static final long MAX_CAPTURED_BYTES = 32L * 1024 * 1024;
+
+    /** 用于检查是否已插入了 spy函数，如果已有则不重复处理 */
+    private static final GroupLocationFilter GROUP_LOCATION_FILTER = createGroupLocationFilter();
+    /** 解析后的拦截器，按(isTracing, skipJDKTrace)组合只解析一次 */
+    private static volatile List<InterceptorProcessor> watchProcessors;
+    private static volatile List<InterceptorProcessor> traceProcessors;
+    private static volatile List<InterceptorProcessor> traceSkipJDKProcessors;
+
+    // 被增强的类的缓存，记录仍在使用该类增强的监听器id，弱引用类，值中不引用类与增强器，避免类无法卸载
+    private final static Map<Class<?>, EnhancedState> classBytesCache = new WeakHashMap<Class<?>, EnhancedState>();
+    /** 类上次transform时的输入字节码，供下次预增强使用，弱引用类 */
+    private final static Map<Class<?>, byte[]> capturedBytes = new WeakHashMap<Class<?>, byte[]>();
+    private static long capturedSize = 0;
     private static SpyImpl spyImpl = new SpyImpl();
 
     static {
         SpyAPI.setSpy(spyImpl);
+        ROLLBACK_EXECUTOR.allowCoreThreadTimeOut(true);
     }
 
 
@@ -81,53 +127,149 @@ public class ClassEnhancer implements ClassFileTransformer {
         this.methodNameMatcher = methodNameMatcher;
         this.affect = new EnhancerAffect();
         affect.setListenerId(listener.id());
+        this.interceptorProcessors = interceptorProcessors(isTracing, skipJDKTrace);
+    }
+
+    /**
+     * 获取解析后的拦截器，拦截器无状态，可在多次增强间共享
+     */
+    private static List<InterceptorProcessor> interceptorProcessors(boolean isTracing, boolean skipJDKTrace) {
+        if (!isTracing) {
+            List<InterceptorProcessor> processors = watchProcessors;
+            if (null == processors) {
+                processors = parseInterceptors(isTracing, skipJDKTrace);
+                watchProcessors = processors;
+            }
+            return processors;
+        }
+        if (skipJDKTrace) {
+            List<InterceptorProcessor> processors = traceSkipJDKProcessors;
+            if (null == processors) {
+                processors = parseInterceptors(isTracing, skipJDKTrace);
+                traceSkipJDKProcessors = processors;
+            }
+            return processors;
+        }
+        List<InterceptorProcessor> processors = traceProcessors;
+        if (null == processors) {
+            processors = parseInterceptors(isTracing, skipJDKTrace);
+            traceProcessors = processors;
+        }
+        return processors;
+    }
+
+    private static List<InterceptorProcessor> parseInterceptors(boolean isTracing, boolean skipJDKTrace) {
+        DefaultInterceptorClassParser defaultInterceptorClassParser = new DefaultInterceptorClassParser();
+
+        final List<InterceptorProcessor> interceptorProcessors = new ArrayList<>();
+
+        interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyInterceptor1.class));
+        interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyInterceptor2.class));
+        interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyInterceptor3.class));
+
+        if (isTracing) {
+            if (!skipJDKTrace) {
+                interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceInterceptor1.class));
+                interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceInterceptor2.class));
+                interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceInterceptor3.class));
+            } else {
+                interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceExcludeJDKInterceptor1.class));
+                interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceExcludeJDKInterceptor2.class));
+                interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceExcludeJDKInterceptor3.class));
+            }
+        }
+        return Collections.unmodifiableList(interceptorProcessors);
+    }
+
+    private static GroupLocationFilter createGroupLocationFilter() {
+        GroupLocationFilter groupLocationFilter = new GroupLocationFilter();
+
+        LocationFilter enterFilter = new InvokeContainLocationFilter(Type.getInternalName(SpyAPI.class), "atEnter",
+                LocationType.ENTER);
+        LocationFilter existFilter = new InvokeContainLocationFilter(Type.getInternalName(SpyAPI.class), "atExit",
+                LocationType.EXIT);
+        LocationFilter exceptionFilter = new InvokeContainLocationFilter(Type.getInternalName(SpyAPI.class),
+                "atExceptionExit", LocationType.EXCEPTION_EXIT);
+
+        groupLocationFilter.addFilter(enterFilter);
+        groupLocationFilter.addFilter(existFilter);
+        groupLocationFilter.addFilter(exceptionFilter);
+
+        LocationFilter invokeBeforeFilter = new InvokeCheckLocationFilter(Type.getInternalName(SpyAPI.class),
+                "atBeforeInvoke", LocationType.INVOKE);
+        LocationFilter invokeAfterFilter = new InvokeCheckLocationFilter(Type.getInternalName(SpyAPI.class),
+                "atInvokeException", LocationType.INVOKE_COMPLETED);
+        LocationFilter invokeExceptionFilter = new InvokeCheckLocationFilter(Type.getInternalName(SpyAPI.class),
+                "atInvokeException", LocationType.INVOKE_EXCEPTION_EXIT);
+        groupLocationFilter.addFilter(invokeBeforeFilter);
+        groupLocationFilter.addFilter(invokeAfterFilter);
+        groupLocationFilter.addFilter(invokeExceptionFilter);
+        return groupLocationFilter;
     }
 
     @Override
     public byte[] transform(final ClassLoader inClassLoader, String className, Class<?> classBeingRedefined,
             ProtectionDomain protectionDomain, byte[] classfileBuffer) throws IllegalClassFormatException {
+        // 检查classloader能否加载到 SpyAPI，如果不能，则放弃增强
+        if (!canLoadSpy(inClassLoader, className)) {
+            return null;
+        }
+
+        // 所以需要将之前需要转换的类集合传递下来，再次进行判断
+        if (matchingClasses != null && !matchingClasses.contains(classBeingRedefined)) {
+            return null;
+        }
+
+        final long transformStart = System.nanoTime();
+        long cost = 0;
         try {
-            // 检查classloader能否加载到 SpyAPI，如果不能，则放弃增强
-            try {
-                if (inClassLoader != null) {
-                    inClassLoader.loadClass(SpyAPI.class.getName());
+            capture(classBeingRedefined, classfileBuffer);
+            // 预增强的结果仅在输入的字节码与预增强时完全一致时使用，否则重新增强
+            EnhancedClass enhanced = null == classBeingRedefined ? null : prepared.remove(classBeingRedefined);
+            if (null != enhanced && Arrays.equals(enhanced.source, classfileBuffer)
+                    && MethodRegistry.confirm(enhanced.methodIds, enhanced.siteIds)) {
+                preparedHits.incrementAndGet();
+                cost = enhanced.cost;
+            } else {
+                final EnhancedClass discarded = enhanced;
+                try {
+                    enhanced = enhanceClass(inClassLoader, className, classfileBuffer, false);
+                } finally {
+                    if (null != discarded) {
+                        MethodRegistry.release(inClassLoader, discarded.methodIds, discarded.siteIds);
+                    }
                 }
-            } catch (Throwable e) {
-                logger.error("the classloader can not load SpyAPI, ignore it. classloader: {}, className: {}",
-                        inClassLoader.getClass().getName(), className, e);
-                return null;
             }
+            return commit(inClassLoader, className, classBeingRedefined, enhanced);
+        } catch (Exception t) {
+            logger.warn("transform loader[{}]:class[{}] failed.", inClassLoader, className, t);
+            affect.setThrowable(t);
+        } finally {
+            affect.addClassCost(className, cost + System.nanoTime() - transformStart);
+        }
 
-            // 所以需要将之前需要转换的类集合传递下来，再次进行判断
-            if (matchingClasses != null && !matchingClasses.contains(classBeingRedefined)) {
-                return null;
-            }
+        return null;
+    }
+
+    /**
+     * 增强类的字节码，仅织入并分配id，不注册监听器，可在多个线程中并行执行
+     * @param inClassLoader 类加载器
+     * @param className 类名，'/'分隔
+     * @param classfileBuffer 原字节码
+     * @param tentative 是否为预增强，预增强新分配的id在被采用前可释放
+     * @return 增强结果
+     */
+    EnhancedClass enhanceClass(final ClassLoader inClassLoader, String className, byte[] classfileBuffer,
+                               boolean tentative) {
+        final long start = System.nanoTime();
+        final EnhancedClass enhanced = new EnhancedClass(classfileBuffer);
+        try {
+            MethodRegistry.beginEnhance(inClassLoader, tentative);
 
             ClassNode classNode = new ClassNode(Opcodes.ASM9);
             ClassReader classReader = AsmUtils.toClassNode(classfileBuffer, classNode);
             classNode = AsmUtils.removeJSRInstructions(classNode);
 
-            // 生成增强字节码
-            DefaultInterceptorClassParser defaultInterceptorClassParser = new DefaultInterceptorClassParser();
-
-            final List<InterceptorProcessor> interceptorProcessors = new ArrayList<>();
-
-            interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyInterceptor1.class));
-            interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyInterceptor2.class));
-            interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyInterceptor3.class));
-
-            if (this.isTracing) {
-                if (this.skipJDKTrace == false) { //NOSONAR
-                    interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceInterceptor1.class));
-                    interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceInterceptor2.class));
-                    interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceInterceptor3.class));
-                } else {
-                    interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceExcludeJDKInterceptor1.class));
-                    interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceExcludeJDKInterceptor2.class));
-                    interceptorProcessors.addAll(defaultInterceptorClassParser.parse(SpyInterceptors.SpyTraceExcludeJDKInterceptor3.class));
-                }
-            }
-
             List<MethodNode> matchedMethods = new ArrayList<>();
             for (MethodNode methodNode : classNode.methods) {
                 if (!isIgnore(methodNode, methodNameMatcher)) {
@@ -143,36 +285,14 @@ public class ClassEnhancer implements ClassFileTransformer {
                 }
             }
 
-            // 用于检查是否已插入了 spy函数，如果已有则不重复处理
-            GroupLocationFilter groupLocationFilter = new GroupLocationFilter();
-
-            LocationFilter enterFilter = new InvokeContainLocationFilter(Type.getInternalName(SpyAPI.class), "atEnter",
-                    LocationType.ENTER);
-            LocationFilter existFilter = new InvokeContainLocationFilter(Type.getInternalName(SpyAPI.class), "atExit",
-                    LocationType.EXIT);
-            LocationFilter exceptionFilter = new InvokeContainLocationFilter(Type.getInternalName(SpyAPI.class),
-                    "atExceptionExit", LocationType.EXCEPTION_EXIT);
-
-            groupLocationFilter.addFilter(enterFilter);
-            groupLocationFilter.addFilter(existFilter);
-            groupLocationFilter.addFilter(exceptionFilter);
-
-            LocationFilter invokeBeforeFilter = new InvokeCheckLocationFilter(Type.getInternalName(SpyAPI.class),
-                    "atBeforeInvoke", LocationType.INVOKE);
-            LocationFilter invokeAfterFilter = new InvokeCheckLocationFilter(Type.getInternalName(SpyAPI.class),
-                    "atInvokeException", LocationType.INVOKE_COMPLETED);
-            LocationFilter invokeExceptionFilter = new InvokeCheckLocationFilter(Type.getInternalName(SpyAPI.class),
-                    "atInvokeException", LocationType.INVOKE_EXCEPTION_EXIT);
-            groupLocationFilter.addFilter(invokeBeforeFilter);
-            groupLocationFilter.addFilter(invokeAfterFilter);
-            groupLocationFilter.addFilter(invokeExceptionFilter);
-
+            final String spyOwner = Type.getInternalName(SpyAPI.class);
             for (MethodNode methodNode : matchedMethods) {
                 if (AsmUtils.isNative(methodNode)) {
                     logger.info("ignore native method: {}",
                             AsmUtils.methodDeclaration(Type.getObjectType(classNode.name), methodNode));
                     continue;
                 }
+                InvokeSiteBinding.prepare(methodNode);
                 // 先查找是否有 atBeforeInvoke 函数，如果有，则说明已经有trace了，则直接不再尝试增强，直接插入 listener
                 if(AsmUtils.containsMethodInsnNode(methodNode, Type.getInternalName(SpyAPI.class), "atBeforeInvoke")) {
                     for (AbstractInsnNode insnNode = methodNode.instructions.getFirst(); insnNode != null; insnNode = insnNode
@@ -188,12 +308,15 @@ public class ClassEnhancer implements ClassFileTransformer {
                             if(AsmOpUtils.isBoxType(Type.getObjectType(methodInsnNode.owner))) {
                                 continue;
                             }
-                            AdviceListenerManager.registerTraceAdviceListener(inClassLoader, className,
-                                    methodInsnNode.owner, methodInsnNode.name, methodInsnNode.desc, listener);
+                            // 已织入的Spy调用不是调用点
+                            if (spyOwner.equals(methodInsnNode.owner)) {
+                                continue;
+                            }
+                            enhanced.siteIds.add(InvokeSiteBinding.siteId(className, methodNode, methodInsnNode));
                         }
                     }
                 }else {
-                    MethodProcessor methodProcessor = new MethodProcessor(classNode, methodNode, groupLocationFilter);
+                    MethodProcessor methodProcessor = new MethodProcessor(classNode, methodNode, GROUP_LOCATION_FILTER);
                     for (InterceptorProcessor interceptor : interceptorProcessors) {
                         try {
                             List<Location> locations = interceptor.process(methodProcessor);
@@ -202,8 +325,8 @@ public class ClassEnhancer implements ClassFileTransformer {
                                     MethodInsnNodeWare methodInsnNodeWare = (MethodInsnNodeWare) location;
                                     MethodInsnNode methodInsnNode = methodInsnNodeWare.methodInsnNode();
 
-                                    AdviceListenerManager.registerTraceAdviceListener(inClassLoader, className,
-                                            methodInsnNode.owner, methodInsnNode.name, methodInsnNode.desc, listener);
+                                    enhanced.siteIds.add(InvokeSiteBinding.siteId(className, methodNode,
+                                            methodInsnNode));
                                 }
                             }
 
@@ -213,36 +336,192 @@ public class ClassEnhancer implements ClassFileTransformer {
                     }
                 }
 
-                // enter/exist 总是要插入 listener
-                AdviceListenerManager.registerAdviceListener(inClassLoader, className, methodNode.name, methodNode.desc,
-                        listener);
-                affect.addMethodAndCount(inClassLoader, className, methodNode.name, methodNode.desc);
+                // enter/exist 总是要插入 listener，id与织入的常量一致，预增强时同样为待确认的id
+                enhanced.methodIds.add(MethodRegistry.enhancingMethodId(className, methodNode.name,
+                        methodNode.desc));
             }
 
             if (AsmUtils.getMajorVersion(classNode.version) < 49) {
                 classNode.version = AsmUtils.setMajorVersion(classNode.version, 49);
             }
 
-            byte[] enhanceClassByteArray = AsmUtils.toBytes(classNode, inClassLoader, classReader);
+            enhanced.bytes = AsmUtils.toBytes(classNode, inClassLoader, classReader);
+            return enhanced;
+        } finally {
+            enhanced.cost = System.nanoTime() - start;
+            InvokeSiteBinding.clear();
+            MethodRegistry.endEnhance();
+        }
+    }
 
-            // 增强成功，记录类
-            classBytesCache.put(classBeingRedefined, new Object());
+    /**
+     * 类被真正转换时注册监听器并记录影响范围
+     */
+    private byte[] commit(ClassLoader inClassLoader, String className, Class<?> classBeingRedefined,
+                          EnhancedClass enhanced) {
+        for (Integer siteId : enhanced.siteIds) {
+            AdviceListenerManager.registerTraceAdviceListener(siteId, listener);
+        }
+        for (Integer methodId : enhanced.methodIds) {
+            AdviceListenerManager.registerAdviceListener(methodId, listener);
+            MethodRegistry.WovenMethod method = MethodRegistry.get(methodId);
+            affect.addMethodAndCount(inClassLoader, className, method.getMethodName(), method.getMethodDesc());
+        }
 
-            // dump the class
-            dumpClassIfNecessary(className, enhanceClassByteArray, affect);
+        // 增强成功，记录类
+        synchronized (classBytesCache) {
+            EnhancedState state = classBytesCache.computeIfAbsent(classBeingRedefined, k -> new EnhancedState());
+            state.owners.add(listener.id());
+            state.methodIds.addAll(enhanced.methodIds);
+            enhancedClasses.add(classBeingRedefined);
+        }
+        // 重新增强后丢弃旧的方法缓存
+        MethodRegistry.invalidate(classBeingRedefined);
 
-            // 成功计数
-            affect.cCnt(1);
+        // dump the class
+        dumpClassIfNecessary(className, enhanced.bytes, affect);
 
-            return enhanceClassByteArray;
-        } catch (Exception t) {
-            logger.warn("transform loader[{}]:class[{}] failed.", inClassLoader, className, t);
-            affect.setThrowable(t);
+        // 成功计数
+        affect.cCnt(1);
+
+        return enhanced.bytes;
+    }
+
+    private static boolean canLoadSpy(ClassLoader inClassLoader, String className) {
+        try {
+            if (inClassLoader != null) {
+                inClassLoader.loadClass(SpyAPI.class.getName());
+            }
+            return true;
+        } catch (Throwable e) {
+            logger.error("the classloader can not load SpyAPI, ignore it. classloader: {}, className: {}",
+                    inClassLoader.getClass().getName(), className, e);
+            return false;
         }
+    }
 
+    /**
+     * 使用ForkJoin线程池并行预增强匹配的类，优先使用该类上次transform时JVM传入的字节码，
+     * 没有时才从类加载器的资源中读取（动态attach后资源与JVM传入的字节码通常不一致，结果会被丢弃）；
+     * 读取失败或增强失败的类在retransform时再增强
+     * @param classes 匹配的类
+     */
+    private void prepare(Collection<Class<?>> classes) {
+        if (classes.size() < PARALLEL_THRESHOLD) {
+            return;
+        }
+        final long start = System.nanoTime();
+        final List<ForkJoinTask<?>> tasks = new ArrayList<>(classes.size());
+        final ForkJoinPool pool = enhancePool();
+        for (Class<?> clazz : classes) {
+            tasks.add(pool.submit(() -> prepare(clazz)));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        logger.info("prepared {}/{} classes in {} ms.", prepared.size(), classes.size(),
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 预增强单个类
+     * @param clazz 类
+     * @return 预增强结果，无法读取字节码或增强失败时返回null
+     */
+    EnhancedClass prepare(Class<?> clazz) {
+        final ClassLoader loader = clazz.getClassLoader();
+        final String className = clazz.getName().replace('.', '/');
+        byte[] bytes;
+        synchronized (classBytesCache) {
+            bytes = capturedBytes.get(clazz);
+        }
+        try {
+            if (null == bytes) {
+                try (InputStream in = clazz.getResourceAsStream('/' + className + ".class")) {
+                    if (null == in) {
+                        return null;
+                    }
+                    bytes = IOUtils.toByteArray(in);
+                }
+            }
+            final EnhancedClass enhanced = enhanceClass(loader, className, bytes, true);
+            prepared.put(clazz, enhanced);
+            return enhanced;
+        } catch (Throwable e) {
+            logger.debug("prepare class {} failed, enhance it when retransform.", className, e);
+        }
         return null;
     }
 
+    /**
+     * 释放未被retransform取用的预增强结果
+     * @return 释放的结果个数
+     */
+    private int releasePrepared() {
+        int count = 0;
+        for (Map.Entry<Class<?>, EnhancedClass> entry : prepared.entrySet()) {
+            final EnhancedClass enhanced = entry.getValue();
+            MethodRegistry.release(entry.getKey().getClassLoader(), enhanced.methodIds, enhanced.siteIds);
+            ++count;
+        }
+        prepared.clear();
+        return count;
+    }
+
+    /**
+     * 记录类本次transform的输入字节码
+     */
+    private static void capture(Class<?> clazz, byte[] classfileBuffer) {
+        if (null == clazz) {
+            return;
+        }
+        synchronized (classBytesCache) {
+            if (capturedSize + classfileBuffer.length > MAX_CAPTURED_BYTES) {
+                capturedBytes.clear();
+                capturedSize = 0;
+            }
+            final byte[] old = capturedBytes.put(clazz, classfileBuffer);
+            capturedSize += classfileBuffer.length - (null == old ? 0 : old.length);
+        }
+    }
+
+    private static ForkJoinPool enhancePool() {
+        ForkJoinPool pool = enhancePool;
+        if (null == pool) {
+            synchronized (ClassEnhancer.class) {
+                pool = enhancePool;
+                if (null == pool) {
+                    int parallelism = Math.max(1, Math.min(MAX_PARALLELISM,
+                            Runtime.getRuntime().availableProcessors() / 2));
+                    pool = new ForkJoinPool(parallelism, p -> {
+                        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+                        thread.setName("jarboot-enhance-" + thread.getPoolIndex());
+                        thread.setDaemon(true);
+                        return thread;
+                    }, null, false);
+                    enhancePool = pool;
+                }
+            }
+        }
+        return pool;
+    }
+
+    /**
+     * 预增强的结果
+     */
+    static final class EnhancedClass {
+        /** 增强前的字节码 */
+        private final byte[] source;
+        final List<Integer> methodIds = new ArrayList<>();
+        final List<Integer> siteIds = new ArrayList<>();
+        private byte[] bytes;
+        private long cost;
+
+        EnhancedClass(byte[] source) {
+            this.source = source;
+        }
+    }
+
     /**
      * 是否抽象属性
      */
@@ -332,7 +611,19 @@ public class ClassEnhancer implements ClassFileTransformer {
     }
 
 
-    public synchronized EnhancerAffect enhance(final Instrumentation inst) throws UnmodifiableClassException {
+    public EnhancerAffect enhance(final Instrumentation inst) throws UnmodifiableClassException {
+        return enhance(inst, (CommandSession) null);
+    }
+
+    /**
+     * 增强匹配的类，先并行预增强，再分批retransform，批次之间暂停以免长时间阻塞业务
+     * @param inst {@link Instrumentation}
+     * @param session 会话，用于输出进度及在会话结束时停止，可为null
+     * @return 增强影响范围
+     * @throws UnmodifiableClassException
+     */
+    public synchronized EnhancerAffect enhance(final Instrumentation inst, final CommandSession session)
+            throws UnmodifiableClassException {
         // 获取需要增强的类集合
         this.matchingClasses = GlobalOptions.isDisableSubClass
                 ? SearchUtils.searchClass(inst, classNameMatcher)
@@ -345,17 +636,22 @@ public class ClassEnhancer implements ClassFileTransformer {
 
         affect.setTransformer(this);
 
+        final long start = System.nanoTime();
+        preparedHits.set(0);
+        int preparedCount = 0;
         try {
             EnvironmentContext.getTransformerManager().addTransformer(this, isTracing);
 
+            prepare(matchingClasses);
+            preparedCount = prepared.size();
+
             // 批量增强
             if (GlobalOptions.isBatchReTransform) {
                 final int size = matchingClasses.size();
                 final Class<?>[] classArray = new Class<?>[size];
                 arraycopy(matchingClasses.toArray(), 0, classArray, 0, size);
                 if (classArray.length > 0) {
-                    inst.retransformClasses(classArray);
-                    logger.info("Success to batch transform classes: {}", Arrays.toString(classArray));
+                    batchRetransform(inst, classArray, batchSize, batchPause, session);
                 }
             } else {
                 // for each 增强
@@ -378,13 +674,106 @@ public class ClassEnhancer implements ClassFileTransformer {
         } catch (Exception e) {
             logger.error("Enhancer error, matchingClasses: {}", matchingClasses, e);
             affect.setThrowable(e);
+        } finally {
+            final int unused = releasePrepared();
+            if (preparedCount > 0) {
+                logger.info("pre-transform hit {}/{}, {} unused.", preparedHits.get(), preparedCount, unused);
+            }
+            affect.setEnhanceCost(System.nanoTime() - start);
         }
 
         return affect;
     }
 
     /**
-     * 重置指定的Class
+     * 分批retransform，两批之间暂停
+     * @param inst {@link Instrumentation}
+     * @param classArray 类
+     * @param batchSize 每批的类个数，小于等于0时一次全部retransform
+     * @param batchPause 两批之间的暂停时间，毫秒
+     * @param session 会话，用于输出进度及在会话结束时停止，可为null
+     * @throws UnmodifiableClassException
+     */
+    private static void batchRetransform(Instrumentation inst, Class<?>[] classArray, int batchSize,
+                                         long batchPause, CommandSession session)
+            throws UnmodifiableClassException {
+        final int size = batchSize > 0 ? batchSize : classArray.length;
+        final boolean showProgress = null != session && classArray.length > size;
+        for (int from = 0; from < classArray.length; from += size) {
+            if (from > 0) {
+                if (null != session && !session.isRunning()) {
+                    logger.info("session ended, stop enhancing at {}/{}.", from, classArray.length);
+                    return;
+                }
+                if (!pause(batchPause)) {
+                    return;
+                }
+            }
+            final int to = Math.min(classArray.length, from + size);
+            final Class<?>[] batch = Arrays.copyOfRange(classArray, from, to);
+            inst.retransformClasses(batch);
+            logger.info("Success to batch transform classes: {}", Arrays.toString(batch));
+            if (showProgress) {
+                session.console(String.format("Enhanced classes: %d/%d", to, classArray.length));
+            }
+        }
+    }
+
+    private static boolean pause(long batchPause) {
+        if (batchPause <= 0) {
+            return true;
+        }
+        try {
+            TimeUnit.MILLISECONDS.sleep(batchPause);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    public void setBatchPause(long batchPause) {
+        this.batchPause = batchPause;
+    }
+
+    /**
+     * 会话结束时释放增强，已没有其他增强器使用的类在后台恢复为原始字节码，
+     * 须在移除transformer及注销监听器之后调用
+     */
+    public void release() {
+        final List<Class<?>> classes = new ArrayList<>();
+        synchronized (classBytesCache) {
+            for (Class<?> clazz : enhancedClasses) {
+                EnhancedState state = classBytesCache.get(clazz);
+                if (null != state && state.owners.remove(listener.id()) && state.owners.isEmpty()) {
+                    classes.add(clazz);
+                }
+            }
+            enhancedClasses.clear();
+            // 不再持有匹配的类，之后的transform一律跳过
+            matchingClasses = Collections.emptySet();
+        }
+        if (classes.isEmpty()) {
+            return;
+        }
+        final Instrumentation inst = EnvironmentContext.getInstrumentation();
+        ROLLBACK_EXECUTOR.execute(() -> {
+            try {
+                EnhancerAffect rollback = rollback(inst, classes);
+                logger.info("Rollback enhanced classes, class count: {}, method count: {}", rollback.cCnt(),
+                        rollback.mCnt());
+            } catch (Throwable e) {
+                logger.warn("Rollback enhanced classes failed: {}", classes, e);
+            }
+        });
+    }
+
+    /**
+     * 重置指定的Class，仅恢复已没有活动监听器的类
      *
      * @param inst             inst
      * @param classNameMatcher 类名匹配
@@ -393,37 +782,59 @@ public class ClassEnhancer implements ClassFileTransformer {
      */
     public static synchronized EnhancerAffect reset(final Instrumentation inst, final Matcher classNameMatcher)
             throws UnmodifiableClassException {
-
-        final EnhancerAffect affect = new EnhancerAffect();
-        final Set<Class<?>> enhanceClassSet = new HashSet<>();
-
-        for (Class<?> classInCache : classBytesCache.keySet()) {
-            if (classNameMatcher.matching(classInCache.getName())) {
-                enhanceClassSet.add(classInCache);
+        final List<Class<?>> enhanceClassSet = new ArrayList<>();
+        synchronized (classBytesCache) {
+            for (Map.Entry<Class<?>, EnhancedState> entry : classBytesCache.entrySet()) {
+                Class<?> classInCache = entry.getKey();
+                if (null != classInCache && entry.getValue().owners.isEmpty()
+                        && classNameMatcher.matching(classInCache.getName())) {
+                    enhanceClassSet.add(classInCache);
+                }
             }
         }
 
-        try {
-            enhance(inst, enhanceClassSet);
-            logger.info("Success to reset classes: {}", enhanceClassSet);
-        } finally {
-            for (Class<?> resetClass : enhanceClassSet) {
-                classBytesCache.remove(resetClass);
+        EnhancerAffect affect = rollback(inst, enhanceClassSet);
+        logger.info("Success to reset classes: {}", enhanceClassSet);
+        return affect;
+    }
+
+    /**
+     * 重新转换类以恢复原始字节码，仍有活动增强器的transformer会重新织入
+     */
+    private static synchronized EnhancerAffect rollback(Instrumentation inst, List<Class<?>> classes)
+            throws UnmodifiableClassException {
+        final EnhancerAffect affect = new EnhancerAffect();
+        if (classes.isEmpty()) {
+            return affect;
+        }
+        batchRetransform(inst, classes.toArray(new Class<?>[0]), DEFAULT_BATCH_SIZE, DEFAULT_BATCH_PAUSE, null);
+        synchronized (classBytesCache) {
+            for (Class<?> clazz : classes) {
+                EnhancedState state = classBytesCache.get(clazz);
+                // 回滚期间被其他增强器重新织入的类不计入
+                if (null == state || !state.owners.isEmpty()) {
+                    continue;
+                }
+                classBytesCache.remove(clazz);
+                MethodRegistry.invalidate(clazz);
                 affect.cCnt(1);
+                for (Integer methodId : state.methodIds) {
+                    MethodRegistry.WovenMethod method = MethodRegistry.get(methodId);
+                    affect.addMethodAndCount(clazz.getClassLoader(), method.getClassName(), method.getMethodName(),
+                            method.getMethodDesc());
+                }
             }
         }
-
         return affect;
     }
 
-    // 批量增强
-    private static void enhance(Instrumentation inst, Set<Class<?>> classes)
-            throws UnmodifiableClassException {
-        int size = classes.size();
-        Class<?>[] classArray = new Class<?>[size];
-        arraycopy(classes.toArray(), 0, classArray, 0, size);
-        if (classArray.length > 0) {
-            inst.retransformClasses(classArray);
-        }
+    /**
+     * 类的增强状态
+     */
+    private static final class EnhancedState {
+        /** 仍在使用该类增强的监听器id */
+        private final Set<Long> owners = new HashSet<>();
+        /** 被织入的方法id */
+        private final Set<Integer> methodIds = new LinkedHashSet<>();
     }
 }
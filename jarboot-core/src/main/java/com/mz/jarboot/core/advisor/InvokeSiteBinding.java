@@ -0,0 +1,132 @@
+package com.mz.jarboot.core.advisor;
+
+import com.alibaba.bytekit.asm.MethodProcessor;
+import com.alibaba.bytekit.asm.binding.Binding;
+import com.alibaba.bytekit.asm.binding.BindingContext;
+import com.alibaba.bytekit.asm.binding.annotation.BindingParser;
+import com.alibaba.bytekit.asm.binding.annotation.BindingParserHandler;
+import com.alibaba.bytekit.asm.location.Location;
+import com.alibaba.bytekit.asm.location.MethodInsnNodeWare;
+import com.alibaba.bytekit.utils.AsmOpUtils;
+import com.alibaba.deps.org.objectweb.asm.Type;
+import com.alibaba.deps.org.objectweb.asm.tree.AbstractInsnNode;
+import com.alibaba.deps.org.objectweb.asm.tree.InsnList;
+import com.alibaba.deps.org.objectweb.asm.tree.LineNumberNode;
+import com.alibaba.deps.org.objectweb.asm.tree.MethodInsnNode;
+import com.alibaba.deps.org.objectweb.asm.tree.MethodNode;
+
+import java.jarboot.SpyAPI;
+import java.lang.annotation.*;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * 将trace调用点的id以int常量的形式织入，取代"owner|方法名|方法描述|行号"字符串<br/>
+ * 调用前、调用后与异常三处织入同一个id。调用点以方法内同签名调用的序号区分，行号在织入前预先扫描，
+ * 因为inline织入的代码会带入拦截器自身的行号，再次增强已trace过的方法时序号依然不变
+ * @author majianzheng
+ */
+public class InvokeSiteBinding extends Binding {
+    /** 当前线程正在增强的方法中，调用指令 -> {序号, 行号} */
+    private static final ThreadLocal<Map<MethodInsnNode, int[]>> PREPARED = new ThreadLocal<>();
+    private static final String SPY_OWNER = Type.getInternalName(SpyAPI.class);
+
+    @Override
+    public void pushOntoStack(InsnList instructions, BindingContext bindingContext) {
+        Location location = bindingContext.getLocation();
+        if (!(location instanceof MethodInsnNodeWare)) {
+            throw new IllegalArgumentException("InvokeSiteBinding location is not Invocation location, location: " +
+                    location);
+        }
+        MethodProcessor methodProcessor = bindingContext.getMethodProcessor();
+        MethodNode methodNode = methodProcessor.getMethodNode();
+        MethodInsnNode insn = ((MethodInsnNodeWare) location).methodInsnNode();
+        int[] site = site(methodNode, insn);
+        int siteId = MethodRegistry.enhancingInvokeSiteId(methodProcessor.getOwner(), methodNode.name,
+                methodNode.desc, insn.owner, insn.name, insn.desc, site[0], site[1]);
+        AsmOpUtils.push(instructions, siteId);
+    }
+
+    @Override
+    public Type getType(BindingContext bindingContext) {
+        return Type.INT_TYPE;
+    }
+
+    /**
+     * 织入前扫描方法内的调用指令，记录序号与行号
+     * @param methodNode 即将增强的方法
+     */
+    static void prepare(MethodNode methodNode) {
+        Map<MethodInsnNode, int[]> prepared = new IdentityHashMap<>(16);
+        Map<String, Integer> ordinals = new HashMap<>(16);
+        int line = -1;
+        for (AbstractInsnNode node = methodNode.instructions.getFirst(); null != node; node = node.getNext()) {
+            if (node instanceof LineNumberNode) {
+                line = ((LineNumberNode) node).line;
+            } else if (node instanceof MethodInsnNode) {
+                MethodInsnNode insn = (MethodInsnNode) node;
+                if (SPY_OWNER.equals(insn.owner)) {
+                    continue;
+                }
+                String key = insn.owner + '|' + insn.name + '|' + insn.desc;
+                Integer ordinal = ordinals.get(key);
+                ordinal = null == ordinal ? 0 : ordinal + 1;
+                ordinals.put(key, ordinal);
+                prepared.put(insn, new int[]{ordinal, line});
+            }
+        }
+        PREPARED.set(prepared);
+    }
+
+    /**
+     * 当前方法增强结束
+     */
+    static void clear() {
+        PREPARED.remove();
+    }
+
+    /**
+     * 获取调用点的id，与织入的常量一致
+     * @param className 调用所在的类名，'/'分隔
+     * @param methodNode 调用所在的方法
+     * @param insn 调用指令
+     * @return 调用点id
+     */
+    static int siteId(String className, MethodNode methodNode, MethodInsnNode insn) {
+        int[] site = site(methodNode, insn);
+        return MethodRegistry.enhancingInvokeSiteId(className, methodNode.name, methodNode.desc, insn.owner,
+                insn.name, insn.desc, site[0], site[1]);
+    }
+
+    private static int[] site(MethodNode methodNode, MethodInsnNode insn) {
+        Map<MethodInsnNode, int[]> prepared = PREPARED.get();
+        int[] site = null == prepared ? null : prepared.get(insn);
+        if (null == site) {
+            prepare(methodNode);
+            site = PREPARED.get().get(insn);
+        }
+        if (null == site) {
+            throw new IllegalStateException("Invoke instruction not found in method: " + methodNode.name +
+                    ", invoke: " + insn.owner + "#" + insn.name);
+        }
+        return site;
+    }
+
+    public static class InvokeSiteBindingParser implements BindingParser {
+        @Override
+        public Binding parse(Annotation annotation) {
+            return new InvokeSiteBinding();
+        }
+    }
+
+    /**
+     * trace调用点的id
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.PARAMETER)
+    @BindingParserHandler(parser = InvokeSiteBindingParser.class)
+    public @interface InvokeSiteId {
+    }
+}
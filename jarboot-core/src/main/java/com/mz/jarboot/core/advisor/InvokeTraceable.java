@@ -12,51 +12,30 @@ public interface InvokeTraceable {
     /**
      * 调用之前跟踪
      *
-     * @param tracingClassName  调用类名
-     * @param tracingMethodName 调用方法名
-     * @param tracingMethodDesc 调用方法描述
-     * @param tracingLineNumber 执行调用行数
+     * @param classLoader 调用所在类的类加载器
+     * @param site 调用点，增强时已解析好类名、方法名、方法描述与行号
      * @throws Throwable 通知过程出错
      */
-    void invokeBeforeTracing(
-            ClassLoader classLoader,
-            String tracingClassName,
-            String tracingMethodName,
-            String tracingMethodDesc,
-            int tracingLineNumber) throws Throwable;
+    void invokeBeforeTracing(ClassLoader classLoader, MethodRegistry.InvokeSite site) throws Throwable;
 
     /**
      * 抛异常后跟踪
      *
-     * @param tracingClassName  调用类名
-     * @param tracingMethodName 调用方法名
-     * @param tracingMethodDesc 调用方法描述
-     * @param tracingLineNumber 执行调用行数
+     * @param classLoader 调用所在类的类加载器
+     * @param site 调用点，增强时已解析好类名、方法名、方法描述与行号
      * @throws Throwable 通知过程出错
      */
-    void invokeThrowTracing(
-            ClassLoader classLoader,
-            String tracingClassName,
-            String tracingMethodName,
-            String tracingMethodDesc,
-            int tracingLineNumber) throws Throwable;
+    void invokeThrowTracing(ClassLoader classLoader, MethodRegistry.InvokeSite site) throws Throwable;
 
 
     /**
      * 调用之后跟踪
      *
-     * @param tracingClassName  调用类名
-     * @param tracingMethodName 调用方法名
-     * @param tracingMethodDesc 调用方法描述
-     * @param tracingLineNumber 执行调用行数
+     * @param classLoader 调用所在类的类加载器
+     * @param site 调用点，增强时已解析好类名、方法名、方法描述与行号
      * @throws Throwable 通知过程出错
      */
-    void invokeAfterTracing(
-            ClassLoader classLoader,
-            String tracingClassName,
-            String tracingMethodName,
-            String tracingMethodDesc,
-            int tracingLineNumber) throws Throwable;
+    void invokeAfterTracing(ClassLoader classLoader, MethodRegistry.InvokeSite site) throws Throwable;
 
 
 }
@@ -7,7 +7,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 
 /**
- * 主要用于 tt 命令重放使用
+ * 主要用于 tt 命令重放使用，每个被增强的方法只创建一个实例，由{@link MethodRegistry}缓存
  * @author majianzheng
  * 以下代码基于开源项目Arthas适配修改
  */
@@ -17,8 +17,8 @@ public class JarbootMethod {
     private final String methodName;
     private final String methodDesc;
 
-    private Constructor<?> constructor;
-    private Method method;
+    private volatile Constructor<?> constructor;
+    private volatile Method method;
 
     private void initMethod() {
         if (constructor != null || method != null) {
@@ -115,6 +115,15 @@ public class JarbootMethod {
         return this.methodName;
     }
 
+    /**
+     * 获取方法描述符
+     *
+     * @return 返回方法描述符
+     */
+    public String getMethodDesc() {
+        return this.methodDesc;
+    }
+
     @Override
     public String toString() {
         initMethod();
@@ -0,0 +1,51 @@
+package com.mz.jarboot.core.advisor;
+
+import com.alibaba.bytekit.asm.MethodProcessor;
+import com.alibaba.bytekit.asm.binding.Binding;
+import com.alibaba.bytekit.asm.binding.BindingContext;
+import com.alibaba.bytekit.asm.binding.annotation.BindingParser;
+import com.alibaba.bytekit.asm.binding.annotation.BindingParserHandler;
+import com.alibaba.bytekit.utils.AsmOpUtils;
+import com.alibaba.deps.org.objectweb.asm.Type;
+import com.alibaba.deps.org.objectweb.asm.tree.InsnList;
+import com.alibaba.deps.org.objectweb.asm.tree.MethodNode;
+
+import java.lang.annotation.*;
+
+/**
+ * 将被增强方法的id以int常量的形式织入，取代"方法名|方法描述"字符串
+ * @author majianzheng
+ */
+public class MethodIdBinding extends Binding {
+
+    @Override
+    public void pushOntoStack(InsnList instructions, BindingContext bindingContext) {
+        MethodProcessor methodProcessor = bindingContext.getMethodProcessor();
+        MethodNode methodNode = methodProcessor.getMethodNode();
+        int methodId = MethodRegistry.enhancingMethodId(methodProcessor.getOwner(), methodNode.name,
+                methodNode.desc);
+        AsmOpUtils.push(instructions, methodId);
+    }
+
+    @Override
+    public Type getType(BindingContext bindingContext) {
+        return Type.INT_TYPE;
+    }
+
+    public static class MethodIdBindingParser implements BindingParser {
+        @Override
+        public Binding parse(Annotation annotation) {
+            return new MethodIdBinding();
+        }
+    }
+
+    /**
+     * 被增强方法的id
+     */
+    @Documented
+    @Retention(RetentionPolicy.RUNTIME)
+    @Target(ElementType.PARAMETER)
+    @BindingParserHandler(parser = MethodIdBindingParser.class)
+    public @interface MethodId {
+    }
+}
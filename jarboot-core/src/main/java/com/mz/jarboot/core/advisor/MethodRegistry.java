@@ -0,0 +1,482 @@
+package com.mz.jarboot.core.advisor;
+
+import com.mz.jarboot.common.ConcurrentWeakKeyHashMap;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 被增强方法的注册表<br/>
+ * 增强时为每个方法及trace的每个调用点分配一个稳定的id，以常量的形式织入Spy调用中，运行时通过id直接索引，
+ * 避免字符串的解析与拼接；同时按类缓存{@link JarbootMethod}，通知时无需重复创建与反射解析。
+ * JarbootMethod强引用其Class，缓存通过{@link ClassValue}挂在类自身上，不会阻止类及其类加载器的卸载
+ * @author majianzheng
+ */
+public class MethodRegistry {
+    private static final int INITIAL_CAPACITY = 256;
+    private static final ClassLoader FAKE_BOOTSTRAP_CLASS_LOADER = new FakeBootstrapClassLoader();
+    /** 类加载器 -> 该类加载器中被增强的方法的id，弱引用类加载器，值中不引用类与类加载器 */
+    private static final ConcurrentWeakKeyHashMap<ClassLoader, LoaderMethods> LOADER_MAP =
+            new ConcurrentWeakKeyHashMap<>();
+    /** 被增强的类 -> 该类的方法缓存 */
+    private static final ClassValue<ClassMethods> CLASS_METHODS = new ClassValue<ClassMethods>() {
+        @Override
+        protected ClassMethods computeValue(Class<?> type) {
+            return new ClassMethods();
+        }
+    };
+    /** 当前线程正在增强的类所属的类加载器，供织入时的Binding使用 */
+    private static final ThreadLocal<ClassLoader> ENHANCING_LOADER = new ThreadLocal<>();
+    /** 当前线程是否为预增强，预增强新分配的id在确认前可被释放 */
+    private static final ThreadLocal<Boolean> ENHANCING_TENTATIVE = new ThreadLocal<>();
+    private static volatile WovenMethod[] methods = new WovenMethod[INITIAL_CAPACITY];
+    private static int count = 0;
+    private static volatile InvokeSite[] sites = new InvokeSite[INITIAL_CAPACITY];
+    private static int siteCount = 0;
+
+    /**
+     * 获取方法的id，不存在时分配一个新的id
+     * @param loader 类加载器
+     * @param className 类名，'/'分隔
+     * @param methodName 方法名
+     * @param methodDesc 方法描述
+     * @return 方法id
+     */
+    public static int register(ClassLoader loader, String className, String methodName, String methodDesc) {
+        return register(loader, className, methodName, methodDesc, false);
+    }
+
+    private static int register(ClassLoader loader, String className, String methodName, String methodDesc,
+                                boolean tentative) {
+        final LoaderMethods loaderMethods = loaderMethods(loader);
+        final Map<String, Integer> ids = loaderMethods.ids;
+        final String key = className + '|' + methodName + '|' + methodDesc;
+        Integer id = ids.get(key);
+        if (null != id && (tentative || confirmed(get(id)))) {
+            return id;
+        }
+        synchronized (MethodRegistry.class) {
+            id = ids.get(key);
+            if (null != id) {
+                if (!tentative) {
+                    methods[id].tentative = false;
+                }
+                return id;
+            }
+            final int methodId = count++;
+            WovenMethod[] table = methods;
+            if (methodId >= table.length) {
+                table = Arrays.copyOf(table, table.length << 1);
+            }
+            table[methodId] = new WovenMethod(methodId, loaderMethods.nextClassIndex(className),
+                    className.replace('/', '.'), methodName, methodDesc, key, tentative);
+            methods = table;
+            ids.put(key, methodId);
+            return methodId;
+        }
+    }
+
+    /**
+     * 获取调用点的id，不存在时分配一个新的id
+     * @param loader 类加载器
+     * @param className 调用所在的类名，'/'分隔
+     * @param methodName 调用所在的方法名
+     * @param methodDesc 调用所在的方法描述
+     * @param owner 被调用方法的类名，'/'分隔
+     * @param invokeName 被调用方法名
+     * @param invokeDesc 被调用方法描述
+     * @param ordinal 方法内同签名调用的序号
+     * @param lineNumber 调用所在的行号，仅首次注册时记录
+     * @return 调用点id
+     */
+    public static int registerInvokeSite(ClassLoader loader, String className, String methodName,
+                                         String methodDesc, String owner, String invokeName, String invokeDesc,
+                                         int ordinal, int lineNumber) {
+        return registerInvokeSite(loader, className, methodName, methodDesc, owner, invokeName, invokeDesc, ordinal,
+                lineNumber, false);
+    }
+
+    private static int registerInvokeSite(ClassLoader loader, String className, String methodName,
+                                          String methodDesc, String owner, String invokeName, String invokeDesc,
+                                          int ordinal, int lineNumber, boolean tentative) {
+        final Map<String, Integer> ids = loaderMethods(loader).siteIds;
+        final String key = className + '|' + methodName + '|' + methodDesc + '|' + owner + '|' + invokeName +
+                '|' + invokeDesc + '|' + ordinal;
+        Integer id = ids.get(key);
+        if (null != id && (tentative || confirmed(getInvokeSite(id)))) {
+            return id;
+        }
+        synchronized (MethodRegistry.class) {
+            id = ids.get(key);
+            if (null != id) {
+                if (!tentative) {
+                    sites[id].tentative = false;
+                }
+                return id;
+            }
+            final int siteId = siteCount++;
+            InvokeSite[] table = sites;
+            if (siteId >= table.length) {
+                table = Arrays.copyOf(table, table.length << 1);
+            }
+            table[siteId] = new InvokeSite(siteId, owner, invokeName, invokeDesc, lineNumber, key, tentative);
+            sites = table;
+            ids.put(key, siteId);
+            return siteId;
+        }
+    }
+
+    /**
+     * 根据id获取调用点
+     * @param siteId 调用点id
+     * @return 调用点，id无效时返回null
+     */
+    public static InvokeSite getInvokeSite(int siteId) {
+        final InvokeSite[] table = sites;
+        if (siteId < 0 || siteId >= table.length) {
+            return null;
+        }
+        return table[siteId];
+    }
+
+    /**
+     * 根据id获取方法信息
+     * @param methodId 方法id
+     * @return 方法信息，id无效时返回null
+     */
+    public static WovenMethod get(int methodId) {
+        final WovenMethod[] table = methods;
+        if (methodId < 0 || methodId >= table.length) {
+            return null;
+        }
+        return table[methodId];
+    }
+
+    /**
+     * 获取被增强方法的{@link JarbootMethod}，每个方法只创建一次，反射信息也只解析一次
+     * @param clazz 被增强的类
+     * @param methodId 方法id
+     * @return 方法，id无效时返回null
+     */
+    public static JarbootMethod getMethod(Class<?> clazz, int methodId) {
+        final WovenMethod wovenMethod = get(methodId);
+        if (null == wovenMethod) {
+            return null;
+        }
+        final ClassMethods classMethods = CLASS_METHODS.get(clazz);
+        final JarbootMethod[] cache = classMethods.methods;
+        final int index = wovenMethod.classIndex;
+        JarbootMethod method = index < cache.length ? cache[index] : null;
+        if (null == method) {
+            method = classMethods.cache(index, new JarbootMethod(clazz, wovenMethod.methodName,
+                    wovenMethod.methodDesc));
+        }
+        return method;
+    }
+
+    /**
+     * 清除类的方法缓存，在类重新增强或恢复时调用
+     * @param clazz 类
+     */
+    static void invalidate(Class<?> clazz) {
+        if (null != clazz) {
+            CLASS_METHODS.remove(clazz);
+        }
+    }
+
+    /**
+     * 确认预增强分配的id，确认后不再被释放
+     * @param methodIds 方法id
+     * @param siteIds 调用点id
+     * @return 存在已被释放的id时返回false，此时预增强的结果不可用
+     */
+    static boolean confirm(Collection<Integer> methodIds, Collection<Integer> siteIds) {
+        synchronized (MethodRegistry.class) {
+            for (Integer id : methodIds) {
+                if (null == methods[id]) {
+                    return false;
+                }
+            }
+            for (Integer id : siteIds) {
+                if (null == sites[id]) {
+                    return false;
+                }
+            }
+            for (Integer id : methodIds) {
+                methods[id].tentative = false;
+            }
+            for (Integer id : siteIds) {
+                sites[id].tentative = false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * 释放被丢弃的预增强结果中尚未确认的id，已被正式增强使用的id不受影响；
+     * id不再复用，只释放其方法信息与类加载器中的映射
+     * @param loader 类加载器
+     * @param methodIds 方法id
+     * @param siteIds 调用点id
+     * @return 释放的id个数
+     */
+    static int release(ClassLoader loader, Collection<Integer> methodIds, Collection<Integer> siteIds) {
+        final LoaderMethods loaderMethods = loaderMethods(loader);
+        int released = 0;
+        synchronized (MethodRegistry.class) {
+            for (Integer id : methodIds) {
+                final WovenMethod method = methods[id];
+                if (null != method && method.tentative) {
+                    loaderMethods.ids.remove(method.key);
+                    methods[id] = null;
+                    ++released;
+                }
+            }
+            for (Integer id : siteIds) {
+                final InvokeSite site = sites[id];
+                if (null != site && site.tentative) {
+                    loaderMethods.siteIds.remove(site.key);
+                    sites[id] = null;
+                    ++released;
+                }
+            }
+        }
+        return released;
+    }
+
+    /**
+     * 当前线程开始增强某个类加载器中的类
+     * @param loader 类加载器
+     * @param tentative 是否为预增强
+     */
+    static void beginEnhance(ClassLoader loader, boolean tentative) {
+        ENHANCING_LOADER.set(wrap(loader));
+        ENHANCING_TENTATIVE.set(tentative);
+    }
+
+    /**
+     * 当前线程增强结束
+     */
+    static void endEnhance() {
+        ENHANCING_LOADER.remove();
+        ENHANCING_TENTATIVE.remove();
+    }
+
+    /**
+     * 织入时获取当前正在增强的方法的id
+     * @param owner 类名，'/'分隔
+     * @param methodName 方法名
+     * @param methodDesc 方法描述
+     * @return 方法id
+     */
+    static int enhancingMethodId(String owner, String methodName, String methodDesc) {
+        ClassLoader loader = ENHANCING_LOADER.get();
+        if (null == loader) {
+            throw new IllegalStateException("No class is enhancing in current thread, method: " + owner + "#" +
+                    methodName);
+        }
+        return register(loader, owner, methodName, methodDesc, Boolean.TRUE.equals(ENHANCING_TENTATIVE.get()));
+    }
+
+    /**
+     * 织入时获取当前正在增强的调用点的id
+     * @param className 调用所在的类名，'/'分隔
+     * @param methodName 调用所在的方法名
+     * @param methodDesc 调用所在的方法描述
+     * @param owner 被调用方法的类名，'/'分隔
+     * @param invokeName 被调用方法名
+     * @param invokeDesc 被调用方法描述
+     * @param ordinal 方法内同签名调用的序号
+     * @param lineNumber 调用所在的行号
+     * @return 调用点id
+     */
+    static int enhancingInvokeSiteId(String className, String methodName, String methodDesc, String owner,
+                                     String invokeName, String invokeDesc, int ordinal, int lineNumber) {
+        ClassLoader loader = ENHANCING_LOADER.get();
+        if (null == loader) {
+            throw new IllegalStateException("No class is enhancing in current thread, method: " + className + "#" +
+                    methodName);
+        }
+        return registerInvokeSite(loader, className, methodName, methodDesc, owner, invokeName, invokeDesc,
+                ordinal, lineNumber, Boolean.TRUE.equals(ENHANCING_TENTATIVE.get()));
+    }
+
+    private static boolean confirmed(WovenMethod method) {
+        return null != method && !method.tentative;
+    }
+
+    private static boolean confirmed(InvokeSite site) {
+        return null != site && !site.tentative;
+    }
+
+    private static LoaderMethods loaderMethods(ClassLoader loader) {
+        loader = wrap(loader);
+        LoaderMethods loaderMethods = LOADER_MAP.get(loader);
+        if (null == loaderMethods) {
+            loaderMethods = new LoaderMethods();
+            LoaderMethods old = LOADER_MAP.putIfAbsent(loader, loaderMethods);
+            if (null != old) {
+                loaderMethods = old;
+            }
+        }
+        return loaderMethods;
+    }
+
+    private static ClassLoader wrap(ClassLoader classLoader) {
+        return null == classLoader ? FAKE_BOOTSTRAP_CLASS_LOADER : classLoader;
+    }
+
+    /**
+     * 同一个类加载器中被增强的方法，只保存字符串与id
+     */
+    private static final class LoaderMethods {
+        /** 类名|方法名|方法描述 -> id，同一方法重复增强时得到相同的id */
+        private final Map<String, Integer> ids = new ConcurrentHashMap<>(16);
+        /** 调用所在方法|被调用方法|序号 -> 调用点id */
+        private final Map<String, Integer> siteIds = new ConcurrentHashMap<>(16);
+        /** 类名 -> 类内已分配的方法序号个数，在注册锁内访问 */
+        private final Map<String, Integer> classCounts = new HashMap<>(16);
+
+        private int nextClassIndex(String className) {
+            final Integer index = classCounts.get(className);
+            final int next = null == index ? 0 : index;
+            classCounts.put(className, next + 1);
+            return next;
+        }
+    }
+
+    /**
+     * 同一个类中被增强的方法缓存，以类内的方法序号索引
+     */
+    private static final class ClassMethods {
+        private volatile JarbootMethod[] methods = new JarbootMethod[8];
+
+        private synchronized JarbootMethod cache(int index, JarbootMethod method) {
+            JarbootMethod[] cache = methods;
+            if (index >= cache.length) {
+                int length = cache.length;
+                while (index >= length) {
+                    length <<= 1;
+                }
+                cache = Arrays.copyOf(cache, length);
+            }
+            if (null == cache[index]) {
+                cache[index] = method;
+            }
+            methods = cache;
+            return cache[index];
+        }
+    }
+
+    /**
+     * 被增强的方法
+     */
+    public static final class WovenMethod {
+        private final int id;
+        /** 类内的方法序号 */
+        private final int classIndex;
+        private final String className;
+        private final String methodName;
+        private final String methodDesc;
+        /** 在类加载器中的键，释放时使用 */
+        private final String key;
+        /** 预增强分配且尚未确认 */
+        private volatile boolean tentative;
+
+        WovenMethod(int id, int classIndex, String className, String methodName, String methodDesc, String key,
+                    boolean tentative) {
+            this.id = id;
+            this.classIndex = classIndex;
+            this.className = className;
+            this.methodName = methodName;
+            this.methodDesc = methodDesc;
+            this.key = key;
+            this.tentative = tentative;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        public String getClassName() {
+            return className;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public String getMethodDesc() {
+            return methodDesc;
+        }
+
+        @Override
+        public String toString() {
+            return className + '#' + methodName + '|' + methodDesc;
+        }
+    }
+
+    /**
+     * trace时被增强方法内部的调用点
+     */
+    public static final class InvokeSite {
+        private final int id;
+        private final String owner;
+        private final String methodName;
+        private final String methodDesc;
+        private final int lineNumber;
+        /** 在类加载器中的键，释放时使用 */
+        private final String key;
+        /** 预增强分配且尚未确认 */
+        private volatile boolean tentative;
+
+        InvokeSite(int id, String owner, String methodName, String methodDesc, int lineNumber, String key,
+                   boolean tentative) {
+            this.id = id;
+            this.owner = owner;
+            this.methodName = methodName;
+            this.methodDesc = methodDesc;
+            this.lineNumber = lineNumber;
+            this.key = key;
+            this.tentative = tentative;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * 被调用方法的类名
+         * @return 类名，'/'分隔
+         */
+        public String getOwner() {
+            return owner;
+        }
+
+        public String getMethodName() {
+            return methodName;
+        }
+
+        public String getMethodDesc() {
+            return methodDesc;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        @Override
+        public String toString() {
+            return owner + '|' + methodName + '|' + methodDesc + '|' + lineNumber;
+        }
+    }
+
+    private static class FakeBootstrapClassLoader extends ClassLoader {
+
+    }
+
+    private MethodRegistry() {}
+}
@@ -6,8 +6,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.jarboot.SpyAPI;
-import java.util.List;
-import java.util.regex.Pattern;
 
 /**
  * Spy实现，切入点
@@ -18,23 +16,22 @@ public class SpyImpl extends SpyAPI.AbstractSpy {
     private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
 
     @Override
-    public void atEnter(Class<?> clazz, String methodInfo, Object target, Object[] args) {
-        ClassLoader classLoader = clazz.getClassLoader();
-
-        String[] info = splitMethodInfo(methodInfo);
-        String methodName = info[0];
-        String methodDesc = info[1];
-        List<AdviceListener> listeners = AdviceListenerManager.queryAdviceListeners(classLoader, clazz.getName(),
-                methodName, methodDesc);
-        if (listeners != null) {
+    public void atEnter(Class<?> clazz, int methodId, Object target, Object[] args) {
+        AdviceListener[] listeners = AdviceListenerManager.queryAdviceListeners(methodId);
+        if (listeners != null && listeners.length > 0) {
+            JarbootMethod method = MethodRegistry.getMethod(clazz, methodId);
+            if (null == method) {
+                logger.warn("class: {}, method id {} not registered, skip advice.", clazz.getName(), methodId);
+                return;
+            }
             for (AdviceListener adviceListener : listeners) {
                 try {
                     if (skipAdviceListener(adviceListener)) {
                         continue;
                     }
-                    adviceListener.before(clazz, methodName, methodDesc, target, args);
+                    adviceListener.before(clazz, method, target, args);
                 } catch (Throwable e) {
-                    logger.error("class: {}, methodInfo: {}, {}", clazz.getName(), methodInfo, e);
+                    logger.error("class: {}, method: {}, {}", clazz.getName(), method.getName(), e);
                 }
             }
         }
@@ -42,134 +39,109 @@ public class SpyImpl extends SpyAPI.AbstractSpy {
     }
 
     @Override
-    public void atExit(Class<?> clazz, String methodInfo, Object target, Object[] args, Object returnObject) {
-        ClassLoader classLoader = clazz.getClassLoader();
-        String[] info = splitMethodInfo(methodInfo);
-        String methodName = info[0];
-        String methodDesc = info[1];
-
-        List<AdviceListener> listeners = AdviceListenerManager.queryAdviceListeners(classLoader, clazz.getName(),
-                methodName, methodDesc);
-        if (listeners != null) {
+    public void atExit(Class<?> clazz, int methodId, Object target, Object[] args, Object returnObject) {
+        AdviceListener[] listeners = AdviceListenerManager.queryAdviceListeners(methodId);
+        if (listeners != null && listeners.length > 0) {
+            JarbootMethod method = MethodRegistry.getMethod(clazz, methodId);
+            if (null == method) {
+                logger.warn("class: {}, method id {} not registered, skip advice.", clazz.getName(), methodId);
+                return;
+            }
             for (AdviceListener adviceListener : listeners) {
                 try {
                     if (skipAdviceListener(adviceListener)) {
                         continue;
                     }
-                    adviceListener.afterReturning(clazz, methodName, methodDesc, target, args, returnObject);
+                    adviceListener.afterReturning(clazz, method, target, args, returnObject);
                 } catch (Throwable e) {
-                    logger.error("class: {}, methodInfo: {}", clazz.getName(), methodInfo, e);
+                    logger.error("class: {}, method: {}", clazz.getName(), method.getName(), e);
                 }
             }
         }
     }
 
     @Override
-    public void atExceptionExit(Class<?> clazz, String methodInfo, Object target, Object[] args, Throwable throwable) {
-        ClassLoader classLoader = clazz.getClassLoader();
-        String[] info = splitMethodInfo(methodInfo);
-        String methodName = info[0];
-        String methodDesc = info[1];
-
-        List<AdviceListener> listeners = AdviceListenerManager.queryAdviceListeners(classLoader, clazz.getName(),
-                methodName, methodDesc);
-        if (listeners != null) {
+    public void atExceptionExit(Class<?> clazz, int methodId, Object target, Object[] args, Throwable throwable) {
+        AdviceListener[] listeners = AdviceListenerManager.queryAdviceListeners(methodId);
+        if (listeners != null && listeners.length > 0) {
+            JarbootMethod method = MethodRegistry.getMethod(clazz, methodId);
+            if (null == method) {
+                logger.warn("class: {}, method id {} not registered, skip advice.", clazz.getName(), methodId);
+                return;
+            }
             for (AdviceListener adviceListener : listeners) {
                 try {
                     if (skipAdviceListener(adviceListener)) {
                         continue;
                     }
-                    adviceListener.afterThrowing(clazz, methodName, methodDesc, target, args, throwable);
+                    adviceListener.afterThrowing(clazz, method, target, args, throwable);
                 } catch (Throwable e) {
-                    logger.error("class: {}, methodInfo: {}", clazz.getName(), methodInfo, e);
+                    logger.error("class: {}, method: {}", clazz.getName(), method.getName(), e);
                 }
             }
         }
     }
 
     @Override
-    public void atBeforeInvoke(Class<?> clazz, String invokeInfo, Object target) {
-        ClassLoader classLoader = clazz.getClassLoader();
-        String[] info = splitInvokeInfo(invokeInfo);
-        String owner = info[0];
-        String methodName = info[1];
-        String methodDesc = info[2];
-
-        List<AdviceListener> listeners = AdviceListenerManager.queryTraceAdviceListeners(classLoader, clazz.getName(),
-                owner, methodName, methodDesc);
-        if (listeners != null) {
+    public void atBeforeInvoke(Class<?> clazz, int siteId, Object target) {
+        AdviceListener[] listeners = AdviceListenerManager.queryTraceAdviceListeners(siteId);
+        if (listeners != null && listeners.length > 0) {
+            ClassLoader classLoader = clazz.getClassLoader();
+            MethodRegistry.InvokeSite site = MethodRegistry.getInvokeSite(siteId);
             for (AdviceListener adviceListener : listeners) {
                 try {
                     if (skipAdviceListener(adviceListener)) {
                         continue;
                     }
                     final InvokeTraceable listener = (InvokeTraceable) adviceListener;
-                    listener.invokeBeforeTracing(classLoader, owner, methodName, methodDesc, Integer.parseInt(info[3]));
+                    listener.invokeBeforeTracing(classLoader, site);
                 } catch (Throwable e) {
-                    logger.error("class: {}, invokeInfo: {}, {}", clazz.getName(), invokeInfo, e);
+                    logger.error("class: {}, invokeSite: {}", clazz.getName(), site, e);
                 }
             }
         }
     }
 
     @Override
-    public void atAfterInvoke(Class<?> clazz, String invokeInfo, Object target) {
-        ClassLoader classLoader = clazz.getClassLoader();
-        String[] info = splitInvokeInfo(invokeInfo);
-        String owner = info[0];
-        String methodName = info[1];
-        String methodDesc = info[2];
-        List<AdviceListener> listeners = AdviceListenerManager.queryTraceAdviceListeners(classLoader, clazz.getName(),
-                owner, methodName, methodDesc);
-        if (listeners != null) {
+    public void atAfterInvoke(Class<?> clazz, int siteId, Object target) {
+        AdviceListener[] listeners = AdviceListenerManager.queryTraceAdviceListeners(siteId);
+        if (listeners != null && listeners.length > 0) {
+            ClassLoader classLoader = clazz.getClassLoader();
+            MethodRegistry.InvokeSite site = MethodRegistry.getInvokeSite(siteId);
             for (AdviceListener adviceListener : listeners) {
                 try {
                     if (skipAdviceListener(adviceListener)) {
                         continue;
                     }
                     final InvokeTraceable listener = (InvokeTraceable) adviceListener;
-                    listener.invokeAfterTracing(classLoader, owner, methodName, methodDesc, Integer.parseInt(info[3]));
+                    listener.invokeAfterTracing(classLoader, site);
                 } catch (Throwable e) {
-                    logger.error("class: {}, invokeInfo: {}", clazz.getName(), invokeInfo, e);
+                    logger.error("class: {}, invokeSite: {}", clazz.getName(), site, e);
                 }
             }
         }
-
     }
 
     @Override
-    public void atInvokeException(Class<?> clazz, String invokeInfo, Object target, Throwable throwable) {
-        ClassLoader classLoader = clazz.getClassLoader();
-        String[] info = splitInvokeInfo(invokeInfo);
-        String owner = info[0];
-        String methodName = info[1];
-        String methodDesc = info[2];
-        List<AdviceListener> listeners = AdviceListenerManager.queryTraceAdviceListeners(classLoader, clazz.getName(),
-                owner, methodName, methodDesc);
-
-        if (listeners != null) {
+    public void atInvokeException(Class<?> clazz, int siteId, Object target, Throwable throwable) {
+        AdviceListener[] listeners = AdviceListenerManager.queryTraceAdviceListeners(siteId);
+        if (listeners != null && listeners.length > 0) {
+            ClassLoader classLoader = clazz.getClassLoader();
+            MethodRegistry.InvokeSite site = MethodRegistry.getInvokeSite(siteId);
             for (AdviceListener adviceListener : listeners) {
                 try {
                     if (skipAdviceListener(adviceListener)) {
                         continue;
                     }
                     final InvokeTraceable listener = (InvokeTraceable) adviceListener;
-                    listener.invokeThrowTracing(classLoader, owner, methodName, methodDesc, Integer.parseInt(info[3]));
+                    listener.invokeThrowTracing(classLoader, site);
                 } catch (Throwable e) {
-                    logger.error("class: {}, invokeInfo: {}", clazz.getName(), invokeInfo, e);
+                    logger.error("class: {}, invokeSite: {}", clazz.getName(), site, e);
                 }
             }
         }
     }
 
-    private String[] splitMethodInfo(String methodInfo) {
-        return methodInfo.split(Pattern.quote("|"));
-    }
-
-    private String[] splitInvokeInfo(String invokeInfo) {
-        return invokeInfo.split(Pattern.quote("|"));
-    }
-
     private boolean skipAdviceListener(AdviceListener adviceListener) {
         if (adviceListener instanceof JobAware) {
             JobAware aware = (JobAware) adviceListener;
@@ -16,25 +16,25 @@ public class SpyInterceptors {
 
         @AtEnter(inline = true)
         public static void atEnter(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.MethodInfo String methodInfo, @Binding.Args Object[] args) {
-            SpyAPI.atEnter(clazz, methodInfo, target, args);
+                @MethodIdBinding.MethodId int methodId, @Binding.Args Object[] args) {
+            SpyAPI.atEnter(clazz, methodId, target, args);
         }
     }
     
     public static class SpyInterceptor2 {
         @AtExit(inline = true)
         public static void atExit(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.MethodInfo String methodInfo, @Binding.Args Object[] args, @Binding.Return Object returnObj) {
-            SpyAPI.atExit(clazz, methodInfo, target, args, returnObj);
+                @MethodIdBinding.MethodId int methodId, @Binding.Args Object[] args, @Binding.Return Object returnObj) {
+            SpyAPI.atExit(clazz, methodId, target, args, returnObj);
         }
     }
     
     public static class SpyInterceptor3 {
         @AtExceptionExit(inline = true)
         public static void atExceptionExit(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.MethodInfo String methodInfo, @Binding.Args Object[] args,
+                @MethodIdBinding.MethodId int methodId, @Binding.Args Object[] args,
                 @Binding.Throwable Throwable throwable) {
-            SpyAPI.atExceptionExit(clazz, methodInfo, target, args, throwable);
+            SpyAPI.atExceptionExit(clazz, methodId, target, args, throwable);
         }
     }
 
@@ -48,8 +48,8 @@ public class SpyInterceptors {
                 , "java.lang.Long"
                 , "java.lang.Double"})
         public static void onInvoke(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.InvokeInfo String invokeInfo) {
-            SpyAPI.atBeforeInvoke(clazz, invokeInfo, target);
+                @InvokeSiteBinding.InvokeSiteId int siteId) {
+            SpyAPI.atBeforeInvoke(clazz, siteId, target);
         }
     }
     
@@ -63,8 +63,8 @@ public class SpyInterceptors {
                 , "java.lang.Long"
                 , "java.lang.Double"})
         public static void onInvokeAfter(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.InvokeInfo String invokeInfo) {
-            SpyAPI.atAfterInvoke(clazz, invokeInfo, target);
+                @InvokeSiteBinding.InvokeSiteId int siteId) {
+            SpyAPI.atAfterInvoke(clazz, siteId, target);
         }
     }
     
@@ -78,32 +78,32 @@ public class SpyInterceptors {
                 , "java.lang.Long"
                 , "java.lang.Double"})
         public static void onInvokeException(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.InvokeInfo String invokeInfo, @Binding.Throwable Throwable throwable) {
-            SpyAPI.atInvokeException(clazz, invokeInfo, target, throwable);
+                @InvokeSiteBinding.InvokeSiteId int siteId, @Binding.Throwable Throwable throwable) {
+            SpyAPI.atInvokeException(clazz, siteId, target, throwable);
         }
     }
 
     public static class SpyTraceExcludeJDKInterceptor1 {
         @AtInvoke(name = "", inline = true, whenComplete = false, excludes = "java.**")
         public static void onInvoke(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.InvokeInfo String invokeInfo) {
-            SpyAPI.atBeforeInvoke(clazz, invokeInfo, target);
+                @InvokeSiteBinding.InvokeSiteId int siteId) {
+            SpyAPI.atBeforeInvoke(clazz, siteId, target);
         }
     }
 
     public static class SpyTraceExcludeJDKInterceptor2 {
         @AtInvoke(name = "", inline = true, whenComplete = true, excludes = "java.**")
         public static void onInvokeAfter(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.InvokeInfo String invokeInfo) {
-            SpyAPI.atAfterInvoke(clazz, invokeInfo, target);
+                @InvokeSiteBinding.InvokeSiteId int siteId) {
+            SpyAPI.atAfterInvoke(clazz, siteId, target);
         }
     }
 
     public static class SpyTraceExcludeJDKInterceptor3 {
         @AtInvokeException(name = "", inline = true, excludes = "java.**")
         public static void onInvokeException(@Binding.This Object target, @Binding.Class Class<?> clazz,
-                @Binding.InvokeInfo String invokeInfo, @Binding.Throwable Throwable throwable) {
-            SpyAPI.atInvokeException(clazz, invokeInfo, target, throwable);
+                @InvokeSiteBinding.InvokeSiteId int siteId, @Binding.Throwable Throwable throwable) {
+            SpyAPI.atInvokeException(clazz, siteId, target, throwable);
         }
     }
 
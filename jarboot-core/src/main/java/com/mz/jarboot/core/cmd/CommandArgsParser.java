@@ -59,8 +59,12 @@ public class CommandArgsParser {
                     argumentMap.put(argument.index(), argument);
                 }
                 if (null != option) {
-                    optionMap.put(option.shortName(), option);
-                    optionMap.put(option.longName(), option);
+                    if (!Option.NO_NAME.equals(option.shortName())) {
+                        optionMap.put(option.shortName(), option);
+                    }
+                    if (!Option.NO_NAME.equals(option.longName())) {
+                        optionMap.put(option.longName(), option);
+                    }
                     optionMethods.put(m, option);
                 }
             }
@@ -89,7 +93,7 @@ public class CommandArgsParser {
                     preOp = option;
                 }
                 List<String> opValueList = new ArrayList<>();
-                options.put(option.shortName(), opValueList);
+                options.put(optionKey(option), opValueList);
             } else {
                 //可能是参数，也可能是option的值
                 if (null == preOp) {
@@ -103,7 +107,7 @@ public class CommandArgsParser {
                     arguments.add(s);
                 } else {
                     //是上一个option的值，填充值
-                    options.get(preOp.shortName()).add(s);
+                    options.get(optionKey(preOp)).add(s);
                     if (!preOp.acceptMultipleValues()) {
                         preOp = null;
                     }
@@ -191,7 +195,7 @@ public class CommandArgsParser {
     }
 
     private void doInitOptionField(Method method, Option option) {
-        List<String> values = options.getOrDefault(option.shortName(), null);
+        List<String> values = options.getOrDefault(optionKey(option), null);
         if (option.flag()) {
             callMethod(method, null != values);
             return;
@@ -241,6 +245,13 @@ public class CommandArgsParser {
         }
     }
 
+    /**
+     * 选项值的键，没有短名称的选项使用长名称，避免相互覆盖
+     */
+    private static String optionKey(Option option) {
+        return Option.NO_NAME.equals(option.shortName()) ? option.longName() : option.shortName();
+    }
+
     private static String formatParamError(String name, Method method) {
         Description description = method.getAnnotation(Description.class);
         String desc = null == description ? CoreConstant.EMPTY_STRING : description.value();
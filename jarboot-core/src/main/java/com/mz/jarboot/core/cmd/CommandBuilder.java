@@ -25,9 +25,12 @@ public class CommandBuilder {
     static {
         commandMap.put("bytes", BytesCommand.class);
         commandMap.put("jvm", JvmCommand.class);
+        commandMap.put("perfcounter", PerfCounterCommand.class);
+        commandMap.put("mbean", MBeanCommand.class);
         commandMap.put("stdout", StdOutCommand.class);
         commandMap.put("sysprop", SysPropCommand.class);
         commandMap.put("heapdump", HeapDumpCommand.class);
+        commandMap.put("histo", HistoCommand.class);
 
         commandMap.put("jad", JadCommand.class);
         commandMap.put("classloader", ClassLoaderCommand.class);
@@ -36,8 +39,16 @@ public class CommandBuilder {
         //资源监控类
         commandMap.put("dashboard", DashboardCommand.class);
         commandMap.put("thread", ThreadCommand.class);
+        commandMap.put("gc", GcCommand.class);
+        commandMap.put("watchdog", WatchdogCommand.class);
         commandMap.put("watch", WatchCommand.class);
         commandMap.put("trace", TraceCommand.class);
+        commandMap.put("monitor", MonitorCommand.class);
+        commandMap.put("stack", StackCommand.class);
+        commandMap.put("profiler", ProfilerCommand.class);
+        commandMap.put("lock", LockCommand.class);
+        commandMap.put("tt", TimeTunnelCommand.class);
+        commandMap.put("reset", ResetCommand.class);
         //初始化内部命令实现
         internalCommandMap.put(CommandConst.EXIT_CMD, ExitCommand.class);
         internalCommandMap.put(CommandConst.CANCEL_CMD, CancelCommand.class);
@@ -0,0 +1,40 @@
+package com.mz.jarboot.core.cmd.express;
+
+import com.mz.jarboot.core.advisor.Advice;
+
+/**
+ * 预编译的表达式，命令启动时编译一次，每次通知时直接求值
+ * @author majianzheng
+ */
+public interface CompiledExpress {
+
+    /**
+     * 对通知求值
+     *
+     * @param advice 通知
+     * @param cost   本次调用耗时，对应表达式中的#cost
+     * @return 表达式运算后的值
+     * @throws ExpressException 表达式运算出错
+     */
+    Object get(Advice advice, double cost) throws ExpressException;
+
+    /**
+     * 对通知判断是与否
+     *
+     * @param advice 通知
+     * @param cost   本次调用耗时，对应表达式中的#cost
+     * @return 表达式运算后的布尔值
+     * @throws ExpressException 表达式运算出错
+     */
+    default boolean is(Advice advice, double cost) throws ExpressException {
+        final Object ret = get(advice, cost);
+        return ret instanceof Boolean && (Boolean) ret;
+    }
+
+    /**
+     * 原始表达式
+     *
+     * @return 表达式
+     */
+    String getExpress();
+}
@@ -16,6 +16,16 @@ public interface Express {
      */
     Object get(String express) throws com.mz.jarboot.core.cmd.express.ExpressException;
 
+    /**
+     * 根据预先解析的表达式获取值，避免每次求值时重复解析
+     *
+     * @param tree    {@link #parse(String)}解析后的表达式
+     * @param express 原始表达式
+     * @return 表达式运算后的值
+     * @throws com.mz.jarboot.core.cmd.express.ExpressException 表达式运算出错
+     */
+    Object get(Object tree, String express) throws com.mz.jarboot.core.cmd.express.ExpressException;
+
     /**
      * 根据表达式判断是与否
      *
@@ -25,6 +35,15 @@ public interface Express {
      */
     boolean is(String express) throws com.mz.jarboot.core.cmd.express.ExpressException;
 
+    /**
+     * 解析表达式
+     *
+     * @param express 表达式
+     * @return 解析后的表达式
+     * @throws com.mz.jarboot.core.cmd.express.ExpressException 表达式语法错误
+     */
+    Object parse(String express) throws com.mz.jarboot.core.cmd.express.ExpressException;
+
     /**
      * 绑定对象
      *
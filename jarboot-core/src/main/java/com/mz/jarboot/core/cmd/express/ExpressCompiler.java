@@ -0,0 +1,254 @@
+package com.mz.jarboot.core.cmd.express;
+
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.StringUtils;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 表达式编译器<br/>
+ * OGNL表达式只解析一次；常见的简单表达式如：#cost > 10、params[0]、returnObj.size()、throwExp != null
+ * 直接编译为Java代码求值，无法处理时回退到OGNL
+ * @author majianzheng
+ */
+public class ExpressCompiler {
+    private static final Pattern COST_COMPARE =
+            Pattern.compile("^#" + CoreConstant.COST_VARIABLE + "\\s*(>=|<=|==|!=|>|<)\\s*(-?\\d+(\\.\\d+)?)$");
+    private static final Pattern PROPERTY =
+            Pattern.compile("^(params|returnObj|throwExp|target|clazz|method)(\\[(\\d+)])?(\\.size\\(\\))?$");
+    private static final Pattern NULL_COMPARE = Pattern.compile("^(.+?)\\s*(==|!=)\\s*null$");
+    /** 快速路径无法处理，需回退到OGNL */
+    private static final Object FALLBACK = new Object();
+
+    /**
+     * 编译表达式
+     *
+     * @param express 表达式
+     * @return 表达式为空时返回null
+     * @throws ExpressException 表达式语法错误
+     */
+    public static CompiledExpress compile(String express) throws ExpressException {
+        if (StringUtils.isBlank(express)) {
+            return null;
+        }
+        final String trimmed = express.trim();
+        // 总是预先解析OGNL，既检查了语法，也作为快速路径的回退
+        final OgnlCompiledExpress ognl = new OgnlCompiledExpress(express,
+                ExpressFactory.threadLocalExpress(null).parse(express));
+
+        Matcher matcher = COST_COMPARE.matcher(trimmed);
+        if (matcher.matches()) {
+            return new CostCompareExpress(ognl, matcher.group(1), Double.parseDouble(matcher.group(2)));
+        }
+        PropertyExpress property = property(ognl, trimmed);
+        if (null != property) {
+            return property;
+        }
+        matcher = NULL_COMPARE.matcher(trimmed);
+        if (matcher.matches()) {
+            property = property(ognl, matcher.group(1));
+            if (null != property) {
+                return new NullCompareExpress(ognl, property, "!=".equals(matcher.group(2)));
+            }
+        }
+        return ognl;
+    }
+
+    private static PropertyExpress property(OgnlCompiledExpress ognl, String express) {
+        Matcher matcher = PROPERTY.matcher(express);
+        if (!matcher.matches()) {
+            return null;
+        }
+        int index = null == matcher.group(3) ? -1 : Integer.parseInt(matcher.group(3));
+        if (index >= 0 && !"params".equals(matcher.group(1))) {
+            return null;
+        }
+        return new PropertyExpress(ognl, matcher.group(1), index, null != matcher.group(4));
+    }
+
+    /**
+     * 预先解析的OGNL表达式<br/>
+     * 每个线程复用同一个OGNL上下文，求值后清除表达式中赋值的变量与根对象，
+     * 避免变量泄漏到之后的求值中，也不再引用通知的参数与返回值
+     */
+    static final class OgnlCompiledExpress implements CompiledExpress {
+        private static final ThreadLocal<OgnlExpress> CONTEXT = ThreadLocal.withInitial(OgnlExpress::new);
+        private final String express;
+        private final Object tree;
+
+        OgnlCompiledExpress(String express, Object tree) {
+            this.express = express;
+            this.tree = tree;
+        }
+
+        @Override
+        public Object get(Advice advice, double cost) throws ExpressException {
+            final OgnlExpress ognl = CONTEXT.get();
+            try {
+                return ognl.bind(advice).bind(CoreConstant.COST_VARIABLE, cost).get(tree, express);
+            } finally {
+                ognl.reset();
+            }
+        }
+
+        @Override
+        public String getExpress() {
+            return express;
+        }
+    }
+
+    /**
+     * 快速路径的基类
+     */
+    abstract static class FastExpress implements CompiledExpress {
+        protected final OgnlCompiledExpress ognl;
+
+        FastExpress(OgnlCompiledExpress ognl) {
+            this.ognl = ognl;
+        }
+
+        @Override
+        public Object get(Advice advice, double cost) throws ExpressException {
+            final Object value = fastGet(advice, cost);
+            return FALLBACK == value ? ognl.get(advice, cost) : value;
+        }
+
+        @Override
+        public String getExpress() {
+            return ognl.getExpress();
+        }
+
+        /**
+         * 快速求值
+         *
+         * @param advice 通知
+         * @param cost   耗时
+         * @return 无法处理时返回{@link #FALLBACK}
+         */
+        protected abstract Object fastGet(Advice advice, double cost);
+    }
+
+    /**
+     * #cost与常量比较
+     */
+    static final class CostCompareExpress extends FastExpress {
+        private final String operator;
+        private final double value;
+
+        CostCompareExpress(OgnlCompiledExpress ognl, String operator, double value) {
+            super(ognl);
+            this.operator = operator;
+            this.value = value;
+        }
+
+        @Override
+        protected Object fastGet(Advice advice, double cost) {
+            switch (operator) {
+                case ">":
+                    return cost > value;
+                case ">=":
+                    return cost >= value;
+                case "<":
+                    return cost < value;
+                case "<=":
+                    return cost <= value;
+                case "==":
+                    return cost == value;
+                case "!=":
+                    return cost != value;
+                default:
+                    return FALLBACK;
+            }
+        }
+    }
+
+    /**
+     * 通知的属性，可带参数下标或size()调用
+     */
+    static final class PropertyExpress extends FastExpress {
+        private final String name;
+        private final int index;
+        private final boolean size;
+
+        PropertyExpress(OgnlCompiledExpress ognl, String name, int index, boolean size) {
+            super(ognl);
+            this.name = name;
+            this.index = index;
+            this.size = size;
+        }
+
+        @Override
+        protected Object fastGet(Advice advice, double cost) {
+            Object value;
+            switch (name) {
+                case "params":
+                    value = advice.getParams();
+                    break;
+                case "returnObj":
+                    value = advice.getReturnObj();
+                    break;
+                case "throwExp":
+                    value = advice.getThrowExp();
+                    break;
+                case "target":
+                    value = advice.getTarget();
+                    break;
+                case "clazz":
+                    value = advice.getClazz();
+                    break;
+                case "method":
+                    value = advice.getMethod();
+                    break;
+                default:
+                    return FALLBACK;
+            }
+            if (index >= 0) {
+                Object[] params = (Object[]) value;
+                if (null == params || index >= params.length) {
+                    // 越界等异常情况交给OGNL报错
+                    return FALLBACK;
+                }
+                value = params[index];
+            }
+            if (size) {
+                if (value instanceof Collection) {
+                    return ((Collection<?>) value).size();
+                }
+                if (value instanceof Map) {
+                    return ((Map<?, ?>) value).size();
+                }
+                return FALLBACK;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * 属性与null比较
+     */
+    static final class NullCompareExpress extends FastExpress {
+        private final PropertyExpress property;
+        private final boolean notNull;
+
+        NullCompareExpress(OgnlCompiledExpress ognl, PropertyExpress property, boolean notNull) {
+            super(ognl);
+            this.property = property;
+            this.notNull = notNull;
+        }
+
+        @Override
+        protected Object fastGet(Advice advice, double cost) {
+            final Object value = property.fastGet(advice, cost);
+            if (FALLBACK == value) {
+                return FALLBACK;
+            }
+            return notNull == (null != value);
+        }
+    }
+
+    private ExpressCompiler() {}
+}
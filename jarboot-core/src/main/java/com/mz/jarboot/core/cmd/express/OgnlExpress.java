@@ -15,6 +15,7 @@ public class OgnlExpress implements Express {
     private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
 
     private Object bindObject;
+    private final ClassResolver classResolver;
     private final OgnlContext context;
 
     public OgnlExpress() {
@@ -22,6 +23,7 @@ public class OgnlExpress implements Express {
     }
 
     public OgnlExpress(ClassResolver classResolver) {
+        this.classResolver = classResolver;
         context = new OgnlContext();
         context.setClassResolver(classResolver);
         // allow private field access
@@ -38,6 +40,25 @@ public class OgnlExpress implements Express {
         }
     }
 
+    @Override
+    public Object get(Object tree, String express) throws com.mz.jarboot.core.cmd.express.ExpressException {
+        try {
+            return Ognl.getValue(tree, context, bindObject);
+        } catch (Exception e) {
+            logger.error("Error during evaluating the expression:", e);
+            throw new com.mz.jarboot.core.cmd.express.ExpressException(express, e);
+        }
+    }
+
+    @Override
+    public Object parse(String express) throws com.mz.jarboot.core.cmd.express.ExpressException {
+        try {
+            return Ognl.parseExpression(express);
+        } catch (Exception e) {
+            throw new com.mz.jarboot.core.cmd.express.ExpressException(express, e);
+        }
+    }
+
     @Override
     public boolean is(String express) throws com.mz.jarboot.core.cmd.express.ExpressException {
         final Object ret = get(express);
@@ -58,8 +79,10 @@ public class OgnlExpress implements Express {
 
     @Override
     public Express reset() {
+        // 清除变量与根对象，保留创建时的类解析器
+        bindObject = null;
         context.clear();
-        context.setClassResolver(CustomClassResolver.customClassResolver);
+        context.setClassResolver(classResolver);
         // allow private field access
         context.setMemberAccess(MEMBER_ACCESS);
         return this;
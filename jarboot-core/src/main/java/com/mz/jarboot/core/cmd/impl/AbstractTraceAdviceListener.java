@@ -3,6 +3,7 @@ package com.mz.jarboot.core.cmd.impl;
 import com.mz.jarboot.core.advisor.Advice;
 import com.mz.jarboot.core.advisor.AdviceListenerAdapter;
 import com.mz.jarboot.core.advisor.JarbootMethod;
+import com.mz.jarboot.core.cmd.express.CompiledExpress;
 import com.mz.jarboot.core.constant.CoreConstant;
 import com.mz.jarboot.core.session.CommandSession;
 import com.mz.jarboot.core.utils.ThreadLocalWatch;
@@ -19,6 +20,7 @@ public class AbstractTraceAdviceListener extends AdviceListenerAdapter {
     protected final ThreadLocalWatch threadLocalWatch = new ThreadLocalWatch();
     protected TraceCommand command;
     protected CommandSession process;
+    private final CompiledExpress conditionExpress;
 
     protected final ThreadLocal<TraceEntity> threadBoundEntity = new ThreadLocal<>();
 
@@ -28,6 +30,7 @@ public class AbstractTraceAdviceListener extends AdviceListenerAdapter {
     public AbstractTraceAdviceListener(TraceCommand command, CommandSession process) {
         this.command = command;
         this.process = process;
+        this.conditionExpress = compileExpress(command.getConditionExpress());
     }
 
     protected TraceEntity threadLocalTraceEntity(ClassLoader loader) {
@@ -85,28 +88,42 @@ public class AbstractTraceAdviceListener extends AdviceListenerAdapter {
         TraceEntity traceEntity = threadLocalTraceEntity(loader);
         double cost = threadLocalWatch.costInMillis();
         if (--traceEntity.deep == 0) {
-            try {
-                boolean conditionResult = isConditionMet(command.getConditionExpress(), advice, cost);
-                if (this.isVerbose()) {
-                    process.console("Condition express: " + command.getConditionExpress() + " , result: " + conditionResult + "\n");
+            // 调用树已完成，后续的条件判断与输出交给工作线程
+            threadBoundEntity.remove();
+            final Advice snapshot = advice.snapshot();
+            dispatch(() -> finishing(traceEntity, snapshot, cost));
+        }
+    }
+
+    private void finishing(TraceEntity traceEntity, Advice advice, double cost) {
+        if (!prepareAsync(process)) {
+            return;
+        }
+        try {
+            boolean conditionResult = isConditionMet(conditionExpress, advice, cost);
+            if (this.isVerbose()) {
+                process.console("Condition express: " + command.getConditionExpress() + " , result: " + conditionResult + "\n");
+            }
+            if (conditionResult) {
+                final TraceAggregator aggregator = command.getAggregator();
+                if (null != aggregator) {
+                    // 聚合模式只合并调用树，统计结束时统一输出
+                    aggregator.merge(traceEntity.tree);
+                    return;
                 }
-                if (conditionResult) {
-                    // 满足输出条件
-                    process.times().incrementAndGet();
-                    process.appendResult(traceEntity.getModel());
+                // 满足输出条件
+                process.times().incrementAndGet();
+                process.appendResult(traceEntity.getModel());
 
-                    // 是否到达数量限制
-                    if (isLimitExceeded(command.getNumberOfLimit(), process.times().get())) {
-                        abortProcess(process, command.getNumberOfLimit());
-                    }
+                // 是否到达数量限制
+                if (isLimitExceeded(command.getNumberOfLimit(), process.times().get())) {
+                    abortProcess(process, command.getNumberOfLimit());
                 }
-            } catch (Throwable e) {
-                logger.warn("trace failed.", e);
-                process.end(false, "trace failed, " + e.getMessage()
-                              + ", visit log file for more details.");
-            } finally {
-                threadBoundEntity.remove();
             }
+        } catch (Throwable e) {
+            logger.warn("trace failed.", e);
+            process.end(false, "trace failed, " + e.getMessage()
+                          + ", visit log file for more details.");
         }
     }
 }
@@ -0,0 +1,150 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.HistoEntryVO;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 类直方图<br/>
+ * 调用DiagnosticCommand的gcClassHistogram获取每个类的实例数与字节数，与jmap -histo相同，
+ * 耗时在毫秒级，远小于堆转储；不同类加载器加载的同名类合并统计
+ * @author majianzheng
+ */
+class ClassHistogram {
+    private static final String DIAGNOSTIC_COMMAND = "com.sun.management:type=DiagnosticCommand";
+    private static final String OPERATION = "gcClassHistogram";
+    /** 如：   1:          2224         881672  [I (java.base@17.0.9) */
+    private static final Pattern LINE = Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+)(?:\\s+\\((.*)\\))?\\s*$");
+
+    /** 类名 -> {实例数, 字节数} */
+    private final Map<String, long[]> classes;
+    private final long totalInstances;
+    private final long totalBytes;
+    private final long timestamp;
+
+    private ClassHistogram(Map<String, long[]> classes, long timestamp) {
+        this.classes = classes;
+        this.timestamp = timestamp;
+        long instances = 0;
+        long bytes = 0;
+        for (long[] value : classes.values()) {
+            instances += value[0];
+            bytes += value[1];
+        }
+        this.totalInstances = instances;
+        this.totalBytes = bytes;
+    }
+
+    /**
+     * 获取当前的类直方图
+     * @param live 只统计存活对象，会触发一次Full GC
+     * @return 直方图
+     * @throws JMException 不支持DiagnosticCommand
+     */
+    static ClassHistogram take(boolean live) throws JMException {
+        String[] args = live ? new String[0] : new String[] {"-all"};
+        Object result = ManagementFactory.getPlatformMBeanServer().invoke(new ObjectName(DIAGNOSTIC_COMMAND),
+                OPERATION, new Object[] {args}, new String[] {String[].class.getName()});
+        return parse(String.valueOf(result));
+    }
+
+    /**
+     * 解析gcClassHistogram的输出
+     * @param text 输出
+     * @return 直方图
+     */
+    static ClassHistogram parse(String text) {
+        Map<String, long[]> classes = new HashMap<>(4096);
+        for (String line : text.split("\n")) {
+            Matcher matcher = LINE.matcher(line);
+            if (!matcher.matches()) {
+                continue;
+            }
+            long[] value = classes.computeIfAbsent(matcher.group(3), k -> new long[2]);
+            value[0] += Long.parseLong(matcher.group(1));
+            value[1] += Long.parseLong(matcher.group(2));
+        }
+        return new ClassHistogram(classes, System.currentTimeMillis());
+    }
+
+    /**
+     * 按字节数或实例数排序的前若干个类
+     * @param top 数量
+     * @param byCount 按实例数排序
+     * @return 类
+     */
+    List<HistoEntryVO> top(int top, boolean byCount) {
+        List<HistoEntryVO> list = new ArrayList<>(classes.size());
+        for (Map.Entry<String, long[]> entry : classes.entrySet()) {
+            list.add(entry(entry.getKey(), entry.getValue()[0], entry.getValue()[1], 0, 0));
+        }
+        return sortAndLimit(list, top, byCount, false);
+    }
+
+    /**
+     * 与之前的直方图相比增长最多的若干个类
+     * @param previous 之前的直方图
+     * @param top 数量
+     * @param byCount 按实例数的增长排序
+     * @return 增长的类，不包含没有增长的
+     */
+    List<HistoEntryVO> growth(ClassHistogram previous, int top, boolean byCount) {
+        List<HistoEntryVO> list = new ArrayList<>();
+        for (Map.Entry<String, long[]> entry : classes.entrySet()) {
+            long[] value = entry.getValue();
+            long[] old = previous.classes.get(entry.getKey());
+            long deltaInstances = value[0] - (null == old ? 0 : old[0]);
+            long deltaBytes = value[1] - (null == old ? 0 : old[1]);
+            if ((byCount ? deltaInstances : deltaBytes) > 0) {
+                list.add(entry(entry.getKey(), value[0], value[1], deltaInstances, deltaBytes));
+            }
+        }
+        return sortAndLimit(list, top, byCount, true);
+    }
+
+    int size() {
+        return classes.size();
+    }
+
+    long getTotalInstances() {
+        return totalInstances;
+    }
+
+    long getTotalBytes() {
+        return totalBytes;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    private static List<HistoEntryVO> sortAndLimit(List<HistoEntryVO> list, int top, boolean byCount,
+                                                   boolean delta) {
+        Comparator<HistoEntryVO> comparator;
+        if (delta) {
+            comparator = byCount ? Comparator.comparingLong(HistoEntryVO::getDeltaInstances) :
+                    Comparator.comparingLong(HistoEntryVO::getDeltaBytes);
+        } else {
+            comparator = byCount ? Comparator.comparingLong(HistoEntryVO::getInstances) :
+                    Comparator.comparingLong(HistoEntryVO::getBytes);
+        }
+        list.sort(comparator.reversed());
+        return list.size() > top ? new ArrayList<>(list.subList(0, top)) : list;
+    }
+
+    private static HistoEntryVO entry(String className, long instances, long bytes, long deltaInstances,
+                                      long deltaBytes) {
+        HistoEntryVO vo = new HistoEntryVO();
+        vo.setClassName(className);
+        vo.setInstances(instances);
+        vo.setBytes(bytes);
+        vo.setDeltaInstances(deltaInstances);
+        vo.setDeltaBytes(deltaBytes);
+        return vo;
+    }
+}
@@ -0,0 +1,258 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.FrameTrie;
+import com.mz.jarboot.core.utils.StackFrameTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * 纯Java的采样CPU分析器<br/>
+ * 独立的守护线程定时获取所有线程的调用栈，只统计RUNNABLE的线程，并以两次采样间线程的CPU时间增量为权重，
+ * 避免阻塞在本地IO上的线程被误判为热点；调用栈转为方法id后合并到前缀树，不保存字符串
+ * @author majianzheng
+ */
+class CpuProfiler {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final CpuProfiler INSTANCE = new CpuProfiler();
+    /** 每隔多少次采样清理已结束线程的CPU时间 */
+    private static final int PURGE_TICKS = 100;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private Thread samplerThread;
+    private volatile boolean running;
+    private volatile long samples;
+    private long startTime;
+    private long stopTime;
+    private long interval;
+    private int maxDepth;
+    private Session session;
+
+    private CpuProfiler() {}
+
+    static CpuProfiler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始采样
+     * @param interval 采样间隔，毫秒
+     * @param maxDepth 调用栈的最大深度
+     * @return 已在运行时返回false
+     */
+    synchronized boolean start(long interval, int maxDepth) {
+        if (running) {
+            return false;
+        }
+        this.interval = interval;
+        this.maxDepth = maxDepth;
+        this.samples = 0;
+        this.startTime = System.currentTimeMillis();
+        this.stopTime = 0;
+        this.session = new Session();
+        this.running = true;
+        final Session current = this.session;
+        samplerThread = new Thread(() -> sampleLoop(current), "jarboot-profiler");
+        samplerThread.setDaemon(true);
+        samplerThread.start();
+        return true;
+    }
+
+    /**
+     * 停止采样
+     * @return 采样的结果，未运行时返回null
+     */
+    synchronized Result stop() {
+        if (!running) {
+            return null;
+        }
+        running = false;
+        final Thread thread = samplerThread;
+        samplerThread = null;
+        thread.interrupt();
+        // 等待采样线程退出后再读取前缀树，join保证采样线程的写入可见；一次采样不会阻塞，不设超时
+        boolean interrupted = false;
+        while (thread.isAlive()) {
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        stopTime = System.currentTimeMillis();
+        final Session finished = session;
+        session = null;
+        return new Result(finished.trie, finished.names, samples, stopTime - startTime);
+    }
+
+    boolean isRunning() {
+        return running;
+    }
+
+    long getSamples() {
+        return samples;
+    }
+
+    long getStartTime() {
+        return startTime;
+    }
+
+    long getInterval() {
+        return interval;
+    }
+
+    private void sampleLoop(Session current) {
+        final long intervalNanos = interval * 1000000L;
+        long lastTick = System.nanoTime();
+        int ticks = 0;
+        while (running) {
+            final long begin = System.nanoTime();
+            try {
+                sample(current, Math.max(1, begin - lastTick), intervalNanos);
+                if (++ticks % PURGE_TICKS == 0) {
+                    current.purge(threadMXBean.getAllThreadIds());
+                }
+            } catch (Throwable e) {
+                logger.warn("profiler sample failed.", e);
+            }
+            lastTick = begin;
+            final long sleep = interval - (System.nanoTime() - begin) / 1000000L;
+            if (sleep > 0) {
+                try {
+                    Thread.sleep(sleep);
+                } catch (InterruptedException e) {
+                    // 停止
+                    return;
+                }
+            }
+        }
+    }
+
+    private void sample(Session current, long elapsed, long intervalNanos) {
+        final boolean cpuTime = threadMXBean.isThreadCpuTimeSupported() && threadMXBean.isThreadCpuTimeEnabled();
+        final long self = Thread.currentThread().getId();
+        final ThreadInfo[] infos = threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds(), maxDepth);
+        for (ThreadInfo info : infos) {
+            if (null == info || Thread.State.RUNNABLE != info.getThreadState() || info.getThreadId() == self) {
+                continue;
+            }
+            long weight = intervalNanos;
+            if (cpuTime) {
+                final long cpu = threadMXBean.getThreadCpuTime(info.getThreadId());
+                if (cpu < 0) {
+                    continue;
+                }
+                final Long last = current.lastCpuTimes.put(info.getThreadId(), cpu);
+                // 首次出现的线程按一个采样间隔计，增量不超过两次采样的间隔
+                weight = null == last ? intervalNanos : Math.min(cpu - last, elapsed);
+            }
+            if (weight <= 0) {
+                continue;
+            }
+            current.add(info.getStackTrace(), weight);
+        }
+        ++samples;
+    }
+
+    /**
+     * 一次采样的数据，只由采样线程写入
+     */
+    private static final class Session {
+        private final FrameTrie trie = new FrameTrie();
+        private final StackFrameTable frameTable = new StackFrameTable();
+        /** 栈帧id -> 方法id */
+        private int[] frameMethods = new int[1024];
+        private final Map<String, Integer> methodIds = new HashMap<>();
+        private final List<String> names = new ArrayList<>();
+        private final Map<Long, Long> lastCpuTimes = new HashMap<>();
+        private int[] path = new int[128];
+
+        void add(StackTraceElement[] stack, long weight) {
+            final int length = stack.length;
+            if (path.length < length) {
+                path = new int[length];
+            }
+            // 调用栈的栈顶在前，前缀树的栈底在前
+            for (int i = 0; i < length; ++i) {
+                path[i] = method(stack[length - 1 - i]);
+            }
+            trie.add(path, length, weight);
+        }
+
+        private int method(StackTraceElement element) {
+            final int frame = frameTable.intern(element);
+            if (frame >= frameMethods.length) {
+                frameMethods = Arrays.copyOf(frameMethods, Math.max(frame + 1, frameMethods.length << 1));
+            }
+            // 方法id从1开始，0表示尚未转换
+            int method = frameMethods[frame];
+            if (0 == method) {
+                final String name = element.getClassName() + '.' + element.getMethodName();
+                method = methodIds.computeIfAbsent(name, k -> {
+                    names.add(k);
+                    return names.size();
+                });
+                frameMethods[frame] = method;
+            }
+            return method;
+        }
+
+        void purge(long[] liveIds) {
+            final Set<Long> live = new HashSet<>(liveIds.length * 2);
+            for (long id : liveIds) {
+                live.add(id);
+            }
+            lastCpuTimes.keySet().retainAll(live);
+        }
+    }
+
+    /**
+     * 采样结果
+     */
+    static final class Result {
+        private final FrameTrie trie;
+        private final List<String> names;
+        private final long samples;
+        private final long duration;
+
+        Result(FrameTrie trie, List<String> names, long samples, long duration) {
+            this.trie = trie;
+            this.names = names;
+            this.samples = samples;
+            this.duration = duration;
+        }
+
+        FrameTrie getTrie() {
+            return trie;
+        }
+
+        /**
+         * 方法名称
+         * @param method 方法id
+         * @return 类名.方法名
+         */
+        String getName(int method) {
+            return method > 0 && method <= names.size() ? names.get(method - 1) : "unknown";
+        }
+
+        long getSamples() {
+            return samples;
+        }
+
+        /**
+         * 采样时长，毫秒
+         * @return 时长
+         */
+        long getDuration() {
+            return duration;
+        }
+    }
+}
@@ -0,0 +1,306 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mz.jarboot.common.JsonUtils;
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.model.*;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
+import com.mz.jarboot.core.utils.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.*;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 全局共享的dashboard采样器<br/>
+ * 相同间隔的dashboard命令共用一个采样器，每个间隔只采样、序列化一次后分发给所有订阅的会话；
+ * 与上次采样逐字段比较，首次推送全量数据，之后只推送变化的字段（对象逐层比较，数组整体替换），
+ * 由界面合并到已有数据中
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+class DashboardSampler {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final String NAME = "name";
+    private static final String DELTA = "delta";
+    /** 采样间隔 -> 采样器 */
+    private static final Map<Long, DashboardSampler> SAMPLERS = new HashMap<>();
+
+    private final long interval;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+    private final ThreadSampler threadSampler = new ThreadSampler();
+    private final WebContainerMetrics webContainerMetrics = new WebContainerMetrics();
+    private Timer timer;
+    /** 上次采样的数据，用于计算变化的字段 */
+    private ObjectNode last;
+
+    private DashboardSampler(long interval) {
+        this.interval = interval;
+    }
+
+    /**
+     * 订阅，相同间隔的采样器不存在时创建并启动
+     * @param interval 采样间隔，毫秒
+     * @param session 会话
+     * @param numOfExecutions 推送的次数，达到后结束会话
+     * @return 订阅者
+     */
+    static Subscriber subscribe(long interval, CommandSession session, int numOfExecutions) {
+        final Subscriber subscriber = new Subscriber(session, numOfExecutions);
+        synchronized (SAMPLERS) {
+            DashboardSampler sampler = SAMPLERS.get(interval);
+            if (null == sampler) {
+                sampler = new DashboardSampler(interval);
+                SAMPLERS.put(interval, sampler);
+                sampler.subscribers.add(subscriber);
+                sampler.start();
+            } else {
+                sampler.subscribers.add(subscriber);
+            }
+            subscriber.sampler = sampler;
+        }
+        return subscriber;
+    }
+
+    /**
+     * 取消订阅，没有订阅者时停止采样器
+     * @param subscriber 订阅者
+     */
+    static void unsubscribe(Subscriber subscriber) {
+        synchronized (SAMPLERS) {
+            final DashboardSampler sampler = subscriber.sampler;
+            if (null == sampler || !sampler.subscribers.remove(subscriber)) {
+                return;
+            }
+            subscriber.sampler = null;
+            if (sampler.subscribers.isEmpty()) {
+                SAMPLERS.remove(sampler.interval);
+                sampler.timer.cancel();
+                sampler.timer.purge();
+            }
+        }
+    }
+
+    /**
+     * 当前的采样器数量
+     * @return 数量
+     */
+    static int getSamplerCount() {
+        synchronized (SAMPLERS) {
+            return SAMPLERS.size();
+        }
+    }
+
+    private void start() {
+        timer = new Timer("Timer-for-jarboot-dashboard-" + interval, true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                tick();
+            }
+        }, 0, interval);
+    }
+
+    private void tick() {
+        final String full;
+        final String delta;
+        try {
+            ObjectNode current = (ObjectNode) JsonUtils.toJsonNode(sample());
+            full = JsonUtils.toJSONString(current);
+            ObjectNode changed = null == last ? null : diff(last, current);
+            if (null == changed) {
+                delta = null;
+            } else {
+                changed.put(NAME, current.path(NAME).asText());
+                changed.put(DELTA, true);
+                delta = JsonUtils.toJSONString(changed);
+            }
+            last = current;
+        } catch (Throwable e) {
+            String msg = "process dashboard failed: " + e.getMessage();
+            logger.error(msg, e);
+            for (Subscriber subscriber : subscribers) {
+                unsubscribe(subscriber);
+                subscriber.session.end(false, msg);
+            }
+            return;
+        }
+        for (Subscriber subscriber : subscribers) {
+            subscriber.push(full, delta);
+        }
+    }
+
+    private DashboardModel sample() {
+        DashboardModel dashboardModel = new DashboardModel();
+
+        //thread sample
+        List<ThreadVO> threads = ThreadUtil.getThreads();
+        dashboardModel.setThreads(threadSampler.sample(threads));
+        dashboardModel.setAllocRate(threadSampler.getTotalAllocRate());
+
+        //memory
+        addMemoryInfo(dashboardModel);
+
+        //gc
+        addGcInfo(dashboardModel);
+
+        //runtime
+        addRuntimeInfo(dashboardModel);
+
+        //web container
+        try {
+            dashboardModel.setTomcatInfo(webContainerMetrics.read());
+        } catch (Throwable e) {
+            logger.error("try to read web container info error", e);
+        }
+        return dashboardModel;
+    }
+
+    /**
+     * 计算变化的字段，对象逐层比较，数组及其他值不同时整体替换
+     * @param previous 上次的数据
+     * @param current 本次的数据
+     * @return 变化的字段，没有变化时为空对象
+     */
+    static ObjectNode diff(JsonNode previous, ObjectNode current) {
+        ObjectNode delta = current.objectNode();
+        Iterator<Map.Entry<String, JsonNode>> fields = current.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            JsonNode value = field.getValue();
+            JsonNode old = previous.get(field.getKey());
+            if (value.equals(old)) {
+                continue;
+            }
+            if (value.isObject() && null != old && old.isObject()) {
+                delta.set(field.getKey(), diff(old, (ObjectNode) value));
+            } else {
+                delta.set(field.getKey(), value);
+            }
+        }
+        return delta;
+    }
+
+    private static String beautifyName(String name) {
+        return name.replace(' ', '_').toLowerCase();
+    }
+
+    private static void addMemoryInfo(DashboardModel dashboardModel) {
+        List<MemoryPoolMXBean> memoryPoolMXBeans = ManagementFactory.getMemoryPoolMXBeans();
+        Map<String, List<MemoryEntryVO>> memoryInfoMap = new LinkedHashMap<String, List<MemoryEntryVO>>();
+        dashboardModel.setMemoryInfo(memoryInfoMap);
+
+        //heap
+        MemoryUsage heapMemoryUsage = ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+        List<MemoryEntryVO> heapMemEntries = new ArrayList<MemoryEntryVO>();
+        heapMemEntries.add(createMemoryEntryVO(MemoryEntryVO.TYPE_HEAP, MemoryEntryVO.TYPE_HEAP, heapMemoryUsage));
+        for (MemoryPoolMXBean poolMXBean : memoryPoolMXBeans) {
+            if (MemoryType.HEAP.equals(poolMXBean.getType())) {
+                MemoryUsage usage = poolMXBean.getUsage();
+                String poolName = beautifyName(poolMXBean.getName());
+                heapMemEntries.add(createMemoryEntryVO(MemoryEntryVO.TYPE_HEAP, poolName, usage));
+            }
+        }
+        memoryInfoMap.put(MemoryEntryVO.TYPE_HEAP, heapMemEntries);
+
+        //non-heap
+        MemoryUsage nonHeapMemoryUsage = ManagementFactory.getMemoryMXBean().getNonHeapMemoryUsage();
+        List<MemoryEntryVO> nonheapMemEntries = new ArrayList<MemoryEntryVO>();
+        nonheapMemEntries.add(createMemoryEntryVO(MemoryEntryVO.TYPE_NON_HEAP, MemoryEntryVO.TYPE_NON_HEAP, nonHeapMemoryUsage));
+        for (MemoryPoolMXBean poolMXBean : memoryPoolMXBeans) {
+            if (MemoryType.NON_HEAP.equals(poolMXBean.getType())) {
+                MemoryUsage usage = poolMXBean.getUsage();
+                String poolName = beautifyName(poolMXBean.getName());
+                nonheapMemEntries.add(createMemoryEntryVO(MemoryEntryVO.TYPE_NON_HEAP, poolName, usage));
+            }
+        }
+        memoryInfoMap.put(MemoryEntryVO.TYPE_NON_HEAP, nonheapMemEntries);
+
+        addBufferPoolMemoryInfo(memoryInfoMap);
+    }
+
+    private static void addBufferPoolMemoryInfo(Map<String, List<MemoryEntryVO>> memoryInfoMap) {
+        try {
+            List<MemoryEntryVO> bufferPoolMemEntries = new ArrayList<MemoryEntryVO>();
+            @SuppressWarnings("rawtypes")
+            Class bufferPoolMXBeanClass = Class.forName("java.lang.management.BufferPoolMXBean");
+            @SuppressWarnings("unchecked")
+            List<BufferPoolMXBean> bufferPoolMXBeans = ManagementFactory.getPlatformMXBeans(bufferPoolMXBeanClass);
+            for (BufferPoolMXBean mbean : bufferPoolMXBeans) {
+                long used = mbean.getMemoryUsed();
+                long total = mbean.getTotalCapacity();
+                bufferPoolMemEntries.add(new MemoryEntryVO(MemoryEntryVO.TYPE_BUFFER_POOL, mbean.getName(), used, total, Long.MIN_VALUE));
+            }
+            memoryInfoMap.put(MemoryEntryVO.TYPE_BUFFER_POOL, bufferPoolMemEntries);
+        } catch (ClassNotFoundException e) {
+            // ignore
+        }
+    }
+
+    private static void addRuntimeInfo(DashboardModel dashboardModel) {
+        RuntimeInfoVO runtimeInfo = new RuntimeInfoVO();
+        runtimeInfo.setOsName(System.getProperty("os.name"));
+        runtimeInfo.setOsVersion(System.getProperty("os.version"));
+        runtimeInfo.setJavaVersion(System.getProperty("java.version"));
+        runtimeInfo.setJavaHome(System.getProperty("java.home"));
+        runtimeInfo.setSystemLoadAverage(ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage());
+        runtimeInfo.setProcessors(Runtime.getRuntime().availableProcessors());
+        runtimeInfo.setUptime(ManagementFactory.getRuntimeMXBean().getUptime() / 1000);
+        runtimeInfo.setTimestamp(new Date().getTime());
+        dashboardModel.setRuntimeInfo(runtimeInfo);
+    }
+
+    private static MemoryEntryVO createMemoryEntryVO(String type, String name, MemoryUsage memoryUsage) {
+        return new MemoryEntryVO(type, name, memoryUsage.getUsed(), memoryUsage.getCommitted(), memoryUsage.getMax());
+    }
+
+    private static void addGcInfo(DashboardModel dashboardModel) {
+        List<GcInfoVO> gcInfos = new ArrayList<GcInfoVO>();
+        dashboardModel.setGcInfos(gcInfos);
+
+        List<GarbageCollectorMXBean> garbageCollectorMxBeans = ManagementFactory.getGarbageCollectorMXBeans();
+        for (GarbageCollectorMXBean gcMXBean : garbageCollectorMxBeans) {
+            String name = gcMXBean.getName();
+            gcInfos.add(new GcInfoVO(beautifyName(name), gcMXBean.getCollectionCount(), gcMXBean.getCollectionTime()));
+        }
+    }
+
+    /**
+     * 订阅的会话
+     */
+    static class Subscriber {
+        private final CommandSession session;
+        private final String sessionId;
+        private final String jobId;
+        private final int numOfExecutions;
+        private volatile DashboardSampler sampler;
+        private int count;
+
+        Subscriber(CommandSession session, int numOfExecutions) {
+            this.session = session;
+            this.sessionId = session.getSessionId();
+            this.jobId = session.getJobId();
+            this.numOfExecutions = numOfExecutions;
+        }
+
+        private void push(String full, String delta) {
+            if (EnvironmentContext.checkJobEnd(sessionId, jobId)) {
+                unsubscribe(this);
+                return;
+            }
+            if (count >= numOfExecutions) {
+                unsubscribe(this);
+                session.end(true, "Process ends after " + numOfExecutions + " time(s).");
+                return;
+            }
+            // 新的订阅者先推送全量数据
+            session.appendResult(new DashboardDeltaModel(0 == count ? full : delta));
+            ++count;
+            session.times().incrementAndGet();
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.mz.jarboot.core.cmd.impl;
 
 import com.mz.jarboot.core.advisor.AdviceListener;
+import com.mz.jarboot.core.advisor.AdviceListenerAdapter;
+import com.mz.jarboot.core.advisor.AdviceSampler;
 import com.mz.jarboot.core.advisor.AdviceWeaver;
 import com.mz.jarboot.core.advisor.ClassEnhancer;
 import com.mz.jarboot.core.advisor.InvokeTraceable;
@@ -39,6 +41,11 @@ public abstract class EnhancerCommand extends AbstractCommand {
 
     protected boolean verbose;
 
+    private String sample;
+    private String maxRate;
+    private int batchSize = ClassEnhancer.DEFAULT_BATCH_SIZE;
+    private long batchPause = ClassEnhancer.DEFAULT_BATCH_PAUSE;
+
     @Option(longName = "exclude-class-pattern")
     @Description("exclude class name pattern, use either '.' or '/' as separator")
     public void setExcludeClassPattern(String excludeClassPattern) {
@@ -57,6 +64,30 @@ public abstract class EnhancerCommand extends AbstractCommand {
         this.verbose = verbose;
     }
 
+    @Option(longName = "sample")
+    @Description("Only observe one of every N invocations per thread, e.g. 1/1000")
+    public void setSample(String sample) {
+        this.sample = sample;
+    }
+
+    @Option(longName = "max-rate")
+    @Description("Max observed invocations per time unit (ms, s, m, h), e.g. 20/s")
+    public void setMaxRate(String maxRate) {
+        this.maxRate = maxRate;
+    }
+
+    @Option(longName = "batch-size")
+    @Description("The number of classes retransformed in one batch, 0 means all at once, default value 50.")
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    @Option(longName = "batch-pause")
+    @Description("The pause time (ms) between two retransform batches, default value 10.")
+    public void setBatchPause(long batchPause) {
+        this.batchPause = batchPause;
+    }
+
     /**
      * 类名匹配
      *
@@ -100,9 +131,23 @@ public abstract class EnhancerCommand extends AbstractCommand {
 
     protected void enhance(CommandSession process) {
         EnhancerAffect effect = null;
+        AdviceSampler sampler;
+        try {
+            sampler = AdviceSampler.create(sample, maxRate);
+        } catch (IllegalArgumentException e) {
+            process.end(false, e.getMessage());
+            return;
+        }
         try {
             Instrumentation inst = EnvironmentContext.getInstrumentation();
-            AdviceListener listener = getAdviceListenerWithId(process);
+            AdviceListener listener;
+            try {
+                listener = getAdviceListenerWithId(process);
+            } catch (IllegalArgumentException e) {
+                // 表达式等参数错误
+                process.end(false, e.getMessage());
+                return;
+            }
             if (listener == null) {
                 logger.error("advice listener is null");
                 String msg = "advice listener is null, check arthas log";
@@ -110,6 +155,9 @@ public abstract class EnhancerCommand extends AbstractCommand {
                 process.end(false, msg);
                 return;
             }
+            if (null != sampler && listener instanceof AdviceListenerAdapter) {
+                ((AdviceListenerAdapter) listener).setSampler(sampler);
+            }
             boolean skipJDKTrace = false;
             if(listener instanceof AbstractTraceAdviceListener) {
                 skipJDKTrace = ((AbstractTraceAdviceListener) listener).getCommand().isSkipJDKTrace();
@@ -117,10 +165,12 @@ public abstract class EnhancerCommand extends AbstractCommand {
 
             ClassEnhancer enhancer = new ClassEnhancer(listener, listener instanceof InvokeTraceable,
                     skipJDKTrace, getClassNameMatcher(), getClassNameExcludeMatcher(), getMethodNameMatcher());
+            enhancer.setBatchSize(batchSize);
+            enhancer.setBatchPause(batchPause);
             // 注册通知监听器
             process.register(listener, enhancer);
 
-            effect = enhancer.enhance(inst);
+            effect = enhancer.enhance(inst, process);
 
             if (effect.getThrowable() != null) {
                 String msg = "error happens when enhancing class: "+effect.getThrowable().getMessage();
@@ -162,4 +212,20 @@ public abstract class EnhancerCommand extends AbstractCommand {
     public String getExcludeClassPattern() {
         return excludeClassPattern;
     }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public long getBatchPause() {
+        return batchPause;
+    }
+
+    public String getSample() {
+        return sample;
+    }
+
+    public String getMaxRate() {
+        return maxRate;
+    }
 }
@@ -0,0 +1,140 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.Description;
+import com.mz.jarboot.core.cmd.annotation.Name;
+import com.mz.jarboot.core.cmd.annotation.Option;
+import com.mz.jarboot.core.cmd.annotation.Summary;
+import com.mz.jarboot.core.cmd.model.GcEventVO;
+import com.mz.jarboot.core.cmd.model.GcModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 实时输出每次GC的事件，并定时输出停顿时间的滚动统计与分配、晋升速率，无需开启GC日志
+ * @author majianzheng
+ */
+@Name("gc")
+@Summary("Stream the gc events with pause statistics, allocation and promotion rate")
+@Description(CoreConstant.EXAMPLE +
+        "  gc\n" +
+        "  gc --min 100\n" +
+        "  gc -i 5 -w 300\n" +
+        "  gc -n 10\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "gc")
+public class GcCommand extends AbstractCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+
+    private long minDuration = 0;
+    private int interval = 10;
+    private int window = 60;
+    private int numOfEvents = Integer.MAX_VALUE;
+    private GcEventListener listener;
+    private ScheduledFuture<?> future;
+    private final AtomicInteger events = new AtomicInteger();
+
+    @Option(longName = "min")
+    @Description("Only print the gc events which take longer than this (in ms), 0 by default")
+    public void setMinDuration(long minDuration) {
+        this.minDuration = minDuration;
+    }
+
+    @Option(shortName = "i", longName = "interval")
+    @Description("The interval (in seconds) to print the summary, 10 seconds by default")
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    @Option(shortName = "w", longName = "window")
+    @Description("The rolling window (in seconds) of the pause statistics, 60 seconds by default")
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
+    @Option(shortName = "n", longName = "limits")
+    @Description("Threshold of the printed gc events, the command ends when exceeded")
+    public void setNumOfEvents(int numOfEvents) {
+        this.numOfEvents = numOfEvents;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        if (interval <= 0 || window <= 0 || numOfEvents <= 0) {
+            session.end(false, "Invalid interval, window or limits, should be positive.");
+            return;
+        }
+        final String sessionId = session.getSessionId();
+        final String jobId = session.getJobId();
+        synchronized (this) {
+            listener = new GcEventListener(event -> onEvent(event, sessionId, jobId), minDuration,
+                    (window + interval - 1) / interval);
+            listener.register();
+            if (!listener.isRegistered()) {
+                listener = null;
+                session.end(false, "No garbage collector supports the notification.");
+                return;
+            }
+            future = EnvironmentContext.getScheduledExecutorService().scheduleAtFixedRate(
+                    () -> summary(sessionId, jobId), interval, interval, TimeUnit.SECONDS);
+        }
+    }
+
+    private void onEvent(GcEventVO event, String sessionId, String jobId) {
+        if (EnvironmentContext.checkJobEnd(sessionId, jobId)) {
+            stop();
+            return;
+        }
+        GcModel model = new GcModel();
+        model.setEvent(event);
+        session.appendResult(model);
+        if (events.incrementAndGet() >= numOfEvents) {
+            stop();
+            session.end();
+        }
+    }
+
+    private void summary(String sessionId, String jobId) {
+        if (EnvironmentContext.checkJobEnd(sessionId, jobId)) {
+            stop();
+            return;
+        }
+        try {
+            final GcEventListener current = listener;
+            if (null == current) {
+                return;
+            }
+            GcModel model = new GcModel();
+            model.setSummary(current.summary());
+            session.appendResult(model);
+        } catch (Throwable e) {
+            logger.warn("gc summary failed.", e);
+        }
+    }
+
+    private synchronized void stop() {
+        if (null != future) {
+            future.cancel(false);
+            future = null;
+        }
+        if (null != listener) {
+            listener.unregister();
+            listener = null;
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.GcEventVO;
+import com.mz.jarboot.core.cmd.model.GcPoolUsageVO;
+import com.mz.jarboot.core.cmd.model.GcSummaryVO;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.StripedHistogram;
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.*;
+import java.util.*;
+import java.util.function.Consumer;
+
+/**
+ * 监听GC通知<br/>
+ * 在每个GarbageCollectorMXBean上注册监听，每次GC生成一个事件，包含原因、耗时及各内存池GC前后的使用量；
+ * 停顿时间记录到直方图，按统计间隔取出，保留最近若干个间隔组成滚动窗口。
+ * 分配量为本次GC前新生代的使用量减去上次GC后的使用量，晋升量为新生代GC前后老年代使用量的增量
+ * @author majianzheng
+ */
+class GcEventListener implements NotificationListener {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+
+    private final Consumer<GcEventVO> consumer;
+    private final long minDuration;
+    private final int windowSlots;
+    private final List<NotificationEmitter> emitters = new ArrayList<>();
+    private final StripedHistogram histogram = new StripedHistogram();
+    private final ArrayDeque<StripedHistogram.Snapshot> window = new ArrayDeque<>();
+    /** 堆内存池 */
+    private final Set<String> heapPools = new HashSet<>();
+    /** 内存池 -> 上次GC后的使用量 */
+    private final Map<String, Long> lastAfter = new HashMap<>();
+    private long allocated;
+    private long promoted;
+    private long lastSummaryTime;
+
+    /**
+     * @param consumer 事件的处理
+     * @param minDuration 耗时低于该值的事件不处理，毫秒，仍计入统计
+     * @param windowSlots 滚动窗口包含的统计间隔数
+     */
+    GcEventListener(Consumer<GcEventVO> consumer, long minDuration, int windowSlots) {
+        this.consumer = consumer;
+        this.minDuration = minDuration;
+        this.windowSlots = Math.max(1, windowSlots);
+    }
+
+    /**
+     * 注册监听
+     */
+    synchronized void register() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (MemoryType.HEAP == pool.getType()) {
+                heapPools.add(pool.getName());
+                // 基准值，首次GC时计算分配量
+                lastAfter.put(pool.getName(), pool.getUsage().getUsed());
+            }
+        }
+        lastSummaryTime = System.currentTimeMillis();
+        for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (bean instanceof NotificationEmitter) {
+                NotificationEmitter emitter = (NotificationEmitter) bean;
+                emitter.addNotificationListener(this, null, null);
+                emitters.add(emitter);
+            }
+        }
+    }
+
+    /**
+     * 取消监听
+     */
+    synchronized void unregister() {
+        for (NotificationEmitter emitter : emitters) {
+            try {
+                emitter.removeNotificationListener(this);
+            } catch (Exception e) {
+                // ignore
+            }
+        }
+        emitters.clear();
+    }
+
+    /**
+     * 是否有可监听的收集器
+     * @return 是否注册成功
+     */
+    synchronized boolean isRegistered() {
+        return !emitters.isEmpty();
+    }
+
+    @Override
+    public void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        try {
+            GarbageCollectionNotificationInfo info = GarbageCollectionNotificationInfo
+                    .from((CompositeData) notification.getUserData());
+            GcEventVO event = onGc(info);
+            if (event.getDuration() >= minDuration) {
+                consumer.accept(event);
+            }
+        } catch (Throwable e) {
+            logger.warn("handle gc notification failed.", e);
+        }
+    }
+
+    private synchronized GcEventVO onGc(GarbageCollectionNotificationInfo info) {
+        final GcInfo gcInfo = info.getGcInfo();
+        final Map<String, MemoryUsage> before = gcInfo.getMemoryUsageBeforeGc();
+        final Map<String, MemoryUsage> after = gcInfo.getMemoryUsageAfterGc();
+        final boolean hasYoung = before.keySet().stream().anyMatch(GcEventListener::isYoung);
+        final boolean minor = info.getGcAction().contains("minor");
+        long eventAllocated = 0;
+        long eventPromoted = 0;
+        List<GcPoolUsageVO> pools = new ArrayList<>();
+        for (Map.Entry<String, MemoryUsage> entry : before.entrySet()) {
+            final String name = entry.getKey();
+            final long used = entry.getValue().getUsed();
+            final MemoryUsage afterUsage = after.get(name);
+            final long afterUsed = null == afterUsage ? used : afterUsage.getUsed();
+            final boolean heap = heapPools.contains(name);
+            if (heap || used != afterUsed) {
+                GcPoolUsageVO vo = new GcPoolUsageVO();
+                vo.setName(name);
+                vo.setBefore(used);
+                vo.setAfter(afterUsed);
+                pools.add(vo);
+            }
+            if (!heap) {
+                continue;
+            }
+            // 没有新生代的收集器（如ZGC）以整个堆计算分配量
+            if (!hasYoung || isYoung(name)) {
+                Long last = lastAfter.get(name);
+                eventAllocated += Math.max(0, used - (null == last ? 0 : last));
+            }
+            if (minor && isOld(name)) {
+                eventPromoted += Math.max(0, afterUsed - used);
+            }
+            lastAfter.put(name, afterUsed);
+        }
+        allocated += eventAllocated;
+        promoted += eventPromoted;
+        histogram.record(gcInfo.getDuration());
+
+        GcEventVO event = new GcEventVO();
+        event.setId(gcInfo.getId());
+        event.setCollector(info.getGcName());
+        event.setAction(info.getGcAction());
+        event.setCause(info.getGcCause());
+        event.setStartTime(gcInfo.getStartTime());
+        event.setDuration(gcInfo.getDuration());
+        event.setAllocated(eventAllocated);
+        event.setPromoted(eventPromoted);
+        event.setPools(pools);
+        return event;
+    }
+
+    /**
+     * 取出本次统计间隔的数据，汇总滚动窗口
+     * @return 统计
+     */
+    synchronized GcSummaryVO summary() {
+        final long now = System.currentTimeMillis();
+        final long elapsed = Math.max(1, now - lastSummaryTime);
+        lastSummaryTime = now;
+        window.addLast(histogram.drain());
+        while (window.size() > windowSlots) {
+            window.removeFirst();
+        }
+        StripedHistogram.Snapshot merged = null;
+        for (StripedHistogram.Snapshot snapshot : window) {
+            merged = null == merged ? snapshot : merged.merge(snapshot);
+        }
+        GcSummaryVO summary = new GcSummaryVO();
+        summary.setTs(new Date(now));
+        summary.setWindow(elapsed * window.size());
+        summary.setCount(merged.getCount());
+        summary.setAvg(merged.getMean());
+        summary.setP50(merged.getValueAtPercentile(50));
+        summary.setP90(merged.getValueAtPercentile(90));
+        summary.setP99(merged.getValueAtPercentile(99));
+        summary.setMax(merged.getMax());
+        summary.setAllocRate(allocated * 1000L / elapsed);
+        summary.setPromotionRate(promoted * 1000L / elapsed);
+        allocated = 0;
+        promoted = 0;
+        return summary;
+    }
+
+    private static boolean isYoung(String pool) {
+        return pool.contains("Eden") || pool.contains("Nursery") || pool.contains("Young");
+    }
+
+    private static boolean isOld(String pool) {
+        return pool.contains("Old") || pool.contains("Tenured");
+    }
+}
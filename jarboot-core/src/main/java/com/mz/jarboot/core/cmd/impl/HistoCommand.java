@@ -0,0 +1,116 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.cmd.model.HistoModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 类直方图，保留上次的结果用于对比增长，可替代堆转储排查内存泄漏
+ * @author majianzheng
+ */
+@Name("histo")
+@Summary("Class histogram of the heap, diff with the previous snapshot")
+@Description(CoreConstant.EXAMPLE +
+        "  histo\n" +
+        "  histo --live\n" +
+        "  histo --diff\n" +
+        "  histo --live --diff -n 30\n" +
+        "  histo --diff -c\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "histo")
+public class HistoCommand extends AbstractCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    /** 上次的直方图，存活对象与全部对象分别保存 */
+    private static ClassHistogram lastLive;
+    private static ClassHistogram lastAll;
+
+    private boolean live = false;
+    private boolean diff = false;
+    private boolean byCount = false;
+    private int top = 20;
+
+    @Option(shortName = "l", longName = "live", flag = true)
+    @Description("Count only live objects, it triggers a full gc.")
+    public void setLive(boolean live) {
+        this.live = live;
+    }
+
+    @Option(shortName = "d", longName = "diff", flag = true)
+    @Description("Print the classes grown most since the previous histo.")
+    public void setDiff(boolean diff) {
+        this.diff = diff;
+    }
+
+    @Option(shortName = "c", longName = "count", flag = true)
+    @Description("Order by the instance count instead of the bytes.")
+    public void setByCount(boolean byCount) {
+        this.byCount = byCount;
+    }
+
+    @Option(shortName = "n", longName = "top")
+    @Description("The number of the classes to display, 20 by default")
+    public void setTop(int top) {
+        this.top = top;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        //do nothing
+    }
+
+    @Override
+    public void run() {
+        if (top <= 0) {
+            session.end(false, "Invalid top: " + top + ", should be positive.");
+            return;
+        }
+        final ClassHistogram current;
+        try {
+            current = ClassHistogram.take(live);
+        } catch (Throwable e) {
+            logger.error("class histogram failed.", e);
+            session.end(false, "class histogram failed, " + e.getMessage());
+            return;
+        }
+        final ClassHistogram previous = swap(current, live);
+        HistoModel model = new HistoModel();
+        model.setLive(live);
+        model.setClassCount(current.size());
+        model.setTotalInstances(current.getTotalInstances());
+        model.setTotalBytes(current.getTotalBytes());
+        model.setInterval(-1);
+        if (diff && null != previous) {
+            model.setDiff(true);
+            model.setInterval(current.getTimestamp() - previous.getTimestamp());
+            model.setDeltaInstances(current.getTotalInstances() - previous.getTotalInstances());
+            model.setDeltaBytes(current.getTotalBytes() - previous.getTotalBytes());
+            model.setEntries(current.growth(previous, top, byCount));
+        } else {
+            model.setEntries(current.top(top, byCount));
+        }
+        session.appendResult(model);
+        if (diff && null == previous) {
+            session.console("No previous histo to diff with, saved the current one as the baseline.");
+        }
+        session.end();
+    }
+
+    private static synchronized ClassHistogram swap(ClassHistogram current, boolean live) {
+        ClassHistogram previous;
+        if (live) {
+            previous = lastLive;
+            lastLive = current;
+        } else {
+            previous = lastAll;
+            lastAll = current;
+        }
+        return previous;
+    }
+}
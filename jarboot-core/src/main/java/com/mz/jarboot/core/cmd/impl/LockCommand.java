@@ -0,0 +1,140 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.common.JarbootThreadFactory;
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.Description;
+import com.mz.jarboot.core.cmd.annotation.Name;
+import com.mz.jarboot.core.cmd.annotation.Option;
+import com.mz.jarboot.core.cmd.annotation.Summary;
+import com.mz.jarboot.core.cmd.model.LockModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 在一段时间内持续采样锁竞争，按阻塞时间排序输出竞争最激烈的锁及其持有者
+ * @author majianzheng
+ */
+@Name("lock")
+@Summary("Profile the lock contention for a period of time")
+@Description(CoreConstant.EXAMPLE +
+        "  lock\n" +
+        "  lock -d 30\n" +
+        "  lock -d 30 -i 50 -n 10\n" +
+        "  lock --depth 64\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "lock")
+public class LockCommand extends AbstractCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    /** 采样需获取所有线程的锁信息，耗时较长，不占用命令的共享调度线程，空闲时线程自动退出 */
+    private static final ScheduledThreadPoolExecutor SAMPLE_EXECUTOR = new ScheduledThreadPoolExecutor(1,
+            JarbootThreadFactory.createThreadFactory("jarboot-lock", true));
+
+    static {
+        SAMPLE_EXECUTOR.setKeepAliveTime(60, TimeUnit.SECONDS);
+        SAMPLE_EXECUTOR.allowCoreThreadTimeOut(true);
+        SAMPLE_EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private int duration = 10;
+    private long interval = 100;
+    private int top = 5;
+    private int depth = 32;
+    private LockContentionSampler sampler;
+    private ScheduledFuture<?> future;
+    private long startTime;
+
+    @Option(shortName = "d", longName = "duration")
+    @Description("The sampling duration (in seconds), 10 seconds by default")
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    @Option(shortName = "i", longName = "interval")
+    @Description("The sampling interval (in ms), 100 ms by default")
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    @Option(shortName = "n", longName = "top")
+    @Description("The number of the most contended locks to display, 5 by default")
+    public void setTop(int top) {
+        this.top = top;
+    }
+
+    @Option(longName = "depth")
+    @Description("The max depth of the owner stack, 32 by default")
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        if (duration <= 0 || interval <= 0 || top <= 0 || depth <= 0) {
+            session.end(false, "Invalid duration, interval, top or depth, should be positive.");
+            return;
+        }
+        final String sessionId = session.getSessionId();
+        final String jobId = session.getJobId();
+        synchronized (this) {
+            sampler = new LockContentionSampler(ManagementFactory.getThreadMXBean(), depth);
+            startTime = System.currentTimeMillis();
+            future = SAMPLE_EXECUTOR.scheduleAtFixedRate(() -> tick(sessionId, jobId), interval, interval,
+                    TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void tick(String sessionId, String jobId) {
+        if (EnvironmentContext.checkJobEnd(sessionId, jobId)) {
+            stop();
+            return;
+        }
+        try {
+            sampler.sample();
+            if (System.currentTimeMillis() - startTime < duration * 1000L) {
+                return;
+            }
+            stop();
+            LockModel model = new LockModel();
+            model.setTs(new Date());
+            model.setDuration(System.currentTimeMillis() - startTime);
+            model.setSamples(sampler.getSamples());
+            model.setLockCount(sampler.getLockCount());
+            model.setContentionMonitoring(sampler.isTimeEnabled());
+            model.setLocks(sampler.top(top));
+            session.appendResult(model);
+            session.end();
+        } catch (Throwable e) {
+            stop();
+            logger.warn("lock failed.", e);
+            session.end(false, "lock failed, " + e.getMessage() + ", visit log file for more details.");
+        }
+    }
+
+    private synchronized void stop() {
+        if (null != future) {
+            future.cancel(false);
+            future = null;
+        }
+        if (null != sampler) {
+            // 恢复竞争监控，统计结果仍可读取
+            sampler.close();
+        }
+    }
+}
@@ -0,0 +1,266 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.LockContentionVO;
+
+import java.lang.management.LockInfo;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+
+/**
+ * 锁竞争采样<br/>
+ * 定时获取所有线程的锁信息，等待在被其他线程持有的锁上的线程视为竞争，以两次采样间线程阻塞与等待时间的增量计入该锁，
+ * 并记录锁的持有者及其调用栈。采样期间开启线程竞争监控，全部采样结束后恢复原状态
+ * @author majianzheng
+ */
+class LockContentionSampler {
+    private static final int MAX_CONTENDERS = 16;
+    private static final int MAX_LOCKS = 1024;
+    /** 开启竞争监控的采样数量 */
+    private static int monitoringUsers = 0;
+    /** 竞争监控是否由采样开启 */
+    private static boolean monitoringEnabledBySampler = false;
+
+    private final ThreadMXBean threadMXBean;
+    private final int maxDepth;
+    /** 线程id -> {阻塞时间, 等待时间, 阻塞次数, 等待次数} */
+    private Map<Long, long[]> lastTimes = new HashMap<>();
+    /** 上次采样时处于竞争的线程 */
+    private Set<Long> lastContended = new HashSet<>();
+    private final Map<String, LockStats> locks = new HashMap<>();
+    private long lastTick;
+    private long samples;
+    private boolean timeEnabled;
+    private boolean closed;
+
+    LockContentionSampler(ThreadMXBean threadMXBean, int maxDepth) {
+        this.threadMXBean = threadMXBean;
+        this.maxDepth = maxDepth;
+        this.timeEnabled = acquireMonitoring(threadMXBean);
+        this.lastTick = System.nanoTime();
+        // 基准值，之前累计的时间不计入
+        for (ThreadInfo info : threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds(), 0)) {
+            if (null != info) {
+                lastTimes.put(info.getThreadId(), times(info));
+                if (null != info.getLockInfo() && isContended(info)) {
+                    lastContended.add(info.getThreadId());
+                }
+            }
+        }
+    }
+
+    /**
+     * 采样一次
+     */
+    synchronized void sample() {
+        if (closed) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final long elapsed = Math.max(1, (now - lastTick) / 1000000L);
+        lastTick = now;
+        final ThreadInfo[] infos = threadMXBean.dumpAllThreads(threadMXBean.isObjectMonitorUsageSupported(),
+                threadMXBean.isSynchronizerUsageSupported());
+        final Map<Long, ThreadInfo> byId = new HashMap<>(infos.length * 2);
+        for (ThreadInfo info : infos) {
+            if (null != info) {
+                byId.put(info.getThreadId(), info);
+            }
+        }
+        final Map<Long, long[]> newTimes = new HashMap<>(byId.size() * 2);
+        final Set<Long> contended = new HashSet<>();
+        for (ThreadInfo info : byId.values()) {
+            final long[] current = times(info);
+            final long[] last = lastTimes.get(info.getThreadId());
+            newTimes.put(info.getThreadId(), current);
+            final LockInfo lock = info.getLockInfo();
+            if (null == lock || !isContended(info)) {
+                continue;
+            }
+            contended.add(info.getThreadId());
+            long time = elapsed;
+            long count = 0;
+            if (null != last) {
+                long delta = current[0] + current[1] - last[0] - last[1];
+                // 开启竞争监控前已阻塞的线程计时未启动，增量为0，按采样间隔估算
+                if (timeEnabled && current[0] >= 0 && last[0] >= 0 &&
+                        (delta > 0 || !lastContended.contains(info.getThreadId()))) {
+                    time = Math.min(elapsed, Math.max(0, delta));
+                }
+                count = Math.max(0, current[2] + current[3] - last[2] - last[3]);
+            }
+            LockStats stats = stats(lock);
+            if (null == stats) {
+                continue;
+            }
+            stats.time += time;
+            stats.contentions += count;
+            ++stats.samples;
+            if (stats.contenders.size() < MAX_CONTENDERS) {
+                stats.contenders.add(info.getThreadName());
+            }
+            final ThreadInfo owner = byId.get(info.getLockOwnerId());
+            if (null != owner) {
+                stats.owner(owner, maxDepth);
+            }
+        }
+        lastTimes = newTimes;
+        lastContended = contended;
+        ++samples;
+    }
+
+    /**
+     * 阻塞时间最长的若干个锁
+     * @param top 数量
+     * @return 锁竞争
+     */
+    synchronized List<LockContentionVO> top(int top) {
+        List<LockStats> list = new ArrayList<>(locks.values());
+        list.sort((a, b) -> a.time == b.time ? Long.compare(b.samples, a.samples) : Long.compare(b.time, a.time));
+        final int limit = Math.min(top, list.size());
+        List<LockContentionVO> result = new ArrayList<>(limit);
+        for (int i = 0; i < limit; ++i) {
+            result.add(list.get(i).toVO());
+        }
+        return result;
+    }
+
+    synchronized long getSamples() {
+        return samples;
+    }
+
+    synchronized int getLockCount() {
+        return locks.size();
+    }
+
+    /**
+     * 阻塞时间是否来自竞争监控，否则按采样间隔估算
+     * @return 是否开启了竞争监控
+     */
+    synchronized boolean isTimeEnabled() {
+        return timeEnabled;
+    }
+
+    /**
+     * 结束采样，恢复竞争监控的状态
+     */
+    synchronized void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        releaseMonitoring(threadMXBean);
+    }
+
+    /**
+     * 等待的锁被其他线程持有，或者正在等待进入synchronized块
+     * @param info 线程信息
+     * @return 是否竞争
+     */
+    private static boolean isContended(ThreadInfo info) {
+        return Thread.State.BLOCKED == info.getThreadState() ||
+                (info.getLockOwnerId() >= 0 && info.getLockOwnerId() != info.getThreadId());
+    }
+
+    private LockStats stats(LockInfo lock) {
+        final String key = lock.getClassName() + '@' + Integer.toHexString(lock.getIdentityHashCode());
+        LockStats stats = locks.get(key);
+        if (null == stats) {
+            if (locks.size() >= MAX_LOCKS) {
+                return null;
+            }
+            stats = new LockStats(key);
+            locks.put(key, stats);
+        }
+        return stats;
+    }
+
+    private static long[] times(ThreadInfo info) {
+        return new long[] {info.getBlockedTime(), info.getWaitedTime(), info.getBlockedCount(), info.getWaitedCount()};
+    }
+
+    private static boolean acquireMonitoring(ThreadMXBean bean) {
+        if (!bean.isThreadContentionMonitoringSupported()) {
+            return false;
+        }
+        synchronized (LockContentionSampler.class) {
+            if (0 == monitoringUsers++ && !bean.isThreadContentionMonitoringEnabled()) {
+                bean.setThreadContentionMonitoringEnabled(true);
+                monitoringEnabledBySampler = true;
+            }
+            return true;
+        }
+    }
+
+    private static void releaseMonitoring(ThreadMXBean bean) {
+        if (!bean.isThreadContentionMonitoringSupported()) {
+            return;
+        }
+        synchronized (LockContentionSampler.class) {
+            if (monitoringUsers > 0 && 0 == --monitoringUsers && monitoringEnabledBySampler) {
+                bean.setThreadContentionMonitoringEnabled(false);
+                monitoringEnabledBySampler = false;
+            }
+        }
+    }
+
+    /**
+     * 一个锁的竞争统计
+     */
+    private static final class LockStats {
+        private final String lockName;
+        private long time;
+        private long contentions;
+        private long samples;
+        private final Set<String> contenders = new LinkedHashSet<>();
+        /** 持有者线程id -> 持有者 */
+        private final Map<Long, OwnerStats> owners = new HashMap<>();
+
+        LockStats(String lockName) {
+            this.lockName = lockName;
+        }
+
+        void owner(ThreadInfo info, int maxDepth) {
+            OwnerStats owner = owners.computeIfAbsent(info.getThreadId(), k -> new OwnerStats(info.getThreadName()));
+            ++owner.samples;
+            // 保留最近一次的调用栈
+            StackTraceElement[] stackTrace = info.getStackTrace();
+            owner.stackTrace = stackTrace.length > maxDepth ? Arrays.copyOf(stackTrace, maxDepth) : stackTrace;
+        }
+
+        LockContentionVO toVO() {
+            LockContentionVO vo = new LockContentionVO();
+            vo.setLockName(lockName);
+            vo.setBlockedTime(time);
+            vo.setContentions(contentions);
+            vo.setSamples(samples);
+            vo.setContenders(new ArrayList<>(contenders));
+            Map.Entry<Long, OwnerStats> top = null;
+            for (Map.Entry<Long, OwnerStats> entry : owners.entrySet()) {
+                if (null == top || entry.getValue().samples > top.getValue().samples) {
+                    top = entry;
+                }
+            }
+            vo.setOwnerCount(owners.size());
+            if (null != top) {
+                vo.setOwnerId(top.getKey());
+                vo.setOwnerName(top.getValue().name);
+                vo.setOwnerSamples(top.getValue().samples);
+                vo.setOwnerStackTrace(top.getValue().stackTrace);
+            } else {
+                vo.setOwnerId(-1);
+            }
+            return vo;
+        }
+    }
+
+    private static final class OwnerStats {
+        private final String name;
+        private long samples;
+        private StackTraceElement[] stackTrace;
+
+        OwnerStats(String name) {
+            this.name = name;
+        }
+    }
+}
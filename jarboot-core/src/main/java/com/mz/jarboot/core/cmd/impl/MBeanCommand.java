@@ -0,0 +1,298 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.cmd.model.MBeanAttributeVO;
+import com.mz.jarboot.core.cmd.model.MBeanModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.matcher.Matcher;
+import com.mz.jarboot.core.utils.matcher.RegexMatcher;
+import com.mz.jarboot.core.utils.matcher.WildcardMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.*;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Array;
+import java.util.*;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 查看MBean的信息，或者定时订阅数值属性的变化
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@Name("mbean")
+@Summary("Display the mbean information")
+@Description(CoreConstant.EXAMPLE +
+        "  mbean\n" +
+        "  mbean -m java.lang:type=Threading\n" +
+        "  mbean java.lang:type=Threading\n" +
+        "  mbean java.lang:type=Threading *Count\n" +
+        "  mbean -E java.lang:type=Threading PeakThreadCount|ThreadCount|DaemonThreadCount\n" +
+        "  mbean -i 1000 java.lang:type=Threading *Count\n" +
+        "  mbean -i 2000 -n 10 'com.zaxxer.hikari:type=Pool (*)'\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "mbean")
+public class MBeanCommand extends AbstractCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final int MAX_VALUE_DEPTH = 4;
+
+    private String name;
+    private String attribute;
+    private boolean regEx = false;
+    private boolean metaData = false;
+    private long interval = 0;
+    private int numOfExecutions = Integer.MAX_VALUE;
+    private ScheduledFuture<?> future;
+    private int count;
+
+    @Argument(index = 0, argName = "name-pattern", required = false)
+    @Description("ObjectName pattern, see javax.management.ObjectName for more detail. \n" +
+            "It looks like this: \n" +
+            "  domain: key-property-list\n" +
+            "For example: \n" +
+            "  java.lang:name=G1 Old Gen,type=MemoryPool\n" +
+            "  java.lang:name=*,type=MemoryPool")
+    public void setNamePattern(String name) {
+        this.name = name;
+    }
+
+    @Argument(index = 1, argName = "attribute-pattern", required = false)
+    @Description("Attribute name pattern.")
+    public void setAttributePattern(String attribute) {
+        this.attribute = attribute;
+    }
+
+    @Option(shortName = "i", longName = "interval")
+    @Description("Subscribe the numeric attributes at the interval (in ms), only the changed values are printed")
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    @Option(shortName = "n", longName = "number-of-execution")
+    @Description("The number of times this command will be executed.")
+    public void setNumOfExecutions(int numOfExecutions) {
+        this.numOfExecutions = numOfExecutions;
+    }
+
+    @Option(shortName = "E", longName = "regex", flag = true)
+    @Description("Enable regular expression to match attribute name (wildcard matching by default).")
+    public void setRegEx(boolean regEx) {
+        this.regEx = regEx;
+    }
+
+    @Option(shortName = "m", longName = "metadata", flag = true)
+    @Description("Show metadata of mbean.")
+    public void setMetaData(boolean metaData) {
+        this.metaData = metaData;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        stop();
+    }
+
+    @Override
+    public void run() {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (null == name || name.isEmpty()) {
+                listNames(server);
+                return;
+            }
+            final ObjectName pattern = objectName(name);
+            if (metaData) {
+                listMetaData(server, pattern);
+            } else if (interval > 0) {
+                subscribe(server, pattern);
+            } else {
+                listAttributes(server, pattern);
+            }
+        } catch (MalformedObjectNameException e) {
+            session.end(false, "Invalid ObjectName pattern: " + name + ", " + e.getMessage());
+        } catch (Throwable e) {
+            logger.warn("mbean failed.", e);
+            session.end(false, "mbean failed, " + e.getMessage() + ", visit log file for more details.");
+        }
+    }
+
+    private void listNames(MBeanServer server) {
+        List<String> names = new ArrayList<>();
+        for (ObjectName objectName : new TreeSet<>(server.queryNames(null, null))) {
+            names.add(objectName.toString());
+        }
+        MBeanModel model = new MBeanModel();
+        model.setMbeanNames(names);
+        session.appendResult(model);
+        session.end();
+    }
+
+    private void listMetaData(MBeanServer server, ObjectName pattern) throws JMException {
+        Map<String, List<MBeanAttributeVO>> metadata = new LinkedHashMap<>();
+        Map<String, List<String>> operations = new LinkedHashMap<>();
+        final Matcher<String> matcher = attributeMatcher();
+        for (ObjectName objectName : new TreeSet<>(server.queryNames(pattern, null))) {
+            MBeanInfo info = server.getMBeanInfo(objectName);
+            List<MBeanAttributeVO> attributes = new ArrayList<>();
+            for (MBeanAttributeInfo attributeInfo : info.getAttributes()) {
+                if (null != matcher && !matcher.matching(attributeInfo.getName())) {
+                    continue;
+                }
+                MBeanAttributeVO vo = new MBeanAttributeVO();
+                vo.setName(attributeInfo.getName());
+                vo.setType(attributeInfo.getType());
+                vo.setRw((attributeInfo.isReadable() ? "R" : "") + (attributeInfo.isWritable() ? "W" : ""));
+                attributes.add(vo);
+            }
+            List<String> ops = new ArrayList<>();
+            for (MBeanOperationInfo operationInfo : info.getOperations()) {
+                StringBuilder sb = new StringBuilder();
+                sb.append(operationInfo.getReturnType()).append(' ').append(operationInfo.getName()).append('(');
+                MBeanParameterInfo[] signature = operationInfo.getSignature();
+                for (int i = 0; i < signature.length; ++i) {
+                    if (i > 0) {
+                        sb.append(", ");
+                    }
+                    sb.append(signature[i].getType());
+                }
+                ops.add(sb.append(')').toString());
+            }
+            metadata.put(objectName.toString(), attributes);
+            operations.put(objectName.toString(), ops);
+        }
+        MBeanModel model = new MBeanModel();
+        model.setMbeanMetadata(metadata);
+        model.setMbeanOperations(operations);
+        session.appendResult(model);
+        session.end();
+    }
+
+    private void listAttributes(MBeanServer server, ObjectName pattern) throws JMException {
+        Map<String, List<MBeanAttributeVO>> values = new LinkedHashMap<>();
+        final Matcher<String> matcher = attributeMatcher();
+        for (ObjectName objectName : new TreeSet<>(server.queryNames(pattern, null))) {
+            List<MBeanAttributeVO> attributes = new ArrayList<>();
+            for (MBeanAttributeInfo attributeInfo : server.getMBeanInfo(objectName).getAttributes()) {
+                if (!attributeInfo.isReadable() || (null != matcher && !matcher.matching(attributeInfo.getName()))) {
+                    continue;
+                }
+                MBeanAttributeVO vo = new MBeanAttributeVO();
+                vo.setName(attributeInfo.getName());
+                try {
+                    vo.setValue(normalize(server.getAttribute(objectName, attributeInfo.getName()), 0));
+                } catch (Throwable e) {
+                    vo.setError(e.getClass().getSimpleName() + ": " + e.getMessage());
+                }
+                attributes.add(vo);
+            }
+            values.put(objectName.toString(), attributes);
+        }
+        MBeanModel model = new MBeanModel();
+        model.setMbeanAttribute(values);
+        session.appendResult(model);
+        session.end();
+    }
+
+    private synchronized void subscribe(MBeanServer server, ObjectName pattern) {
+        if (numOfExecutions <= 0) {
+            session.end(false, "Invalid number of execution: " + numOfExecutions);
+            return;
+        }
+        final MBeanSubscription subscription = new MBeanSubscription(server, pattern, attributeMatcher());
+        final String sessionId = session.getSessionId();
+        final String jobId = session.getJobId();
+        future = EnvironmentContext.getScheduledExecutorService().scheduleAtFixedRate(
+                () -> tick(subscription, sessionId, jobId), 0, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private void tick(MBeanSubscription subscription, String sessionId, String jobId) {
+        if (EnvironmentContext.checkJobEnd(sessionId, jobId)) {
+            stop();
+            return;
+        }
+        try {
+            Map<String, List<MBeanAttributeVO>> changed = subscription.poll();
+            if (!changed.isEmpty()) {
+                MBeanModel model = new MBeanModel();
+                model.setTs(new Date());
+                model.setDelta(true);
+                model.setMbeanAttribute(changed);
+                session.appendResult(model);
+            }
+            if (++count >= numOfExecutions) {
+                stop();
+                session.end();
+            }
+        } catch (Throwable e) {
+            stop();
+            logger.warn("mbean subscribe failed.", e);
+            session.end(false, "mbean subscribe failed, " + e.getMessage());
+        }
+    }
+
+    private synchronized void stop() {
+        if (null != future) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    private Matcher<String> attributeMatcher() {
+        if (null == attribute || attribute.isEmpty()) {
+            return null;
+        }
+        return regEx ? new RegexMatcher(attribute) : new WildcardMatcher(attribute);
+    }
+
+    /**
+     * 没有属性部分时按domain匹配
+     */
+    private static ObjectName objectName(String name) throws MalformedObjectNameException {
+        return new ObjectName(name.indexOf(':') < 0 ? name + ":*" : name);
+    }
+
+    /**
+     * 转为可序列化的值：数值、字符串、布尔保持不变，CompositeData转为Map，数组与TabularData转为List，其他转为字符串
+     */
+    private static Object normalize(Object value, int depth) {
+        if (null == value || value instanceof Number || value instanceof Boolean || value instanceof String) {
+            return value;
+        }
+        if (depth >= MAX_VALUE_DEPTH) {
+            return String.valueOf(value);
+        }
+        if (value instanceof CompositeData) {
+            CompositeData data = (CompositeData) value;
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (String key : data.getCompositeType().keySet()) {
+                map.put(key, normalize(data.get(key), depth + 1));
+            }
+            return map;
+        }
+        if (value instanceof TabularData) {
+            List<Object> list = new ArrayList<>();
+            for (Object row : ((TabularData) value).values()) {
+                list.add(normalize(row, depth + 1));
+            }
+            return list;
+        }
+        if (value.getClass().isArray()) {
+            final int length = Array.getLength(value);
+            List<Object> list = new ArrayList<>(length);
+            for (int i = 0; i < length; ++i) {
+                list.add(normalize(Array.get(value, i), depth + 1));
+            }
+            return list;
+        }
+        return String.valueOf(value);
+    }
+}
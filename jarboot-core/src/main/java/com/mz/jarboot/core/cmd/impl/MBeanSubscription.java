@@ -0,0 +1,167 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.MBeanAttributeVO;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.matcher.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.*;
+import javax.management.openmbean.CompositeData;
+import java.util.*;
+
+/**
+ * MBean数值属性的订阅<br/>
+ * ObjectName的查询结果与每个MBean需要读取的数值属性只解析一次并缓存，每次采样按MBean批量读取属性，
+ * 只返回与上次采样相比发生变化的值；CompositeData类型的属性展开为"属性名.字段名"。
+ * 每隔一定的采样次数重新查询一次，以发现新注册的MBean（如延迟创建的连接池）
+ * @author majianzheng
+ */
+class MBeanSubscription {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    /** 每隔多少次采样重新查询ObjectName */
+    private static final int REFRESH_TICKS = 60;
+    private static final Set<String> NUMERIC_TYPES = new HashSet<>(Arrays.asList(
+            "int", "long", "double", "float", "short", "byte",
+            Integer.class.getName(), Long.class.getName(), Double.class.getName(), Float.class.getName(),
+            Short.class.getName(), Byte.class.getName(), CompositeData.class.getName()));
+
+    private final MBeanServer server;
+    private final ObjectName pattern;
+    private final Matcher<String> attributeMatcher;
+    /** ObjectName -> 需要读取的属性 */
+    private Map<ObjectName, String[]> attributes = new LinkedHashMap<>();
+    /** ObjectName -> 属性名 -> 上次的值 */
+    private final Map<String, Map<String, Number>> lastValues = new HashMap<>();
+    private long ticks;
+
+    MBeanSubscription(MBeanServer server, ObjectName pattern, Matcher<String> attributeMatcher) {
+        this.server = server;
+        this.pattern = pattern;
+        this.attributeMatcher = attributeMatcher;
+    }
+
+    /**
+     * 采样一次
+     * @return ObjectName -> 发生变化的属性，首次采样返回全部
+     */
+    synchronized Map<String, List<MBeanAttributeVO>> poll() {
+        if (0 == ticks++ % REFRESH_TICKS) {
+            refresh();
+        }
+        Map<String, List<MBeanAttributeVO>> changed = new LinkedHashMap<>();
+        Iterator<Map.Entry<ObjectName, String[]>> it = attributes.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ObjectName, String[]> entry = it.next();
+            if (0 == entry.getValue().length) {
+                continue;
+            }
+            final String name = entry.getKey().toString();
+            AttributeList list;
+            try {
+                list = server.getAttributes(entry.getKey(), entry.getValue());
+            } catch (InstanceNotFoundException e) {
+                // 已注销
+                it.remove();
+                lastValues.remove(name);
+                continue;
+            } catch (Exception e) {
+                logger.debug("read mbean attributes failed, {}", name, e);
+                continue;
+            }
+            Map<String, Number> last = lastValues.computeIfAbsent(name, k -> new HashMap<>());
+            List<MBeanAttributeVO> vos = null;
+            for (Attribute attribute : list.asList()) {
+                Object value = attribute.getValue();
+                if (value instanceof CompositeData) {
+                    CompositeData data = (CompositeData) value;
+                    for (String key : data.getCompositeType().keySet()) {
+                        Object item = data.get(key);
+                        if (item instanceof Number) {
+                            vos = diff(vos, last, attribute.getName() + '.' + key, (Number) item);
+                        }
+                    }
+                } else if (value instanceof Number) {
+                    vos = diff(vos, last, attribute.getName(), (Number) value);
+                }
+            }
+            if (null != vos) {
+                changed.put(name, vos);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * 订阅的MBean数量
+     * @return 数量
+     */
+    synchronized int size() {
+        int size = 0;
+        for (String[] names : attributes.values()) {
+            if (names.length > 0) {
+                ++size;
+            }
+        }
+        return size;
+    }
+
+    private static List<MBeanAttributeVO> diff(List<MBeanAttributeVO> vos, Map<String, Number> last, String name,
+                                               Number value) {
+        Number old = last.put(name, value);
+        if (value.equals(old)) {
+            return vos;
+        }
+        List<MBeanAttributeVO> result = null == vos ? new ArrayList<>() : vos;
+        MBeanAttributeVO vo = new MBeanAttributeVO();
+        vo.setName(name);
+        vo.setValue(value);
+        result.add(vo);
+        return result;
+    }
+
+    private void refresh() {
+        Map<ObjectName, String[]> resolved = new LinkedHashMap<>();
+        for (ObjectName objectName : new TreeSet<>(server.queryNames(pattern, null))) {
+            String[] names = attributes.get(objectName);
+            if (null == names) {
+                names = resolve(objectName);
+            }
+            if (null != names) {
+                // 没有数值属性的也缓存，避免重复解析
+                resolved.put(objectName, names);
+            }
+        }
+        attributes = resolved;
+        lastValues.keySet().retainAll(toStrings(resolved.keySet()));
+    }
+
+    /**
+     * 解析可读的数值属性
+     */
+    private String[] resolve(ObjectName objectName) {
+        MBeanInfo info;
+        try {
+            info = server.getMBeanInfo(objectName);
+        } catch (Exception e) {
+            logger.debug("get mbean info failed, {}", objectName, e);
+            return null;
+        }
+        List<String> names = new ArrayList<>();
+        for (MBeanAttributeInfo attribute : info.getAttributes()) {
+            if (attribute.isReadable() && NUMERIC_TYPES.contains(attribute.getType()) &&
+                    (null == attributeMatcher || attributeMatcher.matching(attribute.getName()))) {
+                names.add(attribute.getName());
+            }
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private static Set<String> toStrings(Set<ObjectName> names) {
+        Set<String> set = new HashSet<>(names.size() * 2);
+        for (ObjectName name : names) {
+            set.add(name.toString());
+        }
+        return set;
+    }
+}
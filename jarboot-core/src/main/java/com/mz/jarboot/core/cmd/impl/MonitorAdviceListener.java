@@ -0,0 +1,213 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.common.JarbootThreadFactory;
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.advisor.AdviceListenerAdapter;
+import com.mz.jarboot.core.advisor.JarbootMethod;
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.express.CompiledExpress;
+import com.mz.jarboot.core.cmd.model.MonitorData;
+import com.mz.jarboot.core.cmd.model.MonitorModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
+import com.mz.jarboot.core.utils.StripedHistogram;
+import com.mz.jarboot.core.utils.ThreadLocalWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计方法的调用次数、失败次数及耗时分布，每个周期输出一次<br/>
+ * 业务线程中只进行无锁的计数，不创建对象；有条件表达式时，条件的计算与计数交给通知的工作线程；
+ * 汇总、计算百分位与输出在独立的定时线程中执行，不占用共享的定时任务线程
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@SuppressWarnings("all")
+class MonitorAdviceListener extends AdviceListenerAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    /** 所有monitor命令共用的输出线程，空闲时退出 */
+    private static final ScheduledThreadPoolExecutor REPORT_EXECUTOR = new ScheduledThreadPoolExecutor(1,
+            JarbootThreadFactory.createThreadFactory("jarboot-monitor", true));
+
+    static {
+        REPORT_EXECUTOR.setKeepAliveTime(60, TimeUnit.SECONDS);
+        REPORT_EXECUTOR.allowCoreThreadTimeOut(true);
+        REPORT_EXECUTOR.setRemoveOnCancelPolicy(true);
+    }
+
+    private final ThreadLocalWatch threadLocalWatch = new ThreadLocalWatch();
+    /** 方法 -> 统计数据，类重新增强后方法实例会重建，以类名、方法名与描述符为键 */
+    private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+    /** 方法实例 -> 统计数据，避免每次调用拼接键 */
+    private final Map<JarbootMethod, MethodStats> methodCache = new ConcurrentHashMap<>();
+    private final MonitorCommand command;
+    private final CommandSession process;
+    private final CompiledExpress conditionExpress;
+    private ScheduledFuture<?> future;
+    private long lastReport;
+
+    MonitorAdviceListener(MonitorCommand command, CommandSession process, boolean verbose) {
+        this.command = command;
+        this.process = process;
+        this.conditionExpress = compileExpress(command.getConditionExpress());
+        super.setVerbose(verbose);
+    }
+
+    @Override
+    public synchronized void create() {
+        if (null != future) {
+            return;
+        }
+        final long cycle = command.getCycle();
+        lastReport = System.nanoTime();
+        future = REPORT_EXECUTOR.scheduleAtFixedRate(this::report, cycle, cycle, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (null != future) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    @Override
+    public void before(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args)
+            throws Throwable {
+        threadLocalWatch.start();
+    }
+
+    @Override
+    public void afterReturning(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                               Object returnObject) throws Throwable {
+        final long cost = threadLocalWatch.cost();
+        if (null != conditionExpress) {
+            final Advice advice = Advice.newForAfterRetuning(loader, clazz, method, target, args, returnObject)
+                    .snapshot();
+            dispatch(() -> recordIfMet(advice, cost));
+            return;
+        }
+        record(clazz, method, cost, false);
+    }
+
+    @Override
+    public void afterThrowing(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                              Throwable throwable) throws Throwable {
+        final long cost = threadLocalWatch.cost();
+        if (null != conditionExpress) {
+            final Advice advice = Advice.newForAfterThrowing(loader, clazz, method, target, args, throwable)
+                    .snapshot();
+            dispatch(() -> recordIfMet(advice, cost));
+            return;
+        }
+        record(clazz, method, cost, true);
+    }
+
+    private void record(Class<?> clazz, JarbootMethod method, long cost, boolean failed) {
+        final MethodStats methodStats = stats(clazz, method);
+        methodStats.histogram.record(cost);
+        if (failed) {
+            methodStats.failed.increment();
+        }
+    }
+
+    /**
+     * 在工作线程中计算条件表达式，满足时计数
+     */
+    private void recordIfMet(Advice advice, long cost) {
+        if (!prepareAsync(process)) {
+            return;
+        }
+        try {
+            if (isConditionMet(conditionExpress, advice, cost / NANOS_PER_MILLI)) {
+                record(advice.getClazz(), advice.getMethod(), cost, advice.isAfterThrowing());
+            }
+        } catch (Throwable e) {
+            logger.warn("monitor failed.", e);
+            process.end(false, "monitor failed, condition is: " + command.getConditionExpress() + ", " +
+                    e.getMessage() + ", visit log file for more details.");
+        }
+    }
+
+    private MethodStats stats(Class<?> clazz, JarbootMethod method) {
+        MethodStats methodStats = methodCache.get(method);
+        if (null == methodStats) {
+            final String key = clazz.getName() + '#' + method.getName() + method.getMethodDesc();
+            methodStats = stats.computeIfAbsent(key, k -> new MethodStats(clazz.getName(), method.getName()));
+            methodCache.put(method, methodStats);
+        }
+        return methodStats;
+    }
+
+    private void report() {
+        if (EnvironmentContext.checkJobEnd(getSessionId(), getJobId())) {
+            destroy();
+            return;
+        }
+        try {
+            final long now = System.nanoTime();
+            final double seconds = Math.max(1, now - lastReport) / (NANOS_PER_MILLI * 1000);
+            lastReport = now;
+            final Date timestamp = new Date();
+            List<MonitorData> list = new ArrayList<>();
+            for (MethodStats methodStats : stats.values()) {
+                StripedHistogram.Snapshot snapshot = methodStats.histogram.drain();
+                long failed = methodStats.failed.sumThenReset();
+                long total = snapshot.getCount();
+                if (total <= 0) {
+                    continue;
+                }
+                // 汇总期间的并发调用可能使失败数跨周期
+                failed = Math.min(failed, total);
+                MonitorData data = new MonitorData();
+                data.setTimestamp(timestamp);
+                data.setClassName(methodStats.className);
+                data.setMethodName(methodStats.methodName);
+                data.setTotal(total);
+                data.setSuccess(total - failed);
+                data.setFailed(failed);
+                data.setQps(total / seconds);
+                data.setAvgRt(snapshot.getMean() / NANOS_PER_MILLI);
+                data.setP50(snapshot.getValueAtPercentile(50) / NANOS_PER_MILLI);
+                data.setP90(snapshot.getValueAtPercentile(90) / NANOS_PER_MILLI);
+                data.setP99(snapshot.getValueAtPercentile(99) / NANOS_PER_MILLI);
+                data.setMaxRt(snapshot.getMax() / NANOS_PER_MILLI);
+                list.add(data);
+            }
+            process.appendResult(new MonitorModel(list));
+            process.times().incrementAndGet();
+            if (isLimitExceeded(command.getNumberOfLimit(), process.times().get())) {
+                abortProcess(process, command.getNumberOfLimit());
+            }
+        } catch (Throwable e) {
+            logger.warn("monitor failed.", e);
+            process.end(false, "monitor failed, " + e.getMessage() + ", visit log file for more details.");
+        }
+    }
+
+    /**
+     * 一个方法的统计数据
+     */
+    private static final class MethodStats {
+        private final String className;
+        private final String methodName;
+        private final StripedHistogram histogram = new StripedHistogram();
+        private final LongAdder failed = new LongAdder();
+
+        MethodStats(String className, String methodName) {
+            this.className = className;
+            this.methodName = methodName;
+        }
+    }
+}
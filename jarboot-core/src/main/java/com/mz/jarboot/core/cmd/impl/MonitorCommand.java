@@ -0,0 +1,135 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.GlobalOptions;
+import com.mz.jarboot.core.advisor.AdviceListener;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
+import com.mz.jarboot.core.utils.SearchUtils;
+import com.mz.jarboot.core.utils.matcher.Matcher;
+
+/**
+ * 监控方法的调用统计
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@Name("monitor")
+@Summary("Monitor method execution statistics, e.g. total/success/failure count, qps, rt percentiles, etc. ")
+@Description(CoreConstant.EXAMPLE +
+        "  monitor org.apache.commons.lang.StringUtils isBlank\n" +
+        "  monitor -c 5 org.apache.commons.lang.StringUtils isBlank\n" +
+        "  monitor -c 5 *StringUtils isBlank params[0]!=null\n" +
+        "  monitor -c 5 -n 10 -E org\\.apache\\.commons\\.lang\\.StringUtils isBlank\n" +
+        "  monitor -c 5 javax.servlet.Filter * --exclude-class-pattern com.demo.TestFilter\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "monitor")
+public class MonitorCommand extends EnhancerCommand {
+
+    private String classPattern;
+    private String methodPattern;
+    private String conditionExpress;
+    private int cycle = 60;
+    private boolean isRegEx = false;
+    private int numberOfLimit = 100;
+
+    @Argument(index = 0, argName = "class-pattern")
+    @Description("Path and classname of Pattern Matching")
+    public void setClassPattern(String classPattern) {
+        this.classPattern = classPattern;
+    }
+
+    @Argument(index = 1, argName = "method-pattern")
+    @Description("Method of Pattern Matching")
+    public void setMethodPattern(String methodPattern) {
+        this.methodPattern = methodPattern;
+    }
+
+    @Argument(index = 2, argName = "condition-express", required = false)
+    @Description(CoreConstant.CONDITION_EXPRESS)
+    public void setConditionExpress(String conditionExpress) {
+        this.conditionExpress = conditionExpress;
+    }
+
+    @Option(shortName = "c", longName = "cycle")
+    @Description("The monitor interval (in seconds), 60 seconds by default")
+    public void setCycle(int cycle) {
+        this.cycle = cycle;
+    }
+
+    @Option(shortName = "E", longName = "regex", flag = true)
+    @Description("Enable regular expression to match (wildcard matching by default)")
+    public void setRegEx(boolean regEx) {
+        isRegEx = regEx;
+    }
+
+    @Option(shortName = "n", longName = "limits")
+    @Description("Threshold of execution times")
+    public void setNumberOfLimit(int numberOfLimit) {
+        this.numberOfLimit = numberOfLimit;
+    }
+
+    public String getClassPattern() {
+        return classPattern;
+    }
+
+    public String getMethodPattern() {
+        return methodPattern;
+    }
+
+    public String getConditionExpress() {
+        return conditionExpress;
+    }
+
+    public int getCycle() {
+        return cycle;
+    }
+
+    public boolean isRegEx() {
+        return isRegEx;
+    }
+
+    public int getNumberOfLimit() {
+        return numberOfLimit;
+    }
+
+    @Override
+    protected Matcher getClassNameMatcher() {
+        if (classNameMatcher == null) {
+            classNameMatcher = SearchUtils.classNameMatcher(getClassPattern(), isRegEx());
+        }
+        return classNameMatcher;
+    }
+
+    @Override
+    protected Matcher getClassNameExcludeMatcher() {
+        if (classNameExcludeMatcher == null && getExcludeClassPattern() != null) {
+            classNameExcludeMatcher = SearchUtils.classNameMatcher(getExcludeClassPattern(), isRegEx());
+        }
+        return classNameExcludeMatcher;
+    }
+
+    @Override
+    protected Matcher getMethodNameMatcher() {
+        if (methodNameMatcher == null) {
+            methodNameMatcher = SearchUtils.classNameMatcher(getMethodPattern(), isRegEx());
+        }
+        return methodNameMatcher;
+    }
+
+    @Override
+    protected AdviceListener getAdviceListener(CommandSession process) {
+        if (cycle <= 0) {
+            throw new IllegalArgumentException("Invalid cycle: " + cycle + ", should be positive.");
+        }
+        return new MonitorAdviceListener(this, process, GlobalOptions.verbose || this.verbose);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        session.cancel();
+    }
+}
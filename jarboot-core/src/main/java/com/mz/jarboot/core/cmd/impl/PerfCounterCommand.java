@@ -0,0 +1,139 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.common.HsPerfData;
+import com.mz.jarboot.common.PerfCounter;
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.cmd.model.PerfCounterModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.matcher.WildcardMatcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * 查看HotSpot的性能计数器，直接读取当前进程映射的hsperfdata文件
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@Name("perfcounter")
+@Summary("Display the perf counters info")
+@Description(CoreConstant.EXAMPLE +
+        "  perfcounter\n" +
+        "  perfcounter -d\n" +
+        "  perfcounter sun.rt.safepoint\n" +
+        "  perfcounter 'sun.gc.*.time'\n" +
+        "  perfcounter --delta -i 2000 sun.ci\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "perfcounter")
+public class PerfCounterCommand extends AbstractCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static HsPerfData perfData;
+
+    private String pattern;
+    private boolean details = false;
+    private boolean delta = false;
+    private long interval = 1000;
+
+    @Argument(index = 0, argName = "pattern", required = false)
+    @Description("Name of the counters, contains or wildcard matching")
+    public void setPattern(String pattern) {
+        this.pattern = pattern;
+    }
+
+    @Option(shortName = "d", longName = "details", flag = true)
+    @Description("print all perf counter details")
+    public void setDetails(boolean details) {
+        this.details = details;
+    }
+
+    @Option(longName = "delta", flag = true)
+    @Description("Sample twice and print the changes of the counters")
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    @Option(shortName = "i", longName = "interval")
+    @Description("The interval (in ms) between two samples in delta mode, 1000 ms by default")
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        //do nothing
+    }
+
+    @Override
+    public void run() {
+        final HsPerfData data;
+        try {
+            data = getPerfData();
+        } catch (Throwable e) {
+            logger.warn("open hsperfdata failed.", e);
+            session.end(false, "Read perf counter failed, " + e.getMessage());
+            return;
+        }
+        final Predicate<String> filter = filter(pattern);
+        final List<PerfCounter> first = data.getCounters(filter);
+        if (!delta) {
+            session.appendResult(model(data, first));
+            session.end();
+            return;
+        }
+        if (interval <= 0) {
+            session.end(false, "Invalid interval: " + interval + ", should be positive.");
+            return;
+        }
+        final String sessionId = session.getSessionId();
+        final String jobId = session.getJobId();
+        EnvironmentContext.getScheduledExecutorService().schedule(() -> {
+            if (EnvironmentContext.checkJobEnd(sessionId, jobId)) {
+                return;
+            }
+            List<PerfCounter> second = data.getCounters(filter);
+            HsPerfData.diff(first, second);
+            session.appendResult(model(data, second));
+            session.end();
+        }, interval, TimeUnit.MILLISECONDS);
+    }
+
+    private PerfCounterModel model(HsPerfData data, List<PerfCounter> counters) {
+        PerfCounterModel model = new PerfCounterModel();
+        model.setPerfCounters(counters);
+        model.setDetails(details);
+        model.setDelta(delta);
+        model.setInterval(interval);
+        model.setFrequency(data.getFrequency());
+        return model;
+    }
+
+    private static Predicate<String> filter(String pattern) {
+        if (null == pattern || pattern.isEmpty()) {
+            return null;
+        }
+        if (pattern.indexOf('*') >= 0 || pattern.indexOf('?') >= 0) {
+            final WildcardMatcher matcher = new WildcardMatcher(pattern);
+            return matcher::matching;
+        }
+        return name -> name.contains(pattern);
+    }
+
+    private static synchronized HsPerfData getPerfData() throws IOException {
+        if (null == perfData) {
+            String name = ManagementFactory.getRuntimeMXBean().getName();
+            perfData = HsPerfData.open(Long.parseLong(name.substring(0, name.indexOf('@'))));
+        }
+        return perfData;
+    }
+}
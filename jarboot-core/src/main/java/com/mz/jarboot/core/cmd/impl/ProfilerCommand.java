@@ -0,0 +1,186 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.cmd.model.FlameGraphModel;
+import com.mz.jarboot.core.cmd.model.FlameNodeVO;
+import com.mz.jarboot.core.cmd.model.ProfilerModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.FrameTrie;
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.Date;
+
+/**
+ * 采样CPU分析，输出折叠格式的调用栈与火焰图
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+@Name("profiler")
+@Summary("Sampling CPU profiler, output the collapsed stacks and flame graph")
+@Description(CoreConstant.EXAMPLE +
+        "  profiler start\n" +
+        "  profiler start -i 20 --depth 64\n" +
+        "  profiler status\n" +
+        "  profiler stop\n" +
+        "  profiler stop -f /tmp/cpu.collapsed\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "profiler")
+public class ProfilerCommand extends AbstractCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final String START = "start";
+    private static final String STOP = "stop";
+    private static final String STATUS = "status";
+    /** 火焰图中占比低于该值的节点不输出，避免数据过大 */
+    private static final double FLAME_MIN_RATIO = 0.001;
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private String action;
+    private long interval = 10;
+    private int depth = 128;
+    private String file;
+
+    @Argument(index = 0, argName = "action")
+    @Description("Action to execute: start, stop or status")
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    @Option(shortName = "i", longName = "interval")
+    @Description("Sampling interval in ms, 10 by default")
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    @Option(longName = "depth")
+    @Description("Max depth of the sampled stacks, 128 by default")
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    @Option(shortName = "f", longName = "file")
+    @Description("Output file of the collapsed stacks when stop")
+    public void setFile(String file) {
+        this.file = file;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return null != session && session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        //do nothing
+    }
+
+    @Override
+    public void run() {
+        final CpuProfiler profiler = CpuProfiler.getInstance();
+        if (START.equals(action)) {
+            if (interval <= 0 || depth <= 0) {
+                session.end(false, "Invalid interval or depth, should be positive.");
+                return;
+            }
+            if (!profiler.start(interval, depth)) {
+                session.end(false, "Profiler is already running.");
+                return;
+            }
+            session.appendResult(status(profiler, START));
+            session.end();
+        } else if (STATUS.equals(action)) {
+            session.appendResult(status(profiler, STATUS));
+            session.end();
+        } else if (STOP.equals(action)) {
+            stop(profiler);
+        } else {
+            session.end(false, "Unknown action: " + action + ", should be start, stop or status.");
+        }
+    }
+
+    private void stop(CpuProfiler profiler) {
+        final CpuProfiler.Result result = profiler.stop();
+        if (null == result) {
+            session.end(false, "Profiler is not running.");
+            return;
+        }
+        try {
+            final FrameTrie trie = result.getTrie();
+            StringBuilder sb = new StringBuilder();
+            trie.collapse(result::getName, NANOS_PER_MICRO, sb);
+            File out = outputFile();
+            FileUtils.writeStringToFile(out, sb.toString(), StandardCharsets.UTF_8);
+
+            ProfilerModel model = new ProfilerModel();
+            model.setAction(STOP);
+            model.setRunning(false);
+            model.setInterval(profiler.getInterval());
+            model.setSamples(result.getSamples());
+            model.setDuration(result.getDuration());
+            model.setOutputFile(out.getAbsolutePath());
+            session.appendResult(model);
+
+            FlameNodeVO root = new FlameNodeVO("all", trie.getTotal(FrameTrie.ROOT) / NANOS_PER_MICRO);
+            final long minValue = (long) (trie.getTotal(FrameTrie.ROOT) * FLAME_MIN_RATIO);
+            buildFlameTree(result, FrameTrie.ROOT, root, minValue);
+            session.appendResult(new FlameGraphModel(root, result.getSamples(), result.getDuration()));
+            session.end();
+        } catch (Throwable e) {
+            logger.error("profiler stop error", e);
+            session.end(false, "profiler stop error: " + e.getMessage());
+        }
+    }
+
+    private static void buildFlameTree(CpuProfiler.Result result, int root, FlameNodeVO rootVo, long minValue) {
+        final FrameTrie trie = result.getTrie();
+        // 调用栈可能很深，不使用递归
+        final ArrayDeque<Integer> nodes = new ArrayDeque<>();
+        final ArrayDeque<FlameNodeVO> vos = new ArrayDeque<>();
+        nodes.push(root);
+        vos.push(rootVo);
+        while (!nodes.isEmpty()) {
+            final int node = nodes.pop();
+            final FlameNodeVO vo = vos.pop();
+            for (int child = trie.getFirstChild(node); FrameTrie.NONE != child; child = trie.getNextSibling(child)) {
+                final long total = trie.getTotal(child);
+                if (total < minValue || total < NANOS_PER_MICRO) {
+                    continue;
+                }
+                FlameNodeVO childVo = new FlameNodeVO(result.getName(trie.getFrame(child)), total / NANOS_PER_MICRO);
+                vo.addChild(childVo);
+                nodes.push(child);
+                vos.push(childVo);
+            }
+        }
+    }
+
+    private File outputFile() throws IOException {
+        if (null != file && !file.isEmpty()) {
+            return new File(file);
+        }
+        String date = new SimpleDateFormat("yyyy-MM-dd-HH-mm-ss").format(new Date());
+        File dir = new File("dump");
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new IOException("create dump dir failed.");
+        }
+        return new File(dir, "profiler-" + date + ".collapsed");
+    }
+
+    private static ProfilerModel status(CpuProfiler profiler, String action) {
+        ProfilerModel model = new ProfilerModel();
+        model.setAction(action);
+        model.setRunning(profiler.isRunning());
+        model.setInterval(profiler.getInterval());
+        model.setSamples(profiler.getSamples());
+        if (profiler.isRunning()) {
+            model.setDuration(System.currentTimeMillis() - profiler.getStartTime());
+        }
+        return model;
+    }
+}
@@ -0,0 +1,68 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.advisor.ClassEnhancer;
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.cmd.model.ResetModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.SearchUtils;
+import com.mz.jarboot.core.utils.affect.EnhancerAffect;
+import com.mz.jarboot.core.utils.matcher.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 恢复被增强的类，移除残留的Spy调用
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@SuppressWarnings("all")
+@Name("reset")
+@Summary("Reset the enhanced classes which have no active listener")
+@Description(CoreConstant.EXAMPLE +
+        "  reset\n" +
+        "  reset *List\n" +
+        "  reset -E .*List\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "reset")
+public class ResetCommand extends AbstractCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+
+    private String classPattern;
+    private boolean isRegEx = false;
+
+    @Argument(argName = "class-pattern", index = 0, required = false)
+    @Description("Class name pattern, use either '.' or '/' as separator, reset all classes by default")
+    public void setClassPattern(String classPattern) {
+        this.classPattern = classPattern;
+    }
+
+    @Option(shortName = "E", longName = "regex", flag = true)
+    @Description("Enable regular expression to match (wildcard matching by default)")
+    public void setRegEx(boolean regEx) {
+        isRegEx = regEx;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return null != session && session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        //do nothing
+    }
+
+    @Override
+    public void run() {
+        Matcher matcher = SearchUtils.classNameMatcher(classPattern, isRegEx);
+        try {
+            EnhancerAffect affect = ClassEnhancer.reset(EnvironmentContext.getInstrumentation(), matcher);
+            session.appendResult(new ResetModel(affect));
+            session.end();
+        } catch (Throwable e) {
+            logger.error("reset error", e);
+            session.end(false, "reset error: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.advisor.AdviceListenerAdapter;
+import com.mz.jarboot.core.advisor.JarbootMethod;
+import com.mz.jarboot.core.basic.EnvironmentContext;
+import com.mz.jarboot.core.cmd.express.CompiledExpress;
+import com.mz.jarboot.core.cmd.model.StackModel;
+import com.mz.jarboot.core.cmd.model.StackPathVO;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
+import com.mz.jarboot.core.utils.StackCapture;
+import com.mz.jarboot.core.utils.StackFrameTable;
+import com.mz.jarboot.core.utils.ThreadLocalWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.jarboot.SpyAPI;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 统计方法的调用路径<br/>
+ * 方法进入时获取调用栈并转为栈帧id数组，相同的调用路径合并计数；结束时输出次数最多的若干条路径
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@SuppressWarnings("all")
+class StackAdviceListener extends AdviceListenerAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final double NANOS_PER_MILLI = 1000000.0;
+    /** 不同调用路径的上限，超出后新路径只计入总数 */
+    private static final int MAX_PATHS = 4096;
+    private static final int MAX_PENDING = 1024;
+    private static final String SPY_CLASS = SpyAPI.class.getName();
+    /** 路径数达到上限后新路径的占位 */
+    private static final PathStats OVERFLOW = new PathStats(new int[0]);
+
+    private final ThreadLocalWatch threadLocalWatch = new ThreadLocalWatch();
+    /** 方法进入时的路径，退出时取出 */
+    private final ThreadLocal<ArrayDeque<PathStats>> pending = ThreadLocal.withInitial(ArrayDeque::new);
+    private final StackFrameTable frameTable = new StackFrameTable();
+    private final Map<PathKey, PathStats> paths = new ConcurrentHashMap<>();
+    private final LongAdder overflow = new LongAdder();
+    private final StackCommand command;
+    private final CommandSession process;
+    private final CompiledExpress conditionExpress;
+    private ScheduledFuture<?> future;
+
+    StackAdviceListener(StackCommand command, CommandSession process, boolean verbose) {
+        this.command = command;
+        this.process = process;
+        this.conditionExpress = compileExpress(command.getConditionExpress());
+        super.setVerbose(verbose);
+    }
+
+    @Override
+    public synchronized void create() {
+        if (null != future) {
+            return;
+        }
+        future = EnvironmentContext.getScheduledExecutorService().schedule(this::report, command.getDuration(),
+                TimeUnit.SECONDS);
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (null != future) {
+            future.cancel(false);
+            future = null;
+        }
+    }
+
+    @Override
+    public void before(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args)
+            throws Throwable {
+        final int[] path = frameTable.intern(StackCapture.capture(SPY_CLASS, command.getDepth()));
+        final PathKey key = new PathKey(path);
+        PathStats stats = paths.get(key);
+        if (null == stats) {
+            stats = paths.size() < MAX_PATHS ? paths.computeIfAbsent(key, k -> new PathStats(path)) : OVERFLOW;
+        }
+        final ArrayDeque<PathStats> stack = pending.get();
+        if (stack.size() >= MAX_PENDING) {
+            // 退出通知丢失时避免无限增长
+            stack.clear();
+        }
+        stack.push(stats);
+        threadLocalWatch.start();
+    }
+
+    @Override
+    public void afterReturning(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                               Object returnObject) throws Throwable {
+        final long cost = threadLocalWatch.cost();
+        final PathStats stats = pending.get().poll();
+        if (null != conditionExpress && !isConditionMet(conditionExpress,
+                Advice.newForAfterRetuning(loader, clazz, method, target, args, returnObject),
+                cost / NANOS_PER_MILLI)) {
+            return;
+        }
+        record(stats, cost);
+    }
+
+    @Override
+    public void afterThrowing(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                              Throwable throwable) throws Throwable {
+        final long cost = threadLocalWatch.cost();
+        final PathStats stats = pending.get().poll();
+        if (null != conditionExpress && !isConditionMet(conditionExpress,
+                Advice.newForAfterThrowing(loader, clazz, method, target, args, throwable),
+                cost / NANOS_PER_MILLI)) {
+            return;
+        }
+        record(stats, cost);
+    }
+
+    private void record(PathStats stats, long cost) {
+        if (null == stats) {
+            return;
+        }
+        if (OVERFLOW == stats) {
+            overflow.increment();
+            return;
+        }
+        stats.count.increment();
+        stats.cost.add(cost);
+    }
+
+    private void report() {
+        if (EnvironmentContext.checkJobEnd(getSessionId(), getJobId())) {
+            destroy();
+            return;
+        }
+        try {
+            // 先取出计数，排序期间不再变化
+            List<Map.Entry<PathStats, Long>> list = new ArrayList<>();
+            long total = overflow.sum();
+            for (PathStats stats : paths.values()) {
+                long count = stats.count.sum();
+                if (count > 0) {
+                    total += count;
+                    list.add(new AbstractMap.SimpleEntry<>(stats, count));
+                }
+            }
+            list.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+            final int top = Math.min(command.getTop(), list.size());
+            List<StackPathVO> vos = new ArrayList<>(top);
+            for (int i = 0; i < top; ++i) {
+                PathStats stats = list.get(i).getKey();
+                long count = list.get(i).getValue();
+                StackPathVO vo = new StackPathVO();
+                vo.setCount(count);
+                vo.setAvgRt(stats.cost.sum() / NANOS_PER_MILLI / count);
+                vo.setStackTrace(frameTable.get(stats.path));
+                vos.add(vo);
+            }
+            StackModel model = new StackModel();
+            model.setTs(new Date());
+            model.setTotal(total);
+            model.setDistinct(list.size());
+            model.setPaths(vos);
+            process.appendResult(model);
+            process.end();
+        } catch (Throwable e) {
+            logger.warn("stack failed.", e);
+            process.end(false, "stack failed, " + e.getMessage() + ", visit log file for more details.");
+        }
+    }
+
+    /**
+     * 调用路径，以栈帧id数组比较
+     */
+    private static final class PathKey {
+        private final int[] path;
+        private final int hash;
+
+        PathKey(int[] path) {
+            this.path = path;
+            this.hash = Arrays.hashCode(path);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof PathKey && hash == ((PathKey) obj).hash && Arrays.equals(path, ((PathKey) obj).path);
+        }
+    }
+
+    /**
+     * 一条调用路径的统计
+     */
+    private static final class PathStats {
+        private final int[] path;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder cost = new LongAdder();
+
+        PathStats(int[] path) {
+            this.path = path;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.GlobalOptions;
+import com.mz.jarboot.core.advisor.AdviceListener;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
+import com.mz.jarboot.core.utils.SearchUtils;
+import com.mz.jarboot.core.utils.matcher.Matcher;
+
+/**
+ * 统计方法被调用的路径，相同的调用栈合并
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@Name("stack")
+@Summary("Display the aggregated call paths of the specified method")
+@Description(CoreConstant.EXPRESS_DESCRIPTION + CoreConstant.EXAMPLE +
+        "  stack org.apache.commons.lang.StringUtils isBlank\n" +
+        "  stack *StringUtils isBlank -d 30\n" +
+        "  stack *StringUtils isBlank params[0].length==1\n" +
+        "  stack *StringUtils isBlank '#cost>100' --top 5\n" +
+        "  stack -E org\\.apache\\.commons\\.lang\\.StringUtils isBlank --depth 16\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "stack")
+public class StackCommand extends EnhancerCommand {
+
+    private String classPattern;
+    private String methodPattern;
+    private String conditionExpress;
+    private int duration = 10;
+    private int top = 10;
+    private int depth = 64;
+    private boolean isRegEx = false;
+
+    @Argument(index = 0, argName = "class-pattern")
+    @Description("Path and classname of Pattern Matching")
+    public void setClassPattern(String classPattern) {
+        this.classPattern = classPattern;
+    }
+
+    @Argument(index = 1, argName = "method-pattern")
+    @Description("Method of Pattern Matching")
+    public void setMethodPattern(String methodPattern) {
+        this.methodPattern = methodPattern;
+    }
+
+    @Argument(index = 2, argName = "condition-express", required = false)
+    @Description(CoreConstant.CONDITION_EXPRESS)
+    public void setConditionExpress(String conditionExpress) {
+        this.conditionExpress = conditionExpress;
+    }
+
+    @Option(shortName = "d", longName = "duration")
+    @Description("The sampling duration (in seconds), 10 seconds by default")
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
+    @Option(longName = "top")
+    @Description("The number of the most frequent call paths to display, 10 by default")
+    public void setTop(int top) {
+        this.top = top;
+    }
+
+    @Option(longName = "depth")
+    @Description("The max depth of the captured stack, 64 by default")
+    public void setDepth(int depth) {
+        this.depth = depth;
+    }
+
+    @Option(shortName = "E", longName = "regex", flag = true)
+    @Description("Enable regular expression to match (wildcard matching by default)")
+    public void setRegEx(boolean regEx) {
+        isRegEx = regEx;
+    }
+
+    public String getClassPattern() {
+        return classPattern;
+    }
+
+    public String getMethodPattern() {
+        return methodPattern;
+    }
+
+    public String getConditionExpress() {
+        return conditionExpress;
+    }
+
+    public int getDuration() {
+        return duration;
+    }
+
+    public int getTop() {
+        return top;
+    }
+
+    public int getDepth() {
+        return depth;
+    }
+
+    public boolean isRegEx() {
+        return isRegEx;
+    }
+
+    @Override
+    protected Matcher getClassNameMatcher() {
+        if (classNameMatcher == null) {
+            classNameMatcher = SearchUtils.classNameMatcher(getClassPattern(), isRegEx());
+        }
+        return classNameMatcher;
+    }
+
+    @Override
+    protected Matcher getClassNameExcludeMatcher() {
+        if (classNameExcludeMatcher == null && getExcludeClassPattern() != null) {
+            classNameExcludeMatcher = SearchUtils.classNameMatcher(getExcludeClassPattern(), isRegEx());
+        }
+        return classNameExcludeMatcher;
+    }
+
+    @Override
+    protected Matcher getMethodNameMatcher() {
+        if (methodNameMatcher == null) {
+            methodNameMatcher = SearchUtils.classNameMatcher(getMethodPattern(), isRegEx());
+        }
+        return methodNameMatcher;
+    }
+
+    @Override
+    protected AdviceListener getAdviceListener(CommandSession process) {
+        if (duration <= 0) {
+            throw new IllegalArgumentException("Invalid duration: " + duration + ", should be positive.");
+        }
+        if (top <= 0 || depth <= 0) {
+            throw new IllegalArgumentException("Invalid top or depth, should be positive.");
+        }
+        return new StackAdviceListener(this, process, GlobalOptions.verbose || this.verbose);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        session.cancel();
+    }
+}
@@ -9,6 +9,7 @@ import com.mz.jarboot.core.cmd.model.ThreadVO;
 import com.mz.jarboot.core.constant.CoreConstant;
 import com.mz.jarboot.core.session.ExitStatus;
 import com.mz.jarboot.core.utils.ArrayUtils;
+import com.mz.jarboot.core.utils.DateUtils;
 import com.mz.jarboot.core.utils.StringUtils;
 import com.mz.jarboot.core.utils.ThreadUtil;
 import java.lang.Thread.State;
@@ -29,13 +30,18 @@ import java.util.*;
         "  thread 51\n" +
         "  thread -n -1\n" +
         "  thread -n 5\n" +
+        "  thread -n 10 --alloc\n" +
         "  thread -b\n" +
         "  thread -i 2000\n" +
         "  thread --state BLOCKED\n" +
+        "  thread --sampler start --window 60\n" +
+        "  thread --sampler stop\n" +
         CoreConstant.WIKI + CoreConstant.WIKI_HOME + "thread")
 public class ThreadCommand extends AbstractCommand {
     private static Set<String> states = null;
     private static ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    /** 后台采样的间隔，毫秒 */
+    private static final long SAMPLER_INTERVAL = 1000;
     private long id = -1;
     private Integer topNBusy = null;
     private boolean findMostBlockingThread = false;
@@ -45,6 +51,9 @@ public class ThreadCommand extends AbstractCommand {
     private boolean lockedMonitors = false;
     private boolean lockedSynchronizers = false;
     private boolean all = false;
+    private boolean alloc = false;
+    private String sampler;
+    private int window = 60;
 
     static {
         states = new HashSet<>(State.values().length);
@@ -70,6 +79,12 @@ public class ThreadCommand extends AbstractCommand {
         this.topNBusy = topNBusy;
     }
 
+    @Option(longName = "alloc", flag = true)
+    @Description("Order the top n threads by memory allocation rate instead of cpu utilization.")
+    public void setAlloc(boolean alloc) {
+        this.alloc = alloc;
+    }
+
     @Option(shortName = "b", longName = "include-blocking-thread", flag = true)
     @Description("Find the thread who is holding a lock that blocks the most number of threads.")
     public void setFindMostBlockingThread(boolean findMostBlockingThread) {
@@ -100,6 +115,19 @@ public class ThreadCommand extends AbstractCommand {
         this.lockedSynchronizers = lockedSynchronizers;
     }
 
+    @Option(longName = "sampler")
+    @Description("Background sampler: start, stop or status. When started, thread -n reads the cpu usage of the " +
+            "sliding window without waiting.")
+    public void setSampler(String sampler) {
+        this.sampler = sampler;
+    }
+
+    @Option(longName = "window")
+    @Description("The sliding window (in seconds) of the background sampler, 60 seconds by default")
+    public void setWindow(int window) {
+        this.window = window;
+    }
+
     @Override
     public boolean isRunning() {
         return false;
@@ -113,7 +141,9 @@ public class ThreadCommand extends AbstractCommand {
     @Override
     public void run() {
         ExitStatus exitStatus;
-        if (id > 0) {
+        if (null != sampler) {
+            processSampler();
+        } else if (id > 0) {
             processThread();
         } else if (topNBusy != null) {
             processTopBusyThreads();
@@ -169,6 +199,44 @@ public class ThreadCommand extends AbstractCommand {
         session.end();
     }
 
+    private void processSampler() {
+        final ThreadCpuSampler cpuSampler = ThreadCpuSampler.getInstance();
+        if ("start".equals(sampler)) {
+            if (window <= 0) {
+                session.end(false, "Invalid window: " + window + ", should be positive.");
+                return;
+            }
+            if (!cpuSampler.isSupported()) {
+                session.end(false, "Thread cpu time is not supported or disabled.");
+                return;
+            }
+            if (!cpuSampler.start(SAMPLER_INTERVAL, window)) {
+                session.end(false, "Background sampler is already running.");
+                return;
+            }
+        } else if ("stop".equals(sampler)) {
+            if (!cpuSampler.stop()) {
+                session.end(false, "Background sampler is not running.");
+                return;
+            }
+            session.console("Background sampler stopped.");
+            session.end();
+            return;
+        } else if (!"status".equals(sampler)) {
+            session.end(false, "Unknown sampler action: " + sampler + ", should be start, stop or status.");
+            return;
+        }
+        if (cpuSampler.isRunning()) {
+            session.console("Background sampler is running since " +
+                    DateUtils.formatDate(new Date(cpuSampler.getStartTime())) + ", window: " +
+                    cpuSampler.getWindowSize() * cpuSampler.getInterval() / 1000 + "s, covered: " +
+                    cpuSampler.getWindowMillis() + "ms, samples: " + cpuSampler.getTicks() + ".");
+        } else {
+            session.console("Background sampler is not running.");
+        }
+        session.end();
+    }
+
     private void processBlockingThread() {
         BlockingLockInfo blockingLockInfo = ThreadUtil.findMostBlockingLock();
         if (blockingLockInfo.getThreadInfo() == null) {
@@ -180,10 +248,20 @@ public class ThreadCommand extends AbstractCommand {
     }
 
     private void processTopBusyThreads() {
-        com.mz.jarboot.core.cmd.impl.ThreadSampler threadSampler = new com.mz.jarboot.core.cmd.impl.ThreadSampler();
-        threadSampler.sample(ThreadUtil.getThreads());
-        threadSampler.pause(sampleInterval);
-        List<ThreadVO> threadStats = threadSampler.sample(ThreadUtil.getThreads());
+        List<ThreadVO> threadStats;
+        final ThreadCpuSampler cpuSampler = ThreadCpuSampler.getInstance();
+        if (cpuSampler.isRunning()) {
+            // 后台采样器运行时直接读取滑动窗口
+            threadStats = cpuSampler.sample(ThreadUtil.getThreads());
+        } else {
+            com.mz.jarboot.core.cmd.impl.ThreadSampler threadSampler = new com.mz.jarboot.core.cmd.impl.ThreadSampler();
+            threadSampler.sample(ThreadUtil.getThreads());
+            threadSampler.pause(sampleInterval);
+            threadStats = threadSampler.sample(ThreadUtil.getThreads());
+        }
+        if (alloc) {
+            threadStats.sort((a, b) -> Long.compare(b.getAllocRate(), a.getAllocRate()));
+        }
 
         int limit = Math.min(threadStats.size(), topNBusy);
 
@@ -0,0 +1,280 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.common.JarbootThreadFactory;
+import com.mz.jarboot.core.cmd.model.ThreadVO;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.LongLongHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 后台线程CPU采样器<br/>
+ * 定时以批量接口一次获取所有线程的CPU时间与已分配字节数，按线程id保存在基本类型的哈希表中，
+ * 每个区间的增量放入环形的滑动窗口，窗口内的累计值随区间的进出增减维护；
+ * thread -n 直接从窗口读取结果，无需在命令线程中两次采样并等待
+ * @author majianzheng
+ */
+class ThreadCpuSampler {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final ThreadCpuSampler INSTANCE = new ThreadCpuSampler();
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    /** 采样线程，运行期间独占，不影响命令的共享调度线程 */
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> future;
+    private long interval;
+    private int windowSize;
+    private long startTime;
+    private long ticks;
+    private long lastTickNanos;
+    private boolean allocEnabled;
+
+    /** 线程id -> 上次采样时的CPU时间、已分配字节数，两个表交替使用 */
+    private LongLongHashMap lastCpu;
+    private LongLongHashMap currentCpu;
+    private LongLongHashMap lastAlloc;
+    private LongLongHashMap currentAlloc;
+    /** 环形窗口，每个区间内各线程的增量 */
+    private LongLongHashMap[] cpuSlots;
+    private LongLongHashMap[] allocSlots;
+    private long[] slotNanos;
+    private int next;
+    private int filled;
+    /** 窗口内各线程的累计增量 */
+    private LongLongHashMap windowCpu;
+    private LongLongHashMap windowAlloc;
+    private long windowNanos;
+    private final LongLongHashMap.Visitor evictCpu = (id, delta) -> evict(windowCpu, id, delta);
+    private final LongLongHashMap.Visitor evictAlloc = (id, delta) -> evict(windowAlloc, id, delta);
+
+    private ThreadCpuSampler() {}
+
+    static ThreadCpuSampler getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 是否支持批量获取线程的CPU时间
+     * @return 是否支持
+     */
+    boolean isSupported() {
+        return threadMXBean instanceof com.sun.management.ThreadMXBean && threadMXBean.isThreadCpuTimeSupported() &&
+                threadMXBean.isThreadCpuTimeEnabled();
+    }
+
+    /**
+     * 开始后台采样
+     * @param interval 采样间隔，毫秒
+     * @param windowSize 窗口的区间数
+     * @return 已在运行时返回false
+     */
+    synchronized boolean start(long interval, int windowSize) {
+        if (null != future) {
+            return false;
+        }
+        this.interval = interval;
+        this.windowSize = windowSize;
+        final int expected = threadMXBean.getThreadCount();
+        lastCpu = new LongLongHashMap(expected);
+        currentCpu = new LongLongHashMap(expected);
+        lastAlloc = new LongLongHashMap(expected);
+        currentAlloc = new LongLongHashMap(expected);
+        windowCpu = new LongLongHashMap(expected);
+        windowAlloc = new LongLongHashMap(expected);
+        cpuSlots = new LongLongHashMap[windowSize];
+        allocSlots = new LongLongHashMap[windowSize];
+        for (int i = 0; i < windowSize; ++i) {
+            cpuSlots[i] = new LongLongHashMap(expected);
+            allocSlots[i] = new LongLongHashMap(expected);
+        }
+        slotNanos = new long[windowSize];
+        next = 0;
+        filled = 0;
+        windowNanos = 0;
+        ticks = 0;
+        allocEnabled = isAllocSupported();
+        startTime = System.currentTimeMillis();
+        tick();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                JarbootThreadFactory.createThreadFactory("jarboot-cpu-sampler", true));
+        future = executor.scheduleAtFixedRate(this::safeTick, interval, interval, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * 停止后台采样并释放窗口
+     * @return 未运行时返回false
+     */
+    synchronized boolean stop() {
+        if (null == future) {
+            return false;
+        }
+        future.cancel(false);
+        future = null;
+        executor.shutdown();
+        executor = null;
+        lastCpu = currentCpu = lastAlloc = currentAlloc = windowCpu = windowAlloc = null;
+        cpuSlots = allocSlots = null;
+        slotNanos = null;
+        return true;
+    }
+
+    synchronized boolean isRunning() {
+        return null != future;
+    }
+
+    synchronized long getInterval() {
+        return interval;
+    }
+
+    synchronized int getWindowSize() {
+        return windowSize;
+    }
+
+    synchronized long getTicks() {
+        return ticks;
+    }
+
+    synchronized long getStartTime() {
+        return startTime;
+    }
+
+    /**
+     * 窗口实际覆盖的时长
+     * @return 毫秒
+     */
+    synchronized long getWindowMillis() {
+        return windowNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * 从窗口中读取线程的CPU使用率、CPU时间与分配速率，按窗口内的CPU时间降序排列
+     * @param threads 线程
+     * @return 线程，未运行时不设置统计值
+     */
+    synchronized List<ThreadVO> sample(Collection<ThreadVO> threads) {
+        List<ThreadVO> list = new ArrayList<>(threads);
+        if (null == future) {
+            return list;
+        }
+        for (ThreadVO thread : list) {
+            final long id = thread.getId();
+            final long delta = windowCpu.get(id, 0);
+            thread.setTime(Math.max(0, lastCpu.get(id, 0)) / NANOS_PER_MILLI);
+            thread.setDeltaTime(delta / NANOS_PER_MILLI);
+            if (windowNanos > 0) {
+                thread.setCpu(delta * 10000 / windowNanos / 100.0);
+                if (allocEnabled) {
+                    thread.setAllocRate((long) (windowAlloc.get(id, 0) * NANOS_PER_SECOND / windowNanos));
+                }
+            }
+        }
+        list.sort((a, b) -> Long.compare(windowCpu.get(b.getId(), 0), windowCpu.get(a.getId(), 0)));
+        return list;
+    }
+
+    private void safeTick() {
+        try {
+            tick();
+        } catch (Throwable e) {
+            logger.warn("thread cpu sample failed.", e);
+        }
+    }
+
+    private synchronized void tick() {
+        if (null == cpuSlots) {
+            return;
+        }
+        final long now = System.nanoTime();
+        final long[] ids = threadMXBean.getAllThreadIds();
+        final com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+        final long[] cpu = bean.getThreadCpuTime(ids);
+        long[] alloc = null;
+        if (allocEnabled) {
+            try {
+                alloc = bean.getThreadAllocatedBytes(ids);
+            } catch (Throwable e) {
+                allocEnabled = false;
+            }
+        }
+        LongLongHashMap cpuSlot = null;
+        LongLongHashMap allocSlot = null;
+        if (ticks++ > 0) {
+            // 移出最旧的区间，复用其哈希表保存本次区间的增量
+            final int slot = next;
+            if (filled == windowSize) {
+                cpuSlots[slot].forEach(evictCpu);
+                allocSlots[slot].forEach(evictAlloc);
+                windowNanos -= slotNanos[slot];
+            } else {
+                ++filled;
+            }
+            cpuSlot = cpuSlots[slot];
+            allocSlot = allocSlots[slot];
+            cpuSlot.clear();
+            allocSlot.clear();
+            slotNanos[slot] = now - lastTickNanos;
+            windowNanos += slotNanos[slot];
+            next = (slot + 1) % windowSize;
+        }
+        currentCpu.clear();
+        currentAlloc.clear();
+        for (int i = 0; i < ids.length; ++i) {
+            // 已结束的线程为-1
+            if (cpu[i] >= 0) {
+                currentCpu.put(ids[i], cpu[i]);
+                if (null != cpuSlot) {
+                    record(cpuSlot, windowCpu, ids[i], cpu[i] - lastCpu.get(ids[i], 0));
+                }
+            }
+            if (null != alloc && alloc[i] >= 0) {
+                currentAlloc.put(ids[i], alloc[i]);
+                if (null != allocSlot) {
+                    record(allocSlot, windowAlloc, ids[i], alloc[i] - lastAlloc.get(ids[i], 0));
+                }
+            }
+        }
+        // 交替使用，已结束线程的记录随之丢弃
+        LongLongHashMap swap = lastCpu;
+        lastCpu = currentCpu;
+        currentCpu = swap;
+        swap = lastAlloc;
+        lastAlloc = currentAlloc;
+        currentAlloc = swap;
+        lastTickNanos = now;
+    }
+
+    private static void record(LongLongHashMap slot, LongLongHashMap window, long id, long delta) {
+        if (delta > 0) {
+            slot.put(id, delta);
+            window.add(id, delta);
+        }
+    }
+
+    private static void evict(LongLongHashMap window, long id, long delta) {
+        if (window.add(id, -delta) <= 0) {
+            window.remove(id);
+        }
+    }
+
+    private boolean isAllocSupported() {
+        try {
+            com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+            return bean.isThreadAllocatedMemorySupported() && bean.isThreadAllocatedMemoryEnabled();
+        } catch (Throwable e) {
+            return false;
+        }
+    }
+}
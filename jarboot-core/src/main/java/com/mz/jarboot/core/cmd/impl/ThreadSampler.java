@@ -20,8 +20,13 @@ public class ThreadSampler {
     private static ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
     private static HotspotThreadMBean hotspotThreadMBean;
     private static boolean hotspotThreadMBeanEnable = true;
+    private static boolean allocatedBytesEnable = true;
 
     private Map<ThreadVO, Long> lastCpuTimes = new HashMap<ThreadVO, Long>();
+    /** 线程id -> 已分配的字节数 */
+    private Map<Long, Long> lastAllocatedBytes = new HashMap<Long, Long>();
+    /** 进程的内存分配速率，字节/秒，不支持时为-1 */
+    private long totalAllocRate = -1;
 
     private long lastSampleTimeNanos;
     private boolean includeInternalThreads = true;
@@ -34,14 +39,18 @@ public class ThreadSampler {
         // Sample CPU
         if (lastCpuTimes.isEmpty()) {
             lastSampleTimeNanos = System.nanoTime();
-            for (ThreadVO thread : threads) {
+            long[] cpuTimes = getThreadCpuTimes(threads);
+            for (int i = 0; i < threads.size(); ++i) {
+                ThreadVO thread = threads.get(i);
                 if (thread.getId() > 0) {
-                    long cpu = threadMXBean.getThreadCpuTime(thread.getId());
+                    long cpu = cpuTimes[i];
                     lastCpuTimes.put(thread, cpu);
                     thread.setTime(cpu / 1000000);
                 }
             }
 
+            sampleAllocatedBytes(threads, 0);
+
             // add internal threads
             Map<String, Long> internalThreadCpuTimes = getInternalThreadCpuTimes();
             if (internalThreadCpuTimes != null) {
@@ -75,10 +84,11 @@ public class ThreadSampler {
         // Resample
         long newSampleTimeNanos = System.nanoTime();
         Map<ThreadVO, Long> newCpuTimes = new HashMap<ThreadVO, Long>(threads.size());
-        for (ThreadVO thread : threads) {
+        long[] cpuTimes = getThreadCpuTimes(threads);
+        for (int i = 0; i < threads.size(); ++i) {
+            ThreadVO thread = threads.get(i);
             if (thread.getId() > 0) {
-                long cpu = threadMXBean.getThreadCpuTime(thread.getId());
-                newCpuTimes.put(thread, cpu);
+                newCpuTimes.put(thread, cpuTimes[i]);
             }
         }
         // internal threads
@@ -143,12 +153,112 @@ public class ThreadSampler {
             thread.setTime(timeMills);
             thread.setDeltaTime(deltaTime);
         }
+        sampleAllocatedBytes(threads, sampleIntervalNanos);
         lastCpuTimes = newCpuTimes;
         lastSampleTimeNanos = newSampleTimeNanos;
 
         return threads;
     }
 
+    /**
+     * 批量获取线程的CPU时间，一次调用代替逐个线程查询
+     * @param threads 线程
+     * @return 与线程顺序一致的CPU时间，内部线程及已结束的线程为-1
+     */
+    private static long[] getThreadCpuTimes(List<ThreadVO> threads) {
+        long[] cpuTimes = new long[threads.size()];
+        Arrays.fill(cpuTimes, -1);
+        // 内部线程的id不大于0，不能传给批量接口
+        int count = 0;
+        long[] ids = new long[threads.size()];
+        for (ThreadVO thread : threads) {
+            if (thread.getId() > 0) {
+                ids[count++] = thread.getId();
+            }
+        }
+        if (count < ids.length) {
+            ids = Arrays.copyOf(ids, count);
+        }
+        long[] times = null;
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            try {
+                times = ((com.sun.management.ThreadMXBean) threadMXBean).getThreadCpuTime(ids);
+            } catch (UnsupportedOperationException e) {
+                // 逐个查询
+            }
+        }
+        for (int i = 0, j = 0; i < cpuTimes.length; ++i) {
+            long id = threads.get(i).getId();
+            if (id > 0) {
+                cpuTimes[i] = null == times ? threadMXBean.getThreadCpuTime(id) : times[j];
+                ++j;
+            }
+        }
+        return cpuTimes;
+    }
+
+    /**
+     * 批量获取线程已分配的字节数，计算采样间隔内的分配速率
+     * @param threads 线程
+     * @param sampleIntervalNanos 采样间隔，首次采样为0
+     */
+    private void sampleAllocatedBytes(List<ThreadVO> threads, long sampleIntervalNanos) {
+        if (!allocatedBytesEnable) {
+            return;
+        }
+        if (!(threadMXBean instanceof com.sun.management.ThreadMXBean)) {
+            allocatedBytesEnable = false;
+            return;
+        }
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) threadMXBean;
+        List<ThreadVO> javaThreads = new ArrayList<ThreadVO>(threads.size());
+        for (ThreadVO thread : threads) {
+            if (thread.getId() > 0) {
+                javaThreads.add(thread);
+            }
+        }
+        long[] ids = new long[javaThreads.size()];
+        for (int i = 0; i < ids.length; ++i) {
+            ids[i] = javaThreads.get(i).getId();
+        }
+        long[] allocatedBytes;
+        try {
+            if (!bean.isThreadAllocatedMemorySupported() || !bean.isThreadAllocatedMemoryEnabled()) {
+                return;
+            }
+            allocatedBytes = bean.getThreadAllocatedBytes(ids);
+        } catch (Throwable e) {
+            allocatedBytesEnable = false;
+            return;
+        }
+        Map<Long, Long> newAllocatedBytes = new HashMap<Long, Long>(ids.length * 2);
+        long total = 0;
+        for (int i = 0; i < ids.length; ++i) {
+            long bytes = allocatedBytes[i];
+            if (bytes < 0) {
+                // 线程已结束
+                continue;
+            }
+            newAllocatedBytes.put(ids[i], bytes);
+            Long last = lastAllocatedBytes.get(ids[i]);
+            if (null != last && sampleIntervalNanos > 0) {
+                long delta = Math.max(0, bytes - last);
+                total += delta;
+                javaThreads.get(i).setAllocRate((long) (delta * 1000000000.0 / sampleIntervalNanos));
+            }
+        }
+        lastAllocatedBytes = newAllocatedBytes;
+        totalAllocRate = sampleIntervalNanos > 0 ? (long) (total * 1000000000.0 / sampleIntervalNanos) : 0;
+    }
+
+    /**
+     * 最近一次采样的进程内存分配速率，只统计采样时仍存活的线程
+     * @return 字节/秒，不支持时为-1
+     */
+    public long getTotalAllocRate() {
+        return totalAllocRate;
+    }
+
     private Map<String, Long> getInternalThreadCpuTimes() {
         if (hotspotThreadMBeanEnable && includeInternalThreads) {
             try {
@@ -0,0 +1,364 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.common.CommandConst;
+import com.mz.jarboot.common.CommandResponse;
+import com.mz.jarboot.common.JarbootThreadFactory;
+import com.mz.jarboot.common.JsonUtils;
+import com.mz.jarboot.common.ResponseType;
+import com.mz.jarboot.common.ThreadAlert;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.stream.ResultStreamDistributor;
+import com.mz.jarboot.core.utils.LongLongHashMap;
+import com.mz.jarboot.core.utils.ThreadUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 后台线程看门狗<br/>
+ * 定时检测死锁，并找出调用栈连续多次采样都未变化的RUNNABLE、BLOCKED线程，发现时向jarboot-server推送告警。
+ * 每次采样只获取有限深度的调用栈并计算哈希，按线程id保存哈希与连续相同的次数，不保留ThreadInfo；
+ * 只有在告警时才获取完整的调用栈与锁信息
+ * @author majianzheng
+ */
+class ThreadWatchdog {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final ThreadWatchdog INSTANCE = new ThreadWatchdog(ThreadWatchdog::push, 6);
+    /** 计算哈希的调用栈深度 */
+    private static final int STACK_DEPTH = 32;
+    /** JVM自身的线程，空闲时也可能处于RUNNABLE，不检测 */
+    private static final Set<String> JVM_THREADS = new HashSet<>(Arrays.asList("Reference Handler", "Finalizer",
+            "Signal Dispatcher", "Common-Cleaner", "Attach Listener"));
+    private static final String SYSTEM_GROUP = "system";
+    private static ResultStreamDistributor distributor;
+
+    private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    private final Consumer<ThreadAlert> sink;
+    /** 检测线程，运行期间独占，不影响命令的共享调度线程 */
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> future;
+    private long interval;
+    private int stuckSamples;
+    private long startTime;
+    private long ticks;
+    private long alerts;
+
+    /** 线程id -> 上次采样的调用栈哈希、连续相同的次数，两组表交替使用 */
+    private LongLongHashMap lastHashes = new LongLongHashMap();
+    private LongLongHashMap currentHashes = new LongLongHashMap();
+    private LongLongHashMap lastCounts = new LongLongHashMap();
+    private LongLongHashMap currentCounts = new LongLongHashMap();
+    /** 已告警的死锁线程，排序后的线程id，死锁消失后清除 */
+    private String reportedDeadlock;
+    /** 本次检测到的死锁线程，已按死锁告警，不再检测是否卡住 */
+    private long[] deadlocked = new long[0];
+
+    ThreadWatchdog(Consumer<ThreadAlert> sink, int stuckSamples) {
+        this.sink = sink;
+        this.stuckSamples = stuckSamples;
+    }
+
+    static ThreadWatchdog getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 开始后台检测
+     * @param interval 检测间隔，毫秒
+     * @param stuckSamples 调用栈连续多少次未变化视为卡住
+     * @return 已在运行时返回false
+     */
+    synchronized boolean start(long interval, int stuckSamples) {
+        if (null != future) {
+            return false;
+        }
+        this.interval = interval;
+        this.stuckSamples = stuckSamples;
+        reset();
+        startTime = System.currentTimeMillis();
+        executor = Executors.newSingleThreadScheduledExecutor(
+                JarbootThreadFactory.createThreadFactory("jarboot-watchdog", true));
+        future = executor.scheduleWithFixedDelay(this::safeCheck, interval, interval, TimeUnit.MILLISECONDS);
+        return true;
+    }
+
+    /**
+     * 停止后台检测
+     * @return 未运行时返回false
+     */
+    synchronized boolean stop() {
+        if (null == future) {
+            return false;
+        }
+        future.cancel(false);
+        future = null;
+        executor.shutdown();
+        executor = null;
+        reset();
+        return true;
+    }
+
+    synchronized boolean isRunning() {
+        return null != future;
+    }
+
+    synchronized long getInterval() {
+        return interval;
+    }
+
+    synchronized int getStuckSamples() {
+        return stuckSamples;
+    }
+
+    synchronized long getStartTime() {
+        return startTime;
+    }
+
+    synchronized long getTicks() {
+        return ticks;
+    }
+
+    synchronized long getAlerts() {
+        return alerts;
+    }
+
+    private void safeCheck() {
+        try {
+            check();
+        } catch (Throwable e) {
+            logger.warn("thread watchdog check failed.", e);
+        }
+    }
+
+    /**
+     * 执行一次检测
+     */
+    synchronized void check() {
+        ++ticks;
+        checkDeadlock();
+        checkStuck();
+    }
+
+    private void checkDeadlock() {
+        final long[] ids = threadMXBean.isSynchronizerUsageSupported() ?
+                threadMXBean.findDeadlockedThreads() : threadMXBean.findMonitorDeadlockedThreads();
+        if (null == ids || 0 == ids.length) {
+            reportedDeadlock = null;
+            deadlocked = new long[0];
+            return;
+        }
+        final long[] sorted = ids.clone();
+        Arrays.sort(sorted);
+        deadlocked = sorted;
+        final String key = Arrays.toString(sorted);
+        // 同一组死锁线程只告警一次
+        if (key.equals(reportedDeadlock)) {
+            return;
+        }
+        reportedDeadlock = key;
+        final ThreadInfo[] infos = threadMXBean.getThreadInfo(sorted, threadMXBean.isObjectMonitorUsageSupported(),
+                threadMXBean.isSynchronizerUsageSupported());
+        final Map<Long, ThreadInfo> infoMap = new LinkedHashMap<>(infos.length * 2);
+        for (ThreadInfo info : infos) {
+            if (null != info) {
+                infoMap.put(info.getThreadId(), info);
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        final int cycles = formatCycles(infoMap, sb);
+        sb.append('\n');
+        for (ThreadInfo info : infoMap.values()) {
+            sb.append(ThreadUtil.getFullStacktrace(info));
+        }
+        final String summary = String.format("Found %d deadlock cycle(s) involving %d threads.", cycles,
+                infoMap.size());
+        alert(new ThreadAlert(ThreadAlert.DEADLOCK, summary, sb.toString()));
+    }
+
+    /**
+     * 沿锁的持有者输出死锁的环路
+     * @param infoMap 死锁的线程
+     * @param sb 输出
+     * @return 环路的数量
+     */
+    private static int formatCycles(Map<Long, ThreadInfo> infoMap, StringBuilder sb) {
+        final Set<Long> visited = new HashSet<>();
+        int cycles = 0;
+        for (ThreadInfo start : infoMap.values()) {
+            if (visited.contains(start.getThreadId())) {
+                continue;
+            }
+            sb.append("Found one Java-level deadlock:\n");
+            ++cycles;
+            ThreadInfo info = start;
+            while (null != info && visited.add(info.getThreadId())) {
+                sb.append('"').append(info.getThreadName()).append("\" Id=").append(info.getThreadId())
+                        .append(" waiting for ").append(info.getLockName())
+                        .append(" which is held by \"").append(info.getLockOwnerName()).append("\" Id=")
+                        .append(info.getLockOwnerId()).append('\n');
+                info = infoMap.get(info.getLockOwnerId());
+            }
+        }
+        return cycles;
+    }
+
+    private void checkStuck() {
+        final long self = Thread.currentThread().getId();
+        final long[] systemThreads = systemThreadIds();
+        final ThreadInfo[] infos = threadMXBean.getThreadInfo(threadMXBean.getAllThreadIds(), STACK_DEPTH);
+        currentHashes.clear();
+        currentCounts.clear();
+        for (ThreadInfo info : infos) {
+            if (null == info || info.getThreadId() == self || !isCandidate(info) ||
+                    Arrays.binarySearch(systemThreads, info.getThreadId()) >= 0 ||
+                    Arrays.binarySearch(deadlocked, info.getThreadId()) >= 0) {
+                continue;
+            }
+            final long id = info.getThreadId();
+            final long hash = stackHash(info);
+            long count = 1;
+            if (lastHashes.containsKey(id) && lastHashes.get(id, 0) == hash) {
+                count = lastCounts.get(id, 0) + 1;
+            }
+            currentHashes.put(id, hash);
+            currentCounts.put(id, count);
+            // 连续相同的次数刚好达到阈值时告警一次，调用栈变化后重新计数
+            if (count == stuckSamples) {
+                alertStuck(id, info, count);
+            }
+        }
+        // 交替使用，已结束或不再符合条件的线程随之丢弃
+        LongLongHashMap swap = lastHashes;
+        lastHashes = currentHashes;
+        currentHashes = swap;
+        swap = lastCounts;
+        lastCounts = currentCounts;
+        currentCounts = swap;
+    }
+
+    private void alertStuck(long id, ThreadInfo info, long count) {
+        final ThreadInfo[] full = threadMXBean.getThreadInfo(new long[]{id},
+                threadMXBean.isObjectMonitorUsageSupported(), threadMXBean.isSynchronizerUsageSupported());
+        final String detail = null == full[0] ? ThreadUtil.getFullStacktrace(info) :
+                ThreadUtil.getFullStacktrace(full[0]);
+        final String summary = String.format("Thread \"%s\" Id=%d is %s with an unchanged stack for %d samples (%dms).",
+                info.getThreadName(), id, info.getThreadState(), count, count * interval);
+        alert(new ThreadAlert(ThreadAlert.STUCK, summary, detail));
+    }
+
+    /**
+     * 只检测RUNNABLE、BLOCKED的线程；JVM自身的线程不检测；RUNNABLE且在本地方法中的线程多为等待IO，如accept、epoll，
+     * 栈顶为park、wait或accept的线程处于空闲等待，也不检测
+     * @param info 线程信息
+     * @return 是否检测
+     */
+    static boolean isCandidate(ThreadInfo info) {
+        if (JVM_THREADS.contains(info.getThreadName())) {
+            return false;
+        }
+        final Thread.State state = info.getThreadState();
+        if (Thread.State.BLOCKED == state) {
+            return true;
+        }
+        if (Thread.State.RUNNABLE != state || info.isInNative()) {
+            return false;
+        }
+        final StackTraceElement[] stack = info.getStackTrace();
+        return stack.length > 0 && !isIdleFrame(stack[0]);
+    }
+
+    /**
+     * 栈顶是否为空闲等待的方法
+     * @param top 栈顶
+     * @return 是否空闲
+     */
+    private static boolean isIdleFrame(StackTraceElement top) {
+        final String method = top.getMethodName();
+        final String className = top.getClassName();
+        if (method.startsWith("park") && className.endsWith(".Unsafe")) {
+            return true;
+        }
+        if (method.startsWith("wait") && ("java.lang.Object".equals(className) ||
+                "java.lang.ref.Reference".equals(className))) {
+            return true;
+        }
+        return top.isNativeMethod() && method.toLowerCase().contains("accept");
+    }
+
+    /**
+     * 直接属于system线程组的线程，排序后的线程id
+     * @return 线程id
+     */
+    private static long[] systemThreadIds() {
+        ThreadGroup group = Thread.currentThread().getThreadGroup();
+        while (null != group && !SYSTEM_GROUP.equals(group.getName())) {
+            group = group.getParent();
+        }
+        if (null == group) {
+            return new long[0];
+        }
+        Thread[] threads = new Thread[group.activeCount() + 8];
+        final int count = group.enumerate(threads, false);
+        final long[] ids = new long[count];
+        for (int i = 0; i < count; ++i) {
+            ids[i] = threads[i].getId();
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    /**
+     * 计算调用栈的哈希，包含线程状态
+     * @param info 线程信息
+     * @return 哈希
+     */
+    static long stackHash(ThreadInfo info) {
+        long hash = info.getThreadState().ordinal();
+        for (StackTraceElement element : info.getStackTrace()) {
+            hash = 31 * hash + element.getClassName().hashCode();
+            hash = 31 * hash + element.getMethodName().hashCode();
+            hash = 31 * hash + element.getLineNumber();
+        }
+        return hash;
+    }
+
+    private void alert(ThreadAlert alert) {
+        ++alerts;
+        logger.warn("thread watchdog: {}\n{}", alert.getSummary(), alert.getDetail());
+        try {
+            sink.accept(alert);
+        } catch (Exception e) {
+            logger.warn("push thread alert failed.", e);
+        }
+    }
+
+    private void reset() {
+        ticks = 0;
+        alerts = 0;
+        lastHashes.clear();
+        lastCounts.clear();
+        reportedDeadlock = null;
+        deadlocked = new long[0];
+    }
+
+    private static synchronized void push(ThreadAlert alert) {
+        if (null == distributor) {
+            distributor = new ResultStreamDistributor(CommandConst.SESSION_COMMON);
+        }
+        CommandResponse resp = new CommandResponse();
+        resp.setSuccess(true);
+        resp.setResponseType(ResponseType.ALERT);
+        resp.setBody(JsonUtils.toJSONString(alert));
+        resp.setSessionId(CommandConst.SESSION_COMMON);
+        distributor.write(resp);
+    }
+}
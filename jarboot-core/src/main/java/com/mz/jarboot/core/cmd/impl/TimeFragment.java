@@ -0,0 +1,117 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.advisor.Advice;
+
+/**
+ * 时间碎片，记录一次方法调用<br/>
+ * 最近的记录直接引用调用的对象，可用于重放；较早的记录只保留堆外的快照
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+class TimeFragment {
+    private final int index;
+    private final long timestamp;
+    private final long cost;
+    private final String className;
+    private final String methodName;
+    private final String threadName;
+    private final String object;
+    private final boolean isReturn;
+    private final boolean isThrow;
+    /** 调用的对象引用，转为快照后置为null */
+    private volatile Advice advice;
+    /** 快照在堆外存储中的位置，未转为快照时为-1 */
+    private long snapshotPosition = -1;
+    private int snapshotLength;
+
+    TimeFragment(int index, Advice advice, long timestamp, long cost, String threadName) {
+        this.index = index;
+        this.advice = advice;
+        this.timestamp = timestamp;
+        this.cost = cost;
+        this.threadName = threadName;
+        this.className = advice.getClazz().getName();
+        this.methodName = advice.getMethod().getName();
+        this.object = null == advice.getTarget() ? "NULL" :
+                "0x" + Integer.toHexString(System.identityHashCode(advice.getTarget()));
+        this.isReturn = advice.isAfterReturning();
+        this.isThrow = advice.isAfterThrowing();
+    }
+
+    /**
+     * 仅用于按耗时查找时的边界
+     */
+    private TimeFragment(int index, long cost) {
+        this.index = index;
+        this.cost = cost;
+        this.timestamp = 0;
+        this.className = null;
+        this.methodName = null;
+        this.threadName = null;
+        this.object = null;
+        this.isReturn = false;
+        this.isThrow = false;
+    }
+
+    static TimeFragment costBound(long cost, boolean upper) {
+        return new TimeFragment(upper ? Integer.MAX_VALUE : Integer.MIN_VALUE, cost);
+    }
+
+    int getIndex() {
+        return index;
+    }
+
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * 耗时，纳秒
+     * @return 耗时
+     */
+    long getCost() {
+        return cost;
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    String getMethodName() {
+        return methodName;
+    }
+
+    String getThreadName() {
+        return threadName;
+    }
+
+    String getObject() {
+        return object;
+    }
+
+    boolean isReturn() {
+        return isReturn;
+    }
+
+    boolean isThrow() {
+        return isThrow;
+    }
+
+    Advice getAdvice() {
+        return advice;
+    }
+
+    void releaseAdvice(long snapshotPosition, int snapshotLength) {
+        this.snapshotPosition = snapshotPosition;
+        this.snapshotLength = snapshotLength;
+        this.advice = null;
+    }
+
+    long getSnapshotPosition() {
+        return snapshotPosition;
+    }
+
+    int getSnapshotLength() {
+        return snapshotLength;
+    }
+}
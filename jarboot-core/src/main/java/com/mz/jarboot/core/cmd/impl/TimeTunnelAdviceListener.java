@@ -0,0 +1,85 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.advisor.AdviceListenerAdapter;
+import com.mz.jarboot.core.advisor.JarbootMethod;
+import com.mz.jarboot.core.cmd.express.CompiledExpress;
+import com.mz.jarboot.core.cmd.model.TimeTunnelModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
+import com.mz.jarboot.core.utils.ThreadLocalWatch;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collections;
+
+/**
+ * 记录方法调用到时间隧道<br/>
+ * 业务线程只捕获调用的快照，条件判断、写入存储与输出在工作线程中执行
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@SuppressWarnings("all")
+class TimeTunnelAdviceListener extends AdviceListenerAdapter {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private final ThreadLocalWatch threadLocalWatch = new ThreadLocalWatch();
+    private final TimeTunnelCommand command;
+    private final CommandSession process;
+    private final CompiledExpress conditionExpress;
+
+    TimeTunnelAdviceListener(TimeTunnelCommand command, CommandSession process, boolean verbose) {
+        this.command = command;
+        this.process = process;
+        this.conditionExpress = compileExpress(command.getConditionExpress());
+        super.setVerbose(verbose);
+    }
+
+    @Override
+    public void before(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args)
+            throws Throwable {
+        threadLocalWatch.start();
+    }
+
+    @Override
+    public void afterReturning(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                               Object returnObject) throws Throwable {
+        record(Advice.newForAfterRetuning(loader, clazz, method, target, args, returnObject));
+    }
+
+    @Override
+    public void afterThrowing(ClassLoader loader, Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                              Throwable throwable) {
+        record(Advice.newForAfterThrowing(loader, clazz, method, target, args, throwable));
+    }
+
+    private void record(Advice advice) {
+        // 耗时、时间与线程都需在业务线程中获取
+        final long cost = threadLocalWatch.cost();
+        final long timestamp = System.currentTimeMillis();
+        final String threadName = Thread.currentThread().getName();
+        final Advice snapshot = advice.snapshot();
+        dispatch(() -> record(snapshot, cost, timestamp, threadName));
+    }
+
+    private void record(Advice advice, long cost, long timestamp, String threadName) {
+        if (!prepareAsync(process)) {
+            return;
+        }
+        try {
+            if (!isConditionMet(conditionExpress, advice, cost / 1000000.0)) {
+                return;
+            }
+            TimeFragment fragment = TimeTunnelStore.getInstance().append(advice, cost, timestamp, threadName);
+            process.appendResult(new TimeTunnelModel().setTimeFragmentList(
+                    Collections.singletonList(TimeTunnelCommand.toVO(fragment, false))));
+            process.times().incrementAndGet();
+            if (isLimitExceeded(command.getNumberOfLimit(), process.times().get())) {
+                abortProcess(process, command.getNumberOfLimit());
+            }
+        } catch (Throwable e) {
+            logger.warn("tt failed.", e);
+            process.end(false, "tt failed, condition is: " + command.getConditionExpress() + ", " +
+                    e.getMessage() + ", visit log file for more details.");
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.GlobalOptions;
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.advisor.AdviceListener;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.cmd.model.TimeFragmentVO;
+import com.mz.jarboot.core.cmd.model.TimeTunnelModel;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.session.CommandSession;
+import com.mz.jarboot.core.utils.SearchUtils;
+import com.mz.jarboot.core.utils.StringUtils;
+import com.mz.jarboot.core.utils.matcher.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * 时间隧道，记录方法调用的现场，可查看与重放<br/>
+ * 记录存放在有上限的存储中，最近的记录保留对象引用，较早的只保留堆外快照
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+@SuppressWarnings("all")
+@Name("tt")
+@Summary("Time Tunnel")
+@Description(CoreConstant.EXPRESS_DESCRIPTION + CoreConstant.EXAMPLE +
+        "  tt -t *StringUtils isEmpty\n" +
+        "  tt -t *StringUtils isEmpty params[0].length==1\n" +
+        "  tt -l\n" +
+        "  tt -m *StringUtils.isEmpty --cost-min 10\n" +
+        "  tt -i 1000\n" +
+        "  tt -i 1000 -x 2\n" +
+        "  tt -i 1000 -p\n" +
+        "  tt -i 1000 -p --replay-times 3 --replay-interval 2000\n" +
+        "  tt -i 1000 -d\n" +
+        "  tt --delete-all\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "tt")
+public class TimeTunnelCommand extends EnhancerCommand {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    private static final double NANOS_PER_MILLI = 1000000.0;
+
+    private String classPattern;
+    private String methodPattern;
+    private String conditionExpress;
+    private boolean isTimeTunnel = false;
+    private boolean isList = false;
+    private Integer index;
+    private boolean isPlay = false;
+    private boolean isDelete = false;
+    private boolean isDeleteAll = false;
+    private String methodFilter;
+    private Double costMin;
+    private Double costMax;
+    private Integer expand = 1;
+    private Integer sizeLimit = 10 * 1024 * 1024;
+    private boolean isRegEx = false;
+    private int numberOfLimit = 100;
+    private int replayTimes = 1;
+    private long replayInterval = 1000L;
+
+    @Argument(index = 0, argName = "class-pattern", required = false)
+    @Description("The full qualified class name you want to record")
+    public void setClassPattern(String classPattern) {
+        this.classPattern = classPattern;
+    }
+
+    @Argument(index = 1, argName = "method-pattern", required = false)
+    @Description("The method name you want to record")
+    public void setMethodPattern(String methodPattern) {
+        this.methodPattern = methodPattern;
+    }
+
+    @Argument(index = 2, argName = "condition-express", required = false)
+    @Description(CoreConstant.CONDITION_EXPRESS)
+    public void setConditionExpress(String conditionExpress) {
+        this.conditionExpress = conditionExpress;
+    }
+
+    @Option(shortName = "t", longName = "time-tunnel", flag = true)
+    @Description("Record the method invocation within time fragments")
+    public void setTimeTunnel(boolean timeTunnel) {
+        isTimeTunnel = timeTunnel;
+    }
+
+    @Option(shortName = "l", longName = "list", flag = true)
+    @Description("List all the time fragments")
+    public void setList(boolean list) {
+        isList = list;
+    }
+
+    @Option(shortName = "i", longName = "index")
+    @Description("Display the detailed information from specified time fragment")
+    public void setIndex(Integer index) {
+        this.index = index;
+    }
+
+    @Option(shortName = "p", longName = "play", flag = true)
+    @Description("Replay the time fragment specified by index")
+    public void setPlay(boolean play) {
+        isPlay = play;
+    }
+
+    @Option(shortName = "d", longName = "delete", flag = true)
+    @Description("Delete time fragment specified by index")
+    public void setDelete(boolean delete) {
+        isDelete = delete;
+    }
+
+    @Option(longName = "delete-all", flag = true)
+    @Description("Delete all the time fragments")
+    public void setDeleteAll(boolean deleteAll) {
+        isDeleteAll = deleteAll;
+    }
+
+    @Option(shortName = "m", longName = "method")
+    @Description("Search the time fragments by 'class.method' pattern")
+    public void setMethodFilter(String methodFilter) {
+        this.methodFilter = methodFilter;
+    }
+
+    @Option(longName = "cost-min")
+    @Description("Search the time fragments whose cost is not less than this value (ms)")
+    public void setCostMin(Double costMin) {
+        this.costMin = costMin;
+    }
+
+    @Option(longName = "cost-max")
+    @Description("Search the time fragments whose cost is not more than this value (ms)")
+    public void setCostMax(Double costMax) {
+        this.costMax = costMax;
+    }
+
+    @Option(shortName = "x", longName = "expand")
+    @Description("Expand level of object (1 by default)")
+    public void setExpand(Integer expand) {
+        this.expand = expand;
+    }
+
+    @Option(shortName = "M", longName = "sizeLimit")
+    @Description("Upper size limit in bytes for the result (10 * 1024 * 1024 by default)")
+    public void setSizeLimit(Integer sizeLimit) {
+        this.sizeLimit = sizeLimit;
+    }
+
+    @Option(shortName = "E", longName = "regex", flag = true)
+    @Description("Enable regular expression to match (wildcard matching by default)")
+    public void setRegEx(boolean regEx) {
+        isRegEx = regEx;
+    }
+
+    @Option(shortName = "n", longName = "limits")
+    @Description("Threshold of execution times")
+    public void setNumberOfLimit(int numberOfLimit) {
+        this.numberOfLimit = numberOfLimit;
+    }
+
+    @Option(longName = "replay-times")
+    @Description("Execution times when play tt (1 by default)")
+    public void setReplayTimes(int replayTimes) {
+        this.replayTimes = replayTimes;
+    }
+
+    @Option(longName = "replay-interval")
+    @Description("Replay interval for play tt with option --replay-times, ms (1000 by default)")
+    public void setReplayInterval(long replayInterval) {
+        this.replayInterval = replayInterval;
+    }
+
+    public String getClassPattern() {
+        return classPattern;
+    }
+
+    public String getMethodPattern() {
+        return methodPattern;
+    }
+
+    public String getConditionExpress() {
+        return conditionExpress;
+    }
+
+    public boolean isRegEx() {
+        return isRegEx;
+    }
+
+    public int getNumberOfLimit() {
+        return numberOfLimit;
+    }
+
+    @Override
+    protected Matcher getClassNameMatcher() {
+        if (classNameMatcher == null) {
+            classNameMatcher = SearchUtils.classNameMatcher(getClassPattern(), isRegEx());
+        }
+        return classNameMatcher;
+    }
+
+    @Override
+    protected Matcher getClassNameExcludeMatcher() {
+        if (classNameExcludeMatcher == null && getExcludeClassPattern() != null) {
+            classNameExcludeMatcher = SearchUtils.classNameMatcher(getExcludeClassPattern(), isRegEx());
+        }
+        return classNameExcludeMatcher;
+    }
+
+    @Override
+    protected Matcher getMethodNameMatcher() {
+        if (methodNameMatcher == null) {
+            methodNameMatcher = SearchUtils.classNameMatcher(getMethodPattern(), isRegEx());
+        }
+        return methodNameMatcher;
+    }
+
+    @Override
+    protected AdviceListener getAdviceListener(CommandSession process) {
+        return new TimeTunnelAdviceListener(this, process, GlobalOptions.verbose || this.verbose);
+    }
+
+    @Override
+    public boolean isRunning() {
+        return session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        session.cancel();
+    }
+
+    @Override
+    public void run() {
+        if (isTimeTunnel) {
+            if (StringUtils.isEmpty(classPattern) || StringUtils.isEmpty(methodPattern)) {
+                session.end(false, "Time fragments record needs class-pattern and method-pattern.");
+                return;
+            }
+            enhance(session);
+            return;
+        }
+        final TimeTunnelStore store = TimeTunnelStore.getInstance();
+        if (isDeleteAll) {
+            int count = store.clear();
+            session.console("Time fragments are cleaned, count: " + count);
+            session.end();
+            return;
+        }
+        if (null != index) {
+            processIndex(store);
+            return;
+        }
+        if (isList || null != methodFilter || null != costMin || null != costMax) {
+            processSearch(store);
+            return;
+        }
+        session.end(false, "Missing action, -t, -l, -i or --delete-all is required.");
+    }
+
+    private void processSearch(TimeTunnelStore store) {
+        Matcher<String> matcher = null == methodFilter ? null : SearchUtils.classNameMatcher(methodFilter, isRegEx);
+        long min = null == costMin ? 0L : (long) (costMin * NANOS_PER_MILLI);
+        long max = null == costMax ? Long.MAX_VALUE : (long) (costMax * NANOS_PER_MILLI);
+        List<TimeFragment> fragments = store.search(matcher, min, max);
+        List<TimeFragmentVO> list = new ArrayList<>(fragments.size());
+        for (TimeFragment fragment : fragments) {
+            list.add(toVO(fragment, false));
+        }
+        session.appendResult(new TimeTunnelModel().setTimeFragmentList(list));
+        session.end();
+    }
+
+    private void processIndex(TimeTunnelStore store) {
+        TimeFragment fragment = store.get(index);
+        if (null == fragment) {
+            session.end(false, "Time fragment " + index + " does not exist.");
+            return;
+        }
+        if (isDelete) {
+            store.delete(index);
+            session.console("Time fragment " + index + " is deleted.");
+            session.end();
+            return;
+        }
+        if (isPlay) {
+            processReplay(fragment);
+            return;
+        }
+        session.appendResult(new TimeTunnelModel()
+                .setTimeFragment(toVO(fragment, true))
+                .setExpand(expand)
+                .setSizeLimit(sizeLimit));
+        session.end();
+    }
+
+    private void processReplay(TimeFragment fragment) {
+        // 读取一次，避免期间被转为快照
+        final Advice advice = fragment.getAdvice();
+        if (null == advice) {
+            session.end(false, "Time fragment " + fragment.getIndex() + " can not be replayed, only the latest " +
+                    TimeTunnelStore.getInstance().getReferenceWindow() + " fragments keep the object references.");
+            return;
+        }
+        try {
+            advice.getMethod().setAccessible(true);
+            for (int i = 1; i <= replayTimes; ++i) {
+                if (!session.isRunning()) {
+                    return;
+                }
+                TimeFragmentVO vo = replay(fragment, advice);
+                session.appendResult(new TimeTunnelModel()
+                        .setTimeFragment(vo)
+                        .setReplayNo(i)
+                        .setExpand(expand)
+                        .setSizeLimit(sizeLimit));
+                if (i < replayTimes && replayInterval > 0) {
+                    Thread.sleep(replayInterval);
+                }
+            }
+            session.end();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            session.end(false, "replay interrupted.");
+        } catch (Throwable e) {
+            logger.warn("tt replay failed.", e);
+            session.end(false, "tt replay failed: " + e.getMessage());
+        }
+    }
+
+    private static TimeFragmentVO replay(TimeFragment fragment, Advice advice)
+            throws IllegalAccessException, InstantiationException {
+        Object returnObj = null;
+        Throwable throwExp = null;
+        final long start = System.nanoTime();
+        try {
+            returnObj = advice.getMethod().invoke(advice.getTarget(), advice.getParams());
+        } catch (InvocationTargetException e) {
+            throwExp = e.getTargetException();
+        }
+        final long cost = System.nanoTime() - start;
+        return new TimeFragmentVO()
+                .setIndex(fragment.getIndex())
+                .setTimestamp(new Date())
+                .setCost(cost / NANOS_PER_MILLI)
+                .setReturn(null == throwExp)
+                .setThrow(null != throwExp)
+                .setObject(fragment.getObject())
+                .setClassName(fragment.getClassName())
+                .setMethodName(fragment.getMethodName())
+                .setThreadName(Thread.currentThread().getName())
+                .setParams(advice.getParams())
+                .setReturnObj(returnObj)
+                .setThrowExp(throwExp);
+    }
+
+    /**
+     * 转为输出的结构
+     * @param fragment 记录
+     * @param detail 是否包含参数、返回值与异常
+     * @return 输出的结构
+     */
+    static TimeFragmentVO toVO(TimeFragment fragment, boolean detail) {
+        TimeFragmentVO vo = new TimeFragmentVO()
+                .setIndex(fragment.getIndex())
+                .setTimestamp(new Date(fragment.getTimestamp()))
+                .setCost(fragment.getCost() / NANOS_PER_MILLI)
+                .setReturn(fragment.isReturn())
+                .setThrow(fragment.isThrow())
+                .setObject(fragment.getObject())
+                .setClassName(fragment.getClassName())
+                .setMethodName(fragment.getMethodName())
+                .setThreadName(fragment.getThreadName());
+        if (!detail) {
+            return vo;
+        }
+        final Advice advice = fragment.getAdvice();
+        if (null != advice) {
+            return vo.setParams(advice.getParams())
+                    .setReturnObj(advice.getReturnObj())
+                    .setThrowExp(advice.getThrowExp());
+        }
+        TimeTunnelStore.Snapshot snapshot = TimeTunnelStore.getInstance().readSnapshot(fragment);
+        vo.setSnapshot(true);
+        if (null == snapshot) {
+            // 快照已被覆盖
+            return vo.setParams(new Object[] {"<expired>"});
+        }
+        return vo.setParams(snapshot.getParams())
+                .setReturnObj(snapshot.getReturnObj())
+                .setThrowExp(snapshot.getThrowExp());
+    }
+}
@@ -0,0 +1,315 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.cmd.view.ObjectView;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.OffHeapRing;
+import com.mz.jarboot.core.utils.StringUtils;
+import com.mz.jarboot.core.utils.matcher.Matcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * 时间隧道的记录存储，内存占用有上限<br/>
+ * 记录保存在固定容量的环形数组中，写满后覆盖最旧的记录；只有最近的若干条记录直接引用调用的对象，
+ * 更早的记录将参数、返回值与异常渲染为紧凑的快照写入堆外的环形存储，并释放对象引用；
+ * 同时维护按方法与按耗时的索引，查找时无需遍历所有记录
+ * @author majianzheng
+ */
+class TimeTunnelStore {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    /** 第一条记录的序号 */
+    static final int FIRST_INDEX = 1000;
+    private static final int SNAPSHOT_DEPTH = 1;
+    private static final int SNAPSHOT_OBJECT_LIMIT = 4 * 1024;
+    private static final TimeTunnelStore INSTANCE = new TimeTunnelStore(
+            Integer.getInteger("jarboot.tt.capacity", 1000),
+            Integer.getInteger("jarboot.tt.reference.window", 100),
+            Integer.getInteger("jarboot.tt.snapshot.size", 8 * 1024 * 1024));
+
+    private final TimeFragment[] fragments;
+    private final int referenceWindow;
+    private final OffHeapRing snapshots;
+    /** 类名.方法名 -> 该方法的记录序号，升序 */
+    private final Map<String, ArrayDeque<Integer>> methodIndex = new HashMap<>();
+    /** 按耗时、序号排序的记录 */
+    private final NavigableSet<TimeFragment> costIndex = new TreeSet<>(
+            Comparator.comparingLong(TimeFragment::getCost).thenComparingInt(TimeFragment::getIndex));
+    private int nextIndex = FIRST_INDEX;
+
+    TimeTunnelStore(int capacity, int referenceWindow, int snapshotSize) {
+        this.fragments = new TimeFragment[Math.max(1, capacity)];
+        this.referenceWindow = Math.max(0, Math.min(referenceWindow, fragments.length));
+        this.snapshots = new OffHeapRing(Math.max(1024, snapshotSize));
+    }
+
+    static TimeTunnelStore getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * 追加一条记录，超出容量时覆盖最旧的记录
+     * @param advice 通知
+     * @param cost 耗时，纳秒
+     * @param timestamp 调用的时间
+     * @param threadName 调用的线程
+     * @return 记录
+     */
+    synchronized TimeFragment append(Advice advice, long cost, long timestamp, String threadName) {
+        final int index = nextIndex++;
+        final int slot = slot(index);
+        final TimeFragment evicted = fragments[slot];
+        if (null != evicted) {
+            removeIndex(evicted);
+        }
+        final TimeFragment fragment = new TimeFragment(index, advice, timestamp, cost, threadName);
+        fragments[slot] = fragment;
+        methodIndex.computeIfAbsent(methodKey(fragment), k -> new ArrayDeque<>()).addLast(index);
+        costIndex.add(fragment);
+
+        // 超出引用窗口的记录转为快照
+        final TimeFragment old = get(index - referenceWindow);
+        if (null != old && null != old.getAdvice()) {
+            toSnapshot(old);
+        }
+        return fragment;
+    }
+
+    /**
+     * 按序号查找
+     * @param index 序号
+     * @return 不存在或已被覆盖时返回null
+     */
+    synchronized TimeFragment get(int index) {
+        if (index < FIRST_INDEX || index >= nextIndex) {
+            return null;
+        }
+        final TimeFragment fragment = fragments[slot(index)];
+        return null != fragment && fragment.getIndex() == index ? fragment : null;
+    }
+
+    /**
+     * 所有记录
+     * @return 按序号升序
+     */
+    synchronized List<TimeFragment> list() {
+        final List<TimeFragment> list = new ArrayList<>();
+        final int from = Math.max(FIRST_INDEX, nextIndex - fragments.length);
+        for (int index = from; index < nextIndex; ++index) {
+            TimeFragment fragment = get(index);
+            if (null != fragment) {
+                list.add(fragment);
+            }
+        }
+        return list;
+    }
+
+    /**
+     * 按方法与耗时范围查找
+     * @param methodMatcher 匹配"类名.方法名"，为null时不限
+     * @param minCost 最小耗时，纳秒，包含
+     * @param maxCost 最大耗时，纳秒，包含
+     * @return 按序号升序
+     */
+    synchronized List<TimeFragment> search(Matcher<String> methodMatcher, long minCost, long maxCost) {
+        if (minCost > maxCost) {
+            return new ArrayList<>();
+        }
+        final boolean allCost = minCost <= 0 && Long.MAX_VALUE == maxCost;
+        final List<TimeFragment> list = new ArrayList<>();
+        if (null == methodMatcher) {
+            if (allCost) {
+                return list();
+            }
+            list.addAll(costIndex.subSet(TimeFragment.costBound(minCost, false), true,
+                    TimeFragment.costBound(maxCost, true), true));
+        } else {
+            for (Map.Entry<String, ArrayDeque<Integer>> entry : methodIndex.entrySet()) {
+                if (!methodMatcher.matching(entry.getKey())) {
+                    continue;
+                }
+                for (Integer index : entry.getValue()) {
+                    TimeFragment fragment = get(index);
+                    if (null != fragment && fragment.getCost() >= minCost && fragment.getCost() <= maxCost) {
+                        list.add(fragment);
+                    }
+                }
+            }
+        }
+        list.sort(Comparator.comparingInt(TimeFragment::getIndex));
+        return list;
+    }
+
+    /**
+     * 删除记录
+     * @param index 序号
+     * @return 是否存在
+     */
+    synchronized boolean delete(int index) {
+        final TimeFragment fragment = get(index);
+        if (null == fragment) {
+            return false;
+        }
+        fragments[slot(index)] = null;
+        removeIndex(fragment);
+        return true;
+    }
+
+    /**
+     * 删除所有记录，序号继续递增
+     * @return 删除的记录数
+     */
+    synchronized int clear() {
+        int count = 0;
+        for (int i = 0; i < fragments.length; ++i) {
+            if (null != fragments[i]) {
+                fragments[i] = null;
+                ++count;
+            }
+        }
+        methodIndex.clear();
+        costIndex.clear();
+        return count;
+    }
+
+    /**
+     * 读取记录的快照
+     * @param fragment 记录
+     * @return 仍引用对象或快照已被覆盖时返回null
+     */
+    Snapshot readSnapshot(TimeFragment fragment) {
+        final long position = fragment.getSnapshotPosition();
+        if (position < 0) {
+            return null;
+        }
+        final byte[] data = snapshots.read(position, fragment.getSnapshotLength());
+        if (null == data) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(data))) {
+            final Snapshot snapshot = new Snapshot();
+            final int count = in.readInt();
+            snapshot.params = new String[count];
+            for (int i = 0; i < count; ++i) {
+                snapshot.params[i] = readString(in);
+            }
+            snapshot.returnObj = readString(in);
+            snapshot.throwExp = readString(in);
+            return snapshot;
+        } catch (IOException e) {
+            logger.warn("read time fragment snapshot failed, index: {}", fragment.getIndex(), e);
+            return null;
+        }
+    }
+
+    int getReferenceWindow() {
+        return referenceWindow;
+    }
+
+    private void toSnapshot(TimeFragment fragment) {
+        final Advice advice = fragment.getAdvice();
+        long position = -1;
+        int length = 0;
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+            DataOutputStream out = new DataOutputStream(bytes);
+            final Object[] params = advice.getParams();
+            final int count = null == params ? 0 : params.length;
+            out.writeInt(count);
+            for (int i = 0; i < count; ++i) {
+                writeString(out, render(params[i]));
+            }
+            writeString(out, advice.isAfterReturning() ? render(advice.getReturnObj()) : null);
+            writeString(out, advice.isAfterThrowing() ? render(advice.getThrowExp()) : null);
+            out.flush();
+            final byte[] data = bytes.toByteArray();
+            position = snapshots.write(data);
+            length = data.length;
+        } catch (Throwable e) {
+            logger.warn("write time fragment snapshot failed, index: {}", fragment.getIndex(), e);
+        }
+        fragment.releaseAdvice(position, length);
+    }
+
+    private static String render(Object value) {
+        if (null == value) {
+            return null;
+        }
+        return StringUtils.objectToString(new ObjectView(value, SNAPSHOT_DEPTH, SNAPSHOT_OBJECT_LIMIT).draw());
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (null == value) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] data = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        final int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] data = new byte[length];
+        in.readFully(data);
+        return new String(data, StandardCharsets.UTF_8);
+    }
+
+    private void removeIndex(TimeFragment fragment) {
+        costIndex.remove(fragment);
+        final String key = methodKey(fragment);
+        final ArrayDeque<Integer> indexes = methodIndex.get(key);
+        if (null == indexes) {
+            return;
+        }
+        // 覆盖的总是该方法最旧的记录
+        if (!indexes.isEmpty() && indexes.peekFirst() == fragment.getIndex()) {
+            indexes.pollFirst();
+        } else {
+            indexes.remove(fragment.getIndex());
+        }
+        if (indexes.isEmpty()) {
+            methodIndex.remove(key);
+        }
+    }
+
+    private int slot(int index) {
+        return (index - FIRST_INDEX) % fragments.length;
+    }
+
+    private static String methodKey(TimeFragment fragment) {
+        return fragment.getClassName() + '.' + fragment.getMethodName();
+    }
+
+    /**
+     * 记录的快照，对象已渲染为字符串
+     */
+    static final class Snapshot {
+        private String[] params;
+        private String returnObj;
+        private String throwExp;
+
+        String[] getParams() {
+            return params;
+        }
+
+        String getReturnObj() {
+            return returnObj;
+        }
+
+        String getThrowExp() {
+            return throwExp;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.mz.jarboot.core.cmd.impl;
 
 import com.mz.jarboot.core.advisor.InvokeTraceable;
+import com.mz.jarboot.core.advisor.MethodRegistry;
 import com.mz.jarboot.core.session.CommandSession;
 
 /**
@@ -21,21 +22,28 @@ public class TraceAdviceListener extends AbstractTraceAdviceListener implements
      * trace 会在被观测的方法体中，在每个方法调用前后插入字节码，所以方法调用开始，结束，抛异常的时候，都会回调下面的接口
      */
     @Override
-    public void invokeBeforeTracing(ClassLoader classLoader, String tracingClassName, String tracingMethodName, String tracingMethodDesc, int tracingLineNumber)
-            throws Throwable {
+    public void invokeBeforeTracing(ClassLoader classLoader, MethodRegistry.InvokeSite site) throws Throwable {
+        if (!isSampled()) {
+            return;
+        }
         // normalize className later
-        threadLocalTraceEntity(classLoader).tree.begin(tracingClassName, tracingMethodName, tracingLineNumber, true);
+        threadLocalTraceEntity(classLoader).tree.begin(site.getOwner(), site.getMethodName(), site.getLineNumber(),
+                true);
     }
 
     @Override
-    public void invokeAfterTracing(ClassLoader classLoader, String tracingClassName, String tracingMethodName, String tracingMethodDesc, int tracingLineNumber)
-            throws Throwable {
+    public void invokeAfterTracing(ClassLoader classLoader, MethodRegistry.InvokeSite site) throws Throwable {
+        if (!isSampled()) {
+            return;
+        }
         threadLocalTraceEntity(classLoader).tree.end();
     }
 
     @Override
-    public void invokeThrowTracing(ClassLoader classLoader, String tracingClassName, String tracingMethodName, String tracingMethodDesc, int tracingLineNumber)
-            throws Throwable {
+    public void invokeThrowTracing(ClassLoader classLoader, MethodRegistry.InvokeSite site) throws Throwable {
+        if (!isSampled()) {
+            return;
+        }
         threadLocalTraceEntity(classLoader).tree.end(true);
     }
 
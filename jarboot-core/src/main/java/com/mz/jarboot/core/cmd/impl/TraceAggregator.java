@@ -0,0 +1,190 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.*;
+import com.mz.jarboot.core.utils.StringUtils;
+import com.mz.jarboot.core.utils.StripedHistogram;
+
+import java.util.*;
+
+/**
+ * trace聚合模式的调用树<br/>
+ * 每次调用完成的调用树按调用点（类名、方法名、行号）合并到同一棵树中，子节点通过哈希表查找；
+ * 节点累计调用次数、总耗时、最小/最大耗时，并记录直方图用于计算99分位耗时。
+ * 单次调用中循环合并过的节点只有汇总值，按其平均耗时计入直方图
+ * @author majianzheng
+ */
+class TraceAggregator {
+    private static final double PERCENTILE = 99.0;
+    private static final String THROWS_MARK = "throws Exception";
+
+    private final Node root = new Node(null);
+    private final Set<Long> threads = new HashSet<>();
+    private final long startTime = System.currentTimeMillis();
+    private long invocations;
+    private int nodeCount;
+
+    /**
+     * 合并一次调用的调用树，在通知的工作线程中调用
+     * @param tree 调用树
+     */
+    synchronized void merge(TraceTree tree) {
+        final TraceNode top = tree.getRoot();
+        if (top instanceof ThreadNode) {
+            threads.add(((ThreadNode) top).getThreadId());
+        }
+        ++invocations;
+        // 调用树可能很深，不使用递归
+        final ArrayDeque<TraceNode> sources = new ArrayDeque<>();
+        final ArrayDeque<Node> targets = new ArrayDeque<>();
+        sources.push(top);
+        targets.push(root);
+        while (!sources.isEmpty()) {
+            final TraceNode source = sources.pop();
+            final Node target = targets.pop();
+            final List<TraceNode> children = source.getChildren();
+            if (null == children) {
+                continue;
+            }
+            for (int i = 0; i < children.size(); ++i) {
+                final TraceNode child = children.get(i);
+                if (!(child instanceof MethodNode) || ((MethodNode) child).getTimes() <= 0) {
+                    // 异常信息以标记计数，未结束的调用忽略
+                    continue;
+                }
+                final MethodNode method = (MethodNode) child;
+                final Node node = target.child(method);
+                node.add(method);
+                sources.push(method);
+                targets.push(node);
+            }
+        }
+    }
+
+    /**
+     * 输出合并后的调用树，直方图会被取出，只在统计结束时调用一次
+     * @return 以{@link TraceSummaryNode}为根的模型
+     */
+    synchronized TraceModel toModel() {
+        TraceSummaryNode summary = new TraceSummaryNode();
+        summary.setDuration(System.currentTimeMillis() - startTime);
+        summary.setInvocations(invocations);
+        summary.setThreads(threads.size());
+        final ArrayDeque<Node> nodes = new ArrayDeque<>();
+        final ArrayDeque<TraceNode> outputs = new ArrayDeque<>();
+        nodes.push(root);
+        outputs.push(summary);
+        while (!nodes.isEmpty()) {
+            final Node node = nodes.pop();
+            final TraceNode output = outputs.pop();
+            if (null == node.children) {
+                continue;
+            }
+            for (Node child : node.children.values()) {
+                MethodNode method = child.toMethodNode();
+                output.addChild(method);
+                nodes.push(child);
+                outputs.push(method);
+            }
+        }
+        return new TraceModel(summary, nodeCount);
+    }
+
+    synchronized long getInvocations() {
+        return invocations;
+    }
+
+    /**
+     * 调用点，合并的依据
+     */
+    private static final class CallSite {
+        private final String className;
+        private final String methodName;
+        private final int lineNumber;
+        private final boolean invoking;
+
+        CallSite(MethodNode node) {
+            this.className = node.getClassName();
+            this.methodName = node.getMethodName();
+            this.lineNumber = node.getLineNumber();
+            this.invoking = node.isInvoking();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CallSite)) {
+                return false;
+            }
+            CallSite other = (CallSite) o;
+            return lineNumber == other.lineNumber && Objects.equals(className, other.className) &&
+                    Objects.equals(methodName, other.methodName);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(className, methodName, lineNumber);
+        }
+    }
+
+    /**
+     * 合并后的节点
+     */
+    private final class Node {
+        private final CallSite site;
+        /** 按首次出现的顺序保存，与调用顺序一致 */
+        private Map<CallSite, Node> children;
+        private final StripedHistogram histogram = new StripedHistogram();
+        private long times;
+        private long totalCost;
+        private long minCost = Long.MAX_VALUE;
+        private long maxCost;
+        private int throwTimes;
+
+        Node(CallSite site) {
+            this.site = site;
+        }
+
+        Node child(MethodNode method) {
+            if (null == children) {
+                children = new LinkedHashMap<>();
+            }
+            final CallSite key = new CallSite(method);
+            Node node = children.get(key);
+            if (null == node) {
+                node = new Node(key);
+                children.put(key, node);
+                ++nodeCount;
+            }
+            return node;
+        }
+
+        void add(MethodNode method) {
+            final long count = method.getTimes();
+            times += count;
+            totalCost += method.getTotalCost();
+            minCost = Math.min(minCost, method.getMinCost());
+            maxCost = Math.max(maxCost, method.getMaxCost());
+            histogram.record(method.getTotalCost() / count, count);
+            if (Boolean.TRUE.equals(method.getThrow())) {
+                throwTimes += method.marks();
+            }
+        }
+
+        MethodNode toMethodNode() {
+            MethodNode method = new MethodNode(StringUtils.normalizeClassName(site.className), site.methodName,
+                    site.lineNumber, site.invoking);
+            method.setTimes(times);
+            method.setTotalCost(totalCost);
+            method.setMinCost(minCost);
+            method.setMaxCost(maxCost);
+            method.setP99Cost(Math.min(histogram.drain().getValueAtPercentile(PERCENTILE), maxCost));
+            if (throwTimes > 0) {
+                method.setThrow(true);
+                method.setMark(THROWS_MARK, throwTimes);
+            }
+            return method;
+        }
+    }
+}
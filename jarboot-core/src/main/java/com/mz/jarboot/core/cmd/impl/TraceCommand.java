@@ -2,6 +2,7 @@ package com.mz.jarboot.core.cmd.impl;
 
 import com.mz.jarboot.core.GlobalOptions;
 import com.mz.jarboot.core.advisor.AdviceListener;
+import com.mz.jarboot.core.basic.EnvironmentContext;
 import com.mz.jarboot.core.cmd.annotation.*;
 import com.mz.jarboot.core.constant.CoreConstant;
 import com.mz.jarboot.core.session.CommandSession;
@@ -9,6 +10,7 @@ import com.mz.jarboot.core.utils.SearchUtils;
 import com.mz.jarboot.core.utils.matcher.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * @author majianzheng
@@ -26,6 +28,8 @@ import java.util.List;
         "  trace demo.MathGame run -n 5\n" +
         "  trace demo.MathGame run --skipJDKMethod false\n" +
         "  trace javax.servlet.Filter * --exclude-class-pattern com.demo.TestFilter\n" +
+        "  trace demo.MathGame run --sample 1/1000 --max-rate 20/s\n" +
+        "  trace demo.MathGame run --aggregate -d 30\n" +
         CoreConstant.WIKI + CoreConstant.WIKI_HOME + "trace")
 public class TraceCommand extends EnhancerCommand {
     @Override
@@ -45,6 +49,9 @@ public class TraceCommand extends EnhancerCommand {
     private int numberOfLimit = 100;
     private List<String> pathPatterns;
     private boolean skipJDKTrace;
+    private boolean aggregate = false;
+    private int duration = 30;
+    private TraceAggregator aggregator;
 
     @Argument(argName = "class-pattern", index = 0)
     @Description("Class name pattern, use either '.' or '/' as separator")
@@ -89,6 +96,18 @@ public class TraceCommand extends EnhancerCommand {
         this.skipJDKTrace = skipJDKTrace;
     }
 
+    @Option(longName = "aggregate", flag = true)
+    @Description("Merge all the invocations into one call tree with count, total, min, max and p99 cost")
+    public void setAggregate(boolean aggregate) {
+        this.aggregate = aggregate;
+    }
+
+    @Option(shortName = "d", longName = "duration")
+    @Description("The aggregating duration (in seconds), 30 seconds by default")
+    public void setDuration(int duration) {
+        this.duration = duration;
+    }
+
     public String getClassPattern() {
         return classPattern;
     }
@@ -117,6 +136,37 @@ public class TraceCommand extends EnhancerCommand {
         return pathPatterns;
     }
 
+    public TraceAggregator getAggregator() {
+        return aggregator;
+    }
+
+    @Override
+    public void run() {
+        if (!aggregate) {
+            super.run();
+            return;
+        }
+        if (duration <= 0) {
+            session.end(false, "Invalid duration: " + duration + ", should be positive.");
+            return;
+        }
+        final String sessionId = session.getSessionId();
+        final String jobId = session.getJobId();
+        aggregator = new TraceAggregator();
+        enhance(session);
+        if (!session.isRunning()) {
+            return;
+        }
+        // 聚合模式下每次调用只合并，到期后输出一棵调用树
+        EnvironmentContext.getScheduledExecutorService().schedule(() -> {
+            if (EnvironmentContext.checkJobEnd(sessionId, jobId)) {
+                return;
+            }
+            session.appendResult(aggregator.toModel());
+            session.end();
+        }, duration, TimeUnit.SECONDS);
+    }
+
     @Override
     protected Matcher getClassNameMatcher() {
         if (classNameMatcher == null) {
@@ -4,6 +4,7 @@ import com.mz.jarboot.core.advisor.AccessPoint;
 import com.mz.jarboot.core.advisor.Advice;
 import com.mz.jarboot.core.advisor.AdviceListenerAdapter;
 import com.mz.jarboot.core.advisor.JarbootMethod;
+import com.mz.jarboot.core.cmd.express.CompiledExpress;
 import com.mz.jarboot.core.constant.CoreConstant;
 import com.mz.jarboot.core.session.CommandSession;
 import com.mz.jarboot.core.utils.ThreadLocalWatch;
@@ -22,10 +23,14 @@ class WatchAdviceListener extends AdviceListenerAdapter {
     private final ThreadLocalWatch threadLocalWatch = new ThreadLocalWatch();
     private com.mz.jarboot.core.cmd.impl.WatchCommand command;
     private CommandSession process;
+    private final CompiledExpress conditionExpress;
+    private final CompiledExpress express;
 
     public WatchAdviceListener(com.mz.jarboot.core.cmd.impl.WatchCommand command, CommandSession process, boolean verbose) {
         this.command = command;
         this.process = process;
+        this.conditionExpress = compileExpress(command.getConditionExpress());
+        this.express = compileExpress(command.getExpress());
         super.setVerbose(verbose);
     }
 
@@ -73,15 +78,23 @@ class WatchAdviceListener extends AdviceListenerAdapter {
 
 
     private void watching(Advice advice) {
+        // 本次调用的耗时，计时器是线程绑定的，需在业务线程中计算
+        final double cost = threadLocalWatch.costInMillis();
+        final Advice snapshot = advice.snapshot();
+        dispatch(() -> watching(snapshot, cost));
+    }
+
+    private void watching(Advice advice, double cost) {
+        if (!prepareAsync(process)) {
+            return;
+        }
         try {
-            // 本次调用的耗时
-            double cost = threadLocalWatch.costInMillis();
-            boolean conditionResult = isConditionMet(command.getConditionExpress(), advice, cost);
+            boolean conditionResult = isConditionMet(conditionExpress, advice, cost);
             if (this.isVerbose()) {
                 process.console("Condition express: " + command.getConditionExpress() + " , result: " + conditionResult + "\n");
             }
             if (conditionResult) {
-                Object value = getExpressionResult(command.getExpress(), advice, cost);
+                Object value = getExpressionResult(express, advice, cost);
 
                 com.mz.jarboot.core.cmd.model.WatchModel model = new com.mz.jarboot.core.cmd.model.WatchModel();
                 model.setTs(new Date());
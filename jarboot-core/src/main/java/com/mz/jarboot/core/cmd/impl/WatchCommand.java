@@ -23,6 +23,7 @@ import com.mz.jarboot.core.utils.matcher.Matcher;
         "  watch *StringUtils isBlank params '#cost>100'\n" +
         "  watch -E -b org\\.apache\\.commons\\.lang\\.StringUtils isBlank params[0]\n" +
         "  watch javax.servlet.Filter * --exclude-class-pattern com.demo.TestFilter\n" +
+        "  watch *StringUtils isBlank params --sample 1/1000 --max-rate 20/s\n" +
         CoreConstant.WIKI + CoreConstant.WIKI_HOME + "watch")
 public class WatchCommand extends EnhancerCommand {
 
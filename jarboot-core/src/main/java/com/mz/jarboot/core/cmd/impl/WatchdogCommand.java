@@ -0,0 +1,95 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.AbstractCommand;
+import com.mz.jarboot.core.cmd.annotation.*;
+import com.mz.jarboot.core.constant.CoreConstant;
+import com.mz.jarboot.core.utils.DateUtils;
+
+import java.util.Date;
+
+/**
+ * 后台检测死锁与卡住的线程，发现时向jarboot-server推送告警
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+@Name("watchdog")
+@Summary("Background deadlock and stuck thread detector, push alerts to jarboot server")
+@Description(CoreConstant.EXAMPLE +
+        "  watchdog start\n" +
+        "  watchdog start -i 30 -n 10\n" +
+        "  watchdog status\n" +
+        "  watchdog stop\n" +
+        CoreConstant.WIKI + CoreConstant.WIKI_HOME + "watchdog")
+public class WatchdogCommand extends AbstractCommand {
+    private static final String START = "start";
+    private static final String STOP = "stop";
+    private static final String STATUS = "status";
+    private static final long MILLIS_PER_SECOND = 1000L;
+
+    private String action;
+    private int interval = 10;
+    private int samples = 6;
+
+    @Argument(index = 0, argName = "action")
+    @Description("Action to execute: start, stop or status")
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    @Option(shortName = "i", longName = "interval")
+    @Description("Check interval in seconds, 10 by default")
+    public void setInterval(int interval) {
+        this.interval = interval;
+    }
+
+    @Option(shortName = "n", longName = "samples")
+    @Description("A RUNNABLE or BLOCKED thread is stuck when its stack is unchanged for n checks, 6 by default")
+    public void setSamples(int samples) {
+        this.samples = samples;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return null != session && session.isRunning();
+    }
+
+    @Override
+    public void cancel() {
+        //do nothing
+    }
+
+    @Override
+    public void run() {
+        final ThreadWatchdog watchdog = ThreadWatchdog.getInstance();
+        if (START.equals(action)) {
+            if (interval <= 0 || samples <= 1) {
+                session.end(false, "Invalid interval or samples, interval should be positive and samples > 1.");
+                return;
+            }
+            if (!watchdog.start(interval * MILLIS_PER_SECOND, samples)) {
+                session.end(false, "Watchdog is already running.");
+                return;
+            }
+        } else if (STOP.equals(action)) {
+            if (!watchdog.stop()) {
+                session.end(false, "Watchdog is not running.");
+                return;
+            }
+            session.console("Watchdog stopped.");
+            session.end();
+            return;
+        } else if (!STATUS.equals(action)) {
+            session.end(false, "Unknown action: " + action + ", should be start, stop or status.");
+            return;
+        }
+        if (watchdog.isRunning()) {
+            session.console("Watchdog is running since " + DateUtils.formatDate(new Date(watchdog.getStartTime())) +
+                    ", interval: " + watchdog.getInterval() / MILLIS_PER_SECOND + "s, stuck samples: " +
+                    watchdog.getStuckSamples() + ", checks: " + watchdog.getTicks() + ", alerts: " +
+                    watchdog.getAlerts() + ".");
+        } else {
+            session.console("Watchdog is not running.");
+        }
+        session.end();
+    }
+}
@@ -0,0 +1,276 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.TomcatInfoVO;
+import com.mz.jarboot.core.constant.CoreConstant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.*;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+/**
+ * 内嵌Web容器的指标<br/>
+ * 直接从平台MBeanServer读取Tomcat、Jetty、Undertow注册的MBean，不再请求额外的HTTP接口；
+ * 查询到的ObjectName及其存在的属性名解析一次后缓存，每次采样只批量读取属性，
+ * 每隔一定次数重新查询，以发现后启动的容器
+ * @author majianzheng
+ */
+class WebContainerMetrics {
+    private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
+    /** 每隔多少次采样重新查询MBean */
+    private static final int REFRESH_TICKS = 60;
+    private static final double NANOS_PER_SECOND = 1000000000.0;
+
+    /** 连接器的指标：请求数、错误数、处理耗时（毫秒）、接收字节数、发送字节数 */
+    private static final int REQUESTS = 0;
+    private static final int ERRORS = 1;
+    private static final int TIME = 2;
+    private static final int RECEIVED = 3;
+    private static final int SENT = 4;
+    /** 线程池的指标：忙碌线程数、线程数、最大线程数 */
+    private static final int BUSY = 0;
+    private static final int TOTAL = 1;
+    private static final int MAX = 2;
+
+    /**
+     * 支持的容器，Tomcat需开启server.tomcat.mbeanregistry.enabled，Jetty需注册MBeanContainer，
+     * 请求统计来自StatisticsHandler；Undertow只有XNIO工作线程池的MBean
+     */
+    private static final Kind[] KINDS = {
+            new Kind("tomcat", "*:type=GlobalRequestProcessor,*", true, "name",
+                    "requestCount", "errorCount", "processingTime", "bytesReceived", "bytesSent"),
+            new Kind("tomcat", "*:type=ThreadPool,*", false, "name",
+                    "currentThreadsBusy", "currentThreadCount", "maxThreads"),
+            new Kind("jetty", "org.eclipse.jetty.server.handler:type=statisticshandler,*", true, "id",
+                    "requests", "responses5xx", "dispatchedTimeTotal", null, "responsesBytesTotal"),
+            new Kind("jetty", "org.eclipse.jetty.util.thread:type=queuedthreadpool,*", false, "id",
+                    "busyThreads", "threads", "maxThreads"),
+            new Kind("undertow", "org.xnio:type=Xnio,*", false, "worker",
+                    "BusyWorkerThreadCount", "WorkerPoolSize", "MaxWorkerPoolSize"),
+    };
+
+    private final MBeanServer server;
+    private List<Handle> handles = Collections.emptyList();
+    private String container;
+    private int ticks;
+
+    WebContainerMetrics() {
+        this(ManagementFactory.getPlatformMBeanServer());
+    }
+
+    WebContainerMetrics(MBeanServer server) {
+        this.server = server;
+    }
+
+    /**
+     * 读取容器的请求速率、错误速率、平均耗时与线程池的忙碌线程数
+     * @return 容器指标，没有可识别的容器时返回null
+     */
+    TomcatInfoVO read() {
+        if (ticks++ % REFRESH_TICKS == 0) {
+            refresh();
+        }
+        if (handles.isEmpty()) {
+            return null;
+        }
+        final long now = System.nanoTime();
+        List<TomcatInfoVO.ConnectorStats> connectorStats = new ArrayList<>();
+        List<TomcatInfoVO.ThreadPool> threadPools = new ArrayList<>();
+        boolean stale = false;
+        for (Handle handle : handles) {
+            final long[] values;
+            try {
+                values = handle.read(server);
+            } catch (JMException e) {
+                // 已注销，下次重新查询
+                stale = true;
+                continue;
+            }
+            if (handle.kind.connector) {
+                connectorStats.add(handle.connectorStats(values, now));
+            } else {
+                threadPools.add(new TomcatInfoVO.ThreadPool(handle.label, values[BUSY], values[TOTAL], values[MAX]));
+            }
+            handle.last = values;
+            handle.lastNanos = now;
+        }
+        if (stale) {
+            ticks = 0;
+        }
+        TomcatInfoVO info = new TomcatInfoVO();
+        info.setContainer(container);
+        info.setConnectorStats(connectorStats);
+        info.setThreadPools(threadPools);
+        return info;
+    }
+
+    /**
+     * 重新查询MBean，保留已存在的句柄以延续速率的计算
+     */
+    private void refresh() {
+        Map<ObjectName, Handle> old = new HashMap<>(handles.size() * 2);
+        for (Handle handle : handles) {
+            old.put(handle.name, handle);
+        }
+        List<Handle> list = new ArrayList<>();
+        String found = null;
+        for (Kind kind : KINDS) {
+            if (null != found && !found.equals(kind.container)) {
+                // 只采集首个识别到的容器
+                continue;
+            }
+            Set<ObjectName> names;
+            try {
+                names = server.queryNames(new ObjectName(kind.query), null);
+            } catch (Exception e) {
+                logger.debug("query web container mbean failed, {}", kind.query, e);
+                continue;
+            }
+            for (ObjectName name : names) {
+                Handle handle = old.get(name);
+                if (null == handle) {
+                    handle = resolve(kind, name);
+                }
+                if (null != handle) {
+                    list.add(handle);
+                    found = kind.container;
+                }
+            }
+        }
+        handles = list;
+        container = found;
+    }
+
+    /**
+     * 解析MBean中实际存在的属性
+     * @param kind 类型
+     * @param name MBean
+     * @return 句柄，没有需要的属性时返回null
+     */
+    private Handle resolve(Kind kind, ObjectName name) {
+        final Set<String> exists = new HashSet<>();
+        try {
+            for (MBeanAttributeInfo info : server.getMBeanInfo(name).getAttributes()) {
+                if (info.isReadable()) {
+                    exists.add(info.getName());
+                }
+            }
+        } catch (Exception e) {
+            return null;
+        }
+        List<String> attributes = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < kind.attributes.length; ++i) {
+            if (null != kind.attributes[i] && exists.contains(kind.attributes[i])) {
+                attributes.add(kind.attributes[i]);
+                indexes.add(i);
+            }
+        }
+        if (attributes.isEmpty()) {
+            return null;
+        }
+        int[] index = new int[indexes.size()];
+        for (int i = 0; i < index.length; ++i) {
+            index[i] = indexes.get(i);
+        }
+        String label = name.getKeyProperty(kind.labelKey);
+        label = null == label ? name.getCanonicalName() : unquote(label);
+        return new Handle(kind, name, label, attributes.toArray(new String[0]), index);
+    }
+
+    private static String unquote(String value) {
+        return value.length() > 1 && '"' == value.charAt(0) ? ObjectName.unquote(value) : value;
+    }
+
+    /**
+     * 容器的一类MBean
+     */
+    private static final class Kind {
+        private final String container;
+        private final String query;
+        private final boolean connector;
+        private final String labelKey;
+        /** 按指标的序号排列，不支持的为null */
+        private final String[] attributes;
+
+        Kind(String container, String query, boolean connector, String labelKey, String... attributes) {
+            this.container = container;
+            this.query = query;
+            this.connector = connector;
+            this.labelKey = labelKey;
+            this.attributes = attributes;
+        }
+    }
+
+    /**
+     * 已解析的MBean
+     */
+    private static final class Handle {
+        private final Kind kind;
+        private final ObjectName name;
+        private final String label;
+        private final String[] attributes;
+        /** 属性对应的指标序号 */
+        private final int[] indexes;
+        private long[] last;
+        private long lastNanos;
+
+        Handle(Kind kind, ObjectName name, String label, String[] attributes, int[] indexes) {
+            this.kind = kind;
+            this.name = name;
+            this.label = label;
+            this.attributes = attributes;
+            this.indexes = indexes;
+        }
+
+        /**
+         * 批量读取属性
+         * @param server MBeanServer
+         * @return 按指标序号排列的值，不支持的为-1
+         * @throws JMException MBean已注销
+         */
+        long[] read(MBeanServer server) throws JMException {
+            final long[] values = new long[kind.attributes.length];
+            Arrays.fill(values, -1);
+            final List<Attribute> list = server.getAttributes(name, attributes).asList();
+            for (Attribute attribute : list) {
+                final Object value = attribute.getValue();
+                if (!(value instanceof Number)) {
+                    continue;
+                }
+                for (int i = 0; i < attributes.length; ++i) {
+                    if (attributes[i].equals(attribute.getName())) {
+                        values[indexes[i]] = ((Number) value).longValue();
+                        break;
+                    }
+                }
+            }
+            return values;
+        }
+
+        TomcatInfoVO.ConnectorStats connectorStats(long[] values, long now) {
+            TomcatInfoVO.ConnectorStats stats = new TomcatInfoVO.ConnectorStats();
+            stats.setName(label);
+            if (null == last || now <= lastNanos) {
+                return stats;
+            }
+            final double seconds = (now - lastNanos) / NANOS_PER_SECOND;
+            final long requests = delta(values, REQUESTS);
+            stats.setQps(requests / seconds);
+            stats.setError(delta(values, ERRORS) / seconds);
+            stats.setRt(requests > 0 ? delta(values, TIME) / (double) requests : 0);
+            stats.setReceived((long) (delta(values, RECEIVED) / seconds));
+            stats.setSent((long) (delta(values, SENT) / seconds));
+            return stats;
+        }
+
+        private long delta(long[] values, int index) {
+            if (values[index] < 0 || last[index] < 0) {
+                return 0;
+            }
+            // 计数被重置时视为0
+            return Math.max(0, values[index] - last[index]);
+        }
+    }
+}
@@ -39,6 +39,7 @@ public class BusyThreadInfo extends ThreadVO {
         this.setCpu(thread.getCpu());
         this.setDeltaTime(thread.getDeltaTime());
         this.setTime(thread.getTime());
+        this.setAllocRate(thread.getAllocRate());
 
         //thread info
         if (threadInfo != null) {
@@ -0,0 +1,33 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * Pre-rendered push of 'dashboard' command, shared by all the subscribed sessions
+ * @author majianzheng
+ */
+public class DashboardDeltaModel extends ResultModel {
+    /**
+     * 已序列化的数据，首次为全量，之后只包含变化的字段
+     */
+    private String json;
+
+    public DashboardDeltaModel() {
+        //do nothing
+    }
+
+    public DashboardDeltaModel(String json) {
+        this.json = json;
+    }
+
+    @Override
+    public String getName() {
+        return "dashboard";
+    }
+
+    public String getJson() {
+        return json;
+    }
+
+    public void setJson(String json) {
+        this.json = json;
+    }
+}
@@ -14,6 +14,8 @@ public class DashboardModel extends ResultModel {
     private List<GcInfoVO> gcInfos;
     private RuntimeInfoVO runtimeInfo;
     private TomcatInfoVO tomcatInfo;
+    /** 进程的内存分配速率，字节/秒，不支持时为-1 */
+    private long allocRate = -1;
 
     @Override
     public String getName() {
@@ -59,4 +61,12 @@ public class DashboardModel extends ResultModel {
     public void setTomcatInfo(TomcatInfoVO tomcatInfo) {
         this.tomcatInfo = tomcatInfo;
     }
+
+    public long getAllocRate() {
+        return allocRate;
+    }
+
+    public void setAllocRate(long allocRate) {
+        this.allocRate = allocRate;
+    }
 }
@@ -5,17 +5,25 @@ import com.mz.jarboot.core.utils.affect.EnhancerAffect;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author majianzheng
  * 以下代码基于开源项目Arthas适配修改
  */
 public class EnhancerAffectVO {
+    private static final int TOP_CLASS_COSTS = 5;
 
     private final long cost;
     private final int methodCount;
     private final int classCount;
     private final long listenerId;
+    /** 增强总耗时(ms)，包括retransform */
+    private double enhanceCost = -1;
+    /** 类转换的耗时总和(ms) */
+    private double transformCost;
+    /** 转换最慢的类及耗时，verbose时输出所有类 */
+    private List<String> classCosts;
     private Throwable throwable;
     private List<String> classDumpFiles;
     private List<String> methods;
@@ -26,6 +34,18 @@ public class EnhancerAffectVO {
         this.methodCount = affect.mCnt();
         this.listenerId = affect.getListenerId();
         this.throwable = affect.getThrowable();
+        if (affect.getEnhanceCost() >= 0) {
+            this.enhanceCost = toMillis(affect.getEnhanceCost());
+        }
+        this.transformCost = toMillis(affect.transformCost());
+        List<Map.Entry<String, Long>> costs = new ArrayList<>(affect.getClassCosts().entrySet());
+        costs.sort((a, b) -> Long.compare(b.getValue(), a.getValue()));
+        int limit = GlobalOptions.verbose ? costs.size() : Math.min(costs.size(), TOP_CLASS_COSTS);
+        classCosts = new ArrayList<>(limit);
+        for (int i = 0; i < limit; ++i) {
+            Map.Entry<String, Long> entry = costs.get(i);
+            classCosts.add(entry.getKey() + " " + toMillis(entry.getValue()) + " ms");
+        }
 
         if (GlobalOptions.isDump) {
             classDumpFiles = new ArrayList<>();
@@ -63,6 +83,22 @@ public class EnhancerAffectVO {
         return listenerId;
     }
 
+    public double getEnhanceCost() {
+        return enhanceCost;
+    }
+
+    public double getTransformCost() {
+        return transformCost;
+    }
+
+    public List<String> getClassCosts() {
+        return classCosts;
+    }
+
+    public void setClassCosts(List<String> classCosts) {
+        this.classCosts = classCosts;
+    }
+
     public Throwable getThrowable() {
         return throwable;
     }
@@ -86,4 +122,8 @@ public class EnhancerAffectVO {
     public void setMethods(List<String> methods) {
         this.methods = methods;
     }
+
+    private static double toMillis(long nanos) {
+        return Math.round(nanos / 1000.0) / 1000.0;
+    }
 }
@@ -0,0 +1,50 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * 火焰图数据，由前端渲染
+ * @author majianzheng
+ */
+public class FlameGraphModel extends ResultModel {
+    private FlameNodeVO root;
+    private long samples;
+    private long duration;
+
+    public FlameGraphModel() {
+
+    }
+
+    public FlameGraphModel(FlameNodeVO root, long samples, long duration) {
+        this.root = root;
+        this.samples = samples;
+        this.duration = duration;
+    }
+
+    @Override
+    public String getName() {
+        return "flamegraph";
+    }
+
+    public FlameNodeVO getRoot() {
+        return root;
+    }
+
+    public void setRoot(FlameNodeVO root) {
+        this.root = root;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+}
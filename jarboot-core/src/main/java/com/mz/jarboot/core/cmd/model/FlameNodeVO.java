@@ -0,0 +1,55 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 火焰图的节点
+ * @author majianzheng
+ */
+public class FlameNodeVO {
+    private String name;
+    /** 经过该节点的CPU时间，微秒 */
+    private long value;
+    private List<FlameNodeVO> children;
+
+    public FlameNodeVO() {
+
+    }
+
+    public FlameNodeVO(String name, long value) {
+        this.name = name;
+        this.value = value;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getValue() {
+        return value;
+    }
+
+    public void setValue(long value) {
+        this.value = value;
+    }
+
+    public List<FlameNodeVO> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<FlameNodeVO> children) {
+        this.children = children;
+    }
+
+    public void addChild(FlameNodeVO child) {
+        if (null == children) {
+            children = new ArrayList<>();
+        }
+        children.add(child);
+    }
+}
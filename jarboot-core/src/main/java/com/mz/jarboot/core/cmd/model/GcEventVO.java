@@ -0,0 +1,97 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.List;
+
+/**
+ * 一次GC事件
+ * @author majianzheng
+ */
+public class GcEventVO {
+    /** 该收集器的GC序号 */
+    private long id;
+    /** 收集器名称 */
+    private String collector;
+    private String action;
+    private String cause;
+    /** 开始时间，JVM启动后的毫秒数 */
+    private long startTime;
+    /** 耗时，毫秒 */
+    private long duration;
+    /** 距上次GC新分配的字节数 */
+    private long allocated;
+    /** 晋升到老年代的字节数 */
+    private long promoted;
+    private List<GcPoolUsageVO> pools;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getCollector() {
+        return collector;
+    }
+
+    public void setCollector(String collector) {
+        this.collector = collector;
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public String getCause() {
+        return cause;
+    }
+
+    public void setCause(String cause) {
+        this.cause = cause;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public long getAllocated() {
+        return allocated;
+    }
+
+    public void setAllocated(long allocated) {
+        this.allocated = allocated;
+    }
+
+    public long getPromoted() {
+        return promoted;
+    }
+
+    public void setPromoted(long promoted) {
+        this.promoted = promoted;
+    }
+
+    public List<GcPoolUsageVO> getPools() {
+        return pools;
+    }
+
+    public void setPools(List<GcPoolUsageVO> pools) {
+        this.pools = pools;
+    }
+}
@@ -0,0 +1,31 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * GcCommand result model, either a gc event or a summary
+ * @author majianzheng
+ */
+public class GcModel extends ResultModel {
+    private GcEventVO event;
+    private GcSummaryVO summary;
+
+    @Override
+    public String getName() {
+        return "gc";
+    }
+
+    public GcEventVO getEvent() {
+        return event;
+    }
+
+    public void setEvent(GcEventVO event) {
+        this.event = event;
+    }
+
+    public GcSummaryVO getSummary() {
+        return summary;
+    }
+
+    public void setSummary(GcSummaryVO summary) {
+        this.summary = summary;
+    }
+}
@@ -0,0 +1,37 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * 一次GC前后内存池的使用量
+ * @author majianzheng
+ */
+public class GcPoolUsageVO {
+    private String name;
+    /** GC前使用的字节数 */
+    private long before;
+    /** GC后使用的字节数 */
+    private long after;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getBefore() {
+        return before;
+    }
+
+    public void setBefore(long before) {
+        this.before = before;
+    }
+
+    public long getAfter() {
+        return after;
+    }
+
+    public void setAfter(long after) {
+        this.after = after;
+    }
+}
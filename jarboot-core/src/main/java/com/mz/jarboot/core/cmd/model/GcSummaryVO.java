@@ -0,0 +1,105 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.Date;
+
+/**
+ * 滚动窗口内的GC统计
+ * @author majianzheng
+ */
+public class GcSummaryVO {
+    private Date ts;
+    /** 窗口长度，毫秒 */
+    private long window;
+    /** 窗口内的GC次数 */
+    private long count;
+    /** 平均停顿时间，毫秒，以下百分位与最大值单位相同 */
+    private double avg;
+    private long p50;
+    private long p90;
+    private long p99;
+    private long max;
+    /** 分配速率，字节/秒 */
+    private long allocRate;
+    /** 晋升速率，字节/秒 */
+    private long promotionRate;
+
+    public Date getTs() {
+        return ts;
+    }
+
+    public void setTs(Date ts) {
+        this.ts = ts;
+    }
+
+    public long getWindow() {
+        return window;
+    }
+
+    public void setWindow(long window) {
+        this.window = window;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getAvg() {
+        return avg;
+    }
+
+    public void setAvg(double avg) {
+        this.avg = avg;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public void setP50(long p50) {
+        this.p50 = p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public void setP90(long p90) {
+        this.p90 = p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public void setP99(long p99) {
+        this.p99 = p99;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    public void setMax(long max) {
+        this.max = max;
+    }
+
+    public long getAllocRate() {
+        return allocRate;
+    }
+
+    public void setAllocRate(long allocRate) {
+        this.allocRate = allocRate;
+    }
+
+    public long getPromotionRate() {
+        return promotionRate;
+    }
+
+    public void setPromotionRate(long promotionRate) {
+        this.promotionRate = promotionRate;
+    }
+}
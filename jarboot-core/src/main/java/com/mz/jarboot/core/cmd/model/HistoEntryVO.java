@@ -0,0 +1,57 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * 类直方图中的一个类
+ * @author majianzheng
+ */
+public class HistoEntryVO {
+    private String className;
+    /** 实例数 */
+    private long instances;
+    /** 占用的字节数 */
+    private long bytes;
+    /** 与上次相比实例数的增量 */
+    private long deltaInstances;
+    /** 与上次相比字节数的增量 */
+    private long deltaBytes;
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public long getInstances() {
+        return instances;
+    }
+
+    public void setInstances(long instances) {
+        this.instances = instances;
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    public void setBytes(long bytes) {
+        this.bytes = bytes;
+    }
+
+    public long getDeltaInstances() {
+        return deltaInstances;
+    }
+
+    public void setDeltaInstances(long deltaInstances) {
+        this.deltaInstances = deltaInstances;
+    }
+
+    public long getDeltaBytes() {
+        return deltaBytes;
+    }
+
+    public void setDeltaBytes(long deltaBytes) {
+        this.deltaBytes = deltaBytes;
+    }
+}
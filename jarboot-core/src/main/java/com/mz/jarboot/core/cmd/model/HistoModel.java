@@ -0,0 +1,98 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.List;
+
+/**
+ * HistoCommand result model
+ * @author majianzheng
+ */
+public class HistoModel extends ResultModel {
+    private boolean live;
+    /** 是否为与上次的差异 */
+    private boolean diff;
+    /** 距上次的时间，毫秒，没有上次时为-1 */
+    private long interval;
+    private int classCount;
+    private long totalInstances;
+    private long totalBytes;
+    private long deltaInstances;
+    private long deltaBytes;
+    private List<HistoEntryVO> entries;
+
+    @Override
+    public String getName() {
+        return "histo";
+    }
+
+    public boolean isLive() {
+        return live;
+    }
+
+    public void setLive(boolean live) {
+        this.live = live;
+    }
+
+    public boolean isDiff() {
+        return diff;
+    }
+
+    public void setDiff(boolean diff) {
+        this.diff = diff;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    public int getClassCount() {
+        return classCount;
+    }
+
+    public void setClassCount(int classCount) {
+        this.classCount = classCount;
+    }
+
+    public long getTotalInstances() {
+        return totalInstances;
+    }
+
+    public void setTotalInstances(long totalInstances) {
+        this.totalInstances = totalInstances;
+    }
+
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+
+    public long getDeltaInstances() {
+        return deltaInstances;
+    }
+
+    public void setDeltaInstances(long deltaInstances) {
+        this.deltaInstances = deltaInstances;
+    }
+
+    public long getDeltaBytes() {
+        return deltaBytes;
+    }
+
+    public void setDeltaBytes(long deltaBytes) {
+        this.deltaBytes = deltaBytes;
+    }
+
+    public List<HistoEntryVO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<HistoEntryVO> entries) {
+        this.entries = entries;
+    }
+}
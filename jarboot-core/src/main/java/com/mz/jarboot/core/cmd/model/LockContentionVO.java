@@ -0,0 +1,107 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.List;
+
+/**
+ * 一个锁在采样期间的竞争
+ * @author majianzheng
+ */
+public class LockContentionVO {
+    /** 锁的类名@identityHashCode */
+    private String lockName;
+    /** 等待该锁的累计时间，毫秒 */
+    private long blockedTime;
+    /** 进入阻塞或等待的次数 */
+    private long contentions;
+    /** 被采样到竞争的次数 */
+    private long samples;
+    /** 等待该锁的线程 */
+    private List<String> contenders;
+    /** 不同持有者的数量 */
+    private int ownerCount;
+    /** 被采样到次数最多的持有者 */
+    private long ownerId;
+    private String ownerName;
+    private long ownerSamples;
+    private StackTraceElement[] ownerStackTrace;
+
+    public String getLockName() {
+        return lockName;
+    }
+
+    public void setLockName(String lockName) {
+        this.lockName = lockName;
+    }
+
+    public long getBlockedTime() {
+        return blockedTime;
+    }
+
+    public void setBlockedTime(long blockedTime) {
+        this.blockedTime = blockedTime;
+    }
+
+    public long getContentions() {
+        return contentions;
+    }
+
+    public void setContentions(long contentions) {
+        this.contentions = contentions;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public List<String> getContenders() {
+        return contenders;
+    }
+
+    public void setContenders(List<String> contenders) {
+        this.contenders = contenders;
+    }
+
+    public int getOwnerCount() {
+        return ownerCount;
+    }
+
+    public void setOwnerCount(int ownerCount) {
+        this.ownerCount = ownerCount;
+    }
+
+    public long getOwnerId() {
+        return ownerId;
+    }
+
+    public void setOwnerId(long ownerId) {
+        this.ownerId = ownerId;
+    }
+
+    public String getOwnerName() {
+        return ownerName;
+    }
+
+    public void setOwnerName(String ownerName) {
+        this.ownerName = ownerName;
+    }
+
+    public long getOwnerSamples() {
+        return ownerSamples;
+    }
+
+    public void setOwnerSamples(long ownerSamples) {
+        this.ownerSamples = ownerSamples;
+    }
+
+    public StackTraceElement[] getOwnerStackTrace() {
+        return ownerStackTrace;
+    }
+
+    public void setOwnerStackTrace(StackTraceElement[] ownerStackTrace) {
+        this.ownerStackTrace = ownerStackTrace;
+    }
+}
@@ -0,0 +1,73 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.Date;
+import java.util.List;
+
+/**
+ * LockCommand result model
+ * @author majianzheng
+ */
+public class LockModel extends ResultModel {
+    private Date ts;
+    /** 采样时长，毫秒 */
+    private long duration;
+    private long samples;
+    /** 发生竞争的锁数量 */
+    private int lockCount;
+    /** 阻塞时间来自竞争监控，否则按采样间隔估算 */
+    private boolean contentionMonitoring;
+    private List<LockContentionVO> locks;
+
+    @Override
+    public String getName() {
+        return "lock";
+    }
+
+    public Date getTs() {
+        return ts;
+    }
+
+    public void setTs(Date ts) {
+        this.ts = ts;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public int getLockCount() {
+        return lockCount;
+    }
+
+    public void setLockCount(int lockCount) {
+        this.lockCount = lockCount;
+    }
+
+    public boolean isContentionMonitoring() {
+        return contentionMonitoring;
+    }
+
+    public void setContentionMonitoring(boolean contentionMonitoring) {
+        this.contentionMonitoring = contentionMonitoring;
+    }
+
+    public List<LockContentionVO> getLocks() {
+        return locks;
+    }
+
+    public void setLocks(List<LockContentionVO> locks) {
+        this.locks = locks;
+    }
+}
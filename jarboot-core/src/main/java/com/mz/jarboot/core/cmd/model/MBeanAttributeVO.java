@@ -0,0 +1,57 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * MBean的属性
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class MBeanAttributeVO {
+    private String name;
+    /** 属性类型，仅元数据中有 */
+    private String type;
+    /** 读写：R、W、RW，仅元数据中有 */
+    private String rw;
+    private Object value;
+    /** 读取失败的原因 */
+    private String error;
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public String getRw() {
+        return rw;
+    }
+
+    public void setRw(String rw) {
+        this.rw = rw;
+    }
+
+    public Object getValue() {
+        return value;
+    }
+
+    public void setValue(Object value) {
+        this.value = value;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,77 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * MBeanCommand result model
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class MBeanModel extends ResultModel {
+    /** 查询到的MBean名称 */
+    private List<String> mbeanNames;
+    /** ObjectName -> 属性元数据 */
+    private Map<String, List<MBeanAttributeVO>> mbeanMetadata;
+    /** ObjectName -> 操作的签名 */
+    private Map<String, List<String>> mbeanOperations;
+    /** ObjectName -> 属性值 */
+    private Map<String, List<MBeanAttributeVO>> mbeanAttribute;
+    /** 订阅时只包含变化的属性 */
+    private boolean delta;
+    private Date ts;
+
+    @Override
+    public String getName() {
+        return "mbean";
+    }
+
+    public List<String> getMbeanNames() {
+        return mbeanNames;
+    }
+
+    public void setMbeanNames(List<String> mbeanNames) {
+        this.mbeanNames = mbeanNames;
+    }
+
+    public Map<String, List<MBeanAttributeVO>> getMbeanMetadata() {
+        return mbeanMetadata;
+    }
+
+    public void setMbeanMetadata(Map<String, List<MBeanAttributeVO>> mbeanMetadata) {
+        this.mbeanMetadata = mbeanMetadata;
+    }
+
+    public Map<String, List<String>> getMbeanOperations() {
+        return mbeanOperations;
+    }
+
+    public void setMbeanOperations(Map<String, List<String>> mbeanOperations) {
+        this.mbeanOperations = mbeanOperations;
+    }
+
+    public Map<String, List<MBeanAttributeVO>> getMbeanAttribute() {
+        return mbeanAttribute;
+    }
+
+    public void setMbeanAttribute(Map<String, List<MBeanAttributeVO>> mbeanAttribute) {
+        this.mbeanAttribute = mbeanAttribute;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    public Date getTs() {
+        return ts;
+    }
+
+    public void setTs(Date ts) {
+        this.ts = ts;
+    }
+}
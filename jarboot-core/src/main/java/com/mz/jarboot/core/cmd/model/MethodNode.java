@@ -35,6 +35,10 @@ public class MethodNode extends TraceNode {
     private long maxCost = Long.MIN_VALUE;
     private long totalCost = 0;
     private long times = 0;
+    /**
+     * 聚合模式下的99分位耗时
+     */
+    private long p99Cost = 0;
 
 
     public MethodNode(String className, String methodName, int lineNumber, boolean isInvoking) {
@@ -141,6 +145,14 @@ public class MethodNode extends TraceNode {
         this.times = times;
     }
 
+    public long getP99Cost() {
+        return p99Cost;
+    }
+
+    public void setP99Cost(long p99Cost) {
+        this.p99Cost = p99Cost;
+    }
+
     public boolean isInvoking() {
         return isInvoking;
     }
@@ -0,0 +1,127 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.Date;
+
+/**
+ * 一个周期内方法的统计数据，耗时单位为毫秒
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class MonitorData {
+    private String className;
+    private String methodName;
+    private long total;
+    private long success;
+    private long failed;
+    private double qps;
+    private double avgRt;
+    private double p50;
+    private double p90;
+    private double p99;
+    private double maxRt;
+    private Date timestamp;
+
+    public String getClassName() {
+        return className;
+    }
+
+    public void setClassName(String className) {
+        this.className = className;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public void setMethodName(String methodName) {
+        this.methodName = methodName;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public long getSuccess() {
+        return success;
+    }
+
+    public void setSuccess(long success) {
+        this.success = success;
+    }
+
+    public long getFailed() {
+        return failed;
+    }
+
+    public void setFailed(long failed) {
+        this.failed = failed;
+    }
+
+    public double getQps() {
+        return qps;
+    }
+
+    public void setQps(double qps) {
+        this.qps = qps;
+    }
+
+    /**
+     * 失败率，百分比
+     * @return 失败率
+     */
+    public double getFailRate() {
+        return total <= 0 ? 0 : 100.0 * failed / total;
+    }
+
+    public double getAvgRt() {
+        return avgRt;
+    }
+
+    public void setAvgRt(double avgRt) {
+        this.avgRt = avgRt;
+    }
+
+    public double getP50() {
+        return p50;
+    }
+
+    public void setP50(double p50) {
+        this.p50 = p50;
+    }
+
+    public double getP90() {
+        return p90;
+    }
+
+    public void setP90(double p90) {
+        this.p90 = p90;
+    }
+
+    public double getP99() {
+        return p99;
+    }
+
+    public void setP99(double p99) {
+        this.p99 = p99;
+    }
+
+    public double getMaxRt() {
+        return maxRt;
+    }
+
+    public void setMaxRt(double maxRt) {
+        this.maxRt = maxRt;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+    }
+}
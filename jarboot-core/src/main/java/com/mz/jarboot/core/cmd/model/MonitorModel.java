@@ -0,0 +1,33 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.List;
+
+/**
+ * Data model of MonitorCommand
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class MonitorModel extends ResultModel {
+    private List<MonitorData> monitorDataList;
+
+    public MonitorModel() {
+        //do nothing
+    }
+
+    public MonitorModel(List<MonitorData> monitorDataList) {
+        this.monitorDataList = monitorDataList;
+    }
+
+    @Override
+    public String getName() {
+        return "monitor";
+    }
+
+    public List<MonitorData> getMonitorDataList() {
+        return monitorDataList;
+    }
+
+    public void setMonitorDataList(List<MonitorData> monitorDataList) {
+        this.monitorDataList = monitorDataList;
+    }
+}
@@ -0,0 +1,66 @@
+package com.mz.jarboot.core.cmd.model;
+
+import com.mz.jarboot.common.PerfCounter;
+
+import java.util.List;
+
+/**
+ * PerfCounterCommand result model
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class PerfCounterModel extends ResultModel {
+    private List<PerfCounter> perfCounters;
+    private boolean details;
+    /** 是否为两次采样的差值 */
+    private boolean delta;
+    /** 两次采样的间隔，毫秒 */
+    private long interval;
+    /** 高精度时钟的频率，用于将ticks转为时间 */
+    private long frequency;
+
+    @Override
+    public String getName() {
+        return "perfcounter";
+    }
+
+    public List<PerfCounter> getPerfCounters() {
+        return perfCounters;
+    }
+
+    public void setPerfCounters(List<PerfCounter> perfCounters) {
+        this.perfCounters = perfCounters;
+    }
+
+    public boolean isDetails() {
+        return details;
+    }
+
+    public void setDetails(boolean details) {
+        this.details = details;
+    }
+
+    public boolean isDelta() {
+        return delta;
+    }
+
+    public void setDelta(boolean delta) {
+        this.delta = delta;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    public long getFrequency() {
+        return frequency;
+    }
+
+    public void setFrequency(long frequency) {
+        this.frequency = frequency;
+    }
+}
@@ -0,0 +1,71 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * Model of `profiler` command
+ * @author majianzheng
+ */
+public class ProfilerModel extends ResultModel {
+    private String action;
+    private boolean running;
+    /** 采样次数 */
+    private long samples;
+    /** 采样间隔，毫秒 */
+    private long interval;
+    /** 已采样的时长，毫秒 */
+    private long duration;
+    /** 折叠格式的调用栈文件 */
+    private String outputFile;
+
+    @Override
+    public String getName() {
+        return "profiler";
+    }
+
+    public String getAction() {
+        return action;
+    }
+
+    public void setAction(String action) {
+        this.action = action;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    public void setRunning(boolean running) {
+        this.running = running;
+    }
+
+    public long getSamples() {
+        return samples;
+    }
+
+    public void setSamples(long samples) {
+        this.samples = samples;
+    }
+
+    public long getInterval() {
+        return interval;
+    }
+
+    public void setInterval(long interval) {
+        this.interval = interval;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public String getOutputFile() {
+        return outputFile;
+    }
+
+    public void setOutputFile(String outputFile) {
+        this.outputFile = outputFile;
+    }
+}
@@ -0,0 +1,26 @@
+package com.mz.jarboot.core.cmd.model;
+
+import com.mz.jarboot.core.utils.affect.EnhancerAffect;
+
+/**
+ * reset命令的结果
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class ResetModel extends ResultModel {
+
+    private final EnhancerAffectVO affect;
+
+    public ResetModel(EnhancerAffect affect) {
+        this.affect = new EnhancerAffectVO(affect);
+    }
+
+    public EnhancerAffectVO getAffect() {
+        return affect;
+    }
+
+    @Override
+    public String getName() {
+        return "reset";
+    }
+}
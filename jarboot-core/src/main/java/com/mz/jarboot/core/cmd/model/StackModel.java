@@ -1,6 +1,7 @@
 package com.mz.jarboot.core.cmd.model;
 
 import java.util.Date;
+import java.util.List;
 
 /**
  * StackCommand result model
@@ -20,6 +21,12 @@ public class StackModel extends ResultModel {
     /* Thread Current ClassLoader */
     private String classloader;
     private StackTraceElement[] stackTrace;
+    /** 合并相同调用路径后调用次数最多的若干条 */
+    private List<StackPathVO> paths;
+    /** 调用总次数 */
+    private long total;
+    /** 不同调用路径的数量 */
+    private int distinct;
 
     @Override
     public String getName() {
@@ -105,4 +112,28 @@ public class StackModel extends ResultModel {
     public void setStackTrace(StackTraceElement[] stackTrace) {
         this.stackTrace = stackTrace;
     }
+
+    public List<StackPathVO> getPaths() {
+        return paths;
+    }
+
+    public void setPaths(List<StackPathVO> paths) {
+        this.paths = paths;
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public int getDistinct() {
+        return distinct;
+    }
+
+    public void setDistinct(int distinct) {
+        this.distinct = distinct;
+    }
 }
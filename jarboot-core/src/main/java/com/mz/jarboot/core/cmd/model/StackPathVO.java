@@ -0,0 +1,38 @@
+package com.mz.jarboot.core.cmd.model;
+
+/**
+ * 合并后的一条调用路径
+ * @author majianzheng
+ */
+public class StackPathVO {
+    /** 调用次数 */
+    private long count;
+    /** 平均耗时，毫秒 */
+    private double avgRt;
+    /** 调用栈，栈顶为被调用的方法 */
+    private StackTraceElement[] stackTrace;
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public double getAvgRt() {
+        return avgRt;
+    }
+
+    public void setAvgRt(double avgRt) {
+        this.avgRt = avgRt;
+    }
+
+    public StackTraceElement[] getStackTrace() {
+        return stackTrace;
+    }
+
+    public void setStackTrace(StackTraceElement[] stackTrace) {
+        this.stackTrace = stackTrace;
+    }
+}
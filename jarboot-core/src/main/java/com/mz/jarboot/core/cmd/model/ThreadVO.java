@@ -17,6 +17,8 @@ public class ThreadVO {
     private double cpu;
     private long deltaTime;
     private long time;
+    /** 采样间隔内的内存分配速率，字节/秒 */
+    private long allocRate;
     private boolean interrupted;
     private boolean daemon;
 
@@ -80,6 +82,14 @@ public class ThreadVO {
         this.deltaTime = deltaTime;
     }
 
+    public long getAllocRate() {
+        return allocRate;
+    }
+
+    public void setAllocRate(long allocRate) {
+        this.allocRate = allocRate;
+    }
+
     public long getTime() {
         return time;
     }
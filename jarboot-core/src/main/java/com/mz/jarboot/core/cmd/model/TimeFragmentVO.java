@@ -0,0 +1,146 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.Date;
+
+/**
+ * 时间碎片，参数、返回值与异常为快照时已渲染为字符串
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class TimeFragmentVO {
+    private Integer index;
+    private Date timestamp;
+    private double cost;
+    private boolean isReturn;
+    private boolean isThrow;
+    private String object;
+    private String className;
+    private String methodName;
+    private String threadName;
+    private Object[] params;
+    private Object returnObj;
+    private Object throwExp;
+    /** 对象引用已释放，只有快照 */
+    private boolean snapshot;
+
+    public Integer getIndex() {
+        return index;
+    }
+
+    public TimeFragmentVO setIndex(Integer index) {
+        this.index = index;
+        return this;
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    public TimeFragmentVO setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+        return this;
+    }
+
+    /**
+     * 耗时，毫秒
+     * @return 耗时
+     */
+    public double getCost() {
+        return cost;
+    }
+
+    public TimeFragmentVO setCost(double cost) {
+        this.cost = cost;
+        return this;
+    }
+
+    public boolean isReturn() {
+        return isReturn;
+    }
+
+    public TimeFragmentVO setReturn(boolean aReturn) {
+        isReturn = aReturn;
+        return this;
+    }
+
+    public boolean isThrow() {
+        return isThrow;
+    }
+
+    public TimeFragmentVO setThrow(boolean aThrow) {
+        isThrow = aThrow;
+        return this;
+    }
+
+    public String getObject() {
+        return object;
+    }
+
+    public TimeFragmentVO setObject(String object) {
+        this.object = object;
+        return this;
+    }
+
+    public String getClassName() {
+        return className;
+    }
+
+    public TimeFragmentVO setClassName(String className) {
+        this.className = className;
+        return this;
+    }
+
+    public String getMethodName() {
+        return methodName;
+    }
+
+    public TimeFragmentVO setMethodName(String methodName) {
+        this.methodName = methodName;
+        return this;
+    }
+
+    public String getThreadName() {
+        return threadName;
+    }
+
+    public TimeFragmentVO setThreadName(String threadName) {
+        this.threadName = threadName;
+        return this;
+    }
+
+    public Object[] getParams() {
+        return params;
+    }
+
+    public TimeFragmentVO setParams(Object[] params) {
+        this.params = params;
+        return this;
+    }
+
+    public Object getReturnObj() {
+        return returnObj;
+    }
+
+    public TimeFragmentVO setReturnObj(Object returnObj) {
+        this.returnObj = returnObj;
+        return this;
+    }
+
+    public Object getThrowExp() {
+        return throwExp;
+    }
+
+    public TimeFragmentVO setThrowExp(Object throwExp) {
+        this.throwExp = throwExp;
+        return this;
+    }
+
+    public boolean isSnapshot() {
+        return snapshot;
+    }
+
+    public TimeFragmentVO setSnapshot(boolean snapshot) {
+        this.snapshot = snapshot;
+        return this;
+    }
+}
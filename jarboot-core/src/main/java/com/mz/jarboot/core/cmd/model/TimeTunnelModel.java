@@ -0,0 +1,69 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.List;
+
+/**
+ * Data model of TimeTunnelCommand
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class TimeTunnelModel extends ResultModel {
+    /** 记录列表 */
+    private List<TimeFragmentVO> timeFragmentList;
+    /** 单条记录的详情 */
+    private TimeFragmentVO timeFragment;
+    /** 重放的次序 */
+    private Integer replayNo;
+    private Integer expand;
+    private Integer sizeLimit;
+
+    @Override
+    public String getName() {
+        return "tt";
+    }
+
+    public List<TimeFragmentVO> getTimeFragmentList() {
+        return timeFragmentList;
+    }
+
+    public TimeTunnelModel setTimeFragmentList(List<TimeFragmentVO> timeFragmentList) {
+        this.timeFragmentList = timeFragmentList;
+        return this;
+    }
+
+    public TimeFragmentVO getTimeFragment() {
+        return timeFragment;
+    }
+
+    public TimeTunnelModel setTimeFragment(TimeFragmentVO timeFragment) {
+        this.timeFragment = timeFragment;
+        return this;
+    }
+
+    public Integer getReplayNo() {
+        return replayNo;
+    }
+
+    public TimeTunnelModel setReplayNo(Integer replayNo) {
+        this.replayNo = replayNo;
+        return this;
+    }
+
+    public Integer getExpand() {
+        return expand;
+    }
+
+    public TimeTunnelModel setExpand(Integer expand) {
+        this.expand = expand;
+        return this;
+    }
+
+    public Integer getSizeLimit() {
+        return sizeLimit;
+    }
+
+    public TimeTunnelModel setSizeLimit(Integer sizeLimit) {
+        this.sizeLimit = sizeLimit;
+        return this;
+    }
+}
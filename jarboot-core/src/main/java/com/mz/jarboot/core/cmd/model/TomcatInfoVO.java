@@ -3,19 +3,31 @@ package com.mz.jarboot.core.cmd.model;
 import java.util.List;
 
 /**
- * Tomcat info of 'dashboard' command
+ * Web container (tomcat, jetty or undertow) info of 'dashboard' command
  *
  * @author majianzheng
  */
 @SuppressWarnings("all")
 public class TomcatInfoVO {
 
+    /**
+     * 容器类型：tomcat、jetty或undertow
+     */
+    private String container;
     private List<ConnectorStats> connectorStats;
     private List<ThreadPool> threadPools;
 
     public TomcatInfoVO() {
     }
 
+    public String getContainer() {
+        return container;
+    }
+
+    public void setContainer(String container) {
+        this.container = container;
+    }
+
     public List<ConnectorStats> getConnectorStats() {
         return connectorStats;
     }
@@ -93,6 +105,7 @@ public class TomcatInfoVO {
         private String name;
         private long busy;
         private long total;
+        private long max = -1;
 
         public ThreadPool() {
         }
@@ -103,6 +116,11 @@ public class TomcatInfoVO {
             this.total = total;
         }
 
+        public ThreadPool(String name, long busy, long total, long max) {
+            this(name, busy, total);
+            this.max = max;
+        }
+
         public String getName() {
             return name;
         }
@@ -126,5 +144,13 @@ public class TomcatInfoVO {
         public void setTotal(long total) {
             this.total = total;
         }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
     }
 }
@@ -43,6 +43,16 @@ public abstract class TraceNode {
         marks++;
     }
 
+    /**
+     * 设置标记并累加多次，用于合并多个节点的标记
+     * @param mark 标记
+     * @param times 累加的次数
+     */
+    public void setMark(String mark, int times) {
+        this.mark = mark;
+        marks += times;
+    }
+
     public String getMark() {
         return mark;
     }
@@ -0,0 +1,61 @@
+package com.mz.jarboot.core.cmd.model;
+
+import java.util.Date;
+
+/**
+ * Aggregated root node of TraceCommand, summary of the merged invocations
+ * @author majianzheng
+ */
+public class TraceSummaryNode extends TraceNode {
+
+    private Date timestamp;
+    /**
+     * 统计时长，毫秒
+     */
+    private long duration;
+    /**
+     * 合并的调用次数
+     */
+    private long invocations;
+    /**
+     * 涉及的线程数
+     */
+    private int threads;
+
+    public TraceSummaryNode() {
+        super("summary");
+        timestamp = new Date();
+    }
+
+    public Date getTimestamp() {
+        return timestamp;
+    }
+
+    public void setTimestamp(Date timestamp) {
+        this.timestamp = timestamp;
+    }
+
+    public long getDuration() {
+        return duration;
+    }
+
+    public void setDuration(long duration) {
+        this.duration = duration;
+    }
+
+    public long getInvocations() {
+        return invocations;
+    }
+
+    public void setInvocations(long invocations) {
+        this.invocations = invocations;
+    }
+
+    public int getThreads() {
+        return threads;
+    }
+
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+}
@@ -0,0 +1,21 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.DashboardDeltaModel;
+
+/**
+ * View of 'dashboard' command, the json is rendered once by the shared sampler
+ *
+ * @author majianzheng
+ */
+public class DashboardDeltaView implements ResultView<DashboardDeltaModel> {
+
+    @Override
+    public String render(DashboardDeltaModel result) {
+        return result.getJson();
+    }
+
+    @Override
+    public boolean isJson() {
+        return true;
+    }
+}
@@ -0,0 +1,20 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.common.JsonUtils;
+import com.mz.jarboot.core.cmd.model.FlameGraphModel;
+
+/**
+ * View of flame graph, rendered by the front end
+ * @author majianzheng
+ */
+public class FlameGraphView implements ResultView<FlameGraphModel> {
+    @Override
+    public String render(FlameGraphModel model) {
+        return JsonUtils.toJSONString(model);
+    }
+
+    @Override
+    public boolean isJson() {
+        return true;
+    }
+}
@@ -0,0 +1,53 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.GcEventVO;
+import com.mz.jarboot.core.cmd.model.GcModel;
+import com.mz.jarboot.core.cmd.model.GcPoolUsageVO;
+import com.mz.jarboot.core.cmd.model.GcSummaryVO;
+import com.mz.jarboot.core.utils.DateUtils;
+import com.mz.jarboot.core.utils.StringUtils;
+
+/**
+ * Term view for GcModel
+ * @author majianzheng
+ */
+public class GcView implements ResultView<GcModel> {
+
+    @Override
+    public String render(GcModel result) {
+        StringBuilder sb = new StringBuilder();
+        GcEventVO event = result.getEvent();
+        if (null != event) {
+            sb.append('[').append(event.getCollector()).append(" #").append(event.getId()).append("] ")
+                    .append(event.getAction())
+                    .append(" cause=").append(event.getCause())
+                    .append(" start=").append(event.getStartTime()).append("ms")
+                    .append(" duration=").append(event.getDuration()).append("ms")
+                    .append(" allocated=").append(StringUtils.humanReadableByteCount(event.getAllocated()))
+                    .append(" promoted=").append(StringUtils.humanReadableByteCount(event.getPromoted()))
+                    .append('\n');
+            if (null != event.getPools()) {
+                for (GcPoolUsageVO pool : event.getPools()) {
+                    sb.append("    ").append(pool.getName()).append(": ")
+                            .append(StringUtils.humanReadableByteCount(pool.getBefore())).append(" -> ")
+                            .append(StringUtils.humanReadableByteCount(pool.getAfter())).append('\n');
+                }
+            }
+        }
+        GcSummaryVO summary = result.getSummary();
+        if (null != summary) {
+            sb.append("ts=").append(DateUtils.formatDate(summary.getTs()))
+                    .append(" window=").append(summary.getWindow() / 1000).append('s')
+                    .append(" gc-count=").append(summary.getCount())
+                    .append(String.format(" pause(ms) avg=%.2f", summary.getAvg()))
+                    .append(" p50=").append(summary.getP50())
+                    .append(" p90=").append(summary.getP90())
+                    .append(" p99=").append(summary.getP99())
+                    .append(" max=").append(summary.getMax())
+                    .append(" alloc-rate=").append(StringUtils.humanReadableByteCount(summary.getAllocRate()))
+                    .append("/s promotion-rate=")
+                    .append(StringUtils.humanReadableByteCount(summary.getPromotionRate())).append("/s\n");
+        }
+        return sb.toString();
+    }
+}
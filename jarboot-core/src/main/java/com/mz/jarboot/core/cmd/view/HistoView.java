@@ -0,0 +1,57 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.HistoEntryVO;
+import com.mz.jarboot.core.cmd.model.HistoModel;
+import com.mz.jarboot.core.utils.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Term view for HistoModel
+ * @author majianzheng
+ */
+public class HistoView implements ResultView<HistoModel> {
+    private static final List<String> HEADERS = Arrays.asList("#", "INSTANCES", "BYTES", "CLASS");
+    private static final List<String> DIFF_HEADERS = Arrays.asList("#", "INSTANCES", "+INSTANCES", "BYTES",
+            "+BYTES", "CLASS");
+
+    @Override
+    public String render(HistoModel result) {
+        List<List<String>> rows = new ArrayList<>();
+        int no = 0;
+        if (null != result.getEntries()) {
+            for (HistoEntryVO entry : result.getEntries()) {
+                List<String> row = new ArrayList<>();
+                row.add(String.valueOf(++no));
+                row.add(String.valueOf(entry.getInstances()));
+                if (result.isDiff()) {
+                    row.add(signed(entry.getDeltaInstances()));
+                }
+                row.add(StringUtils.humanReadableByteCount(entry.getBytes()));
+                if (result.isDiff()) {
+                    row.add((entry.getDeltaBytes() >= 0 ? "+" : "-") +
+                            StringUtils.humanReadableByteCount(Math.abs(entry.getDeltaBytes())));
+                }
+                row.add(entry.getClassName());
+                rows.add(row);
+            }
+        }
+        StringBuilder title = new StringBuilder();
+        title.append(result.isLive() ? "live" : "all").append(" classes=").append(result.getClassCount())
+                .append(" instances=").append(result.getTotalInstances())
+                .append(" bytes=").append(StringUtils.humanReadableByteCount(result.getTotalBytes()));
+        if (result.isDiff()) {
+            title.append(" | since ").append(result.getInterval() / 1000).append("s ago: instances ")
+                    .append(signed(result.getDeltaInstances()))
+                    .append(" bytes ").append(result.getDeltaBytes() >= 0 ? "+" : "-")
+                    .append(StringUtils.humanReadableByteCount(Math.abs(result.getDeltaBytes())));
+        }
+        return ViewRenderUtil.renderTable(result.isDiff() ? DIFF_HEADERS : HEADERS, rows, title.toString());
+    }
+
+    private static String signed(long value) {
+        return value > 0 ? "+" + value : String.valueOf(value);
+    }
+}
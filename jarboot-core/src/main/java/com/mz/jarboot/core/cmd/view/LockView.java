@@ -0,0 +1,65 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.LockContentionVO;
+import com.mz.jarboot.core.cmd.model.LockModel;
+import com.mz.jarboot.core.utils.DateUtils;
+
+/**
+ * Term view for LockModel
+ * @author majianzheng
+ */
+public class LockView implements ResultView<LockModel> {
+
+    @Override
+    public String render(LockModel result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ts=").append(DateUtils.formatDate(result.getTs()))
+                .append(";duration=").append(result.getDuration()).append("ms")
+                .append(";samples=").append(result.getSamples())
+                .append(";locks=").append(result.getLockCount());
+        if (!result.isContentionMonitoring()) {
+            sb.append(";contention monitoring not supported, blocked time is estimated by samples");
+        }
+        sb.append('\n');
+        if (null == result.getLocks() || result.getLocks().isEmpty()) {
+            sb.append("No lock contention found.\n");
+            return sb.toString();
+        }
+        int no = 0;
+        for (LockContentionVO lock : result.getLocks()) {
+            ++no;
+            sb.append('#').append(no).append(" <").append(lock.getLockName()).append('>')
+                    .append(" blocked-time=").append(lock.getBlockedTime()).append("ms")
+                    .append(" contentions=").append(lock.getContentions())
+                    .append(" samples=").append(lock.getSamples())
+                    .append('\n');
+            sb.append("    waiting threads: ");
+            int i = 0;
+            for (String name : lock.getContenders()) {
+                if (i++ > 0) {
+                    sb.append(", ");
+                }
+                sb.append('"').append(name).append('"');
+            }
+            sb.append('\n');
+            if (lock.getOwnerId() < 0) {
+                sb.append("    owner: unknown\n\n");
+                continue;
+            }
+            sb.append("    owner: \"").append(lock.getOwnerName()).append("\" Id=").append(lock.getOwnerId())
+                    .append(" (").append(lock.getOwnerSamples()).append('/').append(lock.getSamples())
+                    .append(" samples");
+            if (lock.getOwnerCount() > 1) {
+                sb.append(", ").append(lock.getOwnerCount()).append(" owners");
+            }
+            sb.append(")\n");
+            if (null != lock.getOwnerStackTrace()) {
+                for (StackTraceElement element : lock.getOwnerStackTrace()) {
+                    sb.append("        at ").append(element).append('\n');
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
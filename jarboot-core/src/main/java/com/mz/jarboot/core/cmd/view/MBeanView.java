@@ -0,0 +1,64 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.MBeanAttributeVO;
+import com.mz.jarboot.core.cmd.model.MBeanModel;
+import com.mz.jarboot.core.utils.DateUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Term view for MBeanModel
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class MBeanView implements ResultView<MBeanModel> {
+    private static final List<String> META_HEADERS = Arrays.asList("NAME", "TYPE", "RW");
+    private static final List<String> VALUE_HEADERS = Arrays.asList("NAME", "VALUE");
+
+    @Override
+    public String render(MBeanModel result) {
+        StringBuilder sb = new StringBuilder();
+        if (null != result.getMbeanNames()) {
+            for (String name : result.getMbeanNames()) {
+                sb.append(name).append('\n');
+            }
+        }
+        if (null != result.getMbeanMetadata()) {
+            for (Map.Entry<String, List<MBeanAttributeVO>> entry : result.getMbeanMetadata().entrySet()) {
+                List<List<String>> rows = new ArrayList<>();
+                for (MBeanAttributeVO attribute : entry.getValue()) {
+                    rows.add(Arrays.asList(attribute.getName(), attribute.getType(), attribute.getRw()));
+                }
+                sb.append(ViewRenderUtil.renderTable(META_HEADERS, rows, entry.getKey()));
+                List<String> operations = null == result.getMbeanOperations() ?
+                        null : result.getMbeanOperations().get(entry.getKey());
+                if (null != operations && !operations.isEmpty()) {
+                    List<List<String>> opRows = new ArrayList<>();
+                    for (String operation : operations) {
+                        opRows.add(Arrays.asList(operation));
+                    }
+                    sb.append(ViewRenderUtil.renderTable(Arrays.asList("OPERATION"), opRows, null));
+                }
+            }
+        }
+        if (null != result.getMbeanAttribute()) {
+            if (result.isDelta()) {
+                sb.append("ts=").append(DateUtils.formatDate(result.getTs()))
+                        .append(";changed=").append(result.getMbeanAttribute().size()).append('\n');
+            }
+            for (Map.Entry<String, List<MBeanAttributeVO>> entry : result.getMbeanAttribute().entrySet()) {
+                List<List<String>> rows = new ArrayList<>();
+                for (MBeanAttributeVO attribute : entry.getValue()) {
+                    String value = null == attribute.getError() ?
+                            String.valueOf(attribute.getValue()) : "ERROR: " + attribute.getError();
+                    rows.add(Arrays.asList(attribute.getName(), value));
+                }
+                sb.append(ViewRenderUtil.renderTable(VALUE_HEADERS, rows, entry.getKey()));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,43 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.MonitorData;
+import com.mz.jarboot.core.cmd.model.MonitorModel;
+import com.mz.jarboot.core.utils.DateUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Term view for MonitorModel
+ * @author majianzheng
+ */
+public class MonitorView implements ResultView<MonitorModel> {
+    private static final List<String> HEADERS = Arrays.asList("timestamp", "class", "method", "total", "success",
+            "fail", "fail-rate", "qps", "avg-rt(ms)", "p50(ms)", "p90(ms)", "p99(ms)", "max(ms)");
+
+    @Override
+    public String render(MonitorModel result) {
+        List<List<String>> rows = new ArrayList<>();
+        if (null != result.getMonitorDataList()) {
+            for (MonitorData data : result.getMonitorDataList()) {
+                List<String> row = new ArrayList<>(HEADERS.size());
+                row.add(DateUtils.formatDate(data.getTimestamp()));
+                row.add(data.getClassName());
+                row.add(data.getMethodName());
+                row.add(String.valueOf(data.getTotal()));
+                row.add(String.valueOf(data.getSuccess()));
+                row.add(String.valueOf(data.getFailed()));
+                row.add(String.format("%.2f%%", data.getFailRate()));
+                row.add(String.format("%.2f", data.getQps()));
+                row.add(String.format("%.2f", data.getAvgRt()));
+                row.add(String.format("%.2f", data.getP50()));
+                row.add(String.format("%.2f", data.getP90()));
+                row.add(String.format("%.2f", data.getP99()));
+                row.add(String.format("%.2f", data.getMaxRt()));
+                rows.add(row);
+            }
+        }
+        return ViewRenderUtil.renderTable(HEADERS, rows, "MONITOR");
+    }
+}
@@ -0,0 +1,61 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.common.PerfCounter;
+import com.mz.jarboot.core.cmd.model.PerfCounterModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Term view for PerfCounterModel
+ * @author majianzheng
+ * 以下代码基于开源项目Arthas适配修改
+ */
+public class PerfCounterView implements ResultView<PerfCounterModel> {
+    private static final String TICKS = "ticks";
+
+    @Override
+    public String render(PerfCounterModel result) {
+        List<String> headers = new ArrayList<>();
+        headers.add("Name");
+        if (result.isDetails()) {
+            headers.add("Variability");
+            headers.add("Units");
+        }
+        headers.add("Value");
+        if (result.isDelta()) {
+            headers.add("Delta(" + result.getInterval() + "ms)");
+        }
+        List<List<String>> rows = new ArrayList<>();
+        if (null != result.getPerfCounters()) {
+            for (PerfCounter counter : result.getPerfCounters()) {
+                List<String> row = new ArrayList<>(headers.size());
+                row.add(counter.getName());
+                if (result.isDetails()) {
+                    row.add(counter.getVariability());
+                    row.add(counter.getUnits());
+                }
+                row.add(format(counter, counter.getValue(), result.getFrequency()));
+                if (result.isDelta()) {
+                    row.add(null == counter.getDelta() ? "-" : format(counter, counter.getDelta(),
+                            result.getFrequency()));
+                }
+                rows.add(row);
+            }
+        }
+        return ViewRenderUtil.renderTable(headers, rows, "PERF COUNTER");
+    }
+
+    /**
+     * ticks单位的计数器同时显示换算后的毫秒数
+     */
+    private static String format(PerfCounter counter, Object value, long frequency) {
+        if (null == value) {
+            return "";
+        }
+        if (TICKS.equals(counter.getUnits()) && value instanceof Long && frequency > 0) {
+            return String.format("%d (%.3fms)", (Long) value, (Long) value * 1000.0 / frequency);
+        }
+        return String.valueOf(value);
+    }
+}
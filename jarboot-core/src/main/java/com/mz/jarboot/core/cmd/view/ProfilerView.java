@@ -0,0 +1,26 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.ProfilerModel;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Term view for ProfilerModel
+ * @author majianzheng
+ */
+public class ProfilerView implements ResultView<ProfilerModel> {
+    @Override
+    public String render(ProfilerModel model) {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("ACTION", model.getAction());
+        map.put("RUNNING", String.valueOf(model.isRunning()));
+        map.put("INTERVAL(ms)", String.valueOf(model.getInterval()));
+        map.put("SAMPLES", String.valueOf(model.getSamples()));
+        map.put("DURATION(ms)", String.valueOf(model.getDuration()));
+        if (null != model.getOutputFile()) {
+            map.put("OUTPUT", model.getOutputFile());
+        }
+        return ViewRenderUtil.renderKeyValueTable(map);
+    }
+}
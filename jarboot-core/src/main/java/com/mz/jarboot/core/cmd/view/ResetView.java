@@ -0,0 +1,14 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.ResetModel;
+
+/**
+ * Term view for ResetModel
+ * @author majianzheng
+ */
+public class ResetView implements ResultView<ResetModel> {
+    @Override
+    public String render(ResetModel result) {
+        return ViewRenderUtil.renderEnhancerAffect(result.getAffect());
+    }
+}
@@ -28,6 +28,7 @@ public class ResultViewResolver {
         registerView(JvmView.class);
         registerView(SysPropView.class);
         registerView(HeapDumpView.class);
+        registerView(HistoView.class);
         //klass
         registerView(ClassLoaderView.class);
         registerView(DumpClassView.class);
@@ -43,15 +44,20 @@ public class ResultViewResolver {
 
         //监控
         registerView(DashboardView.class);
+        registerView(DashboardDeltaView.class);
         registerView(JvmView.class);
-        //registerView(MBeanView.class);
-        //registerView(PerfCounterView.class);
+        registerView(MBeanView.class);
+        registerView(PerfCounterView.class);
         registerView(ThreadView.class);
-        //registerView(ProfilerView.class);
+        registerView(ProfilerView.class);
+        registerView(FlameGraphView.class);
         registerView(EnhancerView.class);
-        //registerView(MonitorView.class);
-        //registerView(StackView.class);
-        //registerView(TimeTunnelView.class);
+        registerView(ResetView.class);
+        registerView(LockView.class);
+        registerView(GcView.class);
+        registerView(MonitorView.class);
+        registerView(StackView.class);
+        registerView(TimeTunnelView.class);
         registerView(TraceView.class);
         registerView(WatchView.class);
     }
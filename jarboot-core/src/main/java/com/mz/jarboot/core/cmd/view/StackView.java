@@ -0,0 +1,46 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.StackModel;
+import com.mz.jarboot.core.cmd.model.StackPathVO;
+import com.mz.jarboot.core.utils.DateUtils;
+
+/**
+ * Term view for StackModel
+ * @author majianzheng
+ */
+public class StackView implements ResultView<StackModel> {
+
+    @Override
+    public String render(StackModel result) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("ts=").append(DateUtils.formatDate(result.getTs()))
+                .append(";total=").append(result.getTotal())
+                .append(";distinct=").append(result.getDistinct())
+                .append('\n');
+        if (null == result.getPaths()) {
+            return sb.toString();
+        }
+        int no = 0;
+        for (StackPathVO path : result.getPaths()) {
+            ++no;
+            double ratio = result.getTotal() > 0 ? path.getCount() * 100.0 / result.getTotal() : 0;
+            sb.append('#').append(no)
+                    .append(" count=").append(path.getCount())
+                    .append(String.format(" (%.2f%%)", ratio))
+                    .append(String.format(" avg-rt=%.3fms", path.getAvgRt()))
+                    .append('\n');
+            StackTraceElement[] stackTrace = path.getStackTrace();
+            for (int i = 0; i < stackTrace.length; ++i) {
+                StackTraceElement element = stackTrace[i];
+                if (0 == i) {
+                    sb.append("    @").append(element.getClassName()).append('.')
+                            .append(element.getMethodName()).append("()\n");
+                } else {
+                    sb.append("        at ").append(element).append('\n');
+                }
+            }
+            sb.append('\n');
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,94 @@
+package com.mz.jarboot.core.cmd.view;
+
+import com.mz.jarboot.core.cmd.model.TimeFragmentVO;
+import com.mz.jarboot.core.cmd.model.TimeTunnelModel;
+import com.mz.jarboot.core.utils.DateUtils;
+import com.mz.jarboot.core.utils.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Term view for TimeTunnelModel
+ * @author majianzheng
+ */
+public class TimeTunnelView implements ResultView<TimeTunnelModel> {
+    private static final List<String> HEADERS = Arrays.asList("INDEX", "TIMESTAMP", "COST(ms)", "IS-RET", "IS-EXP",
+            "OBJECT", "CLASS", "METHOD", "THREAD");
+
+    @Override
+    public String render(TimeTunnelModel result) {
+        if (null != result.getTimeFragmentList()) {
+            return renderList(result.getTimeFragmentList());
+        }
+        if (null != result.getTimeFragment()) {
+            String detail = renderDetail(result.getTimeFragment(), result.getExpand(), result.getSizeLimit());
+            if (null != result.getReplayNo()) {
+                return "REPLAY #" + result.getReplayNo() + "\n" + detail;
+            }
+            return detail;
+        }
+        return "";
+    }
+
+    private static String renderList(List<TimeFragmentVO> fragments) {
+        List<List<String>> rows = new ArrayList<>(fragments.size());
+        for (TimeFragmentVO fragment : fragments) {
+            List<String> row = new ArrayList<>(HEADERS.size());
+            row.add(String.valueOf(fragment.getIndex()));
+            row.add(DateUtils.formatDate(fragment.getTimestamp()));
+            row.add(String.format("%.6f", fragment.getCost()));
+            row.add(String.valueOf(fragment.isReturn()));
+            row.add(String.valueOf(fragment.isThrow()));
+            row.add(fragment.getObject());
+            row.add(fragment.getClassName());
+            row.add(fragment.getMethodName());
+            row.add(fragment.getThreadName());
+            rows.add(row);
+        }
+        return ViewRenderUtil.renderTable(HEADERS, rows, "TIME TUNNEL");
+    }
+
+    private static String renderDetail(TimeFragmentVO fragment, Integer expand, Integer sizeLimit) {
+        Map<String, String> map = new LinkedHashMap<>();
+        map.put("INDEX", String.valueOf(fragment.getIndex()));
+        map.put("TIMESTAMP", DateUtils.formatDate(fragment.getTimestamp()));
+        map.put("COST(ms)", String.format("%.6f", fragment.getCost()));
+        map.put("OBJECT", fragment.getObject());
+        map.put("CLASS", fragment.getClassName());
+        map.put("METHOD", fragment.getMethodName());
+        map.put("THREAD", fragment.getThreadName());
+        map.put("IS-RETURN", String.valueOf(fragment.isReturn()));
+        map.put("IS-EXCEPTION", String.valueOf(fragment.isThrow()));
+        if (fragment.isSnapshot()) {
+            map.put("SNAPSHOT", "true");
+        }
+        Object[] params = fragment.getParams();
+        if (null != params) {
+            for (int i = 0; i < params.length; ++i) {
+                map.put("PARAMETERS[" + i + "]", draw(fragment, params[i], expand, sizeLimit));
+            }
+        }
+        if (fragment.isReturn()) {
+            map.put("RETURN-OBJ", draw(fragment, fragment.getReturnObj(), expand, sizeLimit));
+        }
+        if (fragment.isThrow()) {
+            map.put("THROW-EXCEPTION", draw(fragment, fragment.getThrowExp(), expand, sizeLimit));
+        }
+        return ViewRenderUtil.renderKeyValueTable(map);
+    }
+
+    private static String draw(TimeFragmentVO fragment, Object value, Integer expand, Integer sizeLimit) {
+        if (null == value) {
+            return "null";
+        }
+        if (fragment.isSnapshot() || null == expand || expand < 0) {
+            return StringUtils.objectToString(value);
+        }
+        ObjectView view = null == sizeLimit ? new ObjectView(value, expand) : new ObjectView(value, expand, sizeLimit);
+        return view.draw();
+    }
+}
@@ -3,6 +3,7 @@ package com.mz.jarboot.core.cmd.view;
 import com.mz.jarboot.core.cmd.model.MethodNode;
 import com.mz.jarboot.core.cmd.model.ThreadNode;
 import com.mz.jarboot.core.cmd.model.TraceNode;
+import com.mz.jarboot.core.cmd.model.TraceSummaryNode;
 import com.mz.jarboot.core.cmd.model.ThrowNode;
 import com.mz.jarboot.core.utils.DateUtils;
 import com.mz.jarboot.core.utils.HtmlNodeUtils;
@@ -25,6 +26,8 @@ public class TraceView implements ResultView<com.mz.jarboot.core.cmd.model.Trace
     /** 是否输出耗时 */
     private boolean isPrintCost = true;
     private MethodNode maxCostNode;
+    /** 是否为聚合模式的调用树 */
+    private boolean aggregated;
 
     @Override
     public String render(com.mz.jarboot.core.cmd.model.TraceModel result) {
@@ -35,6 +38,7 @@ public class TraceView implements ResultView<com.mz.jarboot.core.cmd.model.Trace
 
         //reset status
         maxCostNode = null;
+        aggregated = root instanceof TraceSummaryNode;
         findMaxCostNode(root);
 
         final StringBuilder treeSB = new StringBuilder(2048);
@@ -93,6 +97,13 @@ public class TraceView implements ResultView<com.mz.jarboot.core.cmd.model.Trace
             if (threadNode.getRpcId() != null) {
                 sb.append(";rpc_id="+threadNode.getRpcId());
             }
+        } else if (node instanceof TraceSummaryNode) {
+            TraceSummaryNode summaryNode = (TraceSummaryNode) node;
+            sb.append(format("ts=%s;duration=%dms;invocations=%d;threads=%d",
+                    DateUtils.formatDate(summaryNode.getTimestamp()),
+                    summaryNode.getDuration(),
+                    summaryNode.getInvocations(),
+                    summaryNode.getThreads()));
         } else if (node instanceof ThrowNode) {
             ThrowNode throwNode = (ThrowNode) node;
             sb.append("throw:").append(throwNode.getException())
@@ -106,11 +117,15 @@ public class TraceView implements ResultView<com.mz.jarboot.core.cmd.model.Trace
 
     private String renderCost(MethodNode node) {
         StringBuilder sb = new StringBuilder();
-        if (node.getTimes() <= 1) {
+        if (node.getTimes() <= 1 && !aggregated) {
             sb.append("[").append(nanoToMillis(node.getCost())).append(TIME_UNIT).append("] ");
         } else {
             sb.append("[min=").append(nanoToMillis(node.getMinCost())).append(TIME_UNIT).append(",max=")
-                    .append(nanoToMillis(node.getMaxCost())).append(TIME_UNIT).append(",total=")
+                    .append(nanoToMillis(node.getMaxCost())).append(TIME_UNIT);
+            if (aggregated) {
+                sb.append(",p99=").append(nanoToMillis(node.getP99Cost())).append(TIME_UNIT);
+            }
+            sb.append(",total=")
                     .append(nanoToMillis(node.getTotalCost())).append(TIME_UNIT).append(",count=")
                     .append(node.getTimes()).append("] ");
         }
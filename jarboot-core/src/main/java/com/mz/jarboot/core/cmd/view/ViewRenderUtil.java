@@ -86,11 +86,23 @@ public class ViewRenderUtil {
             }
         }
 
+        List<String> classCosts = affectVO.getClassCosts();
+        if (classCosts != null) {
+            for (String classCost : classCosts) {
+                infoSB.append("[Transform class: ").append(classCost).append("]\n");
+            }
+        }
+
         infoSB.append(format("Affect(class count: %d , method count: %d) cost in %s ms, listenerId: %d",
                 affectVO.getClassCount(),
                 affectVO.getMethodCount(),
                 affectVO.getCost(),
                 affectVO.getListenerId()));
+        if (affectVO.getEnhanceCost() >= 0) {
+            infoSB.append(format(", enhance cost: %s ms, transform cost: %s ms",
+                    affectVO.getEnhanceCost(),
+                    affectVO.getTransformCost()));
+        }
 
         if (affectVO.getThrowable() != null) {
             infoSB.append("\nEnhance error! exception: " + affectVO.getThrowable());
@@ -111,6 +123,7 @@ public class ViewRenderUtil {
         headers.add("%CPU");
         headers.add("DELTA_TIME");
         headers.add("TIME");
+        headers.add("ALLOC/s");
         headers.add("INTERRUPTED");
         headers.add("DAEMON");
 
@@ -139,6 +152,7 @@ public class ViewRenderUtil {
             row.add(String.valueOf(cpu));
             row.add(deltaTime);
             row.add(time);
+            row.add(StringUtils.humanReadableByteCount(thread.getAllocRate()));
             row.add(String.valueOf(thread.isInterrupted()));
             row.add(daemonLabel);
             rows.add(row);
@@ -4,6 +4,7 @@ import com.mz.jarboot.common.CommandResponse;
 import com.mz.jarboot.common.ResponseType;
 import com.mz.jarboot.core.advisor.AdviceListener;
 import com.mz.jarboot.core.advisor.AdviceWeaver;
+import com.mz.jarboot.core.advisor.ClassEnhancer;
 import com.mz.jarboot.core.advisor.JobAware;
 import com.mz.jarboot.core.basic.EnvironmentContext;
 import com.mz.jarboot.core.cmd.model.ResultModel;
@@ -23,7 +24,7 @@ import java.util.concurrent.atomic.AtomicInteger;
 public class CommandSessionImpl implements CommandSession {
     private static final Logger logger = LoggerFactory.getLogger(CoreConstant.LOG_NAME);
     private final ResultStreamDistributor distributor;
-    private boolean running = false;
+    private volatile boolean running = false;
     private final String sessionId;
     private final AtomicInteger times = new AtomicInteger();
     private AdviceListener listener = null;
@@ -125,11 +126,16 @@ public class CommandSessionImpl implements CommandSession {
         //jobId置为空，以便清理
         jobId = CoreConstant.EMPTY_STRING;
         times.set(0);
-        if (transformer != null) {
-            EnvironmentContext.getTransformerManager().removeTransformer(transformer);
+        final ClassFileTransformer removed = transformer;
+        if (removed != null) {
+            EnvironmentContext.getTransformerManager().removeTransformer(removed);
             this.transformer = null;
         }
         AdviceWeaver.unReg(listener);
+        if (removed instanceof ClassEnhancer) {
+            //没有其他监听器的类恢复为原始字节码，消除残留的Spy调用开销
+            ((ClassEnhancer) removed).release();
+        }
 
         CommandResponse resp = new CommandResponse();
         resp.setSuccess(success);
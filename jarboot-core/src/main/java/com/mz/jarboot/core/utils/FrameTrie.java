@@ -0,0 +1,159 @@
+package com.mz.jarboot.core.utils;
+
+import java.util.Arrays;
+import java.util.function.IntFunction;
+
+/**
+ * 以栈帧id为节点的前缀树，用于合并调用栈<br/>
+ * 节点保存在并行的基本类型数组中，不为每个节点创建对象；兄弟节点以链表相连，
+ * 调用栈的分支通常很少，线性查找即可。非线程安全，由单一线程写入
+ * @author majianzheng
+ */
+public class FrameTrie {
+    /** 根节点，不对应栈帧 */
+    public static final int ROOT = 0;
+    /** 无节点 */
+    public static final int NONE = -1;
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private int[] frames = new int[INITIAL_CAPACITY];
+    private int[] firstChild = new int[INITIAL_CAPACITY];
+    private int[] nextSibling = new int[INITIAL_CAPACITY];
+    /** 经过该节点的权重 */
+    private long[] totals = new long[INITIAL_CAPACITY];
+    /** 以该节点为栈顶的权重 */
+    private long[] selfs = new long[INITIAL_CAPACITY];
+    private int size;
+
+    public FrameTrie() {
+        size = 1;
+        frames[ROOT] = NONE;
+        firstChild[ROOT] = NONE;
+        nextSibling[ROOT] = NONE;
+    }
+
+    /**
+     * 添加调用栈
+     * @param path 栈帧id，栈底在前
+     * @param length 有效长度
+     * @param weight 权重
+     */
+    public void add(int[] path, int length, long weight) {
+        int node = ROOT;
+        totals[ROOT] += weight;
+        for (int i = 0; i < length; ++i) {
+            node = child(node, path[i]);
+            totals[node] += weight;
+        }
+        selfs[node] += weight;
+    }
+
+    /**
+     * 输出折叠格式的调用栈，每行为分号分隔的栈帧名称、空格及权重，可直接用于生成火焰图
+     * @param names 栈帧id到名称的转换
+     * @param divisor 权重的除数，输出时取整，为0的行忽略
+     * @param out 输出
+     */
+    public void collapse(IntFunction<String> names, long divisor, StringBuilder out) {
+        final long d = Math.max(1, divisor);
+        int[] path = new int[64];
+        // 调用栈可能很深，不使用递归；先序遍历，子节点先于兄弟节点出栈
+        int[] nodes = new int[64];
+        int[] depths = new int[64];
+        int top = 0;
+        if (NONE != firstChild[ROOT]) {
+            nodes[top] = firstChild[ROOT];
+            depths[top++] = 0;
+        }
+        while (top > 0) {
+            final int node = nodes[--top];
+            final int depth = depths[top];
+            if (depth >= path.length) {
+                path = Arrays.copyOf(path, path.length * 2);
+            }
+            path[depth] = frames[node];
+            final long value = selfs[node] / d;
+            if (value > 0) {
+                for (int i = 0; i <= depth; ++i) {
+                    if (i > 0) {
+                        out.append(';');
+                    }
+                    out.append(names.apply(path[i]));
+                }
+                out.append(' ').append(value).append('\n');
+            }
+            if (top + 2 > nodes.length) {
+                nodes = Arrays.copyOf(nodes, nodes.length * 2);
+                depths = Arrays.copyOf(depths, depths.length * 2);
+            }
+            if (NONE != nextSibling[node]) {
+                nodes[top] = nextSibling[node];
+                depths[top++] = depth;
+            }
+            if (NONE != firstChild[node]) {
+                nodes[top] = firstChild[node];
+                depths[top++] = depth + 1;
+            }
+        }
+    }
+
+    public int getFrame(int node) {
+        return frames[node];
+    }
+
+    public long getTotal(int node) {
+        return totals[node];
+    }
+
+    public long getSelf(int node) {
+        return selfs[node];
+    }
+
+    public int getFirstChild(int node) {
+        return firstChild[node];
+    }
+
+    public int getNextSibling(int node) {
+        return nextSibling[node];
+    }
+
+    /**
+     * 节点数量，包含根节点
+     * @return 节点数量
+     */
+    public int size() {
+        return size;
+    }
+
+    private int child(int parent, int frame) {
+        int last = NONE;
+        for (int child = firstChild[parent]; child != NONE; child = nextSibling[child]) {
+            if (frames[child] == frame) {
+                return child;
+            }
+            last = child;
+        }
+        if (size == frames.length) {
+            grow();
+        }
+        final int node = size++;
+        frames[node] = frame;
+        firstChild[node] = NONE;
+        nextSibling[node] = NONE;
+        if (NONE == last) {
+            firstChild[parent] = node;
+        } else {
+            nextSibling[last] = node;
+        }
+        return node;
+    }
+
+    private void grow() {
+        final int capacity = frames.length << 1;
+        frames = Arrays.copyOf(frames, capacity);
+        firstChild = Arrays.copyOf(firstChild, capacity);
+        nextSibling = Arrays.copyOf(nextSibling, capacity);
+        totals = Arrays.copyOf(totals, capacity);
+        selfs = Arrays.copyOf(selfs, capacity);
+    }
+}
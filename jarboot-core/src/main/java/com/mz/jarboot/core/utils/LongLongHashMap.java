@@ -0,0 +1,200 @@
+package com.mz.jarboot.core.utils;
+
+import java.util.Arrays;
+
+/**
+ * 键与值都为long的哈希表<br/>
+ * 开放寻址、线性探测，键值保存在基本类型数组中，读写不装箱也不分配对象，
+ * 删除时回移后续元素而不留墓碑；适合以线程id为键的高频采样。非线程安全
+ * @author majianzheng
+ */
+public class LongLongHashMap {
+    private static final int MIN_CAPACITY = 16;
+    private static final long PHI = 0x9E3779B97F4A7C15L;
+
+    private long[] keys;
+    private long[] values;
+    private boolean[] used;
+    private int size;
+    private int mask;
+    private int threshold;
+
+    public LongLongHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    /**
+     * 构造
+     * @param expected 预计的元素数量
+     */
+    public LongLongHashMap(int expected) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 < expected * 4) {
+            capacity <<= 1;
+        }
+        allocate(capacity);
+    }
+
+    /**
+     * 获取值
+     * @param key 键
+     * @param defaultValue 不存在时返回的值
+     * @return 值
+     */
+    public long get(long key, long defaultValue) {
+        for (int i = index(key); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return values[i];
+            }
+        }
+        return defaultValue;
+    }
+
+    public boolean containsKey(long key) {
+        for (int i = index(key); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 设置值
+     * @param key 键
+     * @param value 值
+     */
+    public void put(long key, long value) {
+        int i = index(key);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] = value;
+                return;
+            }
+        }
+        used[i] = true;
+        keys[i] = key;
+        values[i] = value;
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * 累加值，不存在时视为0
+     * @param key 键
+     * @param delta 增量
+     * @return 累加后的值
+     */
+    public long add(long key, long delta) {
+        for (int i = index(key); used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                values[i] += delta;
+                return values[i];
+            }
+        }
+        put(key, delta);
+        return delta;
+    }
+
+    /**
+     * 删除
+     * @param key 键
+     * @return 是否存在
+     */
+    public boolean remove(long key) {
+        int i = index(key);
+        for (; used[i]; i = (i + 1) & mask) {
+            if (keys[i] == key) {
+                break;
+            }
+        }
+        if (!used[i]) {
+            return false;
+        }
+        // 回移探测链上的后续元素，保持查找不中断
+        int hole = i;
+        for (int j = (hole + 1) & mask; used[j]; j = (j + 1) & mask) {
+            final int home = index(keys[j]);
+            if (((j - home) & mask) >= ((j - hole) & mask)) {
+                keys[hole] = keys[j];
+                values[hole] = values[j];
+                hole = j;
+            }
+        }
+        used[hole] = false;
+        --size;
+        return true;
+    }
+
+    /**
+     * 遍历所有元素，遍历期间不可修改
+     * @param visitor 访问者
+     */
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < keys.length; ++i) {
+            if (used[i]) {
+                visitor.visit(keys[i], values[i]);
+            }
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return 0 == size;
+    }
+
+    /**
+     * 清空，保留已分配的容量
+     */
+    public void clear() {
+        Arrays.fill(used, false);
+        size = 0;
+    }
+
+    private int index(long key) {
+        final long h = key * PHI;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+
+    private void rehash(int capacity) {
+        final long[] oldKeys = keys;
+        final long[] oldValues = values;
+        final boolean[] oldUsed = used;
+        allocate(capacity);
+        for (int i = 0; i < oldKeys.length; ++i) {
+            if (oldUsed[i]) {
+                int j = index(oldKeys[i]);
+                while (used[j]) {
+                    j = (j + 1) & mask;
+                }
+                used[j] = true;
+                keys[j] = oldKeys[i];
+                values[j] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new long[capacity];
+        used = new boolean[capacity];
+        mask = capacity - 1;
+        threshold = capacity * 3 / 4;
+    }
+
+    /**
+     * 遍历的访问者
+     */
+    public interface Visitor {
+        /**
+         * 访问一个元素
+         * @param key 键
+         * @param value 值
+         */
+        void visit(long key, long value);
+    }
+}
@@ -0,0 +1,97 @@
+package com.mz.jarboot.core.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 有界无锁的多生产者单消费者环形队列<br/>
+ * 生产者通过CAS领取位置后写入元素，队列满时直接返回false，从不阻塞；
+ * 消费者以位置上的元素是否为空判断是否可读，读取后清空位置再推进读指针
+ * @author majianzheng
+ */
+public class MpscRingBuffer<E> {
+    private final AtomicReferenceArray<E> buffer;
+    private final int mask;
+    private final int capacity;
+    /** 下一个写入位置，多个生产者竞争 */
+    private final AtomicLong producerIndex = new AtomicLong();
+    /** 下一个读取位置，仅消费者修改 */
+    private final AtomicLong consumerIndex = new AtomicLong();
+
+    /**
+     * 构造
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public MpscRingBuffer(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive: " + capacity);
+        }
+        int size = 1;
+        while (size < capacity) {
+            size <<= 1;
+        }
+        this.capacity = size;
+        this.mask = size - 1;
+        this.buffer = new AtomicReferenceArray<>(size);
+    }
+
+    /**
+     * 写入，可多线程调用
+     * @param e 元素，不可为null
+     * @return 队列满时返回false
+     */
+    public boolean offer(E e) {
+        if (null == e) {
+            throw new NullPointerException();
+        }
+        for (;;) {
+            final long index = producerIndex.get();
+            if (index - consumerIndex.get() >= capacity) {
+                return false;
+            }
+            if (producerIndex.compareAndSet(index, index + 1)) {
+                buffer.set((int) index & mask, e);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * 读取，仅允许单个线程调用
+     * @return 队列为空时返回null
+     */
+    public E poll() {
+        final long index = consumerIndex.get();
+        final int offset = (int) index & mask;
+        E e = buffer.get(offset);
+        if (null == e) {
+            if (index == producerIndex.get()) {
+                return null;
+            }
+            // 生产者已领取位置但尚未写入
+            do {
+                e = buffer.get(offset);
+            } while (null == e);
+        }
+        buffer.lazySet(offset, null);
+        consumerIndex.lazySet(index + 1);
+        return e;
+    }
+
+    /**
+     * 当前元素个数的近似值
+     * @return 元素个数
+     */
+    public int size() {
+        long size = producerIndex.get() - consumerIndex.get();
+        return (int) Math.max(0, Math.min(size, capacity));
+    }
+
+    public boolean isEmpty() {
+        return producerIndex.get() == consumerIndex.get();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
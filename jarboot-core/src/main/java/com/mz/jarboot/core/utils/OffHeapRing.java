@@ -0,0 +1,90 @@
+package com.mz.jarboot.core.utils;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 堆外的环形字节存储<br/>
+ * 数据依次写入固定大小的直接内存，写满后从头覆盖最旧的数据；
+ * 写入返回全局递增的位置，读取时据此判断数据是否已被覆盖，内存占用始终不超过容量
+ * @author majianzheng
+ */
+public class OffHeapRing {
+    private final ByteBuffer buffer;
+    private final int capacity;
+    /** 累计写入的字节数，即下一次写入的全局位置 */
+    private long written = 0;
+
+    public OffHeapRing(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity should be positive: " + capacity);
+        }
+        this.capacity = capacity;
+        this.buffer = ByteBuffer.allocateDirect(capacity);
+    }
+
+    /**
+     * 写入数据
+     * @param data 数据
+     * @return 写入的全局位置，数据超过容量时返回-1
+     */
+    public synchronized long write(byte[] data) {
+        if (data.length > capacity) {
+            return -1;
+        }
+        final long position = written;
+        final int offset = (int) (position % capacity);
+        final int first = Math.min(data.length, capacity - offset);
+        put(offset, data, 0, first);
+        if (first < data.length) {
+            put(0, data, first, data.length - first);
+        }
+        written += data.length;
+        return position;
+    }
+
+    /**
+     * 读取数据
+     * @param position 写入时返回的位置
+     * @param length 数据长度
+     * @return 数据已被覆盖时返回null
+     */
+    public synchronized byte[] read(long position, int length) {
+        if (!isAvailable(position, length)) {
+            return null;
+        }
+        final byte[] data = new byte[length];
+        final int offset = (int) (position % capacity);
+        final int first = Math.min(length, capacity - offset);
+        get(offset, data, 0, first);
+        if (first < length) {
+            get(0, data, first, length - first);
+        }
+        return data;
+    }
+
+    /**
+     * 数据是否仍可读取
+     * @param position 写入时返回的位置
+     * @param length 数据长度
+     * @return 是否可读取
+     */
+    public synchronized boolean isAvailable(long position, int length) {
+        return position >= 0 && position + length <= written && position >= written - capacity;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    private void put(int offset, byte[] data, int from, int length) {
+        ByteBuffer dup = buffer.duplicate();
+        dup.position(offset);
+        dup.put(data, from, length);
+    }
+
+    private void get(int offset, byte[] data, int from, int length) {
+        ByteBuffer dup = buffer.duplicate();
+        dup.position(offset);
+        dup.get(data, from, length);
+    }
+}
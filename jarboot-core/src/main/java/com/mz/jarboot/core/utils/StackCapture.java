@@ -0,0 +1,140 @@
+package com.mz.jarboot.core.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * 获取当前线程的调用栈<br/>
+ * 运行在Java9及以上时使用StackWalker惰性遍历，只创建需要的栈帧；Java8时退化为完整的异常栈。
+ * 跳过标记类及其之上的栈帧（如Spy的调用链），最多返回指定深度
+ * @author majianzheng
+ */
+public class StackCapture {
+    private static final StackTraceElement[] EMPTY = new StackTraceElement[0];
+    /** StackWalker.walk，已绑定实例 */
+    private static final MethodHandle WALK;
+    private static final MethodHandle GET_CLASS_NAME;
+    private static final MethodHandle TO_STACK_TRACE_ELEMENT;
+
+    static {
+        MethodHandle walk = null;
+        MethodHandle getClassName = null;
+        MethodHandle toElement = null;
+        try {
+            Class<?> walkerClass = Class.forName("java.lang.StackWalker");
+            Class<?> frameClass = Class.forName("java.lang.StackWalker$StackFrame");
+            Object walker = walkerClass.getMethod("getInstance").invoke(null);
+            // walk方法与调用者相关，不能使用publicLookup
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            walk = lookup.findVirtual(walkerClass, "walk", MethodType.methodType(Object.class, Function.class))
+                    .bindTo(walker);
+            getClassName = lookup.findVirtual(frameClass, "getClassName", MethodType.methodType(String.class));
+            toElement = lookup.findVirtual(frameClass, "toStackTraceElement",
+                    MethodType.methodType(StackTraceElement.class));
+        } catch (Throwable e) {
+            // Java8
+            walk = null;
+        }
+        WALK = walk;
+        GET_CLASS_NAME = getClassName;
+        TO_STACK_TRACE_ELEMENT = toElement;
+    }
+
+    private StackCapture() {}
+
+    /**
+     * 是否使用StackWalker
+     * @return 是否可用
+     */
+    public static boolean isStackWalkerAvailable() {
+        return null != WALK;
+    }
+
+    /**
+     * 获取当前线程的调用栈
+     * @param markerClass 标记类名，跳过第一段连续的标记栈帧及其之上的栈帧，为null时不跳过，未找到时返回空
+     * @param maxDepth 最大深度
+     * @return 调用栈，栈顶在前
+     */
+    public static StackTraceElement[] capture(String markerClass, int maxDepth) {
+        if (maxDepth <= 0) {
+            return EMPTY;
+        }
+        if (null != WALK) {
+            try {
+                Function<Stream<?>, StackTraceElement[]> function = stream -> walk(stream, markerClass, maxDepth);
+                return (StackTraceElement[]) WALK.invoke(function);
+            } catch (Throwable e) {
+                // ignore，使用异常栈
+            }
+        }
+        return slice(new Throwable().getStackTrace(), markerClass, maxDepth);
+    }
+
+    /**
+     * 从完整的调用栈中截取
+     * @param elements 完整的调用栈
+     * @param markerClass 标记类名
+     * @param maxDepth 最大深度
+     * @return 调用栈
+     */
+    static StackTraceElement[] slice(StackTraceElement[] elements, String markerClass, int maxDepth) {
+        int from = 0;
+        if (null != markerClass) {
+            int marker = -1;
+            for (int i = 0; i < elements.length; ++i) {
+                if (markerClass.equals(elements[i].getClassName())) {
+                    marker = i;
+                } else if (marker >= 0) {
+                    break;
+                }
+            }
+            if (marker < 0) {
+                return EMPTY;
+            }
+            from = marker + 1;
+        }
+        final int length = Math.max(0, Math.min(maxDepth, elements.length - from));
+        final StackTraceElement[] result = new StackTraceElement[length];
+        System.arraycopy(elements, from, result, 0, length);
+        return result;
+    }
+
+    private static StackTraceElement[] walk(Stream<?> stream, String markerClass, int maxDepth) {
+        final Iterator<?> it = stream.iterator();
+        final List<StackTraceElement> list = new ArrayList<>(Math.min(maxDepth, 64));
+        try {
+            if (null != markerClass) {
+                // 跳过标记之前的栈帧，以及连续的标记栈帧
+                boolean found = false;
+                Object frame = null;
+                while (it.hasNext()) {
+                    frame = it.next();
+                    boolean isMarker = markerClass.equals((String) GET_CLASS_NAME.invoke(frame));
+                    if (isMarker) {
+                        found = true;
+                    } else if (found) {
+                        break;
+                    }
+                    frame = null;
+                }
+                if (null == frame) {
+                    return EMPTY;
+                }
+                list.add((StackTraceElement) TO_STACK_TRACE_ELEMENT.invoke(frame));
+            }
+            while (list.size() < maxDepth && it.hasNext()) {
+                list.add((StackTraceElement) TO_STACK_TRACE_ELEMENT.invoke(it.next()));
+            }
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+        return list.toArray(EMPTY);
+    }
+}
@@ -0,0 +1,81 @@
+package com.mz.jarboot.core.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 栈帧表，将栈帧转为整型id<br/>
+ * 相同的栈帧只保存一份，调用栈可用id数组表示，比较与哈希都无需再处理字符串；
+ * 已存在的栈帧查找无锁，只有首次出现时加锁分配id
+ * @author majianzheng
+ */
+public class StackFrameTable {
+    private final Map<StackTraceElement, Integer> ids = new ConcurrentHashMap<>();
+    private final List<StackTraceElement> frames = new ArrayList<>();
+
+    /**
+     * 获取栈帧的id，不存在时分配
+     * @param frame 栈帧
+     * @return id
+     */
+    public int intern(StackTraceElement frame) {
+        Integer id = ids.get(frame);
+        if (null != id) {
+            return id;
+        }
+        synchronized (frames) {
+            id = ids.get(frame);
+            if (null == id) {
+                id = frames.size();
+                frames.add(frame);
+                ids.put(frame, id);
+            }
+            return id;
+        }
+    }
+
+    /**
+     * 获取调用栈的id数组
+     * @param stack 调用栈
+     * @return id数组，顺序不变
+     */
+    public int[] intern(StackTraceElement[] stack) {
+        final int[] path = new int[stack.length];
+        for (int i = 0; i < stack.length; ++i) {
+            path[i] = intern(stack[i]);
+        }
+        return path;
+    }
+
+    /**
+     * 根据id获取栈帧
+     * @param id id
+     * @return 栈帧，不存在时返回null
+     */
+    public StackTraceElement get(int id) {
+        synchronized (frames) {
+            return id >= 0 && id < frames.size() ? frames.get(id) : null;
+        }
+    }
+
+    /**
+     * 根据id数组获取调用栈
+     * @param path id数组
+     * @return 调用栈
+     */
+    public StackTraceElement[] get(int[] path) {
+        final StackTraceElement[] stack = new StackTraceElement[path.length];
+        synchronized (frames) {
+            for (int i = 0; i < path.length; ++i) {
+                stack[i] = frames.get(path[i]);
+            }
+        }
+        return stack;
+    }
+
+    public int size() {
+        return ids.size();
+    }
+}
@@ -0,0 +1,265 @@
+package com.mz.jarboot.core.utils;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 无锁分段的直方图<br/>
+ * 按对数分桶，每个2的幂区间再线性细分为8个子桶，相对误差不超过12.5%；
+ * 按线程id分段写入以减少竞争；初始只有一个段，与LongAdder类似，写入发生竞争时才将段数加倍，
+ * 上限为CPU核数（不超过16），低并发的方法只占用一个段（约2.4KB）；段在首次写入时创建，之后记录时不再分配对象；
+ * 汇总时逐桶取出并清零，不会丢失并发写入的计数
+ * @author majianzheng
+ */
+public class StripedHistogram {
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_MASK = SUB_BUCKET_COUNT - 1;
+    /** 可区分的最大值为2^MAX_MAGNITUDE-1，以纳秒计约18分钟，更大的值计入最后一个桶 */
+    private static final int MAX_MAGNITUDE = 40;
+    static final int BUCKET_COUNT = (MAX_MAGNITUDE - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT;
+    private static final int MAX_STRIPES = 16;
+
+    private static final int STRIPE_LIMIT = stripeLimit();
+
+    /** 段数组只增不减，扩容时保留原有的段，段的创建与扩容在锁内进行 */
+    private volatile Stripe[] stripes = new Stripe[1];
+    private final int maxStripes;
+
+    public StripedHistogram() {
+        this(STRIPE_LIMIT);
+    }
+
+    /**
+     * @param maxStripes 最大段数，2的幂
+     */
+    StripedHistogram(int maxStripes) {
+        this.maxStripes = maxStripes;
+    }
+
+    private static int stripeLimit() {
+        final int cpus = Math.min(MAX_STRIPES, Runtime.getRuntime().availableProcessors());
+        int size = 1;
+        while (size < cpus) {
+            size <<= 1;
+        }
+        return size;
+    }
+
+    /**
+     * 记录一个值，可多线程调用
+     * @param value 值，负数按0记录
+     */
+    public void record(long value) {
+        record(value, 1);
+    }
+
+    /**
+     * 记录多次相同的值，可多线程调用
+     * @param value 值，负数按0记录
+     * @param count 次数
+     */
+    public void record(long value, long count) {
+        if (count <= 0) {
+            return;
+        }
+        if (value < 0) {
+            value = 0;
+        }
+        final Stripe[] array = stripes;
+        final Stripe stripe = stripe(array);
+        final AtomicLongArray counts = stripe.counts;
+        final int index = bucketIndex(value);
+        final long c = counts.get(index);
+        if (!counts.compareAndSet(index, c, c + count)) {
+            // 发生竞争，计入后扩容
+            counts.addAndGet(index, count);
+            grow(array);
+        }
+        stripe.sum.addAndGet(value * count);
+        final AtomicLong max = stripe.max;
+        long current;
+        while (value > (current = max.get())) {
+            if (max.compareAndSet(current, value)) {
+                break;
+            }
+        }
+    }
+
+    /**
+     * 取出上次取出以来记录的所有值，并清零
+     * @return 快照
+     */
+    public Snapshot drain() {
+        final long[] counts = new long[BUCKET_COUNT];
+        long count = 0;
+        long sum = 0;
+        long max = 0;
+        final Stripe[] current;
+        synchronized (this) {
+            current = stripes.clone();
+        }
+        for (Stripe stripe : current) {
+            if (null == stripe) {
+                continue;
+            }
+            for (int j = 0; j < BUCKET_COUNT; ++j) {
+                final long c = stripe.counts.get(j);
+                if (c > 0) {
+                    // 取出后再减去，期间新增的计数保留到下次
+                    stripe.counts.addAndGet(j, -c);
+                    counts[j] += c;
+                    count += c;
+                }
+            }
+            sum += stripe.sum.getAndSet(0);
+            max = Math.max(max, stripe.max.getAndSet(0));
+        }
+        return new Snapshot(counts, count, sum, max);
+    }
+
+    private Stripe stripe(Stripe[] current) {
+        final int id = (int) Thread.currentThread().getId();
+        final Stripe stripe = current[id & (current.length - 1)];
+        if (null != stripe) {
+            return stripe;
+        }
+        synchronized (this) {
+            final Stripe[] latest = stripes;
+            final int index = id & (latest.length - 1);
+            Stripe created = latest[index];
+            if (null == created) {
+                created = new Stripe();
+                latest[index] = created;
+            }
+            return created;
+        }
+    }
+
+    private void grow(Stripe[] current) {
+        if (current.length >= maxStripes) {
+            return;
+        }
+        synchronized (this) {
+            if (stripes == current) {
+                stripes = Arrays.copyOf(current, current.length << 1);
+            }
+        }
+    }
+
+    /**
+     * 当前的段数
+     * @return 段数
+     */
+    int stripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * 值所在的桶
+     * @param value 值，非负
+     * @return 桶序号
+     */
+    static int bucketIndex(long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value);
+        if (magnitude >= MAX_MAGNITUDE) {
+            return BUCKET_COUNT - 1;
+        }
+        final int shift = magnitude - SUB_BUCKET_BITS;
+        return ((shift + 1) << SUB_BUCKET_BITS) + (int) ((value >>> shift) & SUB_BUCKET_MASK);
+    }
+
+    /**
+     * 桶内的最大值
+     * @param index 桶序号
+     * @return 最大值
+     */
+    static long bucketUpperBound(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+        final long lower = ((long) (SUB_BUCKET_COUNT + (index & SUB_BUCKET_MASK))) << shift;
+        return lower + (1L << shift) - 1;
+    }
+
+    /**
+     * 一个分段，各自的计数
+     */
+    private static final class Stripe {
+        private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+        private final AtomicLong sum = new AtomicLong();
+        private final AtomicLong max = new AtomicLong();
+    }
+
+    /**
+     * 直方图快照
+     */
+    public static final class Snapshot {
+        private final long[] counts;
+        private final long count;
+        private final long sum;
+        private final long max;
+
+        Snapshot(long[] counts, long count, long sum, long max) {
+            this.counts = counts;
+            this.count = count;
+            this.sum = sum;
+            this.max = max;
+        }
+
+        /**
+         * 百分位值，返回所在桶的上界，不超过最大值
+         * @param percentile 百分位，0~100
+         * @return 值，没有记录时返回0
+         */
+        public long getValueAtPercentile(double percentile) {
+            if (count <= 0) {
+                return 0;
+            }
+            final double p = Math.min(100.0, Math.max(0.0, percentile));
+            final long target = Math.max(1L, (long) Math.ceil(p / 100.0 * count));
+            long total = 0;
+            for (int i = 0; i < counts.length; ++i) {
+                total += counts[i];
+                if (total >= target) {
+                    return Math.min(bucketUpperBound(i), max);
+                }
+            }
+            return max;
+        }
+
+        /**
+         * 合并两个快照，用于由多个区间的快照组成滚动窗口
+         * @param other 另一个快照
+         * @return 新的快照
+         */
+        public Snapshot merge(Snapshot other) {
+            final long[] merged = counts.clone();
+            for (int i = 0; i < merged.length; ++i) {
+                merged[i] += other.counts[i];
+            }
+            return new Snapshot(merged, count + other.count, sum + other.sum, Math.max(max, other.max));
+        }
+
+        public double getMean() {
+            return count <= 0 ? 0 : (double) sum / count;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getSum() {
+            return sum;
+        }
+
+        public long getMax() {
+            return max;
+        }
+    }
+}
@@ -278,6 +278,9 @@ abstract public class ThreadUtil {
         if (threadInfo.getTime() >= 0 ) {
             sb.append(" time=").append(threadInfo.getTime()).append("ms");
         }
+        if (threadInfo.getAllocRate() > 0) {
+            sb.append(" allocRate=").append(StringUtils.humanReadableByteCount(threadInfo.getAllocRate())).append("/s");
+        }
 
         if (threadInfo.getState() == null) {
             sb.append("\n\n");
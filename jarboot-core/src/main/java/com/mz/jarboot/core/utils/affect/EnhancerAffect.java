@@ -8,6 +8,8 @@ import java.lang.instrument.ClassFileTransformer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import static java.lang.String.format;
 
@@ -34,6 +36,16 @@ public final class EnhancerAffect extends Affect {
 
     private final List<String> methods = new ArrayList<String>();
 
+    /**
+     * 每个类的转换耗时(ns)
+     */
+    private final Map<String, Long> classCosts = new ConcurrentHashMap<>();
+
+    /**
+     * 整个增强过程的耗时(ns)，包括retransform
+     */
+    private volatile long enhanceCost = -1;
+
     public EnhancerAffect() {
 
     }
@@ -85,6 +97,46 @@ public final class EnhancerAffect extends Affect {
         return mCnt.get();
     }
 
+    /**
+     * 记录类的转换耗时，同一个类多次转换时累加
+     *
+     * @param className 类名
+     * @param nanos     耗时(ns)
+     */
+    public void addClassCost(String className, long nanos) {
+        classCosts.merge(className.replace('/', '.'), nanos, Long::sum);
+    }
+
+    /**
+     * 每个类的转换耗时(ns)
+     *
+     * @return 类名 -> 耗时
+     */
+    public Map<String, Long> getClassCosts() {
+        return classCosts;
+    }
+
+    /**
+     * 所有类的转换耗时总和(ns)
+     *
+     * @return 耗时
+     */
+    public long transformCost() {
+        long total = 0;
+        for (Long cost : classCosts.values()) {
+            total += cost;
+        }
+        return total;
+    }
+
+    public long getEnhanceCost() {
+        return enhanceCost;
+    }
+
+    public void setEnhanceCost(long enhanceCost) {
+        this.enhanceCost = enhanceCost;
+    }
+
     public void addClassDumpFile(File file) {
         classDumpFiles.add(file);
     }
@@ -0,0 +1,91 @@
+package com.mz.jarboot.core.advisor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+public class AdviceListenerManagerTest {
+
+    @Test
+    public void testRegisterAndUnregister() {
+        int methodId = MethodRegistry.register(null, "com/mz/Test", "testRegister", "()V");
+        TestListener listener1 = new TestListener();
+        TestListener listener2 = new TestListener();
+        AdviceListenerManager.registerAdviceListener(methodId, listener1);
+        AdviceListenerManager.registerAdviceListener(methodId, listener2);
+        //重复注册
+        AdviceListenerManager.registerAdviceListener(methodId, listener1);
+        AdviceListener[] listeners = AdviceListenerManager.queryAdviceListeners(methodId);
+        Assert.assertArrayEquals(new AdviceListener[]{listener1, listener2}, listeners);
+
+        AdviceListenerManager.unregisterAdviceListener(listener1);
+        Assert.assertArrayEquals(new AdviceListener[]{listener2}, AdviceListenerManager.queryAdviceListeners(methodId));
+        //之前的快照不受影响
+        Assert.assertEquals(2, listeners.length);
+
+        AdviceListenerManager.unregisterAdviceListener(listener2);
+        Assert.assertEquals(0, AdviceListenerManager.queryAdviceListeners(methodId).length);
+    }
+
+    @Test
+    public void testRegisterAfterUnregister() {
+        int methodId = MethodRegistry.register(null, "com/mz/Test", "testRegisterAfterUnregister", "()V");
+        TestListener listener = new TestListener();
+        AdviceListenerManager.registerAdviceListener(methodId, listener);
+        AdviceListenerManager.unregisterAdviceListener(listener);
+        //注销后到达的注册（如与注销并发的类增强）不再生效
+        AdviceListenerManager.registerAdviceListener(methodId, listener);
+        Assert.assertEquals(0, AdviceListenerManager.queryAdviceListeners(methodId).length);
+    }
+
+    @Test
+    public void testQueryUnknownId() {
+        Assert.assertNull(AdviceListenerManager.queryAdviceListeners(-1));
+        Assert.assertNull(AdviceListenerManager.queryAdviceListeners(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testTraceListener() {
+        TestListener listener = new TestListener();
+        int siteId = MethodRegistry.registerInvokeSite(null, "com/mz/Test", "testTrace", "()V",
+                "java/lang/String", "length", "()I", 0, 10);
+        AdviceListenerManager.registerTraceAdviceListener(siteId, listener);
+        Assert.assertArrayEquals(new AdviceListener[]{listener},
+                AdviceListenerManager.queryTraceAdviceListeners(siteId));
+        AdviceListenerManager.unregisterAdviceListener(listener);
+        Assert.assertEquals(0, AdviceListenerManager.queryTraceAdviceListeners(siteId).length);
+        Assert.assertNull(AdviceListenerManager.queryTraceAdviceListeners(-1));
+    }
+
+    private static class TestListener implements AdviceListener {
+        @Override
+        public long id() {
+            return 0;
+        }
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public void before(Class<?> clazz, JarbootMethod method, Object target, Object[] args) {
+        }
+
+        @Override
+        public void afterReturning(Class<?> clazz, JarbootMethod method, Object target,
+                                   Object[] args, Object returnObject) {
+        }
+
+        @Override
+        public void afterThrowing(Class<?> clazz, JarbootMethod method, Object target,
+                                  Object[] args, Throwable throwable) {
+        }
+    }
+}
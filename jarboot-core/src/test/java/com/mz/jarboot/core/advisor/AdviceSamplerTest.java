@@ -0,0 +1,66 @@
+package com.mz.jarboot.core.advisor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+public class AdviceSamplerTest {
+
+    @Test
+    public void testCreate() {
+        Assert.assertNull(AdviceSampler.create(null, null));
+        Assert.assertNull(AdviceSampler.create("1/1", ""));
+        Assert.assertEquals(1000, AdviceSampler.create("1/1000", null).getSampleInterval());
+        Assert.assertEquals(100, AdviceSampler.create("100", null).getSampleInterval());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), AdviceSampler.create(null, "20/s").getIntervalNanos());
+        Assert.assertEquals(TimeUnit.SECONDS.toNanos(6), AdviceSampler.create(null, "10/m").getIntervalNanos());
+        Assert.assertEquals(TimeUnit.MILLISECONDS.toNanos(50), AdviceSampler.create(null, "20").getIntervalNanos());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidSample() {
+        AdviceSampler.create("a/1000", null);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidMaxRate() {
+        AdviceSampler.create(null, "20/d");
+    }
+
+    @Test
+    public void testSample() {
+        AdviceSampler sampler = new AdviceSampler(10, 0);
+        int hit = 0;
+        for (int i = 0; i < 100; ++i) {
+            boolean sampled = sampler.enter();
+            //递归调用沿用最外层的结果
+            Assert.assertEquals(sampled, sampler.enter());
+            Assert.assertEquals(sampled, sampler.isSampled());
+            Assert.assertEquals(sampled, sampler.exit());
+            Assert.assertEquals(sampled, sampler.exit());
+            Assert.assertFalse(sampler.isSampled());
+            if (sampled) {
+                ++hit;
+            }
+        }
+        Assert.assertEquals(10, hit);
+        //未配对的退出
+        Assert.assertFalse(sampler.exit());
+    }
+
+    @Test
+    public void testMaxRate() {
+        AdviceSampler sampler = new AdviceSampler(0, TimeUnit.HOURS.toNanos(1));
+        Assert.assertTrue(sampler.enter());
+        sampler.exit();
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertFalse(sampler.enter());
+            sampler.exit();
+        }
+    }
+}
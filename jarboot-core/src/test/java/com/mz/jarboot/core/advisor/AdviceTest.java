@@ -0,0 +1,33 @@
+package com.mz.jarboot.core.advisor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+public class AdviceTest {
+
+    @Test
+    public void testSnapshot() {
+        Object[] params = new Object[] {"a", 1};
+        Exception e = new IllegalStateException("test");
+        Advice advice = Advice.newForAfterThrowing(null, String.class, null, "target", params, e);
+        Advice snapshot = advice.snapshot();
+        //业务线程后续修改参数数组不影响快照
+        params[0] = "b";
+        Assert.assertEquals("a", snapshot.getParams()[0]);
+        Assert.assertEquals(1, snapshot.getParams()[1]);
+        Assert.assertSame(e, snapshot.getThrowExp());
+        Assert.assertEquals("target", snapshot.getTarget());
+        Assert.assertTrue(snapshot.isAfterThrowing());
+        Assert.assertFalse(snapshot.isBefore());
+        Assert.assertFalse(snapshot.isAfterReturning());
+
+        snapshot = Advice.newForAfterRetuning(null, String.class, null, null, null, "ret").snapshot();
+        Assert.assertNull(snapshot.getParams());
+        Assert.assertEquals("ret", snapshot.getReturnObj());
+        Assert.assertTrue(snapshot.isAfterReturning());
+    }
+}
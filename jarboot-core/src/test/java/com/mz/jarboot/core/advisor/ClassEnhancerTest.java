@@ -0,0 +1,109 @@
+package com.mz.jarboot.core.advisor;
+
+import com.alibaba.bytekit.utils.AsmUtils;
+import com.alibaba.deps.org.objectweb.asm.ClassReader;
+import com.alibaba.deps.org.objectweb.asm.Opcodes;
+import com.alibaba.deps.org.objectweb.asm.tree.ClassNode;
+import com.mz.jarboot.core.utils.matcher.EqualsMatcher;
+import com.mz.jarboot.core.utils.matcher.RegexMatcher;
+import org.apache.commons.io.IOUtils;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+public class ClassEnhancerTest {
+
+    @Test
+    public void testReleaseMismatchedPrepared() throws Exception {
+        TestListener listener = new TestListener();
+        ClassEnhancer enhancer = new ClassEnhancer(listener, false, false, new EqualsMatcher<>(Target.class.getName()),
+                null, new RegexMatcher("kept|removed"));
+        ClassLoader loader = Target.class.getClassLoader();
+        String className = Target.class.getName().replace('.', '/');
+        try {
+            ClassEnhancer.EnhancedClass prepared = enhancer.prepare(Target.class);
+            Assert.assertNotNull(prepared);
+            Assert.assertEquals(2, prepared.methodIds.size());
+            List<Integer> keptIds = new ArrayList<>();
+            List<Integer> removedIds = new ArrayList<>();
+            for (Integer id : prepared.methodIds) {
+                MethodRegistry.WovenMethod method = MethodRegistry.get(id);
+                Assert.assertNotNull(method);
+                ("kept".equals(method.getMethodName()) ? keptIds : removedIds).add(id);
+            }
+
+            //retransform时的字节码与预增强时不一致，预增强的结果被丢弃并重新增强
+            byte[] bytes = enhancer.transform(loader, className, Target.class, null, withoutRemoved());
+            Assert.assertNotNull(bytes);
+
+            //重新增强仍使用的id被确认，不再存在的方法的id被释放
+            for (Integer id : keptIds) {
+                Assert.assertNotNull(MethodRegistry.get(id));
+            }
+            for (Integer id : removedIds) {
+                Assert.assertNull(MethodRegistry.get(id));
+            }
+            Assert.assertEquals(0, MethodRegistry.release(loader, keptIds, prepared.siteIds));
+        } finally {
+            AdviceListenerManager.unregisterAdviceListener(listener);
+        }
+    }
+
+    private static byte[] withoutRemoved() throws Exception {
+        byte[] bytes;
+        try (InputStream in = Target.class.getResourceAsStream('/' + Target.class.getName().replace('.', '/')
+                + ".class")) {
+            bytes = IOUtils.toByteArray(in);
+        }
+        ClassNode classNode = new ClassNode(Opcodes.ASM9);
+        ClassReader classReader = AsmUtils.toClassNode(bytes, classNode);
+        classNode.methods.removeIf(m -> "removed".equals(m.name));
+        return AsmUtils.toBytes(classNode, Target.class.getClassLoader(), classReader);
+    }
+
+    public static class Target {
+        public int kept(int a) {
+            return a + 1;
+        }
+
+        public int removed(int a) {
+            return a - 1;
+        }
+    }
+
+    private static class TestListener implements AdviceListener {
+        @Override
+        public long id() {
+            return 0;
+        }
+
+        @Override
+        public void create() {
+        }
+
+        @Override
+        public void destroy() {
+        }
+
+        @Override
+        public void before(Class<?> clazz, JarbootMethod method, Object target, Object[] args) {
+        }
+
+        @Override
+        public void afterReturning(Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                                   Object returnObject) {
+        }
+
+        @Override
+        public void afterThrowing(Class<?> clazz, JarbootMethod method, Object target, Object[] args,
+                                  Throwable throwable) {
+        }
+    }
+}
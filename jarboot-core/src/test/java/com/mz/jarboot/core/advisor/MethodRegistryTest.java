@@ -0,0 +1,121 @@
+package com.mz.jarboot.core.advisor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+public class MethodRegistryTest {
+
+    @Test
+    public void testRegister() {
+        ClassLoader loader = MethodRegistryTest.class.getClassLoader();
+        int id = MethodRegistry.register(loader, "com/mz/jarboot/core/advisor/MethodRegistryTest", "testRegister",
+                "()V");
+        //同一方法重复增强时id不变
+        Assert.assertEquals(id, MethodRegistry.register(loader, "com/mz/jarboot/core/advisor/MethodRegistryTest",
+                "testRegister", "()V"));
+        //不同类加载器中的同名方法id不同
+        Assert.assertNotEquals(id, MethodRegistry.register(null, "com/mz/jarboot/core/advisor/MethodRegistryTest",
+                "testRegister", "()V"));
+
+        MethodRegistry.WovenMethod method = MethodRegistry.get(id);
+        Assert.assertEquals(id, method.getId());
+        Assert.assertEquals("com.mz.jarboot.core.advisor.MethodRegistryTest", method.getClassName());
+        Assert.assertEquals("testRegister", method.getMethodName());
+        Assert.assertEquals("()V", method.getMethodDesc());
+        Assert.assertNull(MethodRegistry.get(-1));
+        Assert.assertNull(MethodRegistry.get(Integer.MAX_VALUE));
+    }
+
+    @Test
+    public void testGetMethod() {
+        ClassLoader loader = MethodRegistryTest.class.getClassLoader();
+        int id = MethodRegistry.register(loader, "com/mz/jarboot/core/advisor/MethodRegistryTest", "testGetMethod",
+                "()V");
+        JarbootMethod method = MethodRegistry.getMethod(MethodRegistryTest.class, id);
+        Assert.assertEquals("testGetMethod", method.getName());
+        Assert.assertSame(method, MethodRegistry.getMethod(MethodRegistryTest.class, id));
+        Assert.assertEquals("public void com.mz.jarboot.core.advisor.MethodRegistryTest.testGetMethod()",
+                method.toString());
+        Assert.assertNull(MethodRegistry.getMethod(MethodRegistryTest.class, -1));
+    }
+
+    @Test
+    public void testInvalidate() {
+        ClassLoader loader = MethodRegistryTest.class.getClassLoader();
+        int id = MethodRegistry.register(loader, "com/mz/jarboot/core/advisor/MethodRegistryTest", "testInvalidate",
+                "()V");
+        JarbootMethod method = MethodRegistry.getMethod(MethodRegistryTest.class, id);
+        Assert.assertSame(method, MethodRegistry.getMethod(MethodRegistryTest.class, id));
+        //类重新增强或恢复后缓存失效，重新创建
+        MethodRegistry.invalidate(MethodRegistryTest.class);
+        JarbootMethod other = MethodRegistry.getMethod(MethodRegistryTest.class, id);
+        Assert.assertNotSame(method, other);
+        Assert.assertEquals("testInvalidate", other.getName());
+    }
+
+    @Test
+    public void testRelease() {
+        ClassLoader loader = MethodRegistryTest.class.getClassLoader();
+        final String className = "com/mz/jarboot/core/advisor/MethodRegistryTest";
+        MethodRegistry.beginEnhance(loader, true);
+        int unused;
+        int used;
+        int site;
+        try {
+            unused = MethodRegistry.enhancingMethodId(className, "testReleaseUnused", "()V");
+            used = MethodRegistry.enhancingMethodId(className, "testReleaseUsed", "()V");
+            site = MethodRegistry.enhancingInvokeSiteId(className, "testRelease", "()V", "java/lang/String",
+                    "length", "()I", 0, 10);
+        } finally {
+            MethodRegistry.endEnhance();
+        }
+        //正式增强使用了其中一个方法，该id被确认
+        Assert.assertEquals(used, MethodRegistry.register(loader, className, "testReleaseUsed", "()V"));
+        Assert.assertEquals(2, MethodRegistry.release(loader, Arrays.asList(unused, used),
+                Collections.singletonList(site)));
+        Assert.assertNull(MethodRegistry.get(unused));
+        Assert.assertNull(MethodRegistry.getInvokeSite(site));
+        Assert.assertNotNull(MethodRegistry.get(used));
+        //已释放的id不可再确认，重新注册时分配新的id
+        Assert.assertFalse(MethodRegistry.confirm(Collections.singletonList(unused), Collections.emptyList()));
+        Assert.assertNotEquals(unused, MethodRegistry.register(loader, className, "testReleaseUnused", "()V"));
+
+        MethodRegistry.beginEnhance(loader, true);
+        try {
+            unused = MethodRegistry.enhancingMethodId(className, "testConfirm", "()V");
+        } finally {
+            MethodRegistry.endEnhance();
+        }
+        Assert.assertTrue(MethodRegistry.confirm(Collections.singletonList(unused), Collections.emptyList()));
+        Assert.assertEquals(0, MethodRegistry.release(loader, Collections.singletonList(unused),
+                Collections.emptyList()));
+        Assert.assertNotNull(MethodRegistry.get(unused));
+    }
+
+    @Test
+    public void testRegisterInvokeSite() {
+        ClassLoader loader = MethodRegistryTest.class.getClassLoader();
+        int id = MethodRegistry.registerInvokeSite(loader, "com/mz/Test", "test", "()V",
+                "java/lang/String", "length", "()I", 0, 10);
+        Assert.assertEquals(id, MethodRegistry.registerInvokeSite(loader, "com/mz/Test", "test", "()V",
+                "java/lang/String", "length", "()I", 0, 10));
+        //同一方法内同签名的第二次调用是另一个调用点
+        Assert.assertNotEquals(id, MethodRegistry.registerInvokeSite(loader, "com/mz/Test", "test", "()V",
+                "java/lang/String", "length", "()I", 1, 11));
+
+        MethodRegistry.InvokeSite site = MethodRegistry.getInvokeSite(id);
+        Assert.assertEquals(id, site.getId());
+        Assert.assertEquals("java/lang/String", site.getOwner());
+        Assert.assertEquals("length", site.getMethodName());
+        Assert.assertEquals("()I", site.getMethodDesc());
+        Assert.assertEquals(10, site.getLineNumber());
+        Assert.assertNull(MethodRegistry.getInvokeSite(-1));
+    }
+}
@@ -1,5 +1,6 @@
 package com.mz.jarboot.core.cmd;
 
+import com.mz.jarboot.core.cmd.impl.WatchCommand;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -38,4 +39,18 @@ public class CommandArgsParserTest {
         Assert.assertEquals("def   x yz", list.get(1));
         Assert.assertEquals("jarboot", list.get(2));
     }
+
+    @Test
+    public void testLongNameOptions() {
+        CommandArgsParser parser = new CommandArgsParser(
+                "demo.Foo bar --sample 1/100 --batch-size 10 -x 3 --exclude-class-pattern demo.Bar*", WatchCommand.class);
+        WatchCommand command = (WatchCommand) parser.getCommand();
+        Assert.assertEquals("demo.Foo", command.getClassPattern());
+        Assert.assertEquals("bar", command.getMethodPattern());
+        Assert.assertEquals("1/100", command.getSample());
+        Assert.assertEquals(10, command.getBatchSize());
+        Assert.assertEquals(Integer.valueOf(3), command.getExpand());
+        Assert.assertEquals("demo.Bar*", command.getExcludeClassPattern());
+        Assert.assertNull(command.getMaxRate());
+    }
 }
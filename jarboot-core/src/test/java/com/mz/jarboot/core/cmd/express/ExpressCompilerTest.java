@@ -0,0 +1,100 @@
+package com.mz.jarboot.core.cmd.express;
+
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.advisor.JarbootMethod;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * @author majianzheng
+ */
+@SuppressWarnings("all")
+public class ExpressCompilerTest {
+
+    public List<String> query(String name, int size) {
+        return Arrays.asList(name, String.valueOf(size));
+    }
+
+    private Advice newAdvice(Object returnObj) {
+        JarbootMethod method = new JarbootMethod(ExpressCompilerTest.class, "query",
+                "(Ljava/lang/String;I)Ljava/util/List;");
+        return Advice.newForAfterRetuning(ExpressCompilerTest.class.getClassLoader(), ExpressCompilerTest.class,
+                method, this, new Object[]{"jarboot", 2}, returnObj);
+    }
+
+    @Test
+    public void testEmpty() throws ExpressException {
+        Assert.assertNull(ExpressCompiler.compile(null));
+        Assert.assertNull(ExpressCompiler.compile(" "));
+    }
+
+    @Test
+    public void testFastPath() throws ExpressException {
+        Advice advice = newAdvice(Arrays.asList("a", "b", "c"));
+        CompiledExpress express = ExpressCompiler.compile("#cost > 10");
+        Assert.assertTrue(express instanceof ExpressCompiler.CostCompareExpress);
+        Assert.assertTrue(express.is(advice, 10.5));
+        Assert.assertFalse(express.is(advice, 10));
+        Assert.assertTrue(ExpressCompiler.compile("#cost<=1.5").is(advice, 1.5));
+
+        express = ExpressCompiler.compile("params[0]");
+        Assert.assertTrue(express instanceof ExpressCompiler.PropertyExpress);
+        Assert.assertEquals("jarboot", express.get(advice, 0));
+
+        express = ExpressCompiler.compile("returnObj.size()");
+        Assert.assertTrue(express instanceof ExpressCompiler.PropertyExpress);
+        Assert.assertEquals(3, express.get(advice, 0));
+
+        express = ExpressCompiler.compile("throwExp != null");
+        Assert.assertTrue(express instanceof ExpressCompiler.NullCompareExpress);
+        Assert.assertFalse(express.is(advice, 0));
+        Assert.assertTrue(ExpressCompiler.compile("throwExp == null").is(advice, 0));
+        Assert.assertSame(this, ExpressCompiler.compile("target").get(advice, 0));
+    }
+
+    @Test
+    public void testFallback() throws ExpressException {
+        Advice advice = newAdvice("abc");
+        //String没有size()方法，且与OGNL的结果一致
+        CompiledExpress express = ExpressCompiler.compile("returnObj.length()");
+        Assert.assertTrue(express instanceof ExpressCompiler.OgnlCompiledExpress);
+        Assert.assertEquals(3, express.get(advice, 0));
+
+        express = ExpressCompiler.compile("params[1] + #cost");
+        Assert.assertEquals(5.0, express.get(advice, 3.0));
+
+        express = ExpressCompiler.compile("params[5]");
+        try {
+            express.get(advice, 0);
+            Assert.fail("params[5] should be out of bounds");
+        } catch (ExpressException e) {
+            Assert.assertEquals("params[5]", e.getExpress());
+        }
+    }
+
+    @Test
+    public void testReuseContext() throws ExpressException {
+        CompiledExpress express = ExpressCompiler.compile("params[1] + #cost + returnObj.length()");
+        //同一线程复用上下文，每次求值使用各自的根对象与#cost
+        Assert.assertEquals(6.0, express.get(newAdvice("abc"), 1.0));
+        Assert.assertEquals(10.0, express.get(newAdvice("abcde"), 3.0));
+    }
+
+    @Test
+    public void testVariableNotLeaked() throws ExpressException {
+        CompiledExpress assign = ExpressCompiler.compile("#x = params[0], #x");
+        Assert.assertEquals("jarboot", assign.get(newAdvice("abc"), 0));
+        //上次求值中赋值的变量不可见
+        Assert.assertNull(ExpressCompiler.compile("#x").get(newAdvice("abc"), 0));
+        //私有成员仍可访问
+        Assert.assertEquals(3, ExpressCompiler.compile("returnObj.value.length").get(newAdvice("abc"), 0));
+    }
+
+    @Test(expected = ExpressException.class)
+    public void testSyntaxError() throws ExpressException {
+        ExpressCompiler.compile("params[0");
+    }
+}
@@ -0,0 +1,77 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.HistoEntryVO;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class ClassHistogramTest {
+    private static final String JDK8 = " num     #instances         #bytes  class name\n" +
+            "----------------------------------------------\n" +
+            "   1:          2033        1030800  [I\n" +
+            "   2:         11667         943216  [C\n" +
+            "   3:           100           2400  com.example.Foo\n" +
+            "   4:            50           1200  com.example.Foo\n" +
+            "Total         13850        1977616\n";
+    private static final String JDK17 = " num     #instances         #bytes  class name (module)\n" +
+            "-------------------------------------------------------\n" +
+            "   1:          2224         881672  [I (java.base@17.0.9)\n" +
+            "   2:         12000         960000  [C (java.base@17.0.9)\n" +
+            "   3:           500          12000  com.example.Foo\n" +
+            "   4:            10            240  com.example.Bar\n" +
+            "Total         14734        1853912\n";
+
+    @Test
+    public void testParse() {
+        ClassHistogram histogram = ClassHistogram.parse(JDK8);
+        assertEquals(3, histogram.size());
+        assertEquals(13850, histogram.getTotalInstances());
+        assertEquals(1977616, histogram.getTotalBytes());
+        List<HistoEntryVO> top = histogram.top(2, false);
+        assertEquals(2, top.size());
+        assertEquals("[I", top.get(0).getClassName());
+        assertEquals("[C", histogram.top(1, true).get(0).getClassName());
+        // 同名类合并
+        HistoEntryVO foo = histogram.top(3, false).get(2);
+        assertEquals("com.example.Foo", foo.getClassName());
+        assertEquals(150, foo.getInstances());
+        assertEquals(3600, foo.getBytes());
+
+        histogram = ClassHistogram.parse(JDK17);
+        assertEquals(4, histogram.size());
+        assertEquals("[C", histogram.top(1, false).get(0).getClassName());
+    }
+
+    @Test
+    public void testGrowth() {
+        ClassHistogram before = ClassHistogram.parse(JDK8);
+        ClassHistogram after = ClassHistogram.parse(JDK17);
+        List<HistoEntryVO> growth = after.growth(before, 10, false);
+        // [I减少，不输出
+        assertEquals(3, growth.size());
+        assertEquals("[C", growth.get(0).getClassName());
+        assertEquals(16784, growth.get(0).getDeltaBytes());
+        assertEquals(333, growth.get(0).getDeltaInstances());
+        assertEquals("com.example.Foo", growth.get(1).getClassName());
+        assertEquals(8400, growth.get(1).getDeltaBytes());
+        assertEquals("com.example.Bar", growth.get(2).getClassName());
+
+        growth = after.growth(before, 1, true);
+        assertEquals(1, growth.size());
+        assertEquals("com.example.Foo", growth.get(0).getClassName());
+        assertEquals(350, growth.get(0).getDeltaInstances());
+    }
+
+    @Test
+    public void testTake() throws Exception {
+        ClassHistogram histogram = ClassHistogram.take(false);
+        assertTrue(histogram.size() > 100);
+        assertTrue(histogram.getTotalBytes() > 0);
+        assertTrue(histogram.top(100, false).stream().anyMatch(e -> "java.lang.String".equals(e.getClassName())));
+    }
+}
@@ -0,0 +1,46 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.utils.FrameTrie;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class CpuProfilerTest {
+    private volatile boolean spinning = true;
+    private volatile long sink;
+
+    @Test
+    public void testSample() throws InterruptedException {
+        Thread busy = new Thread(this::spin, "profiler-test-busy");
+        busy.setDaemon(true);
+        busy.start();
+        CpuProfiler profiler = CpuProfiler.getInstance();
+        assertTrue(profiler.start(5, 64));
+        assertFalse(profiler.start(5, 64));
+        Thread.sleep(500);
+        CpuProfiler.Result result = profiler.stop();
+        spinning = false;
+        busy.join();
+        assertNull(profiler.stop());
+        assertFalse(profiler.isRunning());
+
+        assertNotNull(result);
+        assertTrue(result.getSamples() > 0);
+        FrameTrie trie = result.getTrie();
+        assertTrue(trie.getTotal(FrameTrie.ROOT) > 0);
+        StringBuilder sb = new StringBuilder();
+        trie.collapse(result::getName, 1, sb);
+        assertTrue(sb.toString().contains(CpuProfilerTest.class.getName() + ".spin"));
+    }
+
+    private void spin() {
+        long value = 0;
+        while (spinning) {
+            value += System.nanoTime() % 7;
+        }
+        sink = value;
+    }
+}
@@ -0,0 +1,37 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.mz.jarboot.common.JsonUtils;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class DashboardSamplerTest {
+
+    @Test
+    public void testDiff() {
+        JsonNode previous = JsonUtils.readAsJsonNode("{\"name\":\"dashboard\",\"allocRate\":10," +
+                "\"runtimeInfo\":{\"osName\":\"Linux\",\"uptime\":100}," +
+                "\"gcInfos\":[{\"name\":\"ps_scavenge\",\"collectionCount\":1}]," +
+                "\"threads\":[{\"id\":1,\"cpu\":0.5}],\"tomcatInfo\":null}");
+        ObjectNode current = (ObjectNode) JsonUtils.readAsJsonNode("{\"name\":\"dashboard\",\"allocRate\":10," +
+                "\"runtimeInfo\":{\"osName\":\"Linux\",\"uptime\":105}," +
+                "\"gcInfos\":[{\"name\":\"ps_scavenge\",\"collectionCount\":1}]," +
+                "\"threads\":[{\"id\":1,\"cpu\":0.7}],\"tomcatInfo\":null}");
+        ObjectNode delta = DashboardSampler.diff(previous, current);
+        assertEquals(2, delta.size());
+        // 对象只包含变化的字段
+        assertEquals(1, delta.get("runtimeInfo").size());
+        assertEquals(105, delta.get("runtimeInfo").get("uptime").asLong());
+        // 数组整体替换
+        assertEquals(0.7, delta.get("threads").get(0).get("cpu").asDouble(), 0.0001);
+        assertFalse(delta.has("gcInfos"));
+        assertFalse(delta.has("allocRate"));
+
+        assertEquals(0, DashboardSampler.diff(current, current.deepCopy()).size());
+    }
+}
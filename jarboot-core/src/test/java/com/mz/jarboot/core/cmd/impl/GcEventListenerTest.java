@@ -0,0 +1,47 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.GcEventVO;
+import com.mz.jarboot.core.cmd.model.GcSummaryVO;
+import org.junit.Test;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class GcEventListenerTest {
+    private volatile Object sink;
+
+    @Test
+    public void testGcEvent() throws InterruptedException {
+        BlockingQueue<GcEventVO> events = new LinkedBlockingQueue<>();
+        GcEventListener listener = new GcEventListener(events::add, 0, 6);
+        listener.register();
+        try {
+            assertTrue(listener.isRegistered());
+            for (int i = 0; i < 1000; ++i) {
+                sink = new byte[64 * 1024];
+            }
+            System.gc();
+            GcEventVO event = events.poll(10, TimeUnit.SECONDS);
+            assertNotNull(event);
+            assertNotNull(event.getCollector());
+            assertNotNull(event.getAction());
+            assertNotNull(event.getCause());
+            assertTrue(event.getDuration() >= 0);
+            assertFalse(event.getPools().isEmpty());
+        } finally {
+            listener.unregister();
+        }
+        GcSummaryVO summary = listener.summary();
+        assertTrue(summary.getCount() >= 1);
+        assertTrue(summary.getMax() >= summary.getP50());
+        assertTrue(summary.getAllocRate() >= 0);
+        // 下一个间隔没有新的GC，滚动窗口中仍保留
+        assertEquals(summary.getCount(), listener.summary().getCount());
+    }
+}
@@ -0,0 +1,74 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.LockContentionVO;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class LockContentionSamplerTest {
+    private final Object monitor = new Object();
+
+    @Test
+    public void testSample() throws InterruptedException {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        final boolean enabled = bean.isThreadContentionMonitoringSupported() && bean.isThreadContentionMonitoringEnabled();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread owner = new Thread(() -> {
+            synchronized (monitor) {
+                locked.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "lock-test-owner");
+        Thread waiter = new Thread(() -> {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }, "lock-test-waiter");
+        owner.start();
+        locked.await();
+        waiter.start();
+        while (Thread.State.BLOCKED != waiter.getState()) {
+            Thread.sleep(5);
+        }
+
+        LockContentionSampler sampler = new LockContentionSampler(bean, 8);
+        try {
+            for (int i = 0; i < 5; ++i) {
+                Thread.sleep(20);
+                sampler.sample();
+            }
+        } finally {
+            release.countDown();
+            sampler.close();
+            owner.join();
+            waiter.join();
+        }
+        assertEquals(enabled, bean.isThreadContentionMonitoringSupported() && bean.isThreadContentionMonitoringEnabled());
+        assertEquals(5, sampler.getSamples());
+
+        final String lockName = Object.class.getName() + "@" + Integer.toHexString(System.identityHashCode(monitor));
+        List<LockContentionVO> locks = sampler.top(Integer.MAX_VALUE);
+        LockContentionVO lock = locks.stream().filter(l -> lockName.equals(l.getLockName())).findFirst().orElse(null);
+        assertNotNull(lock);
+        assertEquals(5, lock.getSamples());
+        assertTrue(lock.getBlockedTime() > 0);
+        assertTrue(lock.getContenders().contains("lock-test-waiter"));
+        assertEquals(owner.getId(), lock.getOwnerId());
+        assertEquals("lock-test-owner", lock.getOwnerName());
+        assertNotNull(lock.getOwnerStackTrace());
+        assertTrue(lock.getOwnerStackTrace().length <= 8);
+    }
+}
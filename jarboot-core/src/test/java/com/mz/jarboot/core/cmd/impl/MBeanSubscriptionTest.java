@@ -0,0 +1,87 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.MBeanAttributeVO;
+import com.mz.jarboot.core.utils.matcher.WildcardMatcher;
+import org.junit.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class MBeanSubscriptionTest {
+
+    public interface PoolMBean {
+        int getActive();
+        long getTotal();
+        String getPoolName();
+    }
+
+    public static class Pool implements PoolMBean {
+        private volatile int active;
+        private volatile long total;
+
+        @Override
+        public int getActive() {
+            return active;
+        }
+
+        @Override
+        public long getTotal() {
+            return total;
+        }
+
+        @Override
+        public String getPoolName() {
+            return "test";
+        }
+    }
+
+    @Test
+    public void testPoll() throws Exception {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("jarboot.test:type=Pool,name=a");
+        Pool pool = new Pool();
+        server.registerMBean(pool, name);
+        try {
+            MBeanSubscription subscription = new MBeanSubscription(server,
+                    new ObjectName("jarboot.test:type=Pool,*"), null);
+            Map<String, List<MBeanAttributeVO>> changed = subscription.poll();
+            assertEquals(1, subscription.size());
+            // 首次返回全部数值属性，不包含字符串属性
+            assertEquals(2, changed.get(name.toString()).size());
+
+            assertTrue(subscription.poll().isEmpty());
+
+            pool.active = 3;
+            changed = subscription.poll();
+            List<MBeanAttributeVO> attributes = changed.get(name.toString());
+            assertEquals(1, attributes.size());
+            assertEquals("Active", attributes.get(0).getName());
+            assertEquals(3, attributes.get(0).getValue());
+
+            MBeanSubscription filtered = new MBeanSubscription(server,
+                    new ObjectName("jarboot.test:*"), new WildcardMatcher("Tot*"));
+            attributes = filtered.poll().get(name.toString());
+            assertEquals(1, attributes.size());
+            assertEquals("Total", attributes.get(0).getName());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testCompositeAttribute() throws Exception {
+        MBeanSubscription subscription = new MBeanSubscription(ManagementFactory.getPlatformMBeanServer(),
+                new ObjectName("java.lang:type=Memory"), new WildcardMatcher("HeapMemoryUsage"));
+        List<MBeanAttributeVO> attributes = subscription.poll().get("java.lang:type=Memory");
+        assertNotNull(attributes);
+        assertTrue(attributes.stream().anyMatch(a -> "HeapMemoryUsage.used".equals(a.getName())));
+    }
+}
@@ -0,0 +1,51 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.ThreadVO;
+import com.mz.jarboot.core.utils.ThreadUtil;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class ThreadSamplerTest {
+    private volatile boolean allocating = true;
+    private volatile Object sink;
+
+    @Test
+    public void testAllocRate() throws InterruptedException {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        Thread thread = new Thread(this::allocate, "sampler-test-alloc");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            ThreadSampler sampler = new ThreadSampler();
+            sampler.setIncludeInternalThreads(false);
+            sampler.sample(ThreadUtil.getThreads());
+            sampler.pause(200);
+            List<ThreadVO> threads = sampler.sample(ThreadUtil.getThreads());
+            if (!(bean instanceof com.sun.management.ThreadMXBean) ||
+                    !((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemoryEnabled()) {
+                assertEquals(-1, sampler.getTotalAllocRate());
+                return;
+            }
+            ThreadVO vo = threads.stream().filter(t -> t.getId() == thread.getId()).findFirst().orElse(null);
+            assertNotNull(vo);
+            assertTrue(vo.getAllocRate() > 0);
+            assertTrue(sampler.getTotalAllocRate() >= vo.getAllocRate());
+        } finally {
+            allocating = false;
+            thread.join();
+        }
+    }
+
+    private void allocate() {
+        while (allocating) {
+            sink = new byte[1024];
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.common.ThreadAlert;
+import org.junit.Test;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class ThreadWatchdogTest {
+
+    @Test
+    public void testStuck() throws Exception {
+        final List<ThreadAlert> alerts = new ArrayList<>();
+        final ThreadWatchdog watchdog = new ThreadWatchdog(alerts::add, 3);
+        final Object monitor = new Object();
+        Thread blocked = new Thread(() -> {
+            synchronized (monitor) {
+                monitor.notifyAll();
+            }
+        }, "watchdog-test-blocked");
+        synchronized (monitor) {
+            blocked.start();
+            waitState(blocked, Thread.State.BLOCKED);
+            watchdog.check();
+            watchdog.check();
+            assertEquals(0, count(alerts, ThreadAlert.STUCK, "watchdog-test-blocked"));
+            watchdog.check();
+            assertEquals(1, count(alerts, ThreadAlert.STUCK, "watchdog-test-blocked"));
+            // 达到阈值后只告警一次
+            watchdog.check();
+            assertEquals(1, count(alerts, ThreadAlert.STUCK, "watchdog-test-blocked"));
+        }
+        blocked.join();
+        assertTrue(find(alerts, ThreadAlert.STUCK, "watchdog-test-blocked").getDetail()
+                .contains("watchdog-test-blocked"));
+    }
+
+    @Test
+    public void testDeadlock() throws Exception {
+        final List<ThreadAlert> alerts = new ArrayList<>();
+        final ThreadWatchdog watchdog = new ThreadWatchdog(alerts::add, 3);
+        final ReentrantLock a = new ReentrantLock();
+        final ReentrantLock b = new ReentrantLock();
+        final CountDownLatch latch = new CountDownLatch(2);
+        Thread t1 = new Thread(() -> lockBoth(a, b, latch), "watchdog-test-t1");
+        Thread t2 = new Thread(() -> lockBoth(b, a, latch), "watchdog-test-t2");
+        t1.start();
+        t2.start();
+        waitState(t1, Thread.State.WAITING);
+        waitState(t2, Thread.State.WAITING);
+        try {
+            watchdog.check();
+            assertEquals(1, count(alerts, ThreadAlert.DEADLOCK, null));
+            ThreadAlert alert = find(alerts, ThreadAlert.DEADLOCK, null);
+            assertTrue(alert.getSummary().contains("2 threads"));
+            assertTrue(alert.getDetail().contains("\"watchdog-test-t1\""));
+            assertTrue(alert.getDetail().contains("\"watchdog-test-t2\""));
+            assertTrue(alert.getDetail().contains("which is held by"));
+            // 同一死锁只告警一次
+            watchdog.check();
+            assertEquals(1, count(alerts, ThreadAlert.DEADLOCK, null));
+        } finally {
+            t1.interrupt();
+            t2.interrupt();
+            t1.join();
+            t2.join();
+        }
+    }
+
+    private static void lockBoth(ReentrantLock first, ReentrantLock second, CountDownLatch latch) {
+        try {
+            first.lockInterruptibly();
+            try {
+                latch.countDown();
+                latch.await();
+                second.lockInterruptibly();
+                second.unlock();
+            } finally {
+                first.unlock();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void waitState(Thread thread, Thread.State state) throws InterruptedException {
+        for (int i = 0; i < 500 && thread.getState() != state; ++i) {
+            Thread.sleep(10);
+        }
+        assertEquals(state, thread.getState());
+    }
+
+    @Test
+    public void testIdleThreadsIgnored() throws Exception {
+        final ThreadInfo[] infos = ManagementFactory.getThreadMXBean().dumpAllThreads(false, false);
+        for (ThreadInfo info : infos) {
+            if ("Reference Handler".equals(info.getThreadName()) || "Signal Dispatcher".equals(info.getThreadName())) {
+                assertFalse(ThreadWatchdog.isCandidate(info));
+            }
+        }
+        // 空闲的RUNNABLE系统线程不告警
+        final List<ThreadAlert> alerts = new ArrayList<>();
+        final ThreadWatchdog watchdog = new ThreadWatchdog(alerts::add, 2);
+        watchdog.check();
+        watchdog.check();
+        watchdog.check();
+        assertEquals(0, count(alerts, ThreadAlert.STUCK, "Reference Handler"));
+        assertEquals(0, count(alerts, ThreadAlert.STUCK, "Signal Dispatcher"));
+    }
+
+    private static ThreadAlert find(List<ThreadAlert> alerts, String type, String name) {
+        for (ThreadAlert alert : alerts) {
+            if (type.equals(alert.getType()) && (null == name || alert.getSummary().contains(name))) {
+                return alert;
+            }
+        }
+        fail("No " + type + " alert of " + name);
+        return null;
+    }
+
+    private static int count(List<ThreadAlert> alerts, String type, String name) {
+        int count = 0;
+        for (ThreadAlert alert : alerts) {
+            if (type.equals(alert.getType()) && (null == name || alert.getSummary().contains(name))) {
+                ++count;
+            }
+        }
+        return count;
+    }
+}
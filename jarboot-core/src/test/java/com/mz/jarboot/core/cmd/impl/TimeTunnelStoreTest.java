@@ -0,0 +1,78 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.advisor.Advice;
+import com.mz.jarboot.core.advisor.JarbootMethod;
+import com.mz.jarboot.core.utils.matcher.WildcardMatcher;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class TimeTunnelStoreTest {
+    private static final JarbootMethod TRIM = new JarbootMethod(String.class, "trim", "()Ljava/lang/String;");
+    private static final JarbootMethod CONCAT = new JarbootMethod(String.class, "concat",
+            "(Ljava/lang/String;)Ljava/lang/String;");
+
+    @Test
+    public void testCapacityAndSnapshot() {
+        TimeTunnelStore store = new TimeTunnelStore(4, 2, 1024);
+        for (int i = 0; i < 6; ++i) {
+            store.append(advice(CONCAT, "a" + i), i * 1000000L, System.currentTimeMillis(), "main");
+        }
+        // 容量为4，最早的两条已被覆盖
+        assertNull(store.get(TimeTunnelStore.FIRST_INDEX));
+        assertNull(store.get(TimeTunnelStore.FIRST_INDEX + 1));
+        List<TimeFragment> list = store.list();
+        assertEquals(4, list.size());
+        assertEquals(TimeTunnelStore.FIRST_INDEX + 2, list.get(0).getIndex());
+
+        // 最近两条保留引用，更早的转为快照
+        assertNotNull(store.get(TimeTunnelStore.FIRST_INDEX + 5).getAdvice());
+        assertNotNull(store.get(TimeTunnelStore.FIRST_INDEX + 4).getAdvice());
+        TimeFragment old = store.get(TimeTunnelStore.FIRST_INDEX + 3);
+        assertNull(old.getAdvice());
+        TimeTunnelStore.Snapshot snapshot = store.readSnapshot(old);
+        assertNotNull(snapshot);
+        assertEquals(1, snapshot.getParams().length);
+        assertTrue(snapshot.getParams()[0].contains("a3"));
+        assertTrue(snapshot.getReturnObj().contains("a3!"));
+        assertNull(snapshot.getThrowExp());
+    }
+
+    @Test
+    public void testSearch() {
+        TimeTunnelStore store = new TimeTunnelStore(8, 8, 1024);
+        for (int i = 0; i < 10; ++i) {
+            JarbootMethod method = 0 == i % 2 ? TRIM : CONCAT;
+            store.append(advice(method, "s"), i * 1000000L, System.currentTimeMillis(), "main");
+        }
+        List<TimeFragment> trims = store.search(new WildcardMatcher("*.trim"), 0, Long.MAX_VALUE);
+        assertEquals(4, trims.size());
+        for (TimeFragment fragment : trims) {
+            assertEquals("trim", fragment.getMethodName());
+        }
+
+        List<TimeFragment> costs = store.search(null, 3000000L, 6000000L);
+        assertEquals(4, costs.size());
+        assertEquals(TimeTunnelStore.FIRST_INDEX + 3, costs.get(0).getIndex());
+        assertEquals(TimeTunnelStore.FIRST_INDEX + 6, costs.get(3).getIndex());
+
+        List<TimeFragment> both = store.search(new WildcardMatcher("java.lang.String.concat"), 3000000L, 6000000L);
+        assertEquals(2, both.size());
+
+        assertTrue(store.delete(TimeTunnelStore.FIRST_INDEX + 3));
+        assertFalse(store.delete(TimeTunnelStore.FIRST_INDEX + 3));
+        assertEquals(3, store.search(null, 3000000L, 6000000L).size());
+        assertEquals(7, store.clear());
+        assertTrue(store.list().isEmpty());
+        assertTrue(store.search(new WildcardMatcher("*"), 0, Long.MAX_VALUE).isEmpty());
+    }
+
+    private static Advice advice(JarbootMethod method, String value) {
+        return Advice.newForAfterRetuning(null, String.class, method, value, new Object[] {value}, value + "!");
+    }
+}
@@ -0,0 +1,62 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.*;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class TraceAggregatorTest {
+
+    @Test
+    public void testMerge() {
+        TraceAggregator aggregator = new TraceAggregator();
+        for (int i = 0; i < 100; ++i) {
+            TraceTree tree = new TraceTree(new ThreadNode("main", 1, false, 5, "app"));
+            tree.begin("demo.MathGame", "run", -1, false);
+            tree.begin("demo/MathGame", "primeFactors", 24, true);
+            tree.end();
+            // 循环调用在单次调用树中已合并
+            for (int j = 0; j < 3; ++j) {
+                tree.begin("demo/MathGame", "print", 25, true);
+                tree.end();
+            }
+            if (i % 10 == 0) {
+                tree.begin("demo/MathGame", "check", 26, true);
+                tree.end(true);
+            }
+            tree.end();
+            aggregator.merge(tree);
+        }
+        assertEquals(100, aggregator.getInvocations());
+
+        TraceModel model = aggregator.toModel();
+        assertEquals(4, model.getNodeCount());
+        TraceSummaryNode summary = (TraceSummaryNode) model.getRoot();
+        assertEquals(100, summary.getInvocations());
+        assertEquals(1, summary.getThreads());
+        assertEquals(1, summary.getChildren().size());
+
+        MethodNode run = (MethodNode) summary.getChildren().get(0);
+        assertEquals("run", run.getMethodName());
+        assertEquals(100, run.getTimes());
+        List<TraceNode> children = run.getChildren();
+        assertEquals(3, children.size());
+        MethodNode primeFactors = (MethodNode) children.get(0);
+        assertEquals("demo.MathGame", primeFactors.getClassName());
+        assertEquals(100, primeFactors.getTimes());
+        MethodNode print = (MethodNode) children.get(1);
+        assertEquals(300, print.getTimes());
+        assertTrue(print.getMinCost() <= print.getP99Cost());
+        assertTrue(print.getP99Cost() <= print.getMaxCost());
+        assertTrue(print.getMaxCost() <= print.getTotalCost());
+        MethodNode check = (MethodNode) children.get(2);
+        assertEquals(10, check.getTimes());
+        assertEquals(Boolean.TRUE, check.getThrow());
+        assertEquals(10, check.marks().intValue());
+    }
+}
@@ -0,0 +1,110 @@
+package com.mz.jarboot.core.cmd.impl;
+
+import com.mz.jarboot.core.cmd.model.TomcatInfoVO;
+import org.junit.Test;
+
+import javax.management.*;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class WebContainerMetricsTest {
+
+    @Test
+    public void testTomcat() throws Exception {
+        MBeanServer server = MBeanServerFactory.newMBeanServer();
+        WebContainerMetrics metrics = new WebContainerMetrics(server);
+        assertNull(metrics.read());
+
+        FakeMBean processor = new FakeMBean().set("requestCount", 0L).set("errorCount", 0L)
+                .set("processingTime", 0L).set("bytesReceived", 0L).set("bytesSent", 0L);
+        FakeMBean pool = new FakeMBean().set("currentThreadsBusy", 3).set("currentThreadCount", 10)
+                .set("maxThreads", 200);
+        server.registerMBean(processor, new ObjectName("Tomcat:type=GlobalRequestProcessor,name=\"http-nio-8080\""));
+        server.registerMBean(pool, new ObjectName("Tomcat:type=ThreadPool,name=\"http-nio-8080\""));
+        metrics = new WebContainerMetrics(server);
+        TomcatInfoVO info = metrics.read();
+        assertNotNull(info);
+        assertEquals("tomcat", info.getContainer());
+        assertEquals(1, info.getThreadPools().size());
+        TomcatInfoVO.ThreadPool threadPool = info.getThreadPools().get(0);
+        assertEquals("http-nio-8080", threadPool.getName());
+        assertEquals(3, threadPool.getBusy());
+        assertEquals(10, threadPool.getTotal());
+        assertEquals(200, threadPool.getMax());
+
+        processor.set("requestCount", 100L).set("processingTime", 500L).set("errorCount", 10L);
+        Thread.sleep(10);
+        info = metrics.read();
+        assertEquals(1, info.getConnectorStats().size());
+        TomcatInfoVO.ConnectorStats stats = info.getConnectorStats().get(0);
+        assertEquals("http-nio-8080", stats.getName());
+        assertTrue(stats.getQps() > 0);
+        assertTrue(stats.getError() > 0);
+        // 平均耗时 = 处理耗时增量 / 请求增量
+        assertEquals(5.0, stats.getRt(), 0.0001);
+    }
+
+    /**
+     * Tomcat的MBean由modeler注册，属性名为小写开头，以动态MBean模拟
+     */
+    private static class FakeMBean implements DynamicMBean {
+        private final Map<String, Object> attributes = new ConcurrentHashMap<>();
+
+        FakeMBean set(String name, Object value) {
+            attributes.put(name, value);
+            return this;
+        }
+
+        @Override
+        public Object getAttribute(String attribute) throws AttributeNotFoundException {
+            Object value = attributes.get(attribute);
+            if (null == value) {
+                throw new AttributeNotFoundException(attribute);
+            }
+            return value;
+        }
+
+        @Override
+        public void setAttribute(Attribute attribute) {
+            attributes.put(attribute.getName(), attribute.getValue());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] names) {
+            AttributeList list = new AttributeList();
+            for (String name : names) {
+                Object value = attributes.get(name);
+                if (null != value) {
+                    list.add(new Attribute(name, value));
+                }
+            }
+            return list;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList attributes) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String actionName, Object[] params, String[] signature) {
+            return null;
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            MBeanAttributeInfo[] infos = new MBeanAttributeInfo[attributes.size()];
+            int i = 0;
+            for (Map.Entry<String, Object> entry : attributes.entrySet()) {
+                infos[i++] = new MBeanAttributeInfo(entry.getKey(), entry.getValue().getClass().getName(),
+                        entry.getKey(), true, false, false);
+            }
+            return new MBeanInfo(FakeMBean.class.getName(), "fake", infos, null, null, null);
+        }
+    }
+}
@@ -4,6 +4,7 @@ import com.mz.jarboot.common.MzException;
 import com.mz.jarboot.core.cmd.model.ChangeResultVO;
 import com.mz.jarboot.core.cmd.model.EnhancerAffectVO;
 import com.mz.jarboot.core.cmd.view.element.TableElement;
+import com.mz.jarboot.core.utils.affect.EnhancerAffect;
 import org.junit.Test;
 
 import java.util.ArrayList;
@@ -126,4 +127,22 @@ public class ViewRenderUtilTest {
                 "Affect(class count: 3 , method count: 2) cost in 100 ms, listenerId: 4\n" +
                 "Enhance error! exception: com.mz.jarboot.common.MzException: test\n", str);
     }
+
+    @Test
+    public void testRenderEnhanceCost() {
+        EnhancerAffect affect = new EnhancerAffect();
+        affect.setListenerId(4);
+        affect.addClassCost("com/mz/Foo", 1_500_000L);
+        affect.addClassCost("com/mz/Bar", 500_000L);
+        affect.addClassCost("com/mz/Foo", 1_000_000L);
+        affect.setEnhanceCost(5_000_000L);
+        EnhancerAffectVO affectVO = new EnhancerAffectVO(affect);
+        assertEquals(5.0, affectVO.getEnhanceCost(), 0);
+        assertEquals(3.0, affectVO.getTransformCost(), 0);
+        String str = ViewRenderUtil.renderEnhancerAffect(affectVO);
+        assertEquals("[Transform class: com.mz.Foo 2.5 ms]\n" +
+                "[Transform class: com.mz.Bar 0.5 ms]\n" +
+                "Affect(class count: 0 , method count: 0) cost in " + affectVO.getCost() +
+                " ms, listenerId: 4, enhance cost: 5.0 ms, transform cost: 3.0 ms\n", str);
+    }
 }
@@ -0,0 +1,55 @@
+package com.mz.jarboot.core.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class FrameTrieTest {
+
+    @Test
+    public void testMerge() {
+        FrameTrie trie = new FrameTrie();
+        trie.add(new int[] {1, 2, 3}, 3, 10);
+        trie.add(new int[] {1, 2, 3}, 3, 5);
+        trie.add(new int[] {1, 2}, 2, 7);
+        trie.add(new int[] {1, 4, 9}, 2, 1);
+        // 根节点与1、2、3、4
+        assertEquals(5, trie.size());
+        assertEquals(23, trie.getTotal(FrameTrie.ROOT));
+
+        int one = trie.getFirstChild(FrameTrie.ROOT);
+        assertEquals(1, trie.getFrame(one));
+        assertEquals(23, trie.getTotal(one));
+        assertEquals(0, trie.getSelf(one));
+        assertEquals(FrameTrie.NONE, trie.getNextSibling(one));
+
+        int two = trie.getFirstChild(one);
+        int four = trie.getNextSibling(two);
+        assertEquals(2, trie.getFrame(two));
+        assertEquals(22, trie.getTotal(two));
+        assertEquals(7, trie.getSelf(two));
+        assertEquals(4, trie.getFrame(four));
+        assertEquals(1, trie.getSelf(four));
+
+        StringBuilder sb = new StringBuilder();
+        trie.collapse(id -> "f" + id, 1, sb);
+        assertEquals("f1;f2 7\nf1;f2;f3 15\nf1;f4 1\n", sb.toString());
+    }
+
+    @Test
+    public void testGrow() {
+        FrameTrie trie = new FrameTrie();
+        int[] path = new int[3000];
+        for (int i = 0; i < path.length; ++i) {
+            path[i] = i;
+        }
+        trie.add(path, path.length, 1);
+        assertEquals(path.length + 1, trie.size());
+        StringBuilder sb = new StringBuilder();
+        trie.collapse(String::valueOf, 1, sb);
+        assertTrue(sb.toString().endsWith(";2999 1\n"));
+    }
+}
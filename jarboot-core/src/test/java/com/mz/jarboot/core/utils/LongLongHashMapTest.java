@@ -0,0 +1,67 @@
+package com.mz.jarboot.core.utils;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class LongLongHashMapTest {
+
+    @Test
+    public void testPutGetRemove() {
+        LongLongHashMap map = new LongLongHashMap();
+        assertTrue(map.isEmpty());
+        map.put(1, 10);
+        map.put(0, 5);
+        map.put(-3, 7);
+        assertEquals(3, map.size());
+        assertEquals(10, map.get(1, -1));
+        assertEquals(5, map.get(0, -1));
+        assertEquals(7, map.get(-3, -1));
+        assertEquals(-1, map.get(2, -1));
+        assertEquals(12, map.add(1, 2));
+        assertEquals(4, map.add(2, 4));
+        assertTrue(map.remove(1));
+        assertFalse(map.remove(1));
+        assertFalse(map.containsKey(1));
+        assertEquals(3, map.size());
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertEquals(-1, map.get(0, -1));
+    }
+
+    @Test
+    public void testRandom() {
+        LongLongHashMap map = new LongLongHashMap(4);
+        Map<Long, Long> expected = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; ++i) {
+            // 键的范围较小，以产生较多的冲突与删除
+            long key = random.nextInt(2000) * 64L;
+            int op = random.nextInt(3);
+            if (0 == op) {
+                long value = random.nextLong();
+                map.put(key, value);
+                expected.put(key, value);
+            } else if (1 == op) {
+                assertEquals(null != expected.remove(key), map.remove(key));
+            } else {
+                Long value = expected.get(key);
+                assertEquals(null == value ? Long.MIN_VALUE : value, map.get(key, Long.MIN_VALUE));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        final long[] sum = new long[1];
+        map.forEach((key, value) -> {
+            assertEquals(expected.get(key).longValue(), value);
+            ++sum[0];
+        });
+        assertEquals(expected.size(), sum[0]);
+    }
+}
@@ -0,0 +1,60 @@
+package com.mz.jarboot.core.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * @author majianzheng
+ */
+public class MpscRingBufferTest {
+
+    @Test
+    public void testOfferAndPoll() {
+        MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(3);
+        Assert.assertEquals(4, buffer.capacity());
+        Assert.assertTrue(buffer.isEmpty());
+        Assert.assertNull(buffer.poll());
+        for (int i = 0; i < 4; ++i) {
+            Assert.assertTrue(buffer.offer(i));
+        }
+        //队列满时直接丢弃
+        Assert.assertFalse(buffer.offer(4));
+        Assert.assertEquals(4, buffer.size());
+        Assert.assertEquals(Integer.valueOf(0), buffer.poll());
+        Assert.assertTrue(buffer.offer(5));
+        Assert.assertEquals(Integer.valueOf(1), buffer.poll());
+        Assert.assertEquals(Integer.valueOf(2), buffer.poll());
+        Assert.assertEquals(Integer.valueOf(3), buffer.poll());
+        Assert.assertEquals(Integer.valueOf(5), buffer.poll());
+        Assert.assertNull(buffer.poll());
+    }
+
+    @Test
+    public void testMultiProducer() throws InterruptedException {
+        final int producers = 4;
+        final int count = 100000;
+        final MpscRingBuffer<Integer> buffer = new MpscRingBuffer<>(1024);
+        final AtomicInteger dropped = new AtomicInteger();
+        final CountDownLatch latch = new CountDownLatch(producers);
+        for (int p = 0; p < producers; ++p) {
+            new Thread(() -> {
+                for (int i = 0; i < count; ++i) {
+                    if (!buffer.offer(i)) {
+                        dropped.incrementAndGet();
+                    }
+                }
+                latch.countDown();
+            }).start();
+        }
+        int received = 0;
+        while (latch.getCount() > 0 || !buffer.isEmpty()) {
+            if (null != buffer.poll()) {
+                ++received;
+            }
+        }
+        Assert.assertEquals(producers * count, received + dropped.get());
+    }
+}
@@ -0,0 +1,31 @@
+package com.mz.jarboot.core.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class OffHeapRingTest {
+
+    @Test
+    public void testWrapAndOverwrite() {
+        OffHeapRing ring = new OffHeapRing(10);
+        long first = ring.write(new byte[] {1, 2, 3, 4, 5, 6});
+        assertEquals(0, first);
+        assertArrayEquals(new byte[] {1, 2, 3, 4, 5, 6}, ring.read(first, 6));
+
+        // 跨越末尾写入，覆盖第一条数据
+        long second = ring.write(new byte[] {7, 8, 9, 10, 11, 12});
+        assertEquals(6, second);
+        assertArrayEquals(new byte[] {7, 8, 9, 10, 11, 12}, ring.read(second, 6));
+        assertNull(ring.read(first, 6));
+        assertFalse(ring.isAvailable(first, 6));
+
+        // 超过容量的数据不写入
+        assertEquals(-1, ring.write(new byte[11]));
+        assertNull(ring.read(-1, 0));
+        assertNull(ring.read(second, 7));
+    }
+}
@@ -0,0 +1,55 @@
+package com.mz.jarboot.core.utils;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class StackCaptureTest {
+
+    @Test
+    public void testCapture() {
+        StackTraceElement[] stack = Marker.capture(3);
+        assertEquals(3, stack.length);
+        assertEquals(StackCaptureTest.class.getName(), stack[0].getClassName());
+        assertEquals("testCapture", stack[0].getMethodName());
+
+        // 相同位置的栈帧得到相同的id
+        StackFrameTable table = new StackFrameTable();
+        int[] first = table.intern(Marker.capture(8));
+        int[] second = table.intern(Marker.capture(8));
+        assertEquals(first.length, second.length);
+        for (int i = 1; i < first.length; ++i) {
+            assertEquals(first[i], second[i]);
+        }
+        // 栈顶为不同的行
+        assertNotEquals(first[0], second[0]);
+        assertEquals("testCapture", table.get(first[0]).getMethodName());
+        assertArrayEquals(Marker.capture(0), new StackTraceElement[0]);
+    }
+
+    @Test
+    public void testSlice() {
+        StackTraceElement[] elements = {
+                new StackTraceElement("a.Spy", "in", null, 1),
+                new StackTraceElement("a.Marker", "atEnter", null, 2),
+                new StackTraceElement("a.Marker", "atEnter", null, 3),
+                new StackTraceElement("a.Demo", "run", null, 4),
+                new StackTraceElement("a.Demo", "main", null, 5),
+        };
+        StackTraceElement[] result = StackCapture.slice(elements, "a.Marker", 10);
+        assertEquals(2, result.length);
+        assertEquals("run", result[0].getMethodName());
+        assertEquals(1, StackCapture.slice(elements, "a.Marker", 1).length);
+        assertEquals(0, StackCapture.slice(elements, "a.None", 10).length);
+        assertEquals(2, StackCapture.slice(elements, null, 2).length);
+    }
+
+    private static class Marker {
+        static StackTraceElement[] capture(int depth) {
+            return StackCapture.capture(Marker.class.getName(), depth);
+        }
+    }
+}
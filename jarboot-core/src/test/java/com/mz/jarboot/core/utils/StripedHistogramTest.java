@@ -0,0 +1,128 @@
+package com.mz.jarboot.core.utils;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * @author majianzheng
+ */
+public class StripedHistogramTest {
+
+    @Test
+    public void testBucket() {
+        long previous = -1;
+        for (int i = 0; i < StripedHistogram.BUCKET_COUNT; ++i) {
+            long upper = StripedHistogram.bucketUpperBound(i);
+            assertTrue(upper > previous);
+            assertEquals(i, StripedHistogram.bucketIndex(upper));
+            assertEquals(i, StripedHistogram.bucketIndex(previous + 1));
+            previous = upper;
+        }
+        assertEquals(StripedHistogram.BUCKET_COUNT - 1, StripedHistogram.bucketIndex(Long.MAX_VALUE));
+        // 相对误差不超过1/8
+        for (long v = 8; v < 1L << 36; v = v * 3 + 1) {
+            long upper = StripedHistogram.bucketUpperBound(StripedHistogram.bucketIndex(v));
+            assertTrue(upper >= v);
+            assertTrue((upper - v) * 8 <= v);
+        }
+    }
+
+    @Test
+    public void testPercentile() {
+        StripedHistogram histogram = new StripedHistogram();
+        for (int i = 1; i <= 1000; ++i) {
+            histogram.record(i * 1000L);
+        }
+        StripedHistogram.Snapshot snapshot = histogram.drain();
+        assertEquals(1000, snapshot.getCount());
+        assertEquals(1000000, snapshot.getMax());
+        assertEquals(500500.0, snapshot.getMean(), 0.001);
+        assertNear(500000, snapshot.getValueAtPercentile(50));
+        assertNear(900000, snapshot.getValueAtPercentile(90));
+        assertNear(990000, snapshot.getValueAtPercentile(99));
+        assertEquals(1000000, snapshot.getValueAtPercentile(100));
+
+        // 取出后清零
+        snapshot = histogram.drain();
+        assertEquals(0, snapshot.getCount());
+        assertEquals(0, snapshot.getMax());
+        assertEquals(0, snapshot.getValueAtPercentile(99));
+    }
+
+    @Test
+    public void testMerge() {
+        StripedHistogram histogram = new StripedHistogram();
+        for (int i = 1; i <= 500; ++i) {
+            histogram.record(i * 1000L);
+        }
+        StripedHistogram.Snapshot first = histogram.drain();
+        for (int i = 501; i <= 1000; ++i) {
+            histogram.record(i * 1000L);
+        }
+        StripedHistogram.Snapshot merged = first.merge(histogram.drain());
+        assertEquals(1000, merged.getCount());
+        assertEquals(1000000, merged.getMax());
+        assertEquals(500500.0, merged.getMean(), 0.001);
+        assertNear(500000, merged.getValueAtPercentile(50));
+        assertNear(990000, merged.getValueAtPercentile(99));
+        // 原快照不变
+        assertEquals(500, first.getCount());
+    }
+
+    @Test
+    public void testConcurrentRecord() throws InterruptedException {
+        final StripedHistogram histogram = new StripedHistogram();
+        final int threads = 8;
+        final int times = 100000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; ++i) {
+            final long value = i + 1;
+            new Thread(() -> {
+                for (int j = 0; j < times; ++j) {
+                    histogram.record(value);
+                }
+                latch.countDown();
+            }).start();
+        }
+        long total = 0;
+        while (latch.getCount() > 0) {
+            total += histogram.drain().getCount();
+        }
+        latch.await();
+        total += histogram.drain().getCount();
+        assertEquals((long) threads * times, total);
+    }
+
+    @Test
+    public void testStripeGrowth() throws InterruptedException {
+        final StripedHistogram histogram = new StripedHistogram(4);
+        for (int i = 0; i < 10000; ++i) {
+            histogram.record(i);
+        }
+        // 没有竞争时只有一个段
+        assertEquals(1, histogram.stripeCount());
+        final int threads = 8;
+        final int times = 100000;
+        final CountDownLatch latch = new CountDownLatch(threads);
+        for (int i = 0; i < threads; ++i) {
+            new Thread(() -> {
+                for (int j = 0; j < times; ++j) {
+                    histogram.record(1);
+                }
+                latch.countDown();
+            }).start();
+        }
+        latch.await();
+        assertTrue(histogram.stripeCount() <= 4);
+        // 扩容不丢失计数
+        assertEquals(10000L + (long) threads * times, histogram.drain().getCount());
+    }
+
+    private static void assertNear(long expected, long actual) {
+        assertTrue("expected: " + expected + ", actual: " + actual,
+                actual >= expected && (actual - expected) * 8 <= expected);
+    }
+}
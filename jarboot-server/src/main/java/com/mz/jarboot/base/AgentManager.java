@@ -2,10 +2,13 @@ package com.mz.jarboot.base;
 
 import com.mz.jarboot.common.CommandConst;
 import com.mz.jarboot.common.CommandResponse;
+import com.mz.jarboot.common.JsonUtils;
 import com.mz.jarboot.common.ResponseType;
+import com.mz.jarboot.common.ThreadAlert;
 import com.mz.jarboot.constant.CommonConst;
 import com.mz.jarboot.event.AgentOfflineEvent;
 import com.mz.jarboot.event.ApplicationContextUtils;
+import com.mz.jarboot.event.NoticeEnum;
 import com.mz.jarboot.task.TaskStatus;
 import com.mz.jarboot.utils.TaskUtils;
 import com.mz.jarboot.ws.WebSocketManager;
@@ -13,6 +16,11 @@ import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import javax.websocket.Session;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
@@ -21,8 +29,12 @@ import java.util.concurrent.TimeUnit;
  */
 @SuppressWarnings("all")
 public class AgentManager {
+    /** 每个服务保留的告警数量 */
+    private static final int MAX_ALERTS = 100;
     private static volatile AgentManager instance = null;
     private final ConcurrentHashMap<String, AgentClient> clientMap = new ConcurrentHashMap<>();
+    /** 服务名 -> 最近的告警，服务下线后仍保留 */
+    private final ConcurrentHashMap<String, Deque<ThreadAlert>> alertMap = new ConcurrentHashMap<>();
     private final Logger logger = LoggerFactory.getLogger(getClass());
     private AgentManager(){}
     public static AgentManager getInstance() {
@@ -171,6 +183,9 @@ public class AgentManager {
                 }
                 WebSocketManager.getInstance().commandEnd(server, msg, sessionId);
                 break;
+            case ALERT:
+                onAlert(server, resp);
+                break;
             default:
                 //do nothing
                 break;
@@ -181,6 +196,44 @@ public class AgentManager {
         WebSocketManager.getInstance().sendConsole(server, resp.getBody(), resp.getSessionId());
     }
 
+    /**
+     * 记录目标进程推送的告警，并通知浏览器
+     * @param server 服务名
+     * @param resp 告警消息
+     */
+    public void onAlert(String server, CommandResponse resp) {
+        ThreadAlert alert = JsonUtils.readValue(resp.getBody(), ThreadAlert.class);
+        if (null == alert) {
+            logger.warn("解析告警失败，{}", resp.getBody());
+            return;
+        }
+        Deque<ThreadAlert> alerts = alertMap.computeIfAbsent(server, k -> new ArrayDeque<>());
+        synchronized (alerts) {
+            if (alerts.size() >= MAX_ALERTS) {
+                alerts.pollFirst();
+            }
+            alerts.addLast(alert);
+        }
+        logger.warn("{}告警：{}\n{}", server, alert.getSummary(), alert.getDetail());
+        WebSocketManager.getInstance().notice(server + "告警：" + alert.getSummary(), NoticeEnum.WARN);
+        WebSocketManager.getInstance().sendConsole(server, alert.getDetail());
+    }
+
+    /**
+     * 获取服务最近的告警
+     * @param server 服务名
+     * @return 告警，按时间先后排列
+     */
+    public List<ThreadAlert> getAlerts(String server) {
+        Deque<ThreadAlert> alerts = alertMap.get(server);
+        if (null == alerts) {
+            return Collections.emptyList();
+        }
+        synchronized (alerts) {
+            return new ArrayList<>(alerts);
+        }
+    }
+
     public void releaseAgentSession(String sessionId) {
         //向所有在线的agent客户端发送会话失效命令
         clientMap.forEach((k, v) -> sendInternalCommand(k, CommandConst.CANCEL_CMD, sessionId));
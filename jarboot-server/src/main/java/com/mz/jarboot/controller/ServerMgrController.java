@@ -116,6 +116,37 @@ public class ServerMgrController {
         return new ResponseSimple();
     }
 
+    /**
+     * 获取服务的性能计数器
+     * @param server 服务名
+     * @param pattern 名称包含的字符串
+     * @return 性能计数器
+     */
+    @GetMapping(value="/perfCounters")
+    @ResponseBody
+    public ResponseForList<PerfCounter> getPerfCounters(String server, String pattern) {
+        if (StringUtils.isEmpty(server)) {
+            return new ResponseForList<>(ResultCodeConst.EMPTY_PARAM, "参数为空");
+        }
+        List<PerfCounter> results = serverMgrService.getPerfCounters(server, pattern);
+        return new ResponseForList<>(results, results.size());
+    }
+
+    /**
+     * 获取服务最近的告警，如死锁、卡住的线程
+     * @param server 服务名
+     * @return 告警
+     */
+    @GetMapping(value="/alerts")
+    @ResponseBody
+    public ResponseForList<ThreadAlert> getAlerts(String server) {
+        if (StringUtils.isEmpty(server)) {
+            return new ResponseForList<>(ResultCodeConst.EMPTY_PARAM, "参数为空");
+        }
+        List<ThreadAlert> results = serverMgrService.getAlerts(server);
+        return new ResponseForList<>(results, results.size());
+    }
+
     /**
      * base64编码
      * @param data 数据
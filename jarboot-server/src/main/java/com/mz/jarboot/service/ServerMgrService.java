@@ -1,5 +1,7 @@
 package com.mz.jarboot.service;
 
+import com.mz.jarboot.common.PerfCounter;
+import com.mz.jarboot.common.ThreadAlert;
 import com.mz.jarboot.dto.ServerRunningDTO;
 
 import java.util.List;
@@ -48,4 +50,19 @@ public interface ServerMgrService {
      * @param p 服务列表，列表内容为jar包的上级文件夹的名称
      */
     void restartServer(List<String> p);
+
+    /**
+     * 读取服务进程的性能计数器，直接读取hsperfdata文件，不需要attach
+     * @param server 服务名
+     * @param pattern 名称包含的字符串，为空时返回全部
+     * @return 性能计数器
+     */
+    List<PerfCounter> getPerfCounters(String server, String pattern);
+
+    /**
+     * 获取服务最近的告警，由目标进程的watchdog命令推送
+     * @param server 服务名
+     * @return 告警
+     */
+    List<ThreadAlert> getAlerts(String server);
 }
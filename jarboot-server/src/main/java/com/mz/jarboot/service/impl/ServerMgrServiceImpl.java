@@ -1,7 +1,13 @@
 package com.mz.jarboot.service.impl;
 
 import com.mz.jarboot.base.AgentManager;
+import com.mz.jarboot.common.HsPerfData;
+import com.mz.jarboot.common.MzException;
+import com.mz.jarboot.common.PerfCounter;
+import com.mz.jarboot.common.ResultCodeConst;
+import com.mz.jarboot.common.ThreadAlert;
 import com.mz.jarboot.constant.CommonConst;
+import com.mz.jarboot.event.AgentOfflineEvent;
 import com.mz.jarboot.event.NoticeEnum;
 import com.mz.jarboot.task.TaskRunCache;
 import com.mz.jarboot.dto.*;
@@ -11,6 +17,7 @@ import com.mz.jarboot.task.TaskStatus;
 import com.mz.jarboot.utils.*;
 import com.mz.jarboot.ws.WebSocketManager;
 import org.apache.commons.collections.CollectionUtils;
+import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +25,7 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.*;
 
@@ -39,6 +47,9 @@ public class ServerMgrServiceImpl implements ServerMgrService {
     @Autowired
     private ExecutorService taskExecutor;
 
+    /** 服务名 -> 已映射的hsperfdata，以进程id与文件标识校验，服务下线时解除映射 */
+    private final Map<String, PerfDataHolder> perfDataMap = new ConcurrentHashMap<>();
+
     @Override
     public List<ServerRunningDTO> getServerList() {
         return taskRunCache.getServerList();
@@ -304,4 +315,68 @@ public class ServerMgrServiceImpl implements ServerMgrService {
                 break;
         }
     }
+
+    @Override
+    public List<PerfCounter> getPerfCounters(String server, String pattern) {
+        int pid = TaskUtils.getServerPid(server);
+        if (CommonConst.INVALID_PID == pid) {
+            throw new MzException(ResultCodeConst.NOT_EXIST, server + "未运行");
+        }
+        // 清理已退出进程的映射
+        perfDataMap.values().removeIf(holder -> {
+            if (holder.perfData.isStale()) {
+                holder.perfData.close();
+                return true;
+            }
+            return false;
+        });
+        final HsPerfData perfData = perfDataMap.compute(server, (k, holder) -> {
+            // 进程号变化或文件已被同一进程号的新进程替换时重新映射
+            if (null != holder && holder.pid == pid && !holder.perfData.isStale()) {
+                return holder;
+            }
+            if (null != holder) {
+                holder.perfData.close();
+            }
+            try {
+                return new PerfDataHolder(pid, HsPerfData.open(pid));
+            } catch (IOException e) {
+                throw new MzException(ResultCodeConst.INTERNAL_ERROR, e.getMessage(), e);
+            }
+        }).perfData;
+        if (StringUtils.isEmpty(pattern)) {
+            return perfData.getCounters(null);
+        }
+        return perfData.getCounters(name -> name.contains(pattern));
+    }
+
+    @Override
+    public List<ThreadAlert> getAlerts(String server) {
+        return AgentManager.getInstance().getAlerts(server);
+    }
+
+    /**
+     * 服务下线时解除hsperfdata的映射
+     * @param event 下线事件
+     */
+    @EventListener
+    public void onAgentOfflineEvent(AgentOfflineEvent event) {
+        PerfDataHolder holder = perfDataMap.remove(event.getServer());
+        if (null != holder) {
+            holder.perfData.close();
+        }
+    }
+
+    /**
+     * 映射的hsperfdata及其所属的进程
+     */
+    private static final class PerfDataHolder {
+        private final int pid;
+        private final HsPerfData perfData;
+
+        PerfDataHolder(int pid, HsPerfData perfData) {
+            this.pid = pid;
+            this.perfData = perfData;
+        }
+    }
 }
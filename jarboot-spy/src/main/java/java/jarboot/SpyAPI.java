@@ -41,80 +41,80 @@ public class SpyAPI {
         initialized = false;
     }
 
-    public static void atEnter(Class<?> clazz, String methodInfo, Object target, Object[] args) {
-        spyInstance.atEnter(clazz, methodInfo, target, args);
+    public static void atEnter(Class<?> clazz, int methodId, Object target, Object[] args) {
+        spyInstance.atEnter(clazz, methodId, target, args);
     }
 
-    public static void atExit(Class<?> clazz, String methodInfo, Object target, Object[] args,
+    public static void atExit(Class<?> clazz, int methodId, Object target, Object[] args,
             Object returnObject) {
-        spyInstance.atExit(clazz, methodInfo, target, args, returnObject);
+        spyInstance.atExit(clazz, methodId, target, args, returnObject);
     }
 
-    public static void atExceptionExit(Class<?> clazz, String methodInfo, Object target,
+    public static void atExceptionExit(Class<?> clazz, int methodId, Object target,
             Object[] args, Throwable throwable) {
-        spyInstance.atExceptionExit(clazz, methodInfo, target, args, throwable);
+        spyInstance.atExceptionExit(clazz, methodId, target, args, throwable);
     }
 
-    public static void atBeforeInvoke(Class<?> clazz, String invokeInfo, Object target) {
-        spyInstance.atBeforeInvoke(clazz, invokeInfo, target);
+    public static void atBeforeInvoke(Class<?> clazz, int siteId, Object target) {
+        spyInstance.atBeforeInvoke(clazz, siteId, target);
     }
 
-    public static void atAfterInvoke(Class<?> clazz, String invokeInfo, Object target) {
-        spyInstance.atAfterInvoke(clazz, invokeInfo, target);
+    public static void atAfterInvoke(Class<?> clazz, int siteId, Object target) {
+        spyInstance.atAfterInvoke(clazz, siteId, target);
     }
 
-    public static void atInvokeException(Class<?> clazz, String invokeInfo, Object target, Throwable throwable) {
-        spyInstance.atInvokeException(clazz, invokeInfo, target, throwable);
+    public static void atInvokeException(Class<?> clazz, int siteId, Object target, Throwable throwable) {
+        spyInstance.atInvokeException(clazz, siteId, target, throwable);
     }
 
     public static abstract class AbstractSpy { //NOSONAR
-        public abstract void atEnter(Class<?> clazz, String methodInfo, Object target,
+        public abstract void atEnter(Class<?> clazz, int methodId, Object target,
                 Object[] args);
 
-        public abstract void atExit(Class<?> clazz, String methodInfo, Object target, Object[] args,
+        public abstract void atExit(Class<?> clazz, int methodId, Object target, Object[] args,
                 Object returnObject);
 
-        public abstract void atExceptionExit(Class<?> clazz, String methodInfo, Object target,
+        public abstract void atExceptionExit(Class<?> clazz, int methodId, Object target,
                 Object[] args, Throwable throwable);
 
-        public abstract void atBeforeInvoke(Class<?> clazz, String invokeInfo, Object target);
+        public abstract void atBeforeInvoke(Class<?> clazz, int siteId, Object target);
 
-        public abstract void atAfterInvoke(Class<?> clazz, String invokeInfo, Object target);
+        public abstract void atAfterInvoke(Class<?> clazz, int siteId, Object target);
 
-        public abstract void atInvokeException(Class<?> clazz, String invokeInfo, Object target, Throwable throwable);
+        public abstract void atInvokeException(Class<?> clazz, int siteId, Object target, Throwable throwable);
     }
 
     static class NopSpy extends AbstractSpy {
 
         @Override
-        public void atEnter(Class<?> clazz, String methodInfo, Object target, Object[] args) {
+        public void atEnter(Class<?> clazz, int methodId, Object target, Object[] args) {
             //NOSONAR
         }
 
         @Override
-        public void atExit(Class<?> clazz, String methodInfo, Object target, Object[] args,
+        public void atExit(Class<?> clazz, int methodId, Object target, Object[] args,
                 Object returnObject) {
             //NOSONAR
         }
 
         @Override
-        public void atExceptionExit(Class<?> clazz, String methodInfo, Object target, Object[] args,
+        public void atExceptionExit(Class<?> clazz, int methodId, Object target, Object[] args,
                 Throwable throwable) {
             //NOSONAR
         }
 
         @Override
-        public void atBeforeInvoke(Class<?> clazz, String invokeInfo, Object target) {
+        public void atBeforeInvoke(Class<?> clazz, int siteId, Object target) {
             //NOSONAR
         }
 
         @Override
-        public void atAfterInvoke(Class<?> clazz, String invokeInfo, Object target) {
+        public void atAfterInvoke(Class<?> clazz, int siteId, Object target) {
             //NOSONAR
         }
 
         @Override
-        public void atInvokeException(Class<?> clazz, String invokeInfo, Object target, Throwable throwable) {
+        public void atInvokeException(Class<?> clazz, int siteId, Object target, Throwable throwable) {
             //NOSONAR
         }
 
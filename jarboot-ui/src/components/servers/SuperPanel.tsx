@@ -10,6 +10,7 @@ import {WsManager} from "@/common/WsManager";
 import DashboardView from "@/components/servers/view/DashboardView";
 import JadView from "@/components/servers/view/JadView";
 import HeapDumpView from "@/components/servers/view/HeapDumpView";
+import FlameGraphView from "@/components/servers/view/FlameGraphView";
 
 /**
  * 服务的多功能面板，控制台输出、命令执行结果渲染
@@ -30,6 +31,22 @@ enum PUB_TOPIC {
 
 const outHeight = `${window.innerHeight - 150}px`;
 
+/**
+ * 合并只包含变化字段的增量数据，对象逐层合并，数组及其他值整体替换
+ * @param data 已有数据
+ * @param delta 增量数据
+ */
+const mergeDelta = (data: any, delta: any): any => {
+    const result = {...data};
+    Object.keys(delta).forEach(key => {
+        const value = delta[key];
+        const old = result[key];
+        const isObject = (v: any) => v && 'object' === typeof v && !Array.isArray(v);
+        result[key] = isObject(value) && isObject(old) ? mergeDelta(old, value) : value;
+    });
+    return result;
+};
+
 const SuperPanel = memo((props: SuperPanelProps) => { //NOSONAR
 
     const [view, setView] = useState('');
@@ -49,6 +66,7 @@ const SuperPanel = memo((props: SuperPanelProps) => { //NOSONAR
         'dashboard': <DashboardView data={data}/>,
         'jad': <JadView data={data}/>,
         'heapdump': <HeapDumpView data={data}/>,
+        'flamegraph': <FlameGraphView data={data}/>,
     };
 
     const renderView = (resultData: any) => {
@@ -56,6 +74,11 @@ const SuperPanel = memo((props: SuperPanelProps) => { //NOSONAR
         if (cmd !== view) {
             setView(cmd);
         }
+        if (resultData.delta) {
+            // 只包含变化的字段，合并到上次的数据中
+            setData((prev: any) => mergeDelta(prev, resultData));
+            return;
+        }
         setData(resultData);
     };
 
@@ -19,6 +19,22 @@ const cpuColorFormat = (cpu: number) => {
     }
     return <span style={{color}}>{cpu}</span>;
 };
+const byteRateFormat = (rate: number) => {
+    if (undefined === rate || null === rate || rate < 0) {
+        return '-';
+    }
+    if (rate < 1024) {
+        return `${rate}B/s`;
+    }
+    const units = ['KB', 'MB', 'GB', 'TB'];
+    let value = rate / 1024;
+    let i = 0;
+    while (value >= 1024 && i < units.length - 1) {
+        value /= 1024;
+        ++i;
+    }
+    return `${value.toFixed(1)}${units[i]}/s`;
+};
 const upHeight = (JarBootConst.PANEL_HEIGHT * 0.6);
 const downHeight = (JarBootConst.PANEL_HEIGHT * 0.4);
 
@@ -102,6 +118,12 @@ const DashboardView = memo((props: any) => {
                     dataIndex: 'time',
                     key: 'time',
                 },
+                {
+                    title: 'ALLOC/s',
+                    dataIndex: 'allocRate',
+                    key: 'allocRate',
+                    render: byteRateFormat,
+                },
                 {
                     title: 'INTERRUPTED',
                     dataIndex: 'interrupted',
@@ -222,6 +244,22 @@ const DashboardView = memo((props: any) => {
     let memTableOption: any = getMemoryTableProps();
     memTableOption.scroll = { y: downHeight};
     const runtimeInfo = props?.data?.runtimeInfo;
+    const tomcatInfo = props?.data?.tomcatInfo;
+    const renderWebContainer = () => {
+        if (!tomcatInfo) {
+            return null;
+        }
+        const items = [<Descriptions.Item key="container" label="web container">{tomcatInfo.container}</Descriptions.Item>];
+        (tomcatInfo.connectorStats || []).forEach((c: any) => items.push(
+            <Descriptions.Item key={`connector-${c.name}`} label={c.name}>
+                {`qps ${(c.qps || 0).toFixed(1)}, error/s ${(c.error || 0).toFixed(1)}, rt ${(c.rt || 0).toFixed(1)}ms`}
+            </Descriptions.Item>));
+        (tomcatInfo.threadPools || []).forEach((p: any) => items.push(
+            <Descriptions.Item key={`pool-${p.name}`} label={`${p.name} threads`}>
+                {p.max > 0 ? `${p.busy}/${p.total} (max ${p.max})` : `${p.busy}/${p.total}`}
+            </Descriptions.Item>));
+        return items;
+    };
     return <>
         <div className={styles.smallTable}>
             <CommonTable option={thrTableOption} height={upHeight}/>
@@ -234,9 +272,11 @@ const DashboardView = memo((props: any) => {
                         <Descriptions.Item label="os">{runtimeInfo?.osName} {runtimeInfo?.osVersion}</Descriptions.Item>
                         <Descriptions.Item label="average">{runtimeInfo?.systemLoadAverage}</Descriptions.Item>
                         <Descriptions.Item label="processors">{runtimeInfo?.processors}</Descriptions.Item>
+                        <Descriptions.Item label="alloc rate">{byteRateFormat(props?.data?.allocRate)}</Descriptions.Item>
                         <Descriptions.Item label="uptime">{runtimeInfo?.uptime}</Descriptions.Item>
                         <Descriptions.Item label="java.version">{runtimeInfo?.javaVersion}</Descriptions.Item>
                         <Descriptions.Item label="java.home" contentStyle={{textOverflow: "ellipsis"}}>{runtimeInfo?.javaHome}</Descriptions.Item>
+                        {renderWebContainer()}
                     </Descriptions>
                 </Col>
             </Row>
@@ -0,0 +1,45 @@
+import {memo} from "react";
+import {JarBootConst} from "@/common/JarBootConst";
+
+/**
+ * 火焰图，自上而下展开，宽度为CPU时间的占比
+ * @author majianzheng
+ */
+
+const COLORS = ['#e25822', '#f08a24', '#f2a541', '#e9c46a', '#f4a261', '#e76f51'];
+
+const FlameNode = memo((props: any) => {
+    const {node, parentValue, depth} = props;
+    const width = parentValue > 0 ? node.value * 100 / parentValue : 100;
+    const title = `${node.name} (${(width).toFixed(2)}%, ${node.value}μs)`;
+    return <div style={{width: `${width}%`, minWidth: 0}}>
+        <div title={title}
+             style={{
+                 background: COLORS[depth % COLORS.length],
+                 border: '1px solid #fff',
+                 height: 18,
+                 lineHeight: '16px',
+                 fontSize: 11,
+                 whiteSpace: 'nowrap',
+                 overflow: 'hidden',
+                 textOverflow: 'ellipsis',
+                 cursor: 'default',
+             }}>{node.name}</div>
+        <div style={{display: 'flex'}}>
+            {(node.children || []).map((child: any, index: number) =>
+                <FlameNode key={index} node={child} parentValue={node.value} depth={depth + 1}/>)}
+        </div>
+    </div>;
+});
+
+const FlameGraphView = memo((props: any) => {
+    const root = props?.data?.root;
+    return <div style={{height: JarBootConst.PANEL_HEIGHT, overflow: 'auto'}}>
+        <div style={{marginBottom: 8}}>
+            {`samples: ${props?.data?.samples}, duration: ${props?.data?.duration}ms`}
+        </div>
+        {root && <FlameNode node={root} parentValue={root.value} depth={0}/>}
+    </div>;
+});
+
+export default FlameGraphView;
@@ -19,10 +19,21 @@ const CmdListDoc: any = memo(() => {
                     <li><Text keyboard>jad</Text></li>
                     <li><Text keyboard>sc</Text></li>
                     <li><Text keyboard>jvm</Text></li>
+                    <li><Text keyboard>perfcounter</Text></li>
+                    <li><Text keyboard>mbean</Text></li>
                     <li><Text keyboard>thread</Text></li>
+                    <li><Text keyboard>watchdog</Text></li>
                     <li><Text keyboard>watch</Text></li>
                     <li><Text keyboard>trace</Text></li>
+                    <li><Text keyboard>monitor</Text></li>
+                    <li><Text keyboard>stack</Text></li>
+                    <li><Text keyboard>profiler</Text></li>
+                    <li><Text keyboard>lock</Text></li>
+                    <li><Text keyboard>gc</Text></li>
+                    <li><Text keyboard>tt</Text></li>
+                    <li><Text keyboard>reset</Text></li>
                     <li><Text keyboard>heapdump</Text></li>
+                    <li><Text keyboard>histo</Text></li>
                     <li><Text keyboard>sysprop</Text></li>
                 </ul>
             </Paragraph>